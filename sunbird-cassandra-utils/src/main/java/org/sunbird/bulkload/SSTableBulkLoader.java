@@ -0,0 +1,315 @@
+package org.sunbird.bulkload;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.cql3.QueryOptions;
+import org.apache.cassandra.cql3.QueryProcessor;
+import org.apache.cassandra.cql3.statements.CFStatement;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.exceptions.InvalidRequestException;
+import org.apache.cassandra.io.sstable.CQLSSTableWriter;
+import org.apache.cassandra.serializers.MarshalException;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.responsecode.ResponseCode;
+
+/**
+ * Offline bulk loader writing SSTables of a table directly from CSV files (with a header row of
+ * column names) or JSON lines files (one JSON object per line), optionally gzip compressed as
+ * exported by the table exporter, instead of inserting the rows through CQL. The SSTables are
+ * written to the directory outputDirectory/keyspace/table, to be streamed into the cluster with
+ * sstableloader.
+ *
+ * <p>Input files are loaded in parallel by bulkLoadThreads threads, each one buffering at most
+ * bulkLoadBufferSizeInMB of rows before flushing them to a new SSTable, so the memory used is
+ * bounded whatever the size of the input. Values are converted the same way as by INSERT JSON,
+ * collection and tuple values in CSV files being given as JSON; user defined types are not
+ * supported. Empty and null values are left unset, so loading does not write tombstones. Rows
+ * which cannot be converted are logged and skipped.
+ *
+ * <p>Usage: SSTableBulkLoader &lt;schema file&gt; &lt;output directory&gt; &lt;input
+ * files...&gt;, the schema file containing the CREATE TABLE statement with the keyspace name.
+ */
+public class SSTableBulkLoader {
+
+  private static final int DEFAULT_BUFFER_SIZE_IN_MB = 64;
+  private static final String CSV_EXTENSION = ".csv";
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final String schema;
+  private final File outputDirectory;
+  private final int threads;
+  private final int bufferSizeInMB;
+  private List<ColumnDefinition> columns;
+  private String insertQuery;
+
+  /**
+   * Create bulk loader.
+   *
+   * @param schema CREATE TABLE statement of the table, with the keyspace name
+   * @param outputDirectory Directory under which the SSTables are written
+   * @param threads Number of input files loaded in parallel
+   * @param bufferSizeInMB Size of the rows buffered by each thread before writing an SSTable
+   */
+  public SSTableBulkLoader(String schema, File outputDirectory, int threads, int bufferSizeInMB) {
+    this.schema = schema;
+    this.outputDirectory = outputDirectory;
+    this.threads = threads;
+    this.bufferSizeInMB = bufferSizeInMB;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      ProjectLogger.log(
+          "SSTableBulkLoader:main: Usage: SSTableBulkLoader <schema file> <output directory> "
+              + "<input files...>",
+          LoggerEnum.ERROR);
+      throw new ProjectCommonException(
+          ResponseCode.invalidRequestData.getErrorCode(),
+          ResponseCode.invalidRequestData.getErrorMessage(),
+          ResponseCode.CLIENT_ERROR.getResponseCode());
+    }
+    String schema = new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.UTF_8);
+    SSTableBulkLoader loader =
+        new SSTableBulkLoader(
+            schema,
+            new File(args[1]),
+            CassandraUtil.getIntProperty(
+                Constants.BULK_LOAD_THREADS, Runtime.getRuntime().availableProcessors()),
+            CassandraUtil.getIntProperty(
+                Constants.BULK_LOAD_BUFFER_SIZE_IN_MB, DEFAULT_BUFFER_SIZE_IN_MB));
+    Result result =
+        loader.load(
+            Arrays.stream(args, 2, args.length).map(File::new).collect(Collectors.toList()));
+    ProjectLogger.log("SSTableBulkLoader:main: Completed with " + result, LoggerEnum.INFO);
+  }
+
+  /**
+   * Write SSTables with the rows of given files.
+   *
+   * @param inputFiles CSV (with .csv extension) or JSON lines files, gzip compressed if their name
+   *     ends with .gz
+   * @return Numbers of rows written and rejected
+   */
+  public Result load(List<File> inputFiles) {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+    try {
+      List<Future<Result>> results = new ArrayList<>();
+      for (File inputFile : inputFiles) {
+        results.add(executor.submit(() -> load(inputFile)));
+      }
+      long rows = 0;
+      long rejected = 0;
+      for (Future<Result> result : results) {
+        rows += result.get().getRows();
+        rejected += result.get().getRejected();
+      }
+      return new Result(rows, rejected);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw loadError(e);
+    } catch (ExecutionException e) {
+      throw loadError(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Result load(File inputFile) throws IOException {
+    long rows = 0;
+    long rejected = 0;
+    String name = inputFile.getName();
+    boolean compressed = name.endsWith(GZIP_EXTENSION);
+    if (compressed) {
+      name = name.substring(0, name.length() - GZIP_EXTENSION.length());
+    }
+    try (CQLSSTableWriter writer = createWriter();
+        BufferedReader reader = newReader(inputFile, compressed)) {
+      if (name.endsWith(CSV_EXTENSION)) {
+        CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader);
+        for (CSVRecord record : parser) {
+          if (addRow(writer, new HashMap<>(record.toMap()), inputFile, record.getRecordNumber())) {
+            rows++;
+          } else {
+            rejected++;
+          }
+        }
+      } else {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+          lineNumber++;
+          if (StringUtils.isBlank(line)) {
+            continue;
+          }
+          Map<String, Object> values;
+          try {
+            values = mapper.readValue(line, Map.class);
+          } catch (IOException e) {
+            logRejected(inputFile, lineNumber, e);
+            rejected++;
+            continue;
+          }
+          if (addRow(writer, values, inputFile, lineNumber)) {
+            rows++;
+          } else {
+            rejected++;
+          }
+        }
+      }
+    }
+    ProjectLogger.log(
+        "SSTableBulkLoader:load: Loaded "
+            + inputFile
+            + " with "
+            + rows
+            + " rows and "
+            + rejected
+            + " rejected",
+        LoggerEnum.INFO);
+    return new Result(rows, rejected);
+  }
+
+  private static BufferedReader newReader(File inputFile, boolean compressed) throws IOException {
+    InputStream in = Files.newInputStream(inputFile.toPath());
+    return new BufferedReader(
+        new InputStreamReader(
+            compressed ? new GZIPInputStream(in) : in, StandardCharsets.UTF_8));
+  }
+
+  private boolean addRow(
+      CQLSSTableWriter writer, Map<String, ?> values, File inputFile, long lineNumber)
+      throws IOException {
+    Map<String, ByteBuffer> row = new HashMap<>();
+    try {
+      for (ColumnDefinition column : columns) {
+        row.put(column.name.toString(), toValue(column.type, values.get(column.name.toString())));
+      }
+      writer.rawAddRow(row);
+      return true;
+    } catch (MarshalException | InvalidRequestException | JsonProcessingException e) {
+      logRejected(inputFile, lineNumber, e);
+      return false;
+    }
+  }
+
+  private static ByteBuffer toValue(AbstractType<?> type, Object value) throws IOException {
+    if (value == null || "".equals(value)) {
+      return CQLSSTableWriter.UNSET_VALUE;
+    }
+    if (value instanceof String && (type.isCollection() || type.isTuple())) {
+      value = mapper.readValue((String) value, Object.class);
+    }
+    return type.fromJSONObject(value).bindAndGet(QueryOptions.DEFAULT);
+  }
+
+  private CQLSSTableWriter createWriter() {
+    // initialises the client mode of Cassandra, needed to parse the schema
+    CQLSSTableWriter.Builder builder = CQLSSTableWriter.builder();
+    File directory = resolveTable();
+    return builder
+        .inDirectory(directory)
+        .forTable(schema)
+        .using(insertQuery)
+        .withBufferSizeInMB(bufferSizeInMB)
+        .build();
+  }
+
+  private synchronized File resolveTable() {
+    CFStatement statement = (CFStatement) QueryProcessor.parseStatement(schema);
+    File directory =
+        new File(outputDirectory, statement.keyspace() + File.separator + statement.columnFamily());
+    if (columns == null) {
+      directory.mkdirs();
+      CFMetaData metadata = CFMetaData.compile(schema, statement.keyspace());
+      columns = new ArrayList<>(metadata.allColumns());
+      insertQuery =
+          "INSERT INTO "
+              + statement.keyspace()
+              + Constants.DOT
+              + statement.columnFamily()
+              + " ("
+              + columns.stream().map(c -> c.name.toCQLString()).collect(Collectors.joining(", "))
+              + ") VALUES ("
+              + columns.stream().map(c -> "?").collect(Collectors.joining(", "))
+              + ")";
+    }
+    return directory;
+  }
+
+  private static void logRejected(File inputFile, long lineNumber, Exception e) {
+    ProjectLogger.log(
+        "SSTableBulkLoader:load: Rejected row "
+            + lineNumber
+            + " of "
+            + inputFile
+            + " : "
+            + e.getMessage(),
+        LoggerEnum.WARN);
+  }
+
+  private static ProjectCommonException loadError(Throwable e) {
+    ProjectLogger.log("SSTableBulkLoader:load: Exception occurred " + e.getMessage(), e);
+    return new ProjectCommonException(
+        ResponseCode.SERVER_ERROR.getErrorCode(),
+        ResponseCode.SERVER_ERROR.getErrorMessage(),
+        ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+
+  /** Numbers of rows written and rejected by a load. */
+  public static final class Result {
+
+    private final long rows;
+    private final long rejected;
+
+    private Result(long rows, long rejected) {
+      this.rows = rows;
+      this.rejected = rejected;
+    }
+
+    /** Number of rows written to SSTables. */
+    public long getRows() {
+      return rows;
+    }
+
+    /** Number of rows which could not be converted to the table columns. */
+    public long getRejected() {
+      return rejected;
+    }
+
+    @Override
+    public String toString() {
+      return "rows = " + rows + ", rejected = " + rejected;
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package org.sunbird.cassandra;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import org.sunbird.common.models.response.Response;
+
+/**
+ * Non blocking twin of {@link CassandraOperation}. Each method sends the same query as its {@link
+ * CassandraOperation} counterpart without waiting for the result, and returns a stage which is
+ * completed with the same response, or exceptionally with the same {@link
+ * org.sunbird.common.exception.ProjectCommonException} the blocking call would have thrown.
+ */
+public interface AsyncCassandraOperation {
+
+  /** Async variant of {@link CassandraOperation#upsertRecord(String, String, Map)}. */
+  CompletionStage<Response> upsertRecord(
+      String keyspaceName, String tableName, Map<String, Object> request);
+
+  /** Async variant of {@link CassandraOperation#insertRecord(String, String, Map)}. */
+  CompletionStage<Response> insertRecord(
+      String keyspaceName, String tableName, Map<String, Object> request);
+
+  /** Async variant of {@link CassandraOperation#updateRecord(String, String, Map)}. */
+  CompletionStage<Response> updateRecord(
+      String keyspaceName, String tableName, Map<String, Object> request);
+
+  /** Async variant of {@link CassandraOperation#deleteRecord(String, String, String)}. */
+  CompletionStage<Response> deleteRecord(String keyspaceName, String tableName, String identifier);
+
+  /** Async variant of {@link CassandraOperation#deleteRecord(String, String, Map)}. */
+  CompletionStage<Void> deleteRecord(
+      String keyspaceName, String tableName, Map<String, String> compositeKeyMap);
+
+  /** Async variant of {@link CassandraOperation#deleteRecords(String, String, List)}. */
+  CompletionStage<Boolean> deleteRecords(
+      String keyspaceName, String tableName, List<String> identifierList);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByProperty(String, String, String, Object)}. */
+  CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName, String tableName, String propertyName, Object propertyValue);
+
+  /**
+   * Async variant of {@link CassandraOperation#getRecordsByProperty(String, String, String, Object,
+   * List)}.
+   */
+  CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      Object propertyValue,
+      List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByProperty(String, String, String, List)}. */
+  CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName, String tableName, String propertyName, List<Object> propertyValueList);
+
+  /**
+   * Async variant of {@link CassandraOperation#getRecordsByProperty(String, String, String, List,
+   * List)}.
+   */
+  CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      List<Object> propertyValueList,
+      List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByIndexedProperty}. */
+  CompletionStage<Response> getRecordsByIndexedProperty(
+      String keyspaceName, String tableName, String propertyName, Object propertyValue);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByProperties(String, String, Map)}. */
+  CompletionStage<Response> getRecordsByProperties(
+      String keyspaceName, String tableName, Map<String, Object> propertyMap);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByProperties(String, String, Map, List)}. */
+  CompletionStage<Response> getRecordsByProperties(
+      String keyspaceName, String tableName, Map<String, Object> propertyMap, List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#getPropertiesValueById}. */
+  CompletionStage<Response> getPropertiesValueById(
+      String keyspaceName, String tableName, String id, String... properties);
+
+  /** Async variant of {@link CassandraOperation#getAllRecords}. */
+  CompletionStage<Response> getAllRecords(String keyspaceName, String tableName);
+
+  /** Async variant of {@link CassandraOperation#updateRecord(String, String, Map, Map)}. */
+  CompletionStage<Response> updateRecord(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> updateAttributes,
+      Map<String, Object> compositeKey);
+
+  /** Async variant of {@link CassandraOperation#getRecordById(String, String, String)}. */
+  CompletionStage<Response> getRecordById(String keyspaceName, String tableName, String key);
+
+  /** Async variant of {@link CassandraOperation#getRecordById(String, String, Map)}. */
+  CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, Map<String, Object> key);
+
+  /** Async variant of {@link CassandraOperation#getRecordById(String, String, String, List)}. */
+  CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, String key, List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#getRecordById(String, String, Map, List)}. */
+  CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, Map<String, Object> key, List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#getRecordWithTTLById}. */
+  CompletionStage<Response> getRecordWithTTLById(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> key,
+      List<String> ttlFields,
+      List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#batchInsert}. */
+  CompletionStage<Response> batchInsert(
+      String keyspaceName, String tableName, List<Map<String, Object>> records);
+
+  /** Async variant of {@link CassandraOperation#batchUpdate}. */
+  CompletionStage<Response> batchUpdate(
+      String keyspaceName, String tableName, List<Map<String, Map<String, Object>>> records);
+
+  /** Async variant of {@link CassandraOperation#batchUpdateById}. */
+  CompletionStage<Response> batchUpdateById(
+      String keyspaceName, String tableName, List<Map<String, Object>> records);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByCompositeKey}. */
+  CompletionStage<Response> getRecordsByCompositeKey(
+      String keyspaceName, String tableName, Map<String, Object> compositeKeyMap);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByIdsWithSpecifiedColumns}. */
+  CompletionStage<Response> getRecordsByIdsWithSpecifiedColumns(
+      String keyspaceName, String tableName, List<String> properties, List<String> ids);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByPrimaryKeys}. */
+  CompletionStage<Response> getRecordsByPrimaryKeys(
+      String keyspaceName, String tableName, List<String> primaryKeys, String primaryKeyColumnName);
+
+  /** Async variant of {@link CassandraOperation#insertRecordWithTTL}. */
+  CompletionStage<Response> insertRecordWithTTL(
+      String keyspaceName, String tableName, Map<String, Object> request, int ttl);
+
+  /** Async variant of {@link CassandraOperation#updateRecordWithTTL}. */
+  CompletionStage<Response> updateRecordWithTTL(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> request,
+      Map<String, Object> compositeKey,
+      int ttl);
+
+  /** Async variant of {@link CassandraOperation#getRecordsByIdsWithSpecifiedColumnsAndTTL}. */
+  CompletionStage<Response> getRecordsByIdsWithSpecifiedColumnsAndTTL(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKeys,
+      List<String> properties,
+      Map<String, String> ttlPropertiesWithAlias);
+
+  /** Async variant of {@link CassandraOperation#batchInsertWithTTL}. */
+  CompletionStage<Response> batchInsertWithTTL(
+      String keyspaceName, String tableName, List<Map<String, Object>> records, List<Integer> ttls);
+
+  /** Async variant of {@link CassandraOperation#getRecords}. */
+  CompletionStage<Response> getRecords(
+      String keyspace, String table, Map<String, Object> filters, List<String> fields);
+
+  /** Async variant of {@link CassandraOperation#getRecordByObjectType}. */
+  CompletionStage<Response> getRecordByObjectType(
+      String keyspace,
+      String tableName,
+      String columnName,
+      String key,
+      int value,
+      String objectType);
+
+  /** Async variant of {@link CassandraOperation#performBatchAction}. */
+  CompletionStage<Response> performBatchAction(
+      String keyspaceName, String tableName, Map<String, Object> inputData);
+
+  /** Async variant of {@link CassandraOperation#searchValueInList(String, String, String, String)}. */
+  CompletionStage<Response> searchValueInList(
+      String keyspace, String tableName, String key, String value);
+
+  /**
+   * Async variant of {@link CassandraOperation#searchValueInList(String, String, String, String,
+   * Map)}.
+   */
+  CompletionStage<Response> searchValueInList(
+      String keyspace, String tableName, String key, String value, Map<String, Object> propertyMap);
+
+  /** Async variant of {@link CassandraOperation#updateAddMapRecord}. */
+  CompletionStage<Response> updateAddMapRecord(
+      String keySpace,
+      String table,
+      Map<String, Object> primaryKey,
+      String column,
+      String key,
+      Object value);
+
+  /** Async variant of {@link CassandraOperation#updateRemoveMapRecord}. */
+  CompletionStage<Response> updateRemoveMapRecord(
+      String keySpace, String table, Map<String, Object> primaryKey, String column, String key);
+}
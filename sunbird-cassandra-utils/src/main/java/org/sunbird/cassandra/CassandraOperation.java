@@ -3,8 +3,12 @@ package org.sunbird.cassandra;
 
 import com.datastax.driver.core.ResultSet;
 import com.google.common.util.concurrent.FutureCallback;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.sunbird.common.models.response.Response;
 
 /**
@@ -384,7 +388,8 @@ public interface CassandraOperation {
       String keyspace, String table, Map<String, Object> filters, List<String> fields);
 
   /**
-   * Apply callback on cassandra async read call.
+   * Apply callback on cassandra async read call. The callback runs on a shared callback executor
+   * and is given the first page of the result set, further pages are fetched when it iterates.
    *
    * @param keySpace Keyspace name
    * @param table Table name
@@ -461,4 +466,144 @@ public interface CassandraOperation {
    */
   public Response updateRemoveMapRecord(
       String keySpace, String table, Map<String, Object> primaryKey, String column, String key);
+
+  /**
+   * @desc This method is used to fetch one page of records matching the filters (all records if
+   *     filters are empty). Filters are applied as in getRecordsByProperties.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param filters Map of column name and value (list values are matched with IN)
+   * @param fields Columns to be returned (all if empty)
+   * @param pageSize Maximum number of records in the page
+   * @param pagingState Paging state returned with the previous page, null for the first page
+   * @return Response containing the records against response and the paging state of the next
+   *     page against pagingState (null for the last page)
+   */
+  Response getRecordsPage(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize,
+      String pagingState);
+
+  /**
+   * @desc This method is used to iterate over all records matching the filters, fetching pages of
+   *     given size lazily as the iterator is consumed.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param filters Map of column name and value (list values are matched with IN)
+   * @param fields Columns to be returned (all if empty)
+   * @param pageSize Number of records fetched per round trip
+   * @return Iterator of records
+   */
+  Iterator<Map<String, Object>> getRecordsIterator(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize);
+
+  /**
+   * @desc Stream variant of getRecordsIterator.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param filters Map of column name and value (list values are matched with IN)
+   * @param fields Columns to be returned (all if empty)
+   * @param pageSize Number of records fetched per round trip
+   * @return Stream of records
+   */
+  Stream<Map<String, Object>> getRecordsStream(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize);
+
+  /**
+   * @desc This method is used to read all records of a table by reading its token ranges in
+   *     parallel from the nodes owning them. Records are passed to the consumer from multiple
+   *     threads and in no particular order.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param fields Columns to be returned (all if empty)
+   * @param concurrency Maximum number of token ranges read in parallel
+   * @param consumer Thread safe consumer of the records
+   * @return Number of records scanned
+   */
+  long scanAllRecords(
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      int concurrency,
+      Consumer<Map<String, Object>> consumer);
+
+  /**
+   * @desc This method is used to split the token ring of the cluster into ranges, to read a table
+   *     range by range with scanTokenRange. The ranges are the same on each call as long as the
+   *     cluster topology does not change, and can be saved to resume an interrupted read.
+   * @param keyspaceName Keyspace name
+   * @param splits Minimum number of ranges
+   * @return List of token ranges, sorted by token
+   */
+  List<String> getTokenRanges(String keyspaceName, int splits);
+
+  /**
+   * @desc This method is used to read the records of a table in one token range, page by page on
+   *     the calling thread.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param fields Columns to be returned (all if empty)
+   * @param tokenRange Token range as returned by getTokenRanges
+   * @param consumer Consumer of the records
+   * @return Number of records read
+   */
+  long scanTokenRange(
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      String tokenRange,
+      Consumer<Map<String, Object>> consumer);
+
+  /**
+   * @desc This method is used to read records of many primary keys with one single partition
+   *     query per key, executed asynchronously with bounded concurrency. Records are passed to the
+   *     consumer on the calling thread as soon as their partition is read, i.e. in no particular
+   *     order.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKeys List of primary key values
+   * @param primaryKeyColumnName Name of the primary key column (id if blank)
+   * @param fields Columns to be returned (all if empty)
+   * @param consumer Consumer of the records
+   * @return Number of records read
+   */
+  long streamRecordsByPrimaryKeys(
+      String keyspaceName,
+      String tableName,
+      List<String> primaryKeys,
+      String primaryKeyColumnName,
+      List<String> fields,
+      Consumer<Map<String, Object>> consumer);
+
+  /**
+   * @desc This method is used to read all records matching given filters page by page without
+   *     blocking. The consumer runs on a shared callback executor, once per page, and the next page
+   *     is only requested once it has returned.
+   * @param keySpace Keyspace name
+   * @param table Table name
+   * @param filters Column and value map for filtering
+   * @param fields List of columns to be returned in each record
+   * @param pageSize Number of records per page (driver default if not positive)
+   * @param consumer Consumer of the records of each page
+   * @return Stage completed with the number of records read once the query is exhausted.
+   *     Cancelling it stops reading further pages.
+   */
+  CompletionStage<Long> applyOperationOnRecordPagesAsync(
+      String keySpace,
+      String table,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize,
+      Consumer<List<Map<String, Object>>> consumer);
 }
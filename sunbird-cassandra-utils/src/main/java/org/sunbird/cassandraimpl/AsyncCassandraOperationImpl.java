@@ -0,0 +1,818 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.cassandra.AsyncCassandraOperation;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.QueryShape;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.PropertiesCache;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.helper.NearCache;
+import org.sunbird.helper.SpeculativeExecutionStats;
+
+/**
+ * Non blocking implementation of {@link AsyncCassandraOperation}. Statements are built with the
+ * same {@link CassandraUtil} builders (and cached prepared statements) as {@link
+ * CassandraOperationImpl} and sent with {@link Session#executeAsync(Statement)}. Remaining result
+ * pages are fetched asynchronously before the response is created, so no driver I/O thread is ever
+ * blocked.
+ *
+ * <p>As for blocking writes, pending {@link WriteBehindBuffer} updates of a record are written
+ * before the record is written and dropped before it is deleted. Only a write to a table of the
+ * buffer with such a pending update waits for it. The {@link LookupIndexManager} entries of a
+ * record are written without blocking before the record is.
+ */
+public class AsyncCassandraOperationImpl implements AsyncCassandraOperation {
+
+  protected CassandraConnectionManager connectionManager;
+  protected NearCache nearCache = NearCache.getInstance();
+  protected WriteBehindBuffer writeBehindBuffer = WriteBehindBuffer.getInstance();
+  protected LookupIndexManager lookupIndexManager = LookupIndexManager.getInstance();
+
+  public AsyncCassandraOperationImpl() {
+    PropertiesCache propertiesCache = PropertiesCache.getInstance();
+    String cassandraMode = propertiesCache.getProperty(JsonKey.SUNBIRD_CASSANDRA_MODE);
+    connectionManager = CassandraConnectionMngrFactory.getObject(cassandraMode);
+  }
+
+  @Override
+  public CompletionStage<Response> upsertRecord(
+      String keyspaceName, String tableName, Map<String, Object> request) {
+    return executePreparedAsync(
+        keyspaceName,
+        "upsertRecord",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, request, request, 0)
+                .thenCompose(
+                    written ->
+                        CassandraUtil.createInsertStatementAsync(
+                            session, keyspaceName, tableName, request)),
+        resultSet -> invalidate(keyspaceName, tableName, request.get(Constants.IDENTIFIER)),
+        writeError(Constants.EXCEPTION_MSG_UPSERT + tableName, ResponseCode.SERVER_ERROR));
+  }
+
+  @Override
+  public CompletionStage<Response> insertRecord(
+      String keyspaceName, String tableName, Map<String, Object> request) {
+    return executePreparedAsync(
+        keyspaceName,
+        "insertRecord",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, request, request, 0)
+                .thenCompose(
+                    written ->
+                        CassandraUtil.createInsertStatementAsync(
+                            session, keyspaceName, tableName, request)),
+        resultSet -> invalidate(keyspaceName, tableName, request.get(Constants.IDENTIFIER)),
+        writeError(
+            "Exception occured while inserting record to " + tableName,
+            ResponseCode.dbInsertionError));
+  }
+
+  @Override
+  public CompletionStage<Response> updateRecord(
+      String keyspaceName, String tableName, Map<String, Object> request) {
+    return executePreparedAsync(
+        keyspaceName,
+        "updateRecord",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, request, request, 0)
+                .thenCompose(
+                    written ->
+                        CassandraUtil.createUpdateByIdStatementAsync(
+                            session, keyspaceName, tableName, request)),
+        resultSet -> invalidate(keyspaceName, tableName, request.get(Constants.IDENTIFIER)),
+        writeError(Constants.EXCEPTION_MSG_UPDATE + tableName, ResponseCode.dbUpdateError));
+  }
+
+  @Override
+  public CompletionStage<Response> deleteRecord(
+      String keyspaceName, String tableName, String identifier) {
+    return executeAsync(
+        keyspaceName,
+        "deleteRecord",
+        session -> {
+          writeBehindBuffer.discard(
+              keyspaceName, tableName, Collections.singletonMap(Constants.IDENTIFIER, identifier));
+          return QueryBuilder.delete()
+              .from(keyspaceName, tableName)
+              .where(QueryBuilder.eq(Constants.IDENTIFIER, identifier));
+        },
+        resultSet -> invalidate(keyspaceName, tableName, identifier),
+        serverError(Constants.EXCEPTION_MSG_DELETE + tableName));
+  }
+
+  @Override
+  public CompletionStage<Void> deleteRecord(
+      String keyspaceName, String tableName, Map<String, String> compositeKeyMap) {
+    return executeAsync(
+        keyspaceName,
+        "deleteRecordByCompositeKey",
+        session -> {
+          writeBehindBuffer.discard(keyspaceName, tableName, compositeKeyMap);
+          return CassandraUtil.createDeleteQuery(keyspaceName, tableName, compositeKeyMap);
+        },
+        invalidateAll(keyspaceName, tableName, resultSet -> null),
+        serverError(Constants.EXCEPTION_MSG_DELETE + tableName));
+  }
+
+  @Override
+  public CompletionStage<Boolean> deleteRecords(
+      String keyspaceName, String tableName, List<String> identifierList) {
+    return executeAsync(
+        keyspaceName,
+        "deleteRecords",
+        session -> {
+          for (String identifier : identifierList) {
+            writeBehindBuffer.discard(
+                keyspaceName,
+                tableName,
+                Collections.singletonMap(Constants.IDENTIFIER, identifier));
+          }
+          return QueryBuilder.delete()
+              .from(keyspaceName, tableName)
+              .where(QueryBuilder.in(JsonKey.ID, identifierList));
+        },
+        resultSet -> {
+          for (String identifier : identifierList) {
+            nearCache.invalidate(keyspaceName, tableName, identifier);
+          }
+          return resultSet.wasApplied();
+        },
+        serverError(Constants.EXCEPTION_MSG_DELETE + tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName, String tableName, String propertyName, Object propertyValue) {
+    return getRecordsByProperty(keyspaceName, tableName, propertyName, propertyValue, null);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      Object propertyValue,
+      List<String> fields) {
+    return executeQuery(
+        keyspaceName,
+        tableName,
+        "getRecordsByProperty",
+        session ->
+            CassandraUtil.createSelectQuery(
+                keyspaceName, tableName, propertyName, propertyValue, fields));
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName, String tableName, String propertyName, List<Object> propertyValueList) {
+    return getRecordsByProperty(keyspaceName, tableName, propertyName, propertyValueList, null);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByProperty(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      List<Object> propertyValueList,
+      List<String> fields) {
+    return executeQuery(
+        keyspaceName,
+        tableName,
+        "getRecordsByProperty",
+        session ->
+            CassandraUtil.createSelectInQuery(
+                keyspaceName, tableName, propertyName, propertyValueList, fields));
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByIndexedProperty(
+      String keyspaceName, String tableName, String propertyName, Object propertyValue) {
+    return executeQuery(
+        keyspaceName,
+        tableName,
+        "getRecordsByIndexedProperty",
+        session ->
+            QueryBuilder.select()
+                .all()
+                .from(keyspaceName, tableName)
+                .where(QueryBuilder.eq(propertyName, propertyValue))
+                .allowFiltering());
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByProperties(
+      String keyspaceName, String tableName, Map<String, Object> propertyMap) {
+    return getRecordsByProperties(keyspaceName, tableName, propertyMap, null);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByProperties(
+      String keyspaceName, String tableName, Map<String, Object> propertyMap, List<String> fields) {
+    QueryShape shape =
+        new QueryShape(keyspaceName, tableName, fields).where(propertyMap).allowFiltering();
+    return executeQuery(keyspaceName, tableName, "getRecordsByProperties", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> getPropertiesValueById(
+      String keyspaceName, String tableName, String id, String... properties) {
+    return executePreparedQuery(
+        keyspaceName,
+        tableName,
+        "getPropertiesValueById",
+        session ->
+            CassandraUtil.createSelectByIdStatementAsync(
+                session, keyspaceName, tableName, id, properties));
+  }
+
+  @Override
+  public CompletionStage<Response> getAllRecords(String keyspaceName, String tableName) {
+    return executeQuery(
+        keyspaceName,
+        tableName,
+        "getAllRecords",
+        session -> QueryBuilder.select().all().from(keyspaceName, tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> updateRecord(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> updateAttributes,
+      Map<String, Object> compositeKey) {
+    return executePreparedAsync(
+        keyspaceName,
+        "updateRecord",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, compositeKey, updateAttributes, 0)
+                .thenApply(
+                    written ->
+                        CassandraUtil.createUpdateQuery(
+                            compositeKey, updateAttributes, keyspaceName, tableName)),
+        resultSet -> {
+          nearCache.invalidate(keyspaceName, tableName, compositeKey.get(Constants.IDENTIFIER));
+          return new Response();
+        },
+        writeError(Constants.EXCEPTION_MSG_UPDATE + tableName, ResponseCode.dbUpdateError));
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, String key) {
+    return getRecordById(keyspaceName, tableName, key, null);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, Map<String, Object> key) {
+    return getRecordById(keyspaceName, tableName, key, null);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, String key, List<String> fields) {
+    QueryShape shape =
+        new QueryShape(keyspaceName, tableName, fields).eq(Constants.IDENTIFIER, key);
+    return executeQuery(keyspaceName, tableName, "getRecordByIdentifier", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordById(
+      String keyspaceName, String tableName, Map<String, Object> key, List<String> fields) {
+    QueryShape shape = new QueryShape(keyspaceName, tableName, fields).whereWithRange(key);
+    return executeQuery(keyspaceName, tableName, "getRecordByIdentifier", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordWithTTLById(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> key,
+      List<String> ttlFields,
+      List<String> fields) {
+    return executeQuery(
+        keyspaceName,
+        tableName,
+        "getRecordByIdentifier",
+        session ->
+            CassandraUtil.createSelectWithTTLQuery(
+                keyspaceName, tableName, key, ttlFields, fields));
+  }
+
+  @Override
+  public CompletionStage<Response> batchInsert(
+      String keyspaceName, String tableName, List<Map<String, Object>> records) {
+    return executePreparedAsync(
+        keyspaceName,
+        "batchInsert",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, records)
+                .thenApply(
+                    written ->
+                        CassandraUtil.createBatchInsertStatement(
+                            keyspaceName, tableName, records)),
+        invalidateAll(keyspaceName, tableName, resultSet -> createSuccessResponse()),
+        serverError("Cassandra Batch Insert Failed." + tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> batchUpdate(
+      String keyspaceName, String tableName, List<Map<String, Map<String, Object>>> records) {
+    return executePreparedAsync(
+        keyspaceName,
+        "batchUpdate",
+        session -> {
+          List<CompletionStage<Void>> written = new ArrayList<>(records.size());
+          for (Map<String, Map<String, Object>> record : records) {
+            written.add(
+                beforeWrite(
+                    session,
+                    keyspaceName,
+                    tableName,
+                    record.get(JsonKey.PRIMARY_KEY),
+                    record.get(JsonKey.NON_PRIMARY_KEY),
+                    0));
+          }
+          return allOf(written)
+              .thenApply(
+                  done ->
+                      CassandraUtil.createBatchUpdateStatement(keyspaceName, tableName, records));
+        },
+        invalidateAll(keyspaceName, tableName, resultSet -> createSuccessResponse()),
+        serverError("Cassandra Batch Update failed " + tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> batchUpdateById(
+      String keyspaceName, String tableName, List<Map<String, Object>> records) {
+    return executePreparedAsync(
+        keyspaceName,
+        "batchUpdateById",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, records)
+                .thenApply(
+                    written ->
+                        CassandraUtil.createBatchUpdateByIdStatement(
+                            keyspaceName, tableName, records)),
+        invalidateAll(keyspaceName, tableName, resultSet -> createSuccessResponse()),
+        serverError("Cassandra Batch Update Failed." + tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByCompositeKey(
+      String keyspaceName, String tableName, Map<String, Object> compositeKeyMap) {
+    QueryShape shape = new QueryShape(keyspaceName, tableName, null);
+    for (Map.Entry<String, Object> entry : compositeKeyMap.entrySet()) {
+      shape.eq(entry.getKey(), entry.getValue());
+    }
+    return executeQuery(keyspaceName, tableName, "getRecordsByCompositeKey", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByIdsWithSpecifiedColumns(
+      String keyspaceName, String tableName, List<String> properties, List<String> ids) {
+    QueryShape shape = new QueryShape(keyspaceName, tableName, properties).in(JsonKey.ID, ids);
+    return executeQuery(keyspaceName, tableName, "getRecordsByIdsWithSpecifiedColumns", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByPrimaryKeys(
+      String keyspaceName,
+      String tableName,
+      List<String> primaryKeys,
+      String primaryKeyColumnName) {
+    String column = StringUtils.isBlank(primaryKeyColumnName) ? JsonKey.ID : primaryKeyColumnName;
+    QueryShape shape = new QueryShape(keyspaceName, tableName, null).in(column, primaryKeys);
+    return executeQuery(keyspaceName, tableName, "getRecordsByPrimaryKeys", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> insertRecordWithTTL(
+      String keyspaceName, String tableName, Map<String, Object> request, int ttl) {
+    return executePreparedAsync(
+        keyspaceName,
+        "insertRecordWithTTL",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, request, request, ttl)
+                .thenApply(
+                    written ->
+                        CassandraUtil.createInsertWithTTLQuery(
+                            keyspaceName, tableName, request, ttl)),
+        invalidateAll(keyspaceName, tableName, CassandraUtil::createResponse),
+        Function.identity());
+  }
+
+  @Override
+  public CompletionStage<Response> updateRecordWithTTL(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> request,
+      Map<String, Object> compositeKey,
+      int ttl) {
+    return executePreparedAsync(
+        keyspaceName,
+        "updateRecordWithTTL",
+        session ->
+            beforeWrite(session, keyspaceName, tableName, compositeKey, request, ttl)
+                .thenApply(
+                    written ->
+                        CassandraUtil.createUpdateWithTTLQuery(
+                            keyspaceName, tableName, request, compositeKey, ttl)),
+        invalidateAll(keyspaceName, tableName, CassandraUtil::createResponse),
+        Function.identity());
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordsByIdsWithSpecifiedColumnsAndTTL(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKeys,
+      List<String> properties,
+      Map<String, String> ttlPropertiesWithAlias) {
+    return executeQuery(
+        keyspaceName,
+        tableName,
+        "getRecordsByIdsWithSpecifiedColumnsAndTTL",
+        session ->
+            CassandraUtil.createSelectWithTTLAliasQuery(
+                keyspaceName, tableName, primaryKeys, properties, ttlPropertiesWithAlias));
+  }
+
+  @Override
+  public CompletionStage<Response> batchInsertWithTTL(
+      String keyspaceName,
+      String tableName,
+      List<Map<String, Object>> records,
+      List<Integer> ttls) {
+    if (CollectionUtils.isEmpty(records)
+        || CollectionUtils.isEmpty(ttls)
+        || ttls.size() != records.size()) {
+      ProjectLogger.log(
+          "AsyncCassandraOperationImpl:batchInsertWithTTL: records or ttls is empty or of different size",
+          LoggerEnum.ERROR);
+      CompletableFuture<Response> result = new CompletableFuture<>();
+      result.completeExceptionally(createServerException());
+      return result;
+    }
+    return executePreparedAsync(
+        keyspaceName,
+        "batchInsertWithTTL",
+        session -> {
+          List<CompletionStage<Void>> written = new ArrayList<>(records.size());
+          for (int i = 0; i < records.size(); i++) {
+            Map<String, Object> record = records.get(i);
+            written.add(beforeWrite(session, keyspaceName, tableName, record, record, ttls.get(i)));
+          }
+          return allOf(written)
+              .thenApply(
+                  done ->
+                      CassandraUtil.createBatchInsertWithTTLStatement(
+                          keyspaceName, tableName, records, ttls));
+        },
+        invalidateAll(keyspaceName, tableName, resultSet -> createSuccessResponse()),
+        serverError("AsyncCassandraOperationImpl:batchInsertWithTTL: " + tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> getRecords(
+      String keyspace, String table, Map<String, Object> filters, List<String> fields) {
+    QueryShape shape = new QueryShape(keyspace, table, fields).where(filters);
+    return executeQuery(keyspace, table, "getRecords", shape);
+  }
+
+  @Override
+  public CompletionStage<Response> getRecordByObjectType(
+      String keyspace,
+      String tableName,
+      String columnName,
+      String key,
+      int value,
+      String objectType) {
+    return executeAsync(
+        keyspace,
+        "getRecordByObjectType",
+        session ->
+            CassandraUtil.createSelectByObjectTypeQuery(
+                keyspace, tableName, columnName, key, value, objectType),
+        CassandraUtil::createResponse,
+        Function.identity());
+  }
+
+  @Override
+  public CompletionStage<Response> performBatchAction(
+      String keyspaceName, String tableName, Map<String, Object> inputData) {
+    return executePreparedAsync(
+        keyspaceName,
+        "performBatchAction",
+        session -> {
+          List<CompletionStage<Void>> written = new ArrayList<>();
+          for (Map.Entry<String, Object> entry : inputData.entrySet()) {
+            if (JsonKey.INSERT.equals(entry.getKey()) || JsonKey.UPDATE.equals(entry.getKey())) {
+              Map<String, Object> record = (Map<String, Object>) entry.getValue();
+              written.add(beforeWrite(session, keyspaceName, tableName, record, record, 0));
+            }
+          }
+          return allOf(written)
+              .thenApply(
+                  done ->
+                      CassandraUtil.createBatchActionStatement(
+                          keyspaceName, tableName, inputData));
+        },
+        invalidateAll(keyspaceName, tableName, resultSet -> createSuccessResponse()),
+        serverError("Cassandra performBatchAction Failed." + tableName));
+  }
+
+  @Override
+  public CompletionStage<Response> searchValueInList(
+      String keyspace, String tableName, String key, String value) {
+    return searchValueInList(keyspace, tableName, key, value, null);
+  }
+
+  @Override
+  public CompletionStage<Response> searchValueInList(
+      String keyspace,
+      String tableName,
+      String key,
+      String value,
+      Map<String, Object> propertyMap) {
+    return executeAsync(
+        keyspace,
+        "searchValueInList",
+        session ->
+            CassandraUtil.createSearchValueInListQuery(
+                keyspace, tableName, key, value, propertyMap),
+        CassandraUtil::createResponse,
+        Function.identity());
+  }
+
+  @Override
+  public CompletionStage<Response> updateAddMapRecord(
+      String keySpace,
+      String table,
+      Map<String, Object> primaryKey,
+      String column,
+      String key,
+      Object value) {
+    return updateMapRecord(keySpace, table, primaryKey, column, key, value, true);
+  }
+
+  @Override
+  public CompletionStage<Response> updateRemoveMapRecord(
+      String keySpace, String table, Map<String, Object> primaryKey, String column, String key) {
+    return updateMapRecord(keySpace, table, primaryKey, column, key, null, false);
+  }
+
+  private CompletionStage<Response> updateMapRecord(
+      String keySpace,
+      String table,
+      Map<String, Object> primaryKey,
+      String column,
+      String key,
+      Object value,
+      boolean add) {
+    return executeAsync(
+        keySpace,
+        "updateMapRecord",
+        session -> {
+          writeBehindBuffer.flush(keySpace, table, primaryKey);
+          return CassandraUtil.createUpdateMapQuery(
+              keySpace, table, primaryKey, column, key, value, add);
+        },
+        resultSet -> invalidate(keySpace, table, primaryKey.get(Constants.IDENTIFIER)),
+        serverError(Constants.EXCEPTION_MSG_UPDATE + table));
+  }
+
+  private CompletionStage<Response> executeQuery(
+      String keyspaceName, String tableName, String operation, QueryShape shape) {
+    return executePreparedQuery(
+        keyspaceName,
+        tableName,
+        operation,
+        session -> CassandraUtil.createSelectStatementAsync(session, shape));
+  }
+
+  private CompletionStage<Response> executeQuery(
+      String keyspaceName,
+      String tableName,
+      String operation,
+      Function<Session, Statement> statement) {
+    return executeAsync(
+        keyspaceName,
+        operation,
+        statement,
+        CassandraUtil::createResponse,
+        serverError(Constants.EXCEPTION_MSG_FETCH + tableName));
+  }
+
+  private CompletionStage<Response> executePreparedQuery(
+      String keyspaceName,
+      String tableName,
+      String operation,
+      Function<Session, CompletionStage<? extends Statement>> statement) {
+    return executePreparedAsync(
+        keyspaceName,
+        operation,
+        statement,
+        CassandraUtil::createResponse,
+        serverError(Constants.EXCEPTION_MSG_FETCH + tableName));
+  }
+
+  private <T> CompletionStage<T> executeAsync(
+      String keyspaceName,
+      String operation,
+      Function<Session, Statement> statement,
+      Function<ResultSet, T> mapper,
+      Function<Throwable, Throwable> errorMapper) {
+    return executePreparedAsync(
+        keyspaceName,
+        operation,
+        session -> CompletableFuture.completedFuture(statement.apply(session)),
+        mapper,
+        errorMapper);
+  }
+
+  /**
+   * Execute statement created by given function without blocking and map its result once all pages
+   * are fetched. The function may prepare the statement asynchronously, so a cache miss does not
+   * block either.
+   *
+   * @param keyspaceName Keyspace name
+   * @param operation Operation name used for logging
+   * @param statement Function creating the statement for the keyspace session
+   * @param mapper Function mapping the fully fetched result set
+   * @param errorMapper Function mapping the failure to the exception the stage completes with
+   * @return Stage completed with the mapped result
+   */
+  private <T> CompletionStage<T> executePreparedAsync(
+      String keyspaceName,
+      String operation,
+      Function<Session, CompletionStage<? extends Statement>> statement,
+      Function<ResultSet, T> mapper,
+      Function<Throwable, Throwable> errorMapper) {
+    long startTime = System.currentTimeMillis();
+    ProjectLogger.log(
+        "AsyncCassandraOperationImpl:" + operation + " called at " + startTime, LoggerEnum.INFO);
+    CompletableFuture<T> result = new CompletableFuture<>();
+    try {
+      Session session = connectionManager.getSession(keyspaceName);
+      statement
+          .apply(session)
+          .thenCompose(
+              boundStatement ->
+                  CassandraUtil.toCompletableFuture(session.executeAsync(boundStatement)))
+          .whenComplete((resultSet, error) -> SpeculativeExecutionStats.record(resultSet))
+          .thenCompose(AsyncCassandraOperationImpl::fetchAll)
+          .thenApply(mapper)
+          .whenComplete(
+              (value, error) -> {
+                if (error != null) {
+                  result.completeExceptionally(errorMapper.apply(unwrap(error)));
+                } else {
+                  logQueryElapseTime(operation, startTime);
+                  result.complete(value);
+                }
+              });
+    } catch (Exception e) {
+      result.completeExceptionally(errorMapper.apply(e));
+    }
+    return result;
+  }
+
+  private static CompletionStage<ResultSet> fetchAll(ResultSet resultSet) {
+    if (resultSet.isFullyFetched()) {
+      return CompletableFuture.completedFuture(resultSet);
+    }
+    return CassandraUtil.toCompletableFuture(resultSet.fetchMoreResults())
+        .thenCompose(AsyncCassandraOperationImpl::fetchAll);
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    if ((error instanceof CompletionException || error instanceof ExecutionException)
+        && error.getCause() != null) {
+      return error.getCause();
+    }
+    return error;
+  }
+
+  private static Function<Throwable, Throwable> serverError(String message) {
+    return e -> {
+      ProjectLogger.log(message + " : " + e.getMessage(), e);
+      return createServerException();
+    };
+  }
+
+  private static Function<Throwable, Throwable> writeError(
+      String message, ResponseCode responseCode) {
+    return e -> {
+      ProjectLogger.log(message + " : " + e.getMessage(), e);
+      String errorMessage = e.getMessage();
+      if (errorMessage != null
+          && (errorMessage.contains(JsonKey.UNKNOWN_IDENTIFIER)
+              || errorMessage.contains(JsonKey.UNDEFINED_IDENTIFIER))) {
+        return new ProjectCommonException(
+            ResponseCode.invalidPropertyError.getErrorCode(),
+            CassandraUtil.processExceptionForUnknownIdentifier(
+                e instanceof Exception ? (Exception) e : new ExecutionException(e)),
+            ResponseCode.CLIENT_ERROR.getResponseCode());
+      }
+      return new ProjectCommonException(
+          responseCode.getErrorCode(),
+          responseCode.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    };
+  }
+
+  private static ProjectCommonException createServerException() {
+    return new ProjectCommonException(
+        ResponseCode.SERVER_ERROR.getErrorCode(),
+        ResponseCode.SERVER_ERROR.getErrorMessage(),
+        ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+
+  /**
+   * Write the pending write-behind updates and the lookup entries of a record before it is written
+   * directly, as given columns of given primary key.
+   */
+  private CompletionStage<Void> beforeWrite(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      Map<String, Object> columns,
+      int ttl) {
+    writeBehindBuffer.flush(keyspaceName, tableName, primaryKey);
+    return lookupIndexManager.indexAsync(
+        session, keyspaceName, tableName, primaryKey, columns, ttl);
+  }
+
+  private CompletionStage<Void> beforeWrite(
+      Session session, String keyspaceName, String tableName, List<Map<String, Object>> records) {
+    List<CompletionStage<Void>> written = new ArrayList<>(records.size());
+    for (Map<String, Object> record : records) {
+      written.add(beforeWrite(session, keyspaceName, tableName, record, record, 0));
+    }
+    return allOf(written);
+  }
+
+  private static CompletionStage<Void> allOf(List<CompletionStage<Void>> stages) {
+    return CompletableFuture.allOf(
+        stages
+            .stream()
+            .map(CompletionStage::toCompletableFuture)
+            .toArray(CompletableFuture[]::new));
+  }
+
+  /** Drop the written record from the near cache of this process and create success response. */
+  private Response invalidate(String keyspaceName, String tableName, Object id) {
+    nearCache.invalidate(keyspaceName, tableName, id);
+    return createSuccessResponse();
+  }
+
+  /**
+   * Wrap given result mapper to first drop all records of the written table from the near cache of
+   * this process, for writes whose records are not known by identifier.
+   */
+  private <T> Function<ResultSet, T> invalidateAll(
+      String keyspaceName, String tableName, Function<ResultSet, T> mapper) {
+    return resultSet -> {
+      nearCache.invalidateAll(keyspaceName, tableName);
+      return mapper.apply(resultSet);
+    };
+  }
+
+  private static Response createSuccessResponse() {
+    Response response = new Response();
+    response.put(Constants.RESPONSE, Constants.SUCCESS);
+    return response;
+  }
+
+  private static void logQueryElapseTime(String operation, long startTime) {
+    long elapsedTime = System.currentTimeMillis() - startTime;
+    ProjectLogger.log(
+        "AsyncCassandraOperationImpl:" + operation + " completed in " + elapsedTime + " ms",
+        LoggerEnum.PERF_LOG);
+  }
+}
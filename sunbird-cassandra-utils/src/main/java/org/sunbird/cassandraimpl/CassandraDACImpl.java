@@ -1,62 +1,51 @@
 package org.sunbird.cassandraimpl;
 
 import com.datastax.driver.core.ResultSet;
-import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.querybuilder.Select;
 import com.datastax.driver.core.querybuilder.Update;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.sunbird.common.CassandraUtil;
 import org.sunbird.common.Constants;
+import org.sunbird.common.QueryShape;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.CallbackExecutor;
+import org.sunbird.metrics.CassandraMetrics;
+import org.sunbird.metrics.OperationTimer;
 
 public class CassandraDACImpl extends CassandraOperationImpl {
 
   public Response getRecords(
       String keySpace, String table, Map<String, Object> filters, List<String> fields) {
+    OperationTimer timer = CassandraMetrics.start("getRecords", keySpace, table);
     Response response = new Response();
     Session session = connectionManager.getSession(keySpace);
     try {
-      Select select;
-      if (CollectionUtils.isNotEmpty(fields)) {
-        select = QueryBuilder.select((String[]) fields.toArray()).from(keySpace, table);
-      } else {
-        select = QueryBuilder.select().all().from(keySpace, table);
-      }
-
-      if (MapUtils.isNotEmpty(filters)) {
-        Select.Where where = select.where();
-        for (Map.Entry<String, Object> filter : filters.entrySet()) {
-          Object value = filter.getValue();
-          if (value instanceof List) {
-            where = where.and(QueryBuilder.in(filter.getKey(), ((List) filter.getValue())));
-          } else {
-            where = where.and(QueryBuilder.eq(filter.getKey(), filter.getValue()));
-          }
-        }
-      }
-
-      ResultSet results = null;
-      results = session.execute(select);
+      QueryShape shape = new QueryShape(keySpace, table, fields).where(filters);
+      ResultSet results = executeSelect(session, shape);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + table + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
+    timer.stop(response);
     return response;
   }
 
@@ -70,7 +59,8 @@ public class CassandraDACImpl extends CassandraOperationImpl {
     try {
       Select select;
       if (CollectionUtils.isNotEmpty(fields)) {
-        select = QueryBuilder.select((String[]) fields.toArray()).from(keySpace, table);
+        select =
+            QueryBuilder.select(fields.toArray(new String[fields.size()])).from(keySpace, table);
       } else {
         select = QueryBuilder.select().all().from(keySpace, table);
       }
@@ -86,8 +76,8 @@ public class CassandraDACImpl extends CassandraOperationImpl {
           }
         }
       }
-      ResultSetFuture future = session.executeAsync(select);
-      Futures.addCallback(future, callback, Executors.newFixedThreadPool(1));
+      // all pages are fetched before the callback, so that iterating never blocks its thread
+      CallbackExecutor.addCallback(fetchAll(session.executeAsync(select)), callback);
     } catch (Exception e) {
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + table + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
@@ -97,6 +87,33 @@ public class CassandraDACImpl extends CassandraOperationImpl {
     }
   }
 
+  private static ListenableFuture<ResultSet> fetchAll(ListenableFuture<ResultSet> page) {
+    SettableFuture<ResultSet> result = SettableFuture.create();
+    fetchAll(page, result);
+    return result;
+  }
+
+  private static void fetchAll(ListenableFuture<ResultSet> page, SettableFuture<ResultSet> result) {
+    Futures.addCallback(
+        page,
+        new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet results) {
+            if (results.isFullyFetched()) {
+              result.set(results);
+            } else {
+              fetchAll(results.fetchMoreResults(), result);
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            result.setException(t);
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
   public Response updateAddMapRecord(
       String keySpace,
       String table,
@@ -120,34 +137,20 @@ public class CassandraDACImpl extends CassandraOperationImpl {
       String key,
       Object value,
       boolean add) {
-    Update update = QueryBuilder.update(keySpace, table);
-    if (add) {
-      update.with(QueryBuilder.put(column, key, value));
-    } else {
-      update.with(QueryBuilder.remove(column, key));
-    }
-    if (MapUtils.isEmpty(primaryKey)) {
-      ProjectLogger.log(
-          Constants.EXCEPTION_MSG_FETCH + table + " : primary key is a must for update call",
-          LoggerEnum.ERROR.name());
-      throw new ProjectCommonException(
-          ResponseCode.SERVER_ERROR.getErrorCode(),
-          ResponseCode.SERVER_ERROR.getErrorMessage(),
-          ResponseCode.SERVER_ERROR.getResponseCode());
-    }
-    Update.Where where = update.where();
-    for (Map.Entry<String, Object> filter : primaryKey.entrySet()) {
-      Object filterValue = filter.getValue();
-      if (filterValue instanceof List) {
-        where = where.and(QueryBuilder.in(filter.getKey(), ((List) filter.getValue())));
-      } else {
-        where = where.and(QueryBuilder.eq(filter.getKey(), filter.getValue()));
-      }
+    if (writeBehindBuffer.isEnabled(table)) {
+      return writeBehind(
+          table,
+          add
+              ? writeBehindBuffer.putMapEntry(keySpace, table, primaryKey, column, key, value)
+              : writeBehindBuffer.removeMapEntry(keySpace, table, primaryKey, column, key));
     }
+    Update update =
+        CassandraUtil.createUpdateMapQuery(keySpace, table, primaryKey, column, key, value, add);
     try {
       Response response = new Response();
       ProjectLogger.log("Remove Map-Key Query: " + update.toString(), LoggerEnum.INFO);
       connectionManager.getSession(keySpace).execute(update);
+      nearCache.invalidate(keySpace, table, primaryKey.get(Constants.IDENTIFIER));
       response.put(Constants.RESPONSE, Constants.SUCCESS);
       return response;
     } catch (Exception e) {
@@ -3,31 +3,37 @@ package org.sunbird.cassandraimpl;
 import static com.datastax.driver.core.querybuilder.QueryBuilder.eq;
 
 import com.datastax.driver.core.BatchStatement;
-import com.datastax.driver.core.BoundStatement;
-import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.CodecNotFoundException;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
 import com.datastax.driver.core.exceptions.QueryExecutionException;
 import com.datastax.driver.core.exceptions.QueryValidationException;
 import com.datastax.driver.core.querybuilder.*;
-import com.datastax.driver.core.querybuilder.Select.Builder;
-import com.datastax.driver.core.querybuilder.Select.Selection;
-import com.datastax.driver.core.querybuilder.Select.Where;
 import com.datastax.driver.core.querybuilder.Update.Assignments;
 import com.google.common.util.concurrent.FutureCallback;
-import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.sunbird.cassandra.CassandraOperation;
 import org.sunbird.common.CassandraUtil;
 import org.sunbird.common.Constants;
+import org.sunbird.common.QueryShape;
+import org.sunbird.common.ResultSetIterator;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.JsonKey;
@@ -36,7 +42,12 @@ import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.models.util.PropertiesCache;
 import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.CallbackExecutor;
 import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.helper.NearCache;
+import org.sunbird.helper.SpeculativeExecutionStats;
+import org.sunbird.metrics.CassandraMetrics;
+import org.sunbird.metrics.OperationTimer;
 
 /**
  * @author Amit Kumar
@@ -44,7 +55,12 @@ import org.sunbird.helper.CassandraConnectionMngrFactory;
  */
 public abstract class CassandraOperationImpl implements CassandraOperation {
 
+  private static final int DEFAULT_PARTITION_READ_MIN_KEYS = 20;
+
   protected CassandraConnectionManager connectionManager;
+  protected NearCache nearCache = NearCache.getInstance();
+  protected WriteBehindBuffer writeBehindBuffer = WriteBehindBuffer.getInstance();
+  protected LookupIndexManager lookupIndexManager = LookupIndexManager.getInstance();
 
   public CassandraOperationImpl() {
     PropertiesCache propertiesCache = PropertiesCache.getInstance();
@@ -54,23 +70,20 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
 
   @Override
   public Response insertRecord(String keyspaceName, String tableName, Map<String, Object> request) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("insertRecord", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service insertRecord method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service insertRecord method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
-      String query = CassandraUtil.getPreparedStatement(keyspaceName, tableName, request);
-      PreparedStatement statement = connectionManager.getSession(keyspaceName).prepare(query);
-      BoundStatement boundStatement = new BoundStatement(statement);
-      Iterator<Object> iterator = request.values().iterator();
-      Object[] array = new Object[request.keySet().size()];
-      int i = 0;
-      while (iterator.hasNext()) {
-        array[i++] = iterator.next();
-      }
-      connectionManager.getSession(keyspaceName).execute(boundStatement.bind(array));
+      Session session = connectionManager.getSession(keyspaceName);
+      lookupIndexManager.index(session, keyspaceName, tableName, request);
+      writeBehindBuffer.flush(keyspaceName, tableName, request);
+      session.execute(
+          CassandraUtil.createInsertStatement(session, keyspaceName, tableName, request));
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (Exception e) {
+      timer.error();
       if (e.getMessage().contains(JsonKey.UNKNOWN_IDENTIFIER)
           || e.getMessage().contains(JsonKey.UNDEFINED_IDENTIFIER)) {
         ProjectLogger.log(
@@ -87,36 +100,37 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.dbInsertionError.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("insertRecord", startTime);
+    nearCache.invalidate(keyspaceName, tableName, request.get(Constants.IDENTIFIER));
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response updateRecord(String keyspaceName, String tableName, Map<String, Object> request) {
-    long startTime = System.currentTimeMillis();
+    if (writeBehindBuffer.isEnabled(tableName)) {
+      Map<String, Object> columns = new HashMap<>(request);
+      Map<String, Object> primaryKey = new HashMap<>();
+      primaryKey.put(Constants.IDENTIFIER, columns.remove(Constants.IDENTIFIER));
+      // buffered before indexing as buffering rejects unknown columns; it is written later anyway
+      CompletionStage<Void> written =
+          writeBehindBuffer.update(keyspaceName, tableName, primaryKey, columns);
+      lookupIndexManager.index(
+          connectionManager.getSession(keyspaceName), keyspaceName, tableName, request);
+      return writeBehind(tableName, written);
+    }
+    OperationTimer timer = CassandraMetrics.start("updateRecord", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service updateRecord method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service updateRecord method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
-      String query = CassandraUtil.getUpdateQueryStatement(keyspaceName, tableName, request);
-      PreparedStatement statement = connectionManager.getSession(keyspaceName).prepare(query);
-      Object[] array = new Object[request.size()];
-      int i = 0;
-      String str = "";
-      int index = query.lastIndexOf(Constants.SET.trim());
-      str = query.substring(index + 4);
-      str = str.replace(Constants.EQUAL_WITH_QUE_MARK, "");
-      str = str.replace(Constants.WHERE_ID, "");
-      str = str.replace(Constants.SEMICOLON, "");
-      String[] arr = str.split(",");
-      for (String key : arr) {
-        array[i++] = request.get(key.trim());
-      }
-      array[i] = request.get(Constants.IDENTIFIER);
-      BoundStatement boundStatement = statement.bind(array);
-      connectionManager.getSession(keyspaceName).execute(boundStatement);
+      Session session = connectionManager.getSession(keyspaceName);
+      lookupIndexManager.index(session, keyspaceName, tableName, request);
+      session.execute(
+          CassandraUtil.createUpdateByIdStatement(session, keyspaceName, tableName, request));
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (Exception e) {
+      timer.error();
       e.printStackTrace();
       if (e.getMessage().contains(JsonKey.UNKNOWN_IDENTIFIER)) {
         ProjectLogger.log(
@@ -137,31 +151,37 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.dbUpdateError.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("updateRecord", startTime);
+    nearCache.invalidate(keyspaceName, tableName, request.get(Constants.IDENTIFIER));
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response deleteRecord(String keyspaceName, String tableName, String identifier) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("deleteRecord", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service deleteRecord method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service deleteRecord method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
       Delete.Where delete =
           QueryBuilder.delete()
               .from(keyspaceName, tableName)
               .where(eq(Constants.IDENTIFIER, identifier));
+      writeBehindBuffer.discard(
+          keyspaceName, tableName, Collections.singletonMap(Constants.IDENTIFIER, identifier));
       connectionManager.getSession(keyspaceName).execute(delete);
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_DELETE + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("deleteRecord", startTime);
+    nearCache.invalidate(keyspaceName, tableName, identifier);
+    timer.stop(response);
     return response;
   }
 
@@ -178,27 +198,87 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String propertyName,
       Object propertyValue,
       List<String> fields) {
+    return nearCache.getRecordsByProperty(
+        keyspaceName,
+        tableName,
+        propertyName,
+        propertyValue,
+        fields,
+        () -> readRecordsByProperty(keyspaceName, tableName, propertyName, propertyValue, fields));
+  }
+
+  /**
+   * Create the response of an update buffered by the write-behind buffer, waiting until it is
+   * written if the buffer acknowledges updates once written.
+   *
+   * @param tableName Table name
+   * @param written Stage completed once the update is written
+   * @return Response indicating status of operation
+   */
+  protected Response writeBehind(String tableName, CompletionStage<Void> written) {
+    if (writeBehindBuffer.getDurability() == WriteBehindBuffer.Durability.SYNC) {
+      try {
+        written.toCompletableFuture().join();
+      } catch (CompletionException e) {
+        ProjectLogger.log(Constants.EXCEPTION_MSG_UPDATE + tableName + " : " + e.getMessage(), e);
+        throw new ProjectCommonException(
+            ResponseCode.dbUpdateError.getErrorCode(),
+            ResponseCode.dbUpdateError.getErrorMessage(),
+            ResponseCode.SERVER_ERROR.getResponseCode());
+      }
+    }
+    Response response = new Response();
+    response.put(Constants.RESPONSE, Constants.SUCCESS);
+    return response;
+  }
+
+  /** Read records matching given filters through the lookup table of given indexed column. */
+  private Response readByLookup(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      String indexedColumn,
+      Map<String, Object> filters,
+      List<String> fields) {
+    Response response = new Response();
+    response.put(
+        Constants.RESPONSE,
+        lookupIndexManager.read(session, keyspaceName, tableName, indexedColumn, filters, fields));
+    return response;
+  }
+
+  private Response readRecordsByProperty(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      Object propertyValue,
+      List<String> fields) {
+    OperationTimer timer = CassandraMetrics.start("getRecordsByProperty", keyspaceName, tableName);
     Response response = new Response();
     Session session = connectionManager.getSession(keyspaceName);
     try {
-      Builder selectBuilder;
-      if (CollectionUtils.isNotEmpty(fields)) {
-        selectBuilder = QueryBuilder.select((String[]) fields.toArray());
-      } else {
-        selectBuilder = QueryBuilder.select().all();
+      if (lookupIndexManager.isIndexed(session, keyspaceName, tableName, propertyName)) {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put(propertyName, propertyValue);
+        response = readByLookup(session, keyspaceName, tableName, propertyName, filters, fields);
+        timer.stop(response);
+        return response;
       }
       Statement selectStatement =
-          selectBuilder.from(keyspaceName, tableName).where(eq(propertyName, propertyValue));
+          CassandraUtil.createSelectQuery(
+              keyspaceName, tableName, propertyName, propertyValue, fields);
       ResultSet results = null;
-      results = session.execute(selectStatement);
+      results = executeRead(session, selectStatement);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
+    timer.stop(response);
     return response;
   }
 
@@ -215,31 +295,26 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String propertyName,
       List<Object> propertyValueList,
       List<String> fields) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("getRecordsByProperty", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service getRecordsByProperty method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service getRecordsByProperty method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
-      Builder selectBuilder;
-      if (CollectionUtils.isNotEmpty(fields)) {
-        selectBuilder = QueryBuilder.select(fields.toArray(new String[fields.size()]));
-      } else {
-        selectBuilder = QueryBuilder.select().all();
-      }
       Statement selectStatement =
-          selectBuilder
-              .from(keyspaceName, tableName)
-              .where(QueryBuilder.in(propertyName, propertyValueList));
-      ResultSet results = connectionManager.getSession(keyspaceName).execute(selectStatement);
+          CassandraUtil.createSelectInQuery(
+              keyspaceName, tableName, propertyName, propertyValueList, fields);
+      ResultSet results = executeRead(connectionManager.getSession(keyspaceName), selectStatement);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByProperty", startTime);
+    timer.stop(response);
     return response;
   }
 
@@ -252,117 +327,104 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
   @Override
   public Response getRecordsByProperties(
       String keyspaceName, String tableName, Map<String, Object> propertyMap, List<String> fields) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getRecordsByProperties", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service getRecordsByProperties method started at ==" + startTime,
+        "Cassandra Service getRecordsByProperties method started at ==" + timer.getStartTime(),
         LoggerEnum.INFO);
     Response response = new Response();
     try {
-      Builder selectBuilder;
-      if (CollectionUtils.isNotEmpty(fields)) {
-        String[] dbFields = fields.toArray(new String[fields.size()]);
-        selectBuilder = QueryBuilder.select(dbFields);
+      Session session = connectionManager.getSession(keyspaceName);
+      String indexedColumn =
+          lookupIndexManager.getIndexedColumn(session, keyspaceName, tableName, propertyMap);
+      if (indexedColumn != null) {
+        response =
+            readByLookup(session, keyspaceName, tableName, indexedColumn, propertyMap, fields);
       } else {
-        selectBuilder = QueryBuilder.select().all();
+        QueryShape shape =
+            new QueryShape(keyspaceName, tableName, fields).where(propertyMap).allowFiltering();
+        response = CassandraUtil.createResponse(executeSelect(session, shape));
       }
-      Select selectQuery = selectBuilder.from(keyspaceName, tableName);
-      if (MapUtils.isNotEmpty(propertyMap)) {
-        Where selectWhere = selectQuery.where();
-        for (Entry<String, Object> entry : propertyMap.entrySet()) {
-          if (entry.getValue() instanceof List) {
-            List<Object> list = (List) entry.getValue();
-            if (null != list) {
-              Object[] propertyValues = list.toArray(new Object[list.size()]);
-              Clause clause = QueryBuilder.in(entry.getKey(), propertyValues);
-              selectWhere.and(clause);
-            }
-          } else {
-            Clause clause = eq(entry.getKey(), entry.getValue());
-            selectWhere.and(clause);
-          }
-        }
-      }
-      ResultSet results =
-          connectionManager.getSession(keyspaceName).execute(selectQuery.allowFiltering());
-      response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByProperties", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response getPropertiesValueById(
       String keyspaceName, String tableName, String id, String... properties) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getPropertiesValueById", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service getPropertiesValueById method started at ==" + startTime,
+        "Cassandra Service getPropertiesValueById method started at ==" + timer.getStartTime(),
         LoggerEnum.INFO);
     Response response = new Response();
     try {
-      String selectQuery = CassandraUtil.getSelectStatement(keyspaceName, tableName, properties);
-      PreparedStatement statement = connectionManager.getSession(keyspaceName).prepare(selectQuery);
-      BoundStatement boundStatement = new BoundStatement(statement);
+      Session session = connectionManager.getSession(keyspaceName);
       ResultSet results =
-          connectionManager.getSession(keyspaceName).execute(boundStatement.bind(id));
+          session.execute(
+              CassandraUtil.createSelectByIdStatement(
+                  session, keyspaceName, tableName, id, properties));
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getPropertiesValueById", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response getAllRecords(String keyspaceName, String tableName) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("getAllRecords", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service getAllRecords method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service getAllRecords method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
       Select selectQuery = QueryBuilder.select().all().from(keyspaceName, tableName);
-      ResultSet results = connectionManager.getSession(keyspaceName).execute(selectQuery);
+      ResultSet results = executeRead(connectionManager.getSession(keyspaceName), selectQuery);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getAllRecords", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response upsertRecord(String keyspaceName, String tableName, Map<String, Object> request) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("upsertRecord", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service upsertRecord method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service upsertRecord method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
-      String query = CassandraUtil.getPreparedStatement(keyspaceName, tableName, request);
-      PreparedStatement statement = connectionManager.getSession(keyspaceName).prepare(query);
-      BoundStatement boundStatement = new BoundStatement(statement);
-      Iterator<Object> iterator = request.values().iterator();
-      Object[] array = new Object[request.keySet().size()];
-      int i = 0;
-      while (iterator.hasNext()) {
-        array[i++] = iterator.next();
-      }
-      connectionManager.getSession(keyspaceName).execute(boundStatement.bind(array));
+      Session session = connectionManager.getSession(keyspaceName);
+      lookupIndexManager.index(session, keyspaceName, tableName, request);
+      writeBehindBuffer.flush(keyspaceName, tableName, request);
+      session.execute(
+          CassandraUtil.createInsertStatement(session, keyspaceName, tableName, request));
       response.put(Constants.RESPONSE, Constants.SUCCESS);
 
     } catch (Exception e) {
+      timer.error();
       if (e.getMessage().contains(JsonKey.UNKNOWN_IDENTIFIER)) {
         ProjectLogger.log(Constants.EXCEPTION_MSG_UPSERT + tableName + " : " + e.getMessage(), e);
         throw new ProjectCommonException(
@@ -376,7 +438,8 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("upsertRecord", startTime);
+    nearCache.invalidate(keyspaceName, tableName, request.get(Constants.IDENTIFIER));
+    timer.stop(response);
     return response;
   }
 
@@ -386,13 +449,26 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String tableName,
       Map<String, Object> request,
       Map<String, Object> compositeKey) {
-
-    long startTime = System.currentTimeMillis();
+    if (writeBehindBuffer.isEnabled(tableName)) {
+      CompletionStage<Void> written =
+          writeBehindBuffer.update(keyspaceName, tableName, compositeKey, request);
+      lookupIndexManager.index(
+          connectionManager.getSession(keyspaceName),
+          keyspaceName,
+          tableName,
+          compositeKey,
+          request,
+          0);
+      return writeBehind(tableName, written);
+    }
+    OperationTimer timer = CassandraMetrics.start("updateRecord", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service updateRecord method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service updateRecord method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
       Session session = connectionManager.getSession(keyspaceName);
+      lookupIndexManager.index(session, keyspaceName, tableName, compositeKey, request, 0);
       Update update = QueryBuilder.update(keyspaceName, tableName);
       Assignments assignments = update.with();
       Update.Where where = update.where();
@@ -413,6 +489,7 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       Statement updateQuery = where;
       session.execute(updateQuery);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_UPDATE + tableName + " : " + e.getMessage(), e);
       if (e.getMessage().contains(JsonKey.UNKNOWN_IDENTIFIER)) {
         throw new ProjectCommonException(
@@ -425,54 +502,48 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.dbUpdateError.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("updateRecord", startTime);
+    nearCache.invalidate(keyspaceName, tableName, compositeKey.get(Constants.IDENTIFIER));
+    timer.stop(response);
     return response;
   }
 
   private Response getRecordByIdentifier(
       String keyspaceName, String tableName, Object key, List<String> fields) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("getRecordByIdentifier", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service getRecordBy key method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service getRecordBy key method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
       Session session = connectionManager.getSession(keyspaceName);
-      Builder selectBuilder;
-      if (CollectionUtils.isNotEmpty(fields)) {
-        selectBuilder = QueryBuilder.select(fields.toArray(new String[fields.size()]));
-      } else {
-        selectBuilder = QueryBuilder.select().all();
-      }
-      Select selectQuery = selectBuilder.from(keyspaceName, tableName);
-      Where selectWhere = selectQuery.where();
+      QueryShape shape = new QueryShape(keyspaceName, tableName, fields);
       if (key instanceof String) {
-        selectWhere.and(eq(Constants.IDENTIFIER, key));
+        shape.eq(Constants.IDENTIFIER, key);
       } else if (key instanceof Map) {
-        Map<String, Object> compositeKey = (Map<String, Object>) key;
-        compositeKey
-            .entrySet()
-            .stream()
-            .forEach(
-                x -> {
-                  CassandraUtil.createQuery(x.getKey(), x.getValue(), selectWhere);
-                });
+        shape.whereWithRange((Map<String, Object>) key);
       }
-      ResultSet results = session.execute(selectWhere);
+      ResultSet results = executeSelect(session, shape);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordByIdentifier", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response getRecordById(String keyspaceName, String tableName, String key) {
-    return getRecordByIdentifier(keyspaceName, tableName, key, null);
+    return nearCache.getRecordById(
+        keyspaceName,
+        tableName,
+        key,
+        null,
+        fields -> getRecordByIdentifier(keyspaceName, tableName, key, fields));
   }
 
   @Override
@@ -483,7 +554,12 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
   @Override
   public Response getRecordById(
       String keyspaceName, String tableName, String key, List<String> fields) {
-    return getRecordByIdentifier(keyspaceName, tableName, key, fields);
+    return nearCache.getRecordById(
+        keyspaceName,
+        tableName,
+        key,
+        fields,
+        columns -> getRecordByIdentifier(keyspaceName, tableName, key, columns));
   }
 
   @Override
@@ -508,38 +584,27 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       Map<String, Object> key,
       List<String> ttlFields,
       List<String> fields) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getRecordWithTTLByIdentifier", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service getRecordBy key method started at ==" + startTime,
+        "Cassandra Service getRecordBy key method started at ==" + timer.getStartTime(),
         LoggerEnum.INFO.name());
     Response response = new Response();
     try {
       Session session = connectionManager.getSession(keyspaceName);
-      Selection select = QueryBuilder.select();
-      for (String field : fields) {
-        select.column(field);
-      }
-      for (String field : ttlFields) {
-        select.ttl(field).as(field + "_ttl");
-      }
-      Select.Where selectWhere = select.from(keyspaceName, tableName).where();
-      key.entrySet()
-          .stream()
-          .forEach(
-              x -> {
-                selectWhere.and(QueryBuilder.eq(x.getKey(), x.getValue()));
-              });
-
-      ResultSet results = session.execute(selectWhere);
+      Statement selectWhere =
+          CassandraUtil.createSelectWithTTLQuery(keyspaceName, tableName, key, ttlFields, fields);
+      ResultSet results = executeRead(session, selectWhere);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordByIdentifier", startTime);
+    timer.stop(response);
     return response;
   }
 
@@ -547,39 +612,37 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
   public Response batchInsert(
       String keyspaceName, String tableName, List<Map<String, Object>> records) {
 
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("batchInsert", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service batchInsert method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service batchInsert method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
 
     Session session = connectionManager.getSession(keyspaceName);
     Response response = new Response();
-    BatchStatement batchStatement = new BatchStatement();
-    ResultSet resultSet = null;
-
     try {
-      for (Map<String, Object> map : records) {
-        Insert insert = QueryBuilder.insertInto(keyspaceName, tableName);
-        map.entrySet()
-            .stream()
-            .forEach(
-                x -> {
-                  insert.value(x.getKey(), x.getValue());
-                });
-        batchStatement.add(insert);
+      List<Statement> statements = new ArrayList<>(records.size());
+      for (Map<String, Object> record : records) {
+        lookupIndexManager.index(session, keyspaceName, tableName, record);
+        statements.add(
+            CassandraUtil.createInsertStatement(session, keyspaceName, tableName, record));
       }
-      resultSet = session.execute(batchStatement);
+      executeBatch(session, keyspaceName, tableName, statements, records);
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (QueryExecutionException
         | QueryValidationException
         | NoHostAvailableException
+        | InvalidTypeException
+        | CodecNotFoundException
         | IllegalStateException e) {
+      timer.error();
       ProjectLogger.log("Cassandra Batch Insert Failed." + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("batchInsert", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
@@ -595,32 +658,36 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
   public Response batchUpdateById(
       String keyspaceName, String tableName, List<Map<String, Object>> records) {
 
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("batchUpdateById", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service batchUpdateById method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service batchUpdateById method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Session session = connectionManager.getSession(keyspaceName);
     Response response = new Response();
-    BatchStatement batchStatement = new BatchStatement();
-    ResultSet resultSet = null;
-
     try {
-      for (Map<String, Object> map : records) {
-        Update update = createUpdateStatement(keyspaceName, tableName, map);
-        batchStatement.add(update);
+      List<Statement> statements = new ArrayList<>(records.size());
+      for (Map<String, Object> record : records) {
+        lookupIndexManager.index(session, keyspaceName, tableName, record);
+        statements.add(
+            CassandraUtil.createUpdateByIdStatement(session, keyspaceName, tableName, record));
       }
-      resultSet = session.execute(batchStatement);
+      executeBatch(session, keyspaceName, tableName, statements, records);
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (QueryExecutionException
         | QueryValidationException
         | NoHostAvailableException
+        | InvalidTypeException
+        | CodecNotFoundException
         | IllegalStateException e) {
+      timer.error();
       ProjectLogger.log("Cassandra Batch Update Failed." + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("batchUpdateById", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
@@ -637,33 +704,39 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
   public Response performBatchAction(
       String keySpaceName, String tableName, Map<String, Object> inputData) {
 
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("performBatchAction", keySpaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service performBatchAction method started at ==" + startTime,
+        "Cassandra Service performBatchAction method started at ==" + timer.getStartTime(),
         LoggerEnum.INFO.name());
 
     Session session = connectionManager.getSession(keySpaceName);
     Response response = new Response();
-    BatchStatement batchStatement = new BatchStatement();
-    ResultSet resultSet = null;
     try {
-      inputData.forEach(
-          (key, inputMap) -> {
-            Map<String, Object> record = (Map<String, Object>) inputMap;
-            if (key.equals(JsonKey.INSERT)) {
-              Insert insert = createInsertStatement(keySpaceName, tableName, record);
-              batchStatement.add(insert);
-            } else if (key.equals(JsonKey.UPDATE)) {
-              Update update = createUpdateStatement(keySpaceName, tableName, record);
-              batchStatement.add(update);
-            }
-          });
-      resultSet = session.execute(batchStatement);
+      List<Statement> statements = new ArrayList<>();
+      List<Map<String, Object>> records = new ArrayList<>();
+      for (Entry<String, Object> entry : inputData.entrySet()) {
+        Map<String, Object> record = (Map<String, Object>) entry.getValue();
+        if (JsonKey.INSERT.equals(entry.getKey())) {
+          lookupIndexManager.index(session, keySpaceName, tableName, record);
+          statements.add(
+              CassandraUtil.createInsertStatement(session, keySpaceName, tableName, record));
+          records.add(record);
+        } else if (JsonKey.UPDATE.equals(entry.getKey())) {
+          lookupIndexManager.index(session, keySpaceName, tableName, record);
+          statements.add(
+              CassandraUtil.createUpdateByIdStatement(session, keySpaceName, tableName, record));
+          records.add(record);
+        }
+      }
+      executeBatch(session, keySpaceName, tableName, statements, records);
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (QueryExecutionException
         | QueryValidationException
         | NoHostAvailableException
+        | InvalidTypeException
+        | CodecNotFoundException
         | IllegalStateException e) {
+      timer.error();
       ProjectLogger.log(
           "Cassandra performBatchAction Failed." + e.getMessage(), LoggerEnum.ERROR.name());
       throw new ProjectCommonException(
@@ -671,99 +744,109 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("performBatchAction", startTime);
+    nearCache.invalidateAll(keySpaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
-  private Insert createInsertStatement(
-      String keySpaceName, String tableName, Map<String, Object> record) {
-    Insert insert = QueryBuilder.insertInto(keySpaceName, tableName);
-    record
-        .entrySet()
-        .stream()
-        .forEach(
-            x -> {
-              insert.value(x.getKey(), x.getValue());
-            });
-    return insert;
-  }
-
-  private Update createUpdateStatement(
-      String keySpaceName, String tableName, Map<String, Object> record) {
-    Update update = QueryBuilder.update(keySpaceName, tableName);
-    Assignments assignments = update.with();
-    Update.Where where = update.where();
-    record
-        .entrySet()
-        .stream()
-        .forEach(
-            x -> {
-              if (Constants.ID.equals(x.getKey())) {
-                where.and(eq(x.getKey(), x.getValue()));
-              } else {
-                assignments.and(QueryBuilder.set(x.getKey(), x.getValue()));
-              }
-            });
-    return update;
-  }
-
   @Override
   public Response batchUpdate(
       String keyspaceName, String tableName, List<Map<String, Map<String, Object>>> list) {
 
     Session session = connectionManager.getSession(keyspaceName);
-    BatchStatement batchStatement = new BatchStatement();
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("batchUpdate", keyspaceName, tableName);
     ProjectLogger.log(
-        "Cassandra Service batchUpdate method started at ==" + startTime, LoggerEnum.INFO);
+        "Cassandra Service batchUpdate method started at ==" + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
-    ResultSet resultSet = null;
     try {
+      List<Statement> statements = new ArrayList<>(list.size());
+      List<Map<String, Object>> primaryKeys = new ArrayList<>(list.size());
       for (Map<String, Map<String, Object>> record : list) {
         Map<String, Object> primaryKey = record.get(JsonKey.PRIMARY_KEY);
-        Map<String, Object> nonPKRecord = record.get(JsonKey.NON_PRIMARY_KEY);
-        batchStatement.add(
-            CassandraUtil.createUpdateQuery(primaryKey, nonPKRecord, keyspaceName, tableName));
+        Map<String, Object> columns = record.get(JsonKey.NON_PRIMARY_KEY);
+        lookupIndexManager.index(session, keyspaceName, tableName, primaryKey, columns, 0);
+        statements.add(
+            CassandraUtil.createUpdateQuery(primaryKey, columns, keyspaceName, tableName));
+        primaryKeys.add(primaryKey);
       }
-      resultSet = session.execute(batchStatement);
+      executeBatch(session, keyspaceName, tableName, statements, primaryKeys);
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (Exception ex) {
+      timer.error();
       ProjectLogger.log("Cassandra Batch Update failed " + ex.getMessage(), ex);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("batchUpdate", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
-  private void logQueryElapseTime(String operation, long startTime) {
-
-    long stopTime = System.currentTimeMillis();
-    long elapsedTime = stopTime - startTime;
-    String message =
-        "Cassandra operation {0} started at {1} and completed at {2}. Total time elapsed is {3}.";
-    MessageFormat mf = new MessageFormat(message);
-    ProjectLogger.log(
-        mf.format(new Object[] {operation, startTime, stopTime, elapsedTime}), LoggerEnum.PERF_LOG);
+  /**
+   * Write given statements grouped by the partition of their records, throwing if any record could
+   * not be written.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param statements Statement of each record
+   * @param records Records (or their primary keys) in the same order as the statements
+   */
+  protected void executeBatch(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      List<Statement> statements,
+      List<Map<String, Object>> records) {
+    for (Map<String, Object> record : records) {
+      writeBehindBuffer.flush(keyspaceName, tableName, record);
+    }
+    List<String> partitionKeyColumns =
+        PartitionBatchWriter.getPartitionKeyColumns(session, keyspaceName, tableName);
+    List<Object> partitionKeys = new ArrayList<>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      // without table metadata every record is written on its own
+      partitionKeys.add(
+          partitionKeyColumns.isEmpty()
+              ? i
+              : PartitionBatchWriter.getPartitionKey(partitionKeyColumns, records.get(i)));
+    }
+    PartitionBatchWriter.Result result =
+        new PartitionBatchWriter(session).write(statements, partitionKeys);
+    if (!result.isSuccess()) {
+      List<Integer> failed = result.getFailedIndexes();
+      throw new IllegalStateException(
+          failed.size() + " of " + result.size() + " records not written to " + tableName,
+          result.getError(failed.get(0)));
+    }
   }
 
   @Override
   public Response getRecordsByIndexedProperty(
       String keyspaceName, String tableName, String propertyName, Object propertyValue) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getRecordsByIndexedProperty", keyspaceName, tableName);
     ProjectLogger.log(
-        "CassandraOperationImpl:getRecordsByIndexedProperty called at " + startTime,
+        "CassandraOperationImpl:getRecordsByIndexedProperty called at " + timer.getStartTime(),
         LoggerEnum.INFO);
     Response response = new Response();
     try {
-      Select selectQuery = QueryBuilder.select().all().from(keyspaceName, tableName);
-      selectQuery.where().and(eq(propertyName, propertyValue));
-      ResultSet results =
-          connectionManager.getSession(keyspaceName).execute(selectQuery.allowFiltering());
-      response = CassandraUtil.createResponse(results);
+      Session session = connectionManager.getSession(keyspaceName);
+      if (lookupIndexManager.isIndexed(session, keyspaceName, tableName, propertyName)) {
+        Map<String, Object> filters = new HashMap<>();
+        filters.put(propertyName, propertyValue);
+        response = readByLookup(session, keyspaceName, tableName, propertyName, filters, null);
+      } else {
+        Select selectQuery = QueryBuilder.select().all().from(keyspaceName, tableName);
+        selectQuery.where().and(eq(propertyName, propertyValue));
+        response =
+            CassandraUtil.createResponse(executeRead(session, selectQuery.allowFiltering()));
+      }
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(
           "CassandraOperationImpl:getRecordsByIndexedProperty: "
               + Constants.EXCEPTION_MSG_FETCH
@@ -776,30 +859,24 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByIndexedProperty", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public void deleteRecord(
       String keyspaceName, String tableName, Map<String, String> compositeKeyMap) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("deleteRecordByCompositeKey", keyspaceName, tableName);
     ProjectLogger.log(
-        "CassandraOperationImpl: deleteRecord by composite key called at " + startTime,
+        "CassandraOperationImpl: deleteRecord by composite key called at " + timer.getStartTime(),
         LoggerEnum.INFO);
     try {
-      Delete delete = QueryBuilder.delete().from(keyspaceName, tableName);
-      Delete.Where deleteWhere = delete.where();
-      compositeKeyMap
-          .entrySet()
-          .stream()
-          .forEach(
-              x -> {
-                Clause clause = eq(x.getKey(), x.getValue());
-                deleteWhere.and(clause);
-              });
+      Delete delete = CassandraUtil.createDeleteQuery(keyspaceName, tableName, compositeKeyMap);
+      writeBehindBuffer.discard(keyspaceName, tableName, compositeKeyMap);
       connectionManager.getSession(keyspaceName).execute(delete);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(
           "CassandraOperationImpl: deleteRecord by composite key. "
               + Constants.EXCEPTION_MSG_DELETE
@@ -812,22 +889,28 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("deleteRecordByCompositeKey", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(0);
   }
 
   @Override
   public boolean deleteRecords(String keyspaceName, String tableName, List<String> identifierList) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("deleteRecords", keyspaceName, tableName);
     ResultSet resultSet;
     ProjectLogger.log(
-        "CassandraOperationImpl: deleteRecords called at " + startTime, LoggerEnum.INFO);
+        "CassandraOperationImpl: deleteRecords called at " + timer.getStartTime(), LoggerEnum.INFO);
     try {
       Delete delete = QueryBuilder.delete().from(keyspaceName, tableName);
       Delete.Where deleteWhere = delete.where();
       Clause clause = QueryBuilder.in(JsonKey.ID, identifierList);
       deleteWhere.and(clause);
+      for (String identifier : identifierList) {
+        writeBehindBuffer.discard(
+            keyspaceName, tableName, Collections.singletonMap(Constants.IDENTIFIER, identifier));
+      }
       resultSet = connectionManager.getSession(keyspaceName).execute(delete);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(
           "CassandraOperationImpl: deleteRecords by list of primary key. "
               + Constants.EXCEPTION_MSG_DELETE
@@ -840,28 +923,31 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("deleteRecords", startTime);
+    for (String identifier : identifierList) {
+      nearCache.invalidate(keyspaceName, tableName, identifier);
+    }
+    timer.stop(0);
     return resultSet.wasApplied();
   }
 
   @Override
   public Response getRecordsByCompositeKey(
       String keyspaceName, String tableName, Map<String, Object> compositeKeyMap) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getRecordsByCompositeKey", keyspaceName, tableName);
     ProjectLogger.log(
-        "CassandraOperationImpl: getRecordsByCompositeKey called at " + startTime, LoggerEnum.INFO);
+        "CassandraOperationImpl: getRecordsByCompositeKey called at " + timer.getStartTime(),
+        LoggerEnum.INFO);
     Response response = new Response();
     try {
-      Builder selectBuilder = QueryBuilder.select().all();
-      Select selectQuery = selectBuilder.from(keyspaceName, tableName);
-      Where selectWhere = selectQuery.where();
+      QueryShape shape = new QueryShape(keyspaceName, tableName, null);
       for (Entry<String, Object> entry : compositeKeyMap.entrySet()) {
-        Clause clause = eq(entry.getKey(), entry.getValue());
-        selectWhere.and(clause);
+        shape.eq(entry.getKey(), entry.getValue());
       }
-      ResultSet results = connectionManager.getSession(keyspaceName).execute(selectQuery);
+      ResultSet results = executeSelect(connectionManager.getSession(keyspaceName), shape);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(
           "CassandraOperationImpl:getRecordsByCompositeKey: "
               + Constants.EXCEPTION_MSG_FETCH
@@ -873,34 +959,31 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByCompositeKey", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response getRecordsByIdsWithSpecifiedColumns(
       String keyspaceName, String tableName, List<String> properties, List<String> ids) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getRecordsByIdsWithSpecifiedColumns", keyspaceName, tableName);
     ProjectLogger.log(
-        "CassandraOperationImpl: getRecordsByIdsWithSpecifiedColumns call started at " + startTime,
+        "CassandraOperationImpl: getRecordsByIdsWithSpecifiedColumns call started at "
+            + timer.getStartTime(),
         LoggerEnum.INFO);
     Response response = new Response();
     try {
-      Builder selectBuilder;
-      if (CollectionUtils.isNotEmpty(properties)) {
-        selectBuilder = QueryBuilder.select(properties.toArray(new String[properties.size()]));
-      } else {
-        selectBuilder = QueryBuilder.select().all();
-      }
-      response = executeSelectQuery(keyspaceName, tableName, ids, selectBuilder, "");
+      response = executeSelectQuery(keyspaceName, tableName, ids, properties, "");
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByIdsWithSpecifiedColumns", startTime);
+    timer.stop(response);
     return response;
   }
 
@@ -908,70 +991,274 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String keyspaceName,
       String tableName,
       List<String> ids,
-      Builder selectBuilder,
+      List<String> fields,
       String primaryKeyColumnName) {
     Response response;
-    Select selectQuery = selectBuilder.from(keyspaceName, tableName);
-    Where selectWhere = selectQuery.where();
-    Clause clause = null;
-    if (StringUtils.isBlank(primaryKeyColumnName)) {
-      clause = QueryBuilder.in(JsonKey.ID, ids.toArray(new Object[ids.size()]));
-    } else {
-      clause = QueryBuilder.in(primaryKeyColumnName, ids.toArray(new Object[ids.size()]));
+    String keyColumn =
+        StringUtils.isBlank(primaryKeyColumnName) ? JsonKey.ID : primaryKeyColumnName;
+    Session session = connectionManager.getSession(keyspaceName);
+    // a single IN query makes one coordinator gather all partitions, which does not scale to many
+    // keys
+    int partitionReadMinKeys =
+        CassandraUtil.getIntProperty(
+            Constants.PARTITION_READ_MIN_KEYS, DEFAULT_PARTITION_READ_MIN_KEYS);
+    if (ids.size() >= partitionReadMinKeys) {
+      response = new Response();
+      response.put(
+          Constants.RESPONSE,
+          new PartitionReader(session).read(keyspaceName, tableName, keyColumn, ids, fields));
+      return response;
     }
-
-    selectWhere.and(clause);
-    ResultSet results = connectionManager.getSession(keyspaceName).execute(selectQuery);
+    QueryShape shape = new QueryShape(keyspaceName, tableName, fields).in(keyColumn, ids);
+    ResultSet results = executeSelect(session, shape);
     response = CassandraUtil.createResponse(results);
     return response;
   }
 
+  @Override
+  public long streamRecordsByPrimaryKeys(
+      String keyspaceName,
+      String tableName,
+      List<String> primaryKeys,
+      String primaryKeyColumnName,
+      List<String> fields,
+      Consumer<Map<String, Object>> consumer) {
+    OperationTimer timer =
+        CassandraMetrics.start("streamRecordsByPrimaryKeys", keyspaceName, tableName);
+    String keyColumn =
+        StringUtils.isBlank(primaryKeyColumnName) ? JsonKey.ID : primaryKeyColumnName;
+    long count;
+    try {
+      count =
+          new PartitionReader(connectionManager.getSession(keyspaceName))
+              .read(keyspaceName, tableName, keyColumn, primaryKeys, fields, consumer);
+    } catch (Exception e) {
+      timer.error();
+      ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
+      throw new ProjectCommonException(
+          ResponseCode.SERVER_ERROR.getErrorCode(),
+          ResponseCode.SERVER_ERROR.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+    timer.stop(count);
+    return count;
+  }
+
+  @Override
+  public Response getRecordsPage(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize,
+      String pagingState) {
+    OperationTimer timer = CassandraMetrics.start("getRecordsPage", keyspaceName, tableName);
+    ProjectLogger.log(
+        "CassandraOperationImpl: getRecordsPage call started at " + timer.getStartTime(),
+        LoggerEnum.INFO);
+    Response response;
+    try {
+      Session session = connectionManager.getSession(keyspaceName);
+      QueryShape shape =
+          new QueryShape(keyspaceName, tableName, fields).where(filters).allowFiltering();
+      Statement statement =
+          CassandraUtil.setPaging(
+              CassandraUtil.createSelectStatement(session, shape), pageSize, pagingState);
+      response = CassandraUtil.createPageResponse(executeRead(session, statement));
+    } catch (ProjectCommonException e) {
+      timer.error();
+      throw e;
+    } catch (Exception e) {
+      timer.error();
+      ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
+      throw new ProjectCommonException(
+          ResponseCode.SERVER_ERROR.getErrorCode(),
+          ResponseCode.SERVER_ERROR.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+    timer.stop(response);
+    return response;
+  }
+
+  @Override
+  public Iterator<Map<String, Object>> getRecordsIterator(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize) {
+    return new ResultSetIterator(
+        executePagedSelect(
+            "getRecordsIterator", keyspaceName, tableName, filters, fields, pageSize));
+  }
+
+  @Override
+  public Stream<Map<String, Object>> getRecordsStream(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize) {
+    return CassandraUtil.createResultStream(
+        executePagedSelect("getRecordsStream", keyspaceName, tableName, filters, fields, pageSize));
+  }
+
+  @Override
+  public long scanAllRecords(
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      int concurrency,
+      Consumer<Map<String, Object>> consumer) {
+    OperationTimer timer = CassandraMetrics.start("scanAllRecords", keyspaceName, tableName);
+    long count;
+    try {
+      count =
+          new TokenRangeScanner(connectionManager.getSession(keyspaceName))
+              .scan(keyspaceName, tableName, fields, concurrency, consumer);
+    } catch (ProjectCommonException e) {
+      timer.error();
+      throw e;
+    }
+    timer.stop(count);
+    return count;
+  }
+
+  @Override
+  public List<String> getTokenRanges(String keyspaceName, int splits) {
+    return new TokenRangeScanner(connectionManager.getSession(keyspaceName))
+        .getRanges(splits)
+        .stream()
+        .map(TokenRangeScanner::formatRange)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public long scanTokenRange(
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      String tokenRange,
+      Consumer<Map<String, Object>> consumer) {
+    OperationTimer timer = CassandraMetrics.start("scanTokenRange", keyspaceName, tableName);
+    long count;
+    try {
+      TokenRangeScanner scanner = new TokenRangeScanner(connectionManager.getSession(keyspaceName));
+      count =
+          scanner.scanRange(
+              keyspaceName, tableName, fields, scanner.parseRange(tokenRange), consumer);
+    } catch (ProjectCommonException e) {
+      timer.error();
+      throw e;
+    } catch (Exception e) {
+      timer.error();
+      ProjectLogger.log(
+          "CassandraOperationImpl:scanTokenRange: " + Constants.EXCEPTION_MSG_FETCH + tableName,
+          e);
+      throw new ProjectCommonException(
+          ResponseCode.SERVER_ERROR.getErrorCode(),
+          ResponseCode.SERVER_ERROR.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+    timer.stop(count);
+    return count;
+  }
+
+  /** Execute paged select, timing only the fetch of the first page. */
+  private ResultSet executePagedSelect(
+      String operation,
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize) {
+    OperationTimer timer = CassandraMetrics.start(operation, keyspaceName, tableName);
+    try {
+      Session session = connectionManager.getSession(keyspaceName);
+      QueryShape shape =
+          new QueryShape(keyspaceName, tableName, fields).where(filters).allowFiltering();
+      ResultSet results =
+          session.execute(
+              CassandraUtil.setPaging(
+                  CassandraUtil.createSelectStatement(session, shape), pageSize, null));
+      timer.stop(results.getAvailableWithoutFetching());
+      return results;
+    } catch (Exception e) {
+      timer.error();
+      ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
+      throw new ProjectCommonException(
+          ResponseCode.SERVER_ERROR.getErrorCode(),
+          ResponseCode.SERVER_ERROR.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+  }
+
+  /**
+   * Execute select query of given shape using the prepared statement cached for that shape.
+   *
+   * @param session Cassandra session
+   * @param shape Query shape along with the filter values
+   * @return Result set
+   */
+  protected ResultSet executeSelect(Session session, QueryShape shape) {
+    return executeRead(session, CassandraUtil.createSelectStatement(session, shape));
+  }
+
+  /**
+   * Execute read statement, recording its speculative executions.
+   *
+   * @param session Cassandra session
+   * @param statement Read statement
+   * @return Result set
+   */
+  protected ResultSet executeRead(Session session, Statement statement) {
+    ResultSet results = session.execute(statement);
+    SpeculativeExecutionStats.record(results);
+    return results;
+  }
+
   @Override
   public Response getRecordsByPrimaryKeys(
       String keyspaceName,
       String tableName,
       List<String> primaryKeys,
       String primaryKeyColumnName) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start("getRecordsByPrimaryKeys", keyspaceName, tableName);
     ProjectLogger.log(
-        "CassandraOperationImpl: getRecordsByPrimaryKeys call started at " + startTime,
+        "CassandraOperationImpl: getRecordsByPrimaryKeys call started at " + timer.getStartTime(),
         LoggerEnum.INFO);
     Response response = new Response();
     try {
-      Builder selectBuilder = QueryBuilder.select().all();
       response =
-          executeSelectQuery(
-              keyspaceName, tableName, primaryKeys, selectBuilder, primaryKeyColumnName);
+          executeSelectQuery(keyspaceName, tableName, primaryKeys, null, primaryKeyColumnName);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByPrimaryKeys", startTime);
+    timer.stop(response);
     return response;
   }
 
   @Override
   public Response insertRecordWithTTL(
       String keyspaceName, String tableName, Map<String, Object> request, int ttl) {
-    long startTime = System.currentTimeMillis();
-    Insert insert = QueryBuilder.insertInto(keyspaceName, tableName);
-    request
-        .entrySet()
-        .stream()
-        .forEach(
-            x -> {
-              insert.value(x.getKey(), x.getValue());
-            });
-    insert.using(QueryBuilder.ttl(ttl));
+    OperationTimer timer = CassandraMetrics.start("insertRecordWithTTL", keyspaceName, tableName);
+    Insert insert = CassandraUtil.createInsertWithTTLQuery(keyspaceName, tableName, request, ttl);
     ProjectLogger.log(
         "CassandraOperationImpl:insertRecordWithTTL: query = " + insert.getQueryString(),
         LoggerEnum.INFO.name());
-    ResultSet results = connectionManager.getSession(keyspaceName).execute(insert);
+    Session session = connectionManager.getSession(keyspaceName);
+    lookupIndexManager.index(session, keyspaceName, tableName, request, ttl);
+    writeBehindBuffer.flush(keyspaceName, tableName, request);
+    ResultSet results = session.execute(insert);
     Response response = CassandraUtil.createResponse(results);
-    logQueryElapseTime("insertRecordWithTTL", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
@@ -982,32 +1269,19 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       Map<String, Object> request,
       Map<String, Object> compositeKey,
       int ttl) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("updateRecordWithTTL", keyspaceName, tableName);
     Session session = connectionManager.getSession(keyspaceName);
-    Update update = QueryBuilder.update(keyspaceName, tableName);
-    Assignments assignments = update.with();
-    Update.Where where = update.where();
-    request
-        .entrySet()
-        .stream()
-        .forEach(
-            x -> {
-              assignments.and(QueryBuilder.set(x.getKey(), x.getValue()));
-            });
-    compositeKey
-        .entrySet()
-        .stream()
-        .forEach(
-            x -> {
-              where.and(eq(x.getKey(), x.getValue()));
-            });
-    update.using(QueryBuilder.ttl(ttl));
+    Update update =
+        CassandraUtil.createUpdateWithTTLQuery(keyspaceName, tableName, request, compositeKey, ttl);
     ProjectLogger.log(
         "CassandraOperationImpl:updateRecordWithTTL: query = " + update.getQueryString(),
         LoggerEnum.INFO.name());
+    lookupIndexManager.index(session, keyspaceName, tableName, compositeKey, request, ttl);
+    writeBehindBuffer.flush(keyspaceName, tableName, compositeKey);
     ResultSet results = session.execute(update);
     Response response = CassandraUtil.createResponse(results);
-    logQueryElapseTime("updateRecordWithTTL", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
@@ -1018,60 +1292,30 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       Map<String, Object> primaryKeys,
       List<String> properties,
       Map<String, String> ttlPropertiesWithAlias) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer =
+        CassandraMetrics.start(
+            "getRecordsByIdsWithSpecifiedColumnsAndTTL", keyspaceName, tableName);
     ProjectLogger.log(
         "CassandraOperationImpl:getRecordsByIdsWithSpecifiedColumnsAndTTL: call started at "
-            + startTime,
+            + timer.getStartTime(),
         LoggerEnum.INFO);
     Response response = new Response();
     try {
-
-      Selection selection = QueryBuilder.select();
-
-      if (CollectionUtils.isNotEmpty(properties)) {
-        properties
-            .stream()
-            .forEach(
-                property -> {
-                  selection.column(property);
-                });
-      }
-
-      if (MapUtils.isNotEmpty(ttlPropertiesWithAlias)) {
-        ttlPropertiesWithAlias
-            .entrySet()
-            .stream()
-            .forEach(
-                property -> {
-                  if (StringUtils.isBlank(property.getValue())) {
-                    ProjectLogger.log(
-                        "CassandraOperationImpl:getRecordsByIdsWithSpecifiedColumnsAndTTL: Alias not provided for ttl key = "
-                            + property.getKey(),
-                        LoggerEnum.ERROR);
-                    ProjectCommonException.throwServerErrorException(ResponseCode.SERVER_ERROR);
-                  }
-                  selection.ttl(property.getKey()).as(property.getValue());
-                });
-      }
-      Select select = selection.from(keyspaceName, tableName);
-      primaryKeys
-          .entrySet()
-          .stream()
-          .forEach(
-              primaryKey -> {
-                select.where().and(eq(primaryKey.getKey(), primaryKey.getValue()));
-              });
+      Select select =
+          CassandraUtil.createSelectWithTTLAliasQuery(
+              keyspaceName, tableName, primaryKeys, properties, ttlPropertiesWithAlias);
       ProjectLogger.log("Query =" + select.getQueryString(), LoggerEnum.INFO);
-      ResultSet results = connectionManager.getSession(keyspaceName).execute(select);
+      ResultSet results = executeRead(connectionManager.getSession(keyspaceName), select);
       response = CassandraUtil.createResponse(results);
     } catch (Exception e) {
+      timer.error();
       ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + tableName + " : " + e.getMessage(), e);
       throw new ProjectCommonException(
           ResponseCode.SERVER_ERROR.getErrorCode(),
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("getRecordsByIdsWithSpecifiedColumnsAndTTL", startTime);
+    timer.stop(response);
     return response;
   }
 
@@ -1081,9 +1325,10 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String tableName,
       List<Map<String, Object>> records,
       List<Integer> ttls) {
-    long startTime = System.currentTimeMillis();
+    OperationTimer timer = CassandraMetrics.start("batchInsertWithTTL", keyspaceName, tableName);
     ProjectLogger.log(
-        "CassandraOperationImpl:batchInsertWithTTL: call started at " + startTime, LoggerEnum.INFO);
+        "CassandraOperationImpl:batchInsertWithTTL: call started at " + timer.getStartTime(),
+        LoggerEnum.INFO);
     if (CollectionUtils.isEmpty(records) || CollectionUtils.isEmpty(ttls)) {
       ProjectLogger.log(
           "CassandraOperationImpl:batchInsertWithTTL: records or ttls is empty", LoggerEnum.ERROR);
@@ -1097,32 +1342,25 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
     }
     Session session = connectionManager.getSession(keyspaceName);
     Response response = new Response();
-    BatchStatement batchStatement = new BatchStatement();
     ResultSet resultSet = null;
-    Iterator<Integer> ttlIterator = ttls.iterator();
     try {
-      for (Map<String, Object> map : records) {
-        Insert insert = QueryBuilder.insertInto(keyspaceName, tableName);
-        map.entrySet()
-            .stream()
-            .forEach(
-                x -> {
-                  insert.value(x.getKey(), x.getValue());
-                });
-        if (ttlIterator.hasNext()) {
-          Integer ttlVal = ttlIterator.next();
-          if (ttlVal != null & ttlVal > 0) {
-            insert.using(QueryBuilder.ttl(ttlVal));
-          }
-        }
-        batchStatement.add(insert);
+      for (int i = 0; i < records.size(); i++) {
+        Map<String, Object> record = records.get(i);
+        Integer ttl = ttls.get(i);
+        lookupIndexManager.index(session, keyspaceName, tableName, record, ttl == null ? 0 : ttl);
+        writeBehindBuffer.flush(keyspaceName, tableName, record);
       }
+      BatchStatement batchStatement =
+          CassandraUtil.createBatchInsertWithTTLStatement(keyspaceName, tableName, records, ttls);
       resultSet = session.execute(batchStatement);
       response.put(Constants.RESPONSE, Constants.SUCCESS);
     } catch (QueryExecutionException
         | QueryValidationException
         | NoHostAvailableException
+        | InvalidTypeException
+        | CodecNotFoundException
         | IllegalStateException e) {
+      timer.error();
       ProjectLogger.log(
           "CassandraOperationImpl:batchInsertWithTTL: Exception occurred with error message = "
               + e.getMessage(),
@@ -1132,7 +1370,8 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
           ResponseCode.SERVER_ERROR.getErrorMessage(),
           ResponseCode.SERVER_ERROR.getResponseCode());
     }
-    logQueryElapseTime("batchInsertWithTTL", startTime);
+    nearCache.invalidateAll(keyspaceName, tableName);
+    timer.stop(response);
     return response;
   }
 
@@ -1144,12 +1383,13 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String key,
       int value,
       String objectType) {
-    Select selectQuery = QueryBuilder.select().column(columnName).from(keyspace, tableName);
-    Clause clause = QueryBuilder.lt(key, value);
-    selectQuery.where(eq(JsonKey.OBJECT_TYPE, objectType)).and(clause);
-    selectQuery.allowFiltering();
-    ResultSet resultSet = connectionManager.getSession(keyspace).execute(selectQuery);
+    OperationTimer timer = CassandraMetrics.start("getRecordByObjectType", keyspace, tableName);
+    Select selectQuery =
+        CassandraUtil.createSelectByObjectTypeQuery(
+            keyspace, tableName, columnName, key, value, objectType);
+    ResultSet resultSet = executeRead(connectionManager.getSession(keyspace), selectQuery);
     Response response = CassandraUtil.createResponse(resultSet);
+    timer.stop(response);
     return response;
   }
 
@@ -1171,6 +1411,61 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
 
   }
 
+  @Override
+  public CompletionStage<Long> applyOperationOnRecordPagesAsync(
+      String keySpace,
+      String table,
+      Map<String, Object> filters,
+      List<String> fields,
+      int pageSize,
+      Consumer<List<Map<String, Object>>> consumer) {
+    OperationTimer timer =
+        CassandraMetrics.start("applyOperationOnRecordPagesAsync", keySpace, table);
+    CompletableFuture<Long> result = new CompletableFuture<>();
+    try {
+      Session session = connectionManager.getSession(keySpace);
+      Statement statement =
+          CassandraUtil.createSelectStatement(
+              session, new QueryShape(keySpace, table, fields).where(filters));
+      if (pageSize > 0) {
+        statement.setFetchSize(pageSize);
+      }
+      CompletableFuture<Long> pages =
+          new PageReader(session, CallbackExecutor.getInstance())
+              .read(statement, consumer)
+              .toCompletableFuture();
+      pages.whenComplete(
+          (count, error) -> {
+            if (error == null) {
+              timer.stop(count);
+              result.complete(count);
+              return;
+            }
+            timer.error();
+            ProjectLogger.log(
+                Constants.EXCEPTION_MSG_FETCH + table + " : " + error.getMessage(), error);
+            result.completeExceptionally(
+                error instanceof ProjectCommonException
+                    ? error
+                    : new ProjectCommonException(
+                        ResponseCode.SERVER_ERROR.getErrorCode(),
+                        ResponseCode.SERVER_ERROR.getErrorMessage(),
+                        ResponseCode.SERVER_ERROR.getResponseCode()));
+          });
+      // stop reading pages once the caller cancels
+      result.whenComplete((count, error) -> pages.cancel(false));
+    } catch (Exception e) {
+      timer.error();
+      ProjectLogger.log(Constants.EXCEPTION_MSG_FETCH + table + " : " + e.getMessage(), e);
+      result.completeExceptionally(
+          new ProjectCommonException(
+              ResponseCode.SERVER_ERROR.getErrorCode(),
+              ResponseCode.SERVER_ERROR.getErrorMessage(),
+              ResponseCode.SERVER_ERROR.getResponseCode()));
+    }
+    return result;
+  }
+
   @Override
   public Response searchValueInList(String keyspace, String tableName, String key, String value) {
     return searchValueInList(keyspace, tableName, key, value, null);
@@ -1183,26 +1478,12 @@ public abstract class CassandraOperationImpl implements CassandraOperation {
       String key,
       String value,
       Map<String, Object> propertyMap) {
-    Select selectQuery = QueryBuilder.select().all().from(keyspace, tableName);
-    Clause clause = QueryBuilder.contains(key, value);
-    selectQuery.where(clause);
-    if (MapUtils.isNotEmpty(propertyMap)) {
-      for (Entry<String, Object> entry : propertyMap.entrySet()) {
-        if (entry.getValue() instanceof List) {
-          List<Object> list = (List) entry.getValue();
-          if (null != list) {
-            Object[] propertyValues = list.toArray(new Object[list.size()]);
-            Clause clauseList = QueryBuilder.in(entry.getKey(), propertyValues);
-            selectQuery.where(clauseList);
-          }
-        } else {
-          Clause clauseMap = eq(entry.getKey(), entry.getValue());
-          selectQuery.where(clauseMap);
-        }
-      }
-    }
-    ResultSet resultSet = connectionManager.getSession(keyspace).execute(selectQuery);
+    OperationTimer timer = CassandraMetrics.start("searchValueInList", keyspace, tableName);
+    Select selectQuery =
+        CassandraUtil.createSearchValueInListQuery(keyspace, tableName, key, value, propertyMap);
+    ResultSet resultSet = executeRead(connectionManager.getSession(keyspace), selectQuery);
     Response response = CassandraUtil.createResponse(resultSet);
+    timer.stop(response);
     return response;
   }
 }
@@ -0,0 +1,711 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.querybuilder.Insert;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.QueryShape;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.CassandraPropertyReader;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.PropertiesCache;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.PreparedStatementCache;
+import org.sunbird.helper.SpeculativeExecutionStats;
+
+/**
+ * Maintains denormalized lookup tables for reads of records by a non key column, declared with the
+ * lookupIndexes property as a comma separated list of table:column, e.g. user:email,user:phone.
+ * The lookup table of a column is named table_by_column and has the column as partition key and
+ * the record id as clustering key, so a read by the column value is a single partition read of the
+ * ids followed by single partition reads of the records, instead of a filtering scan of the table.
+ *
+ * <p>Only tables keyed by id are supported. Lookup entries are written before the record, and are
+ * never deleted on writes: an entry whose record was deleted or no longer has the value is skipped
+ * when read, and removed by a {@link #check} with repair. Hence a lookup never misses a record
+ * written through {@link CassandraOperationImpl} or {@link AsyncCassandraOperationImpl} once the
+ * lookup table is backfilled, while stale entries only cost a read. Entries are not removed when
+ * read, since the record of an entry which was just written may not be written yet.
+ *
+ * <p>Whether a lookup table exists is checked on its first use, and again after the
+ * lookupTableRecheckMillis property (one minute by default) as long as it is missing. A missing
+ * lookup table is logged and its column is neither indexed nor read through it, so writes keep
+ * working until it is created by a {@link #backfill}, in this or any other process.
+ */
+public final class LookupIndexManager {
+
+  private static final String LOOKUP_TABLE_SEPARATOR = "_by_";
+  private static final String INSERT_LOOKUP = "insertLookup";
+  private static final String INSERT_LOOKUP_WITH_TTL = "insertLookupWithTTL";
+  private static final String DELETE_LOOKUP = "deleteLookup";
+  private static final int DEFAULT_RECHECK_MILLIS = 60000;
+  private static final CassandraPropertyReader propertiesCache =
+      CassandraPropertyReader.getInstance();
+  private static final LookupIndexManager instance = new LookupIndexManager(readConfig());
+
+  private final Map<String, Set<String>> indexes;
+  private final Set<String> lookupTables = ConcurrentHashMap.newKeySet();
+  private final Map<String, Long> missingLookupTables = new ConcurrentHashMap<>();
+  private final long recheckMillis;
+
+  LookupIndexManager(Map<String, Set<String>> indexes) {
+    this(
+        indexes,
+        CassandraUtil.getIntProperty(
+            Constants.LOOKUP_TABLE_RECHECK_MILLIS, DEFAULT_RECHECK_MILLIS));
+  }
+
+  LookupIndexManager(Map<String, Set<String>> indexes, long recheckMillis) {
+    this.indexes = indexes;
+    this.recheckMillis = recheckMillis;
+  }
+
+  public static LookupIndexManager getInstance() {
+    return instance;
+  }
+
+  /**
+   * Get the lookup table name of given table and column.
+   *
+   * @param tableName Table name
+   * @param column Column name
+   * @return Lookup table name
+   */
+  public static String getLookupTableName(String tableName, String column) {
+    return tableName + LOOKUP_TABLE_SEPARATOR + column.toLowerCase();
+  }
+
+  /**
+   * Check whether reads of given table by given column are served by a lookup table.
+   *
+   * @param tableName Table name
+   * @param column Column name
+   * @return True if the column is indexed
+   */
+  public boolean isIndexed(String tableName, String column) {
+    Set<String> columns = indexes.get(tableName);
+    return columns != null && column != null && columns.contains(column.toLowerCase());
+  }
+
+  /**
+   * Check whether reads of given table by given column can be served by its lookup table, i.e.
+   * the column is indexed and the lookup table exists.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param column Column name
+   * @return True if the column is indexed and its lookup table exists
+   */
+  public boolean isIndexed(Session session, String keyspaceName, String tableName, String column) {
+    return isIndexed(tableName, column) && exists(session, keyspaceName, tableName, column);
+  }
+
+  /**
+   * Get the filter which a read with given filters can be served by.
+   *
+   * @param tableName Table name
+   * @param filters Column and value map, list values meaning any of the values
+   * @return Name of an indexed column among the filters, or null if there is none
+   */
+  public String getIndexedColumn(String tableName, Map<String, Object> filters) {
+    return getIndexedColumn(null, null, tableName, filters);
+  }
+
+  /**
+   * Get the filter which a read with given filters can be served by, skipping columns whose
+   * lookup table does not exist.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param filters Column and value map, list values meaning any of the values
+   * @return Name of an indexed column among the filters, or null if there is none
+   */
+  public String getIndexedColumn(
+      Session session, String keyspaceName, String tableName, Map<String, Object> filters) {
+    if (filters == null || !indexes.containsKey(tableName)) {
+      return null;
+    }
+    for (Map.Entry<String, Object> filter : filters.entrySet()) {
+      if (filter.getValue() != null
+          && !(filter.getValue() instanceof Map)
+          && isIndexed(tableName, filter.getKey())
+          && (session == null || exists(session, keyspaceName, tableName, filter.getKey()))) {
+        return filter.getKey();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Write the lookup entries of given record, to be called before the record is written.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param record Record to be written, entries are written for the indexed columns it sets
+   */
+  public void index(
+      Session session, String keyspaceName, String tableName, Map<String, Object> record) {
+    index(session, keyspaceName, tableName, record, 0);
+  }
+
+  /**
+   * Write the lookup entries of given record written with a TTL, so the entries expire along with
+   * the record.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param record Record to be written, entries are written for the indexed columns it sets
+   * @param ttl Time to live of the entries in seconds, 0 for no expiry
+   */
+  public void index(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> record,
+      int ttl) {
+    index(session, keyspaceName, tableName, record, record, ttl);
+  }
+
+  /**
+   * Write the lookup entries of a record written as given columns of given primary key, e.g. by an
+   * update by composite key, to be called before the record is written.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKey Primary key of the record
+   * @param columns Columns to be written, entries are written for the indexed columns among them
+   * @param ttl Time to live of the entries in seconds, 0 for no expiry
+   */
+  public void index(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      Map<String, Object> columns,
+      int ttl) {
+    Object id = primaryKey.get(Constants.IDENTIFIER);
+    for (String column : getIndexedColumns(session, keyspaceName, tableName, id, columns)) {
+      insert(session, keyspaceName, tableName, column, columns.get(column), id, ttl);
+    }
+  }
+
+  /**
+   * Write the lookup entries of a record without blocking, as {@link #index(Session, String,
+   * String, Map, Map, int)} does.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKey Primary key of the record
+   * @param columns Columns to be written, entries are written for the indexed columns among them
+   * @param ttl Time to live of the entries in seconds, 0 for no expiry
+   * @return Stage completed once all entries are written
+   */
+  public CompletionStage<Void> indexAsync(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      Map<String, Object> columns,
+      int ttl) {
+    Object id = primaryKey.get(Constants.IDENTIFIER);
+    List<CompletableFuture<ResultSet>> inserts = new ArrayList<>();
+    for (String column : getIndexedColumns(session, keyspaceName, tableName, id, columns)) {
+      String lookupTable = getLookupTableName(tableName, column);
+      inserts.add(
+          PreparedStatementCache.getInstance(session)
+              .getStatementAsync(
+                  getInsertKey(keyspaceName, lookupTable, column, ttl),
+                  () -> getInsertQuery(keyspaceName, lookupTable, column, ttl))
+              .thenCompose(
+                  statement ->
+                      CassandraUtil.toCompletableFuture(
+                          session.executeAsync(
+                              bindInsert(statement, columns.get(column), id, ttl))))
+              .toCompletableFuture());
+    }
+    return CompletableFuture.allOf(inserts.toArray(new CompletableFuture[inserts.size()]));
+  }
+
+  /**
+   * Read records matching all given filters through the lookup table of given column.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param column Indexed column among the filters
+   * @param filters Column and value map, list values meaning any of the values
+   * @param fields Columns to be returned (all if empty)
+   * @return Matching records
+   */
+  public List<Map<String, Object>> read(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      String column,
+      Map<String, Object> filters,
+      List<String> fields) {
+    Map<Object, Object> idValues = new HashMap<>();
+    for (Object value : toCollection(filters.get(column))) {
+      for (Object id : lookup(session, keyspaceName, tableName, column, value)) {
+        idValues.put(id, value);
+      }
+    }
+    if (idValues.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<Map<String, Object>> records =
+        new PartitionReader(session)
+            .read(
+                keyspaceName,
+                tableName,
+                Constants.IDENTIFIER,
+                new ArrayList<>(idValues.keySet()),
+                null);
+    List<Map<String, Object>> matches = new ArrayList<>();
+    String property = getProperty(column);
+    for (Map<String, Object> record : records) {
+      // skip records deleted or updated to another value since the entry was written
+      if (Objects.equals(record.get(property), idValues.get(record.get(Constants.IDENTIFIER)))
+          && matches(record, filters)) {
+        matches.add(project(record, fields));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Create the lookup table of given column if missing and add the entries of all records of the
+   * table, e.g. when an index is declared for a table which already has records.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param column Indexed column
+   * @param concurrency Maximum number of token ranges read in parallel
+   * @return Number of entries added
+   */
+  public long backfill(
+      Session session, String keyspaceName, String tableName, String column, int concurrency) {
+    createLookupTable(session, keyspaceName, tableName, column);
+    String key = keyspaceName + Constants.DOT + getLookupTableName(tableName, column);
+    lookupTables.add(key);
+    missingLookupTables.remove(key);
+    return checkRecords(session, keyspaceName, tableName, column, concurrency, true).getMissing();
+  }
+
+  /**
+   * Compare the lookup table of given column with the table, counting records without entry and
+   * entries without matching record, and optionally repair them. Entries of records being written
+   * while the check runs may be taken for stale, hence a repair is best run at low write load.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param column Indexed column
+   * @param concurrency Maximum number of token ranges read in parallel
+   * @param repair True to add missing and delete stale entries
+   * @return Report of the check
+   */
+  public Report check(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      String column,
+      int concurrency,
+      boolean repair) {
+    Report report = checkRecords(session, keyspaceName, tableName, column, concurrency, repair);
+    String lookupTable = getLookupTableName(tableName, column);
+    String property = getProperty(column);
+    AtomicLong stale = new AtomicLong();
+    new TokenRangeScanner(session)
+        .scan(
+            keyspaceName,
+            lookupTable,
+            null,
+            concurrency,
+            entry -> {
+              Object value = entry.get(property);
+              Object id = entry.get(Constants.IDENTIFIER);
+              QueryShape shape =
+                  new QueryShape(keyspaceName, tableName, Arrays.asList(column))
+                      .eq(Constants.IDENTIFIER, id);
+              Row row = session.execute(CassandraUtil.createSelectStatement(session, shape)).one();
+              if (row == null || !Objects.equals(row.getObject(0), value)) {
+                stale.incrementAndGet();
+                if (repair) {
+                  delete(session, keyspaceName, tableName, column, value, id);
+                }
+              }
+            });
+    Report result = new Report(report.getScanned(), report.getMissing(), stale.get());
+    ProjectLogger.log(
+        "LookupIndexManager:check: " + lookupTable + " " + result, LoggerEnum.INFO);
+    return result;
+  }
+
+  private Report checkRecords(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      String column,
+      int concurrency,
+      boolean repair) {
+    String property = getProperty(column);
+    String lookupTable = getLookupTableName(tableName, column);
+    AtomicLong missing = new AtomicLong();
+    long scanned =
+        new TokenRangeScanner(session)
+            .scan(
+                keyspaceName,
+                tableName,
+                Arrays.asList(Constants.IDENTIFIER, column),
+                concurrency,
+                record -> {
+                  Object value = record.get(property);
+                  Object id = record.get(Constants.IDENTIFIER);
+                  if (value == null) {
+                    return;
+                  }
+                  QueryShape shape =
+                      new QueryShape(
+                              keyspaceName, lookupTable, Arrays.asList(Constants.IDENTIFIER))
+                          .eq(column, value)
+                          .eq(Constants.IDENTIFIER, id);
+                  ResultSet results =
+                      session.execute(CassandraUtil.createSelectStatement(session, shape));
+                  if (results.one() == null) {
+                    missing.incrementAndGet();
+                    if (repair) {
+                      insert(session, keyspaceName, tableName, column, value, id, 0);
+                    }
+                  }
+                });
+    return new Report(scanned, missing.get(), 0);
+  }
+
+  private List<Object> lookup(
+      Session session, String keyspaceName, String tableName, String column, Object value) {
+    QueryShape shape =
+        new QueryShape(
+                keyspaceName,
+                getLookupTableName(tableName, column),
+                Arrays.asList(Constants.IDENTIFIER))
+            .eq(column, value);
+    ResultSet results = session.execute(CassandraUtil.createSelectStatement(session, shape));
+    SpeculativeExecutionStats.record(results);
+    List<Object> ids = new ArrayList<>();
+    for (Row row : results) {
+      ids.add(row.getObject(0));
+    }
+    return ids;
+  }
+
+  /** Get the columns among given ones having a value and an existing lookup table. */
+  private List<String> getIndexedColumns(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      Object id,
+      Map<String, Object> columns) {
+    Set<String> indexed = indexes.get(tableName);
+    List<String> result = new ArrayList<>();
+    if (indexed == null || id == null || columns == null) {
+      return result;
+    }
+    for (Map.Entry<String, Object> entry : columns.entrySet()) {
+      if (entry.getValue() != null
+          && indexed.contains(entry.getKey().toLowerCase())
+          && exists(session, keyspaceName, tableName, entry.getKey())) {
+        result.add(entry.getKey());
+      }
+    }
+    return result;
+  }
+
+  private void insert(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      String column,
+      Object value,
+      Object id,
+      int ttl) {
+    String lookupTable = getLookupTableName(tableName, column);
+    PreparedStatement statement =
+        PreparedStatementCache.getInstance(session)
+            .getStatement(
+                getInsertKey(keyspaceName, lookupTable, column, ttl),
+                () -> getInsertQuery(keyspaceName, lookupTable, column, ttl));
+    session.execute(bindInsert(statement, value, id, ttl));
+  }
+
+  private static String getInsertKey(
+      String keyspaceName, String lookupTable, String column, int ttl) {
+    return PreparedStatementCache.createKey(
+        ttl <= 0 ? INSERT_LOOKUP : INSERT_LOOKUP_WITH_TTL,
+        keyspaceName,
+        lookupTable,
+        Arrays.asList(column.toLowerCase(), Constants.IDENTIFIER));
+  }
+
+  private static String getInsertQuery(
+      String keyspaceName, String lookupTable, String column, int ttl) {
+    Insert insert =
+        QueryBuilder.insertInto(keyspaceName, lookupTable)
+            .value(column.toLowerCase(), QueryBuilder.bindMarker())
+            .value(Constants.IDENTIFIER, QueryBuilder.bindMarker());
+    if (ttl > 0) {
+      insert.using(QueryBuilder.ttl(QueryBuilder.bindMarker()));
+    }
+    return insert.getQueryString();
+  }
+
+  private static Statement bindInsert(
+      PreparedStatement statement, Object value, Object id, int ttl) {
+    return (ttl <= 0 ? statement.bind(value, id) : statement.bind(value, id, ttl))
+        .setIdempotent(true);
+  }
+
+  /**
+   * Check whether the lookup table of given column exists, logging it the first time it does not.
+   * A missing lookup table is checked again once the recheck interval elapsed.
+   */
+  private boolean exists(Session session, String keyspaceName, String tableName, String column) {
+    String lookupTable = getLookupTableName(tableName, column);
+    String key = keyspaceName + Constants.DOT + lookupTable;
+    if (lookupTables.contains(key)) {
+      return true;
+    }
+    long now = System.currentTimeMillis();
+    Long recheckTime = missingLookupTables.get(key);
+    if (recheckTime != null && now < recheckTime) {
+      return false;
+    }
+    KeyspaceMetadata keyspace;
+    try {
+      keyspace = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+    } catch (RuntimeException e) {
+      // not cached, so checked again on next use
+      ProjectLogger.log("LookupIndexManager:exists: Metadata of " + key + " not available", e);
+      return false;
+    }
+    if (keyspace != null && keyspace.getTable(lookupTable) != null) {
+      lookupTables.add(key);
+      missingLookupTables.remove(key);
+      return true;
+    }
+    if (missingLookupTables.put(key, now + recheckMillis) == null) {
+      ProjectLogger.log(
+          "LookupIndexManager:exists: Lookup table "
+              + key
+              + " not found, "
+              + column
+              + " of "
+              + tableName
+              + " is not indexed until it is backfilled",
+          LoggerEnum.WARN);
+    }
+    return false;
+  }
+
+  private void delete(
+      Session session,
+      String keyspaceName,
+      String tableName,
+      String column,
+      Object value,
+      Object id) {
+    String lookupTable = getLookupTableName(tableName, column);
+    List<String> columns = Arrays.asList(column.toLowerCase(), Constants.IDENTIFIER);
+    try {
+      session.execute(
+          PreparedStatementCache.getInstance(session)
+              .getStatement(
+                  PreparedStatementCache.createKey(
+                      DELETE_LOOKUP, keyspaceName, lookupTable, columns),
+                  () ->
+                      QueryBuilder.delete()
+                          .from(keyspaceName, lookupTable)
+                          .where(QueryBuilder.eq(columns.get(0), QueryBuilder.bindMarker()))
+                          .and(QueryBuilder.eq(Constants.IDENTIFIER, QueryBuilder.bindMarker()))
+                          .getQueryString())
+              .bind(value, id)
+              .setIdempotent(true));
+    } catch (Exception e) {
+      // a stale entry is skipped on every read until removed, hence not worth failing the check
+      ProjectLogger.log(
+          "LookupIndexManager:delete: Exception occurred removing stale entry of " + lookupTable,
+          e);
+    }
+  }
+
+  private static void createLookupTable(
+      Session session, String keyspaceName, String tableName, String column) {
+    KeyspaceMetadata keyspace = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+    TableMetadata table = keyspace == null ? null : keyspace.getTable(tableName);
+    ColumnMetadata valueColumn = table == null ? null : table.getColumn(column);
+    ColumnMetadata idColumn = table == null ? null : table.getColumn(Constants.IDENTIFIER);
+    if (valueColumn == null || idColumn == null) {
+      ProjectLogger.log(
+          "LookupIndexManager:createLookupTable: "
+              + tableName
+              + " has no column "
+              + column
+              + " or "
+              + Constants.IDENTIFIER,
+          LoggerEnum.ERROR);
+      throw new ProjectCommonException(
+          ResponseCode.SERVER_ERROR.getErrorCode(),
+          ResponseCode.SERVER_ERROR.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+    session.execute(
+        "CREATE TABLE IF NOT EXISTS "
+            + keyspaceName
+            + Constants.DOT
+            + getLookupTableName(tableName, column)
+            + " ("
+            + valueColumn.getName()
+            + " "
+            + valueColumn.getType()
+            + ", "
+            + Constants.IDENTIFIER
+            + " "
+            + idColumn.getType()
+            + ", PRIMARY KEY ("
+            + valueColumn.getName()
+            + ", "
+            + Constants.IDENTIFIER
+            + "))");
+  }
+
+  private static boolean matches(Map<String, Object> record, Map<String, Object> filters) {
+    for (Map.Entry<String, Object> filter : filters.entrySet()) {
+      if (!matches(record, filter.getKey(), filter.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matches(Map<String, Object> record, String column, Object value) {
+    Object recordValue = record.get(getProperty(column));
+    for (Object candidate : toCollection(value)) {
+      if (Objects.equals(recordValue, candidate)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Map<String, Object> project(Map<String, Object> record, List<String> fields) {
+    if (CollectionUtils.isEmpty(fields)) {
+      return record;
+    }
+    Map<String, Object> projection = new HashMap<>();
+    for (String field : fields) {
+      String property = getProperty(field);
+      projection.put(property, record.get(property));
+    }
+    return projection;
+  }
+
+  private static Collection<?> toCollection(Object value) {
+    return value instanceof Collection
+        ? new LinkedHashSet<>((Collection<?>) value)
+        : Collections.singletonList(value);
+  }
+
+  private static String getProperty(String column) {
+    // unquoted column names are case insensitive and records carry the property of the lower case
+    // column name
+    return propertiesCache.readProperty(column.toLowerCase()).trim();
+  }
+
+  private static Map<String, Set<String>> readConfig() {
+    Map<String, Set<String>> indexes = new HashMap<>();
+    String config = PropertiesCache.getInstance().readProperty(Constants.LOOKUP_INDEXES);
+    if (StringUtils.isBlank(config)) {
+      return indexes;
+    }
+    for (String index : config.split(Constants.COMMA)) {
+      String[] parts = index.trim().split(Constants.COLON);
+      if (parts.length != 2 || StringUtils.isBlank(parts[0]) || StringUtils.isBlank(parts[1])) {
+        ProjectLogger.log(
+            "LookupIndexManager:readConfig: Invalid lookup index " + index, LoggerEnum.ERROR);
+        continue;
+      }
+      indexes
+          .computeIfAbsent(parts[0].trim(), table -> new HashSet<>())
+          .add(parts[1].trim().toLowerCase());
+    }
+    ProjectLogger.log("LookupIndexManager:readConfig: Lookup indexes " + indexes, LoggerEnum.INFO);
+    return indexes;
+  }
+
+  /** Outcome of a consistency check of a lookup table. */
+  public static final class Report {
+
+    private final long scanned;
+    private final long missing;
+    private final long stale;
+
+    private Report(long scanned, long missing, long stale) {
+      this.scanned = scanned;
+      this.missing = missing;
+      this.stale = stale;
+    }
+
+    /** Number of records of the table scanned. */
+    public long getScanned() {
+      return scanned;
+    }
+
+    /** Number of records with a value but without lookup entry. */
+    public long getMissing() {
+      return missing;
+    }
+
+    /** Number of lookup entries without a record having the value. */
+    public long getStale() {
+      return stale;
+    }
+
+    @Override
+    public String toString() {
+      return "scanned = " + scanned + ", missing = " + missing + ", stale = " + stale;
+    }
+  }
+}
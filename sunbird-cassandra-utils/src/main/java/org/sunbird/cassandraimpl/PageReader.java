@@ -0,0 +1,104 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import org.sunbird.common.RowDecoder;
+import org.sunbird.helper.SpeculativeExecutionStats;
+
+/**
+ * Reads all pages of a query without blocking and passes the records of each page to a consumer
+ * running on a callback executor. The next page is only requested once the consumer has returned,
+ * so a slow consumer holds back the query instead of pages piling up in memory, and at most one
+ * page per query is held at any time.
+ */
+public final class PageReader {
+
+  private final Session session;
+  private final Executor executor;
+
+  public PageReader(Session session, Executor executor) {
+    this.session = session;
+    this.executor = executor;
+  }
+
+  /**
+   * Read all pages of given statement.
+   *
+   * @param statement Statement, whose fetch size is the page size
+   * @param consumer Consumer of the records of each page, called once per non-empty page
+   * @return Stage completed with the number of records read once the query is exhausted, or
+   *     exceptionally when a page could not be read or the consumer failed. Cancelling the stage
+   *     stops reading further pages.
+   */
+  public CompletionStage<Long> read(
+      Statement statement, Consumer<List<Map<String, Object>>> consumer) {
+    CompletableFuture<Long> result = new CompletableFuture<>();
+    try {
+      read(session.executeAsync(statement), consumer, 0, result);
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  private void read(
+      ListenableFuture<ResultSet> page,
+      Consumer<List<Map<String, Object>>> consumer,
+      long count,
+      CompletableFuture<Long> result) {
+    Futures.addCallback(
+        page,
+        new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet results) {
+            if (result.isDone()) {
+              return;
+            }
+            SpeculativeExecutionStats.record(results);
+            try {
+              int available = results.getAvailableWithoutFetching();
+              if (available > 0) {
+                RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+                List<Map<String, Object>> records = new ArrayList<>(available);
+                for (int i = 0; i < available; i++) {
+                  records.add(decoder.decode(results.one()));
+                }
+                consumer.accept(records);
+              }
+              if (results.isFullyFetched()) {
+                result.complete(count + available);
+              } else if (!result.isDone()) {
+                read(results.fetchMoreResults(), consumer, count + available, result);
+              }
+            } catch (RuntimeException e) {
+              result.completeExceptionally(e);
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            result.completeExceptionally(t);
+          }
+        },
+        runnable -> {
+          // a rejected callback would leave the read without completion
+          try {
+            executor.execute(runnable);
+          } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+          }
+        });
+  }
+}
@@ -0,0 +1,227 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/**
+ * Writes a list of statements (one per record) grouped by partition. Statements of the same
+ * partition are sent together as small UNLOGGED batches, which Cassandra applies atomically within
+ * the partition, while statements of different partitions are sent as separate requests so that
+ * each lands on its own replicas. Requests are executed concurrently with a bound on the number in
+ * flight, failed requests are retried and the outcome is reported per record.
+ *
+ * <p>Unlike a single logged batch the write as a whole is not atomic, and statements are retried,
+ * hence they are expected to be idempotent (no counter updates or list appends).
+ */
+public final class PartitionBatchWriter {
+
+  private static final int DEFAULT_MAX_BATCH_SIZE = 20;
+  private static final int DEFAULT_MAX_IN_FLIGHT = 32;
+  private static final int DEFAULT_MAX_RETRIES = 2;
+
+  private final Session session;
+  private final int maxBatchSize;
+  private final int maxInFlight;
+  private final int maxRetries;
+
+  public PartitionBatchWriter(Session session) {
+    this(
+        session,
+        CassandraUtil.getIntProperty(Constants.BATCH_WRITER_MAX_BATCH_SIZE, DEFAULT_MAX_BATCH_SIZE),
+        CassandraUtil.getIntProperty(Constants.BATCH_WRITER_MAX_IN_FLIGHT, DEFAULT_MAX_IN_FLIGHT),
+        CassandraUtil.getIntProperty(Constants.BATCH_WRITER_MAX_RETRIES, DEFAULT_MAX_RETRIES));
+  }
+
+  public PartitionBatchWriter(Session session, int maxBatchSize, int maxInFlight, int maxRetries) {
+    this.session = session;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.maxRetries = Math.max(0, maxRetries);
+  }
+
+  /**
+   * Write given statements, blocking until all of them are written or have finally failed.
+   *
+   * @param statements Statements to be written
+   * @param partitionKeys Partition key of each statement, in the same order as the statements
+   * @return Result of each statement
+   */
+  public Result write(List<? extends Statement> statements, List<?> partitionKeys) {
+    List<List<Integer>> groups = createGroups(partitionKeys);
+    AtomicReferenceArray<Throwable> errors = new AtomicReferenceArray<>(statements.size());
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    CountDownLatch pending = new CountDownLatch(groups.size());
+    try {
+      for (List<Integer> group : groups) {
+        inFlight.acquire();
+        execute(createStatement(statements, group), group, 0, errors, inFlight, pending);
+      }
+      pending.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      for (int i = 0; i < statements.size(); i++) {
+        errors.compareAndSet(i, null, e);
+      }
+    }
+    return new Result(errors);
+  }
+
+  private void execute(
+      Statement statement,
+      List<Integer> group,
+      int attempt,
+      AtomicReferenceArray<Throwable> errors,
+      Semaphore inFlight,
+      CountDownLatch pending) {
+    Futures.addCallback(
+        session.executeAsync(statement),
+        new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet result) {
+            inFlight.release();
+            pending.countDown();
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            if (attempt < maxRetries) {
+              ProjectLogger.log(
+                  "PartitionBatchWriter:execute: retrying "
+                      + group.size()
+                      + " records after failure "
+                      + t.getMessage(),
+                  LoggerEnum.WARN);
+              execute(statement, group, attempt + 1, errors, inFlight, pending);
+              return;
+            }
+            ProjectLogger.log("PartitionBatchWriter:execute: write failed " + t.getMessage(), t);
+            for (Integer index : group) {
+              errors.set(index, t);
+            }
+            inFlight.release();
+            pending.countDown();
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  private static Statement createStatement(
+      List<? extends Statement> statements, List<Integer> group) {
+    if (group.size() == 1) {
+      return statements.get(group.get(0));
+    }
+    BatchStatement batch = new BatchStatement(BatchStatement.Type.UNLOGGED);
+    for (Integer index : group) {
+      batch.add(statements.get(index));
+    }
+    return batch;
+  }
+
+  private List<List<Integer>> createGroups(List<?> partitionKeys) {
+    Map<Object, List<Integer>> partitions = new LinkedHashMap<>();
+    for (int i = 0; i < partitionKeys.size(); i++) {
+      partitions.computeIfAbsent(partitionKeys.get(i), k -> new ArrayList<>()).add(i);
+    }
+    List<List<Integer>> groups = new ArrayList<>();
+    for (List<Integer> partition : partitions.values()) {
+      for (int from = 0; from < partition.size(); from += maxBatchSize) {
+        groups.add(partition.subList(from, Math.min(partition.size(), from + maxBatchSize)));
+      }
+    }
+    return groups;
+  }
+
+  /**
+   * Get partition key columns of given table from the cluster metadata.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @return Partition key column names, empty if table metadata is not available
+   */
+  public static List<String> getPartitionKeyColumns(
+      Session session, String keyspaceName, String tableName) {
+    KeyspaceMetadata keyspace = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+    TableMetadata table = keyspace == null ? null : keyspace.getTable(tableName);
+    if (table == null) {
+      return Collections.emptyList();
+    }
+    List<String> columns = new ArrayList<>();
+    for (ColumnMetadata column : table.getPartitionKey()) {
+      columns.add(column.getName());
+    }
+    return columns;
+  }
+
+  /**
+   * Get partition key of given record.
+   *
+   * @param partitionKeyColumns Partition key column names
+   * @param record Record, or primary key of the record
+   * @return Values of the partition key columns
+   */
+  public static List<Object> getPartitionKey(
+      List<String> partitionKeyColumns, Map<String, Object> record) {
+    List<Object> partitionKey = new ArrayList<>(partitionKeyColumns.size());
+    for (String column : partitionKeyColumns) {
+      partitionKey.add(record.get(column));
+    }
+    return partitionKey;
+  }
+
+  /** Outcome of a write, per statement in the order the statements were given. */
+  public static final class Result {
+
+    private final AtomicReferenceArray<Throwable> errors;
+
+    private Result(AtomicReferenceArray<Throwable> errors) {
+      this.errors = errors;
+    }
+
+    public int size() {
+      return errors.length();
+    }
+
+    public boolean isSuccess() {
+      return getFailedIndexes().isEmpty();
+    }
+
+    public boolean isSuccess(int index) {
+      return errors.get(index) == null;
+    }
+
+    public Throwable getError(int index) {
+      return errors.get(index);
+    }
+
+    public List<Integer> getFailedIndexes() {
+      List<Integer> failed = new ArrayList<>();
+      for (int i = 0; i < errors.length(); i++) {
+        if (errors.get(i) != null) {
+          failed.add(i);
+        }
+      }
+      return failed;
+    }
+  }
+}
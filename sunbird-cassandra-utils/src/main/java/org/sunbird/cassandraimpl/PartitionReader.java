@@ -0,0 +1,190 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.QueryShape;
+import org.sunbird.common.RowDecoder;
+import org.sunbird.helper.SpeculativeExecutionStats;
+
+/**
+ * Reads the records of many keys with one single partition query per key instead of one IN query.
+ * Each query is routed to a replica of its partition (with the token aware load balancing policy),
+ * so no coordinator has to gather all partitions, and a slow partition delays only its own records.
+ * Queries are executed asynchronously with a bound on the number in flight, while rows are decoded
+ * and handed out on the calling thread, hence a slow consumer holds back further queries instead of
+ * results piling up in memory.
+ */
+public final class PartitionReader {
+
+  private static final int DEFAULT_CONCURRENCY = 32;
+
+  private final Session session;
+  private final int concurrency;
+
+  public PartitionReader(Session session) {
+    this(
+        session,
+        CassandraUtil.getIntProperty(Constants.PARTITION_READ_CONCURRENCY, DEFAULT_CONCURRENCY));
+  }
+
+  public PartitionReader(Session session, int concurrency) {
+    this.session = session;
+    this.concurrency = Math.max(1, concurrency);
+  }
+
+  /**
+   * Read records of given keys, blocking until all of them are read.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param keyColumn Partition key column
+   * @param keys Partition key values, duplicates are read once
+   * @param fields Columns to be returned (all if empty)
+   * @return Records in the order of the keys
+   */
+  public List<Map<String, Object>> read(
+      String keyspaceName,
+      String tableName,
+      String keyColumn,
+      List<?> keys,
+      List<String> fields) {
+    List<Object> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+    List<List<Map<String, Object>>> partitions = new ArrayList<>(distinctKeys.size());
+    for (int i = 0; i < distinctKeys.size(); i++) {
+      partitions.add(null);
+    }
+    execute(
+        keyspaceName,
+        tableName,
+        keyColumn,
+        distinctKeys,
+        fields,
+        (index, results) -> {
+          RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+          List<Map<String, Object>> records = new ArrayList<>();
+          for (Row row : results) {
+            records.add(decoder.decode(row));
+          }
+          partitions.set(index, records);
+        });
+    List<Map<String, Object>> records = new ArrayList<>();
+    for (List<Map<String, Object>> partition : partitions) {
+      records.addAll(partition);
+    }
+    return records;
+  }
+
+  /**
+   * Read records of given keys, passing them to the consumer on the calling thread as soon as the
+   * partition they belong to is read, i.e. in no particular order.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param keyColumn Partition key column
+   * @param keys Partition key values, duplicates are read once
+   * @param fields Columns to be returned (all if empty)
+   * @param consumer Consumer of the records
+   * @return Number of records read
+   */
+  public long read(
+      String keyspaceName,
+      String tableName,
+      String keyColumn,
+      List<?> keys,
+      List<String> fields,
+      Consumer<Map<String, Object>> consumer) {
+    long[] count = new long[1];
+    execute(
+        keyspaceName,
+        tableName,
+        keyColumn,
+        new ArrayList<>(new LinkedHashSet<>(keys)),
+        fields,
+        (index, results) -> {
+          RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+          for (Row row : results) {
+            consumer.accept(decoder.decode(row));
+            count[0]++;
+          }
+        });
+    return count[0];
+  }
+
+  private void execute(
+      String keyspaceName,
+      String tableName,
+      String keyColumn,
+      List<Object> keys,
+      List<String> fields,
+      BiConsumer<Integer, ResultSet> handler) {
+    BlockingQueue<Completion> completions = new LinkedBlockingQueue<>();
+    int next = 0;
+    int inFlight = 0;
+    try {
+      while (next < keys.size() || inFlight > 0) {
+        while (inFlight < concurrency && next < keys.size()) {
+          QueryShape shape =
+              new QueryShape(keyspaceName, tableName, fields).eq(keyColumn, keys.get(next));
+          submit(next++, shape, completions);
+          inFlight++;
+        }
+        Completion completion = completions.take();
+        inFlight--;
+        if (completion.error != null) {
+          throw new IllegalStateException(
+              "Read of " + keyColumn + " = " + keys.get(completion.index) + " failed",
+              completion.error);
+        }
+        handler.accept(completion.index, completion.results);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void submit(int index, QueryShape shape, BlockingQueue<Completion> completions) {
+    Futures.addCallback(
+        session.executeAsync(CassandraUtil.createSelectStatement(session, shape)),
+        new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet results) {
+            SpeculativeExecutionStats.record(results);
+            completions.add(new Completion(index, results, null));
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            completions.add(new Completion(index, null, t));
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  private static final class Completion {
+
+    private final int index;
+    private final ResultSet results;
+    private final Throwable error;
+
+    private Completion(int index, ResultSet results, Throwable error) {
+      this.index = index;
+      this.results = results;
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,296 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.commons.collections.CollectionUtils;
+import org.sunbird.common.Constants;
+import org.sunbird.common.RowDecoder;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.PreparedStatementCache;
+
+/**
+ * Full table scan which splits the token ring into the ranges owned by the cluster nodes and reads
+ * the ranges in parallel. Each range query is routed to a replica owning the range (with the token
+ * aware load balancing policy) instead of making a single coordinator gather the whole table, so a
+ * scan scales with the number of nodes and the concurrency given. The ranges are read by threads
+ * shared by all the scans, idle ones being released after a minute.
+ */
+public final class TokenRangeScanner {
+
+  private static final String SCAN_RANGE = "scanRange";
+  private static final String SCAN_FROM = "scanFrom";
+  private static final ExecutorService executor = createExecutor();
+
+  private final Session session;
+
+  public TokenRangeScanner(Session session) {
+    this.session = session;
+  }
+
+  /**
+   * Scan all records of given table, passing each record to the consumer. The consumer is invoked
+   * concurrently from up to concurrency threads, hence it has to be thread safe. The scan stops at
+   * the first failure.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param fields Columns to be returned (all if empty)
+   * @param concurrency Maximum number of token ranges read in parallel
+   * @param consumer Consumer of the records
+   * @return Number of records scanned
+   */
+  public long scan(
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      int concurrency,
+      Consumer<Map<String, Object>> consumer) {
+    long startTime = System.currentTimeMillis();
+    Metadata metadata = session.getCluster().getMetadata();
+    String[] partitionKey = getPartitionKey(metadata, keyspaceName, tableName);
+    PreparedStatement rangeStatement =
+        getStatement(SCAN_RANGE, keyspaceName, tableName, fields, partitionKey);
+    PreparedStatement fromStatement =
+        getStatement(SCAN_FROM, keyspaceName, tableName, fields, partitionKey);
+    List<TokenRange> ranges = getRanges(metadata, Math.max(1, concurrency));
+    // interleave ranges of different nodes instead of reading neighbouring ranges together
+    Collections.shuffle(ranges);
+
+    AtomicLong count = new AtomicLong();
+    // each scan runs at most concurrency workers on the shared threads, taking the ranges in turn
+    Queue<TokenRange> queue = new ConcurrentLinkedQueue<>(ranges);
+    int workers = Math.min(Math.max(1, concurrency), ranges.size());
+    List<Future<?>> futures = new ArrayList<>(workers);
+    try {
+      for (int i = 0; i < workers; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  TokenRange range;
+                  while ((range = queue.poll()) != null) {
+                    scanRange(range, rangeStatement, fromStatement, consumer, count);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (ExecutionException e) {
+      ProjectLogger.log(
+          "TokenRangeScanner:scan: " + Constants.EXCEPTION_MSG_FETCH + tableName, e.getCause());
+      throw createServerException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw createServerException();
+    } finally {
+      // stop the other workers after their current range
+      queue.clear();
+      for (Future<?> future : futures) {
+        future.cancel(false);
+      }
+    }
+    ProjectLogger.log(
+        "TokenRangeScanner:scan: scanned "
+            + count.get()
+            + " records of "
+            + keyspaceName
+            + Constants.DOT
+            + tableName
+            + " from "
+            + ranges.size()
+            + " token ranges in "
+            + (System.currentTimeMillis() - startTime)
+            + " ms",
+        LoggerEnum.PERF_LOG);
+    return count.get();
+  }
+
+  /**
+   * Split the token ring into the ranges owned by the cluster nodes, splitting them further to get
+   * at least the given number of ranges. The ranges are sorted by token, hence are the same on each
+   * call as long as the cluster topology does not change.
+   *
+   * @param splits Minimum number of ranges
+   * @return Token ranges covering the whole ring
+   */
+  public List<TokenRange> getRanges(int splits) {
+    return getRanges(session.getCluster().getMetadata(), Math.max(1, splits));
+  }
+
+  /**
+   * Scan the records of given table in one token range, on the calling thread. The results are
+   * read page by page, so the memory used does not depend on the size of the range.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param fields Columns to be returned (all if empty)
+   * @param range Token range as returned by {@link #getRanges(int)}
+   * @param consumer Consumer of the records
+   * @return Number of records scanned
+   */
+  public long scanRange(
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      TokenRange range,
+      Consumer<Map<String, Object>> consumer) {
+    String[] partitionKey =
+        getPartitionKey(session.getCluster().getMetadata(), keyspaceName, tableName);
+    AtomicLong count = new AtomicLong();
+    scanRange(
+        range,
+        getStatement(SCAN_RANGE, keyspaceName, tableName, fields, partitionKey),
+        getStatement(SCAN_FROM, keyspaceName, tableName, fields, partitionKey),
+        consumer,
+        count);
+    return count.get();
+  }
+
+  /**
+   * Format token range as start and end tokens separated by a colon, to be parsed back with {@link
+   * #parseRange(String)}.
+   */
+  public static String formatRange(TokenRange range) {
+    return range.getStart() + Constants.COLON + range.getEnd();
+  }
+
+  /** Parse token range formatted by {@link #formatRange(TokenRange)}. */
+  public TokenRange parseRange(String range) {
+    Metadata metadata = session.getCluster().getMetadata();
+    int separator = range.lastIndexOf(Constants.COLON);
+    return metadata.newTokenRange(
+        metadata.newToken(range.substring(0, separator)),
+        metadata.newToken(range.substring(separator + 1)));
+  }
+
+  private void scanRange(
+      TokenRange range,
+      PreparedStatement rangeStatement,
+      PreparedStatement fromStatement,
+      Consumer<Map<String, Object>> consumer,
+      AtomicLong count) {
+    BoundStatement statement;
+    // after unwrapping, a range ending at the minimum token is the only one whose start is not
+    // lower than its end; it is read with the lower bound alone
+    if (range.getStart().compareTo(range.getEnd()) < 0) {
+      statement = rangeStatement.bind().setToken(0, range.getStart()).setToken(1, range.getEnd());
+    } else {
+      statement = fromStatement.bind().setToken(0, range.getStart());
+    }
+    statement.setPartitionKeyToken(range.getEnd());
+    ResultSet results = session.execute(statement);
+    RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+    for (Row row : results) {
+      consumer.accept(decoder.decode(row));
+      count.incrementAndGet();
+    }
+  }
+
+  private static List<TokenRange> getRanges(Metadata metadata, int splits) {
+    List<TokenRange> ranges = new ArrayList<>();
+    for (TokenRange range : metadata.getTokenRanges()) {
+      ranges.addAll(range.unwrap());
+    }
+    // split ranges of small clusters to get at least the requested number of ranges
+    if (ranges.size() < splits) {
+      int rangeSplits = (splits + ranges.size() - 1) / ranges.size();
+      List<TokenRange> splitRanges = new ArrayList<>();
+      for (TokenRange range : ranges) {
+        splitRanges.addAll(range.splitEvenly(rangeSplits));
+      }
+      ranges = splitRanges;
+    }
+    Collections.sort(ranges);
+    return ranges;
+  }
+
+  private static String[] getPartitionKey(
+      Metadata metadata, String keyspaceName, String tableName) {
+    KeyspaceMetadata keyspace = metadata.getKeyspace(keyspaceName);
+    TableMetadata table = keyspace == null ? null : keyspace.getTable(tableName);
+    if (table == null) {
+      ProjectLogger.log(
+          "TokenRangeScanner:getPartitionKey: Table not found " + keyspaceName + "." + tableName,
+          LoggerEnum.ERROR);
+      throw createServerException();
+    }
+    List<ColumnMetadata> columns = table.getPartitionKey();
+    String[] partitionKey = new String[columns.size()];
+    for (int i = 0; i < partitionKey.length; i++) {
+      partitionKey[i] = columns.get(i).getName();
+    }
+    return partitionKey;
+  }
+
+  private PreparedStatement getStatement(
+      String type,
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      String[] partitionKey) {
+    List<String> columns =
+        CollectionUtils.isEmpty(fields) ? Collections.singletonList("*") : fields;
+    return PreparedStatementCache.getInstance(session)
+        .getStatement(
+            PreparedStatementCache.createKey(type, keyspaceName, tableName, columns),
+            () -> {
+              Select select;
+              if (CollectionUtils.isNotEmpty(fields)) {
+                select =
+                    QueryBuilder.select(fields.toArray(new String[fields.size()]))
+                        .from(keyspaceName, tableName);
+              } else {
+                select = QueryBuilder.select().all().from(keyspaceName, tableName);
+              }
+              String token = QueryBuilder.token(partitionKey);
+              Select.Where where = select.where(QueryBuilder.gt(token, QueryBuilder.bindMarker()));
+              if (SCAN_RANGE.equals(type)) {
+                where.and(QueryBuilder.lte(token, QueryBuilder.bindMarker()));
+              }
+              return where.getQueryString();
+            });
+  }
+
+  private static ExecutorService createExecutor() {
+    AtomicInteger threadCount = new AtomicInteger();
+    return Executors.newCachedThreadPool(
+        runnable -> {
+          Thread thread = new Thread(runnable, "cassandra-scan-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private static ProjectCommonException createServerException() {
+    return new ProjectCommonException(
+        ResponseCode.SERVER_ERROR.getErrorCode(),
+        ResponseCode.SERVER_ERROR.getErrorMessage(),
+        ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+}
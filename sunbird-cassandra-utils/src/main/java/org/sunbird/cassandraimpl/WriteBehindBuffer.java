@@ -0,0 +1,534 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Update;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.common.models.util.PropertiesCache;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.CassandraConnectionMngrFactory;
+import org.sunbird.helper.NearCache;
+
+/**
+ * Write-behind buffer for columns which are updated very often, enabled per table with the
+ * writeBehindTables property as a comma separated list of table names. Updates of the same primary
+ * key within a window of writeBehindWindowMillis are merged into one update (the last value of a
+ * column wins, map entries put and removed are combined), and the merged updates are written as
+ * partition grouped batches at the end of the window, or as soon as writeBehindMaxPending records
+ * are pending.
+ *
+ * <p>With the default writeBehindDurability of async an update is acknowledged once buffered, hence
+ * updates of the last window are lost if the process dies without running its shutdown hook, and
+ * reads see them only once written. With sync an update is acknowledged once written, so callers
+ * wait up to one window but still benefit from the merging of concurrent updates. In both modes the
+ * updated columns are checked against the table metadata before buffering, so an unknown column
+ * fails the update right away.
+ *
+ * <p>Writes which bypass the buffer have to call {@link #flush(String, String, Map)} before an
+ * insert of a record, so that its pending update is not applied over the insert later, and {@link
+ * #discard(String, String, Map)} before a delete, so that its pending update does not bring the
+ * record back.
+ */
+public final class WriteBehindBuffer {
+
+  /** When an update is acknowledged. */
+  public enum Durability {
+    /** Once buffered. */
+    ASYNC,
+    /** Once written. */
+    SYNC
+  }
+
+  private static final int DEFAULT_WINDOW_MILLIS = 1000;
+  private static final int DEFAULT_MAX_PENDING = 10000;
+  private static WriteBehindBuffer instance;
+
+  private final Set<String> tables;
+  private final Function<String, Session> sessions;
+  private final int maxPending;
+  private final Durability durability;
+  private final NearCache nearCache;
+  private final Object flushLock = new Object();
+  private final ScheduledExecutorService scheduler;
+  private Map<String, PendingUpdate> pending = new LinkedHashMap<>();
+  // primary key columns of the pending updates, by keyspace and table
+  private final Map<String, Set<Set<String>>> keyColumns = new HashMap<>();
+
+  WriteBehindBuffer(
+      Set<String> tables,
+      Function<String, Session> sessions,
+      long windowMillis,
+      int maxPending,
+      Durability durability,
+      NearCache nearCache) {
+    this.tables = tables;
+    this.sessions = sessions;
+    this.maxPending = Math.max(1, maxPending);
+    this.durability = durability;
+    this.nearCache = nearCache;
+    if (tables.isEmpty()) {
+      scheduler = null;
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "cassandra-write-behind");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::flushQuietly, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public static synchronized WriteBehindBuffer getInstance() {
+    if (instance == null) {
+      instance = createInstance();
+    }
+    return instance;
+  }
+
+  /** Write all pending updates and stop the buffer, called from the shutdown hook. */
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      instance.close();
+    }
+  }
+
+  /**
+   * Check whether updates of given table are buffered.
+   *
+   * @param tableName Table name
+   * @return True if the buffer is enabled for the table
+   */
+  public boolean isEnabled(String tableName) {
+    return tables.contains(tableName);
+  }
+
+  public Durability getDurability() {
+    return durability;
+  }
+
+  /**
+   * Buffer an update of columns of one record.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKey Primary key column and value map
+   * @param columns Column and value map to be set
+   * @return Stage completed once the merged update is written
+   */
+  public CompletionStage<Void> update(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      Map<String, Object> columns) {
+    if (columns.isEmpty()) {
+      return CompletableFuture.completedFuture(null);
+    }
+    validate(keyspaceName, tableName, primaryKey.keySet());
+    validate(keyspaceName, tableName, columns.keySet());
+    return add(
+        keyspaceName,
+        tableName,
+        primaryKey,
+        update -> {
+          for (Map.Entry<String, Object> column : columns.entrySet()) {
+            update.set(column.getKey(), column.getValue());
+          }
+        });
+  }
+
+  /**
+   * Buffer a put of an entry into a map column of one record.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKey Primary key column and value map
+   * @param column Map column name
+   * @param key Map entry key
+   * @param value Map entry value
+   * @return Stage completed once the merged update is written
+   */
+  public CompletionStage<Void> putMapEntry(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      String column,
+      Object key,
+      Object value) {
+    validate(keyspaceName, tableName, primaryKey.keySet());
+    validate(keyspaceName, tableName, Collections.singleton(column));
+    return add(keyspaceName, tableName, primaryKey, update -> update.putEntry(column, key, value));
+  }
+
+  /**
+   * Buffer a removal of an entry from a map column of one record.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKey Primary key column and value map
+   * @param column Map column name
+   * @param key Map entry key
+   * @return Stage completed once the merged update is written
+   */
+  public CompletionStage<Void> removeMapEntry(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      String column,
+      Object key) {
+    validate(keyspaceName, tableName, primaryKey.keySet());
+    validate(keyspaceName, tableName, Collections.singleton(column));
+    return add(keyspaceName, tableName, primaryKey, update -> update.removeEntry(column, key));
+  }
+
+  /** Write all pending updates, blocking until they are written. */
+  public void flush() {
+    synchronized (flushLock) {
+      Map<String, PendingUpdate> updates;
+      synchronized (this) {
+        if (pending.isEmpty()) {
+          return;
+        }
+        updates = pending;
+        pending = new LinkedHashMap<>();
+        keyColumns.clear();
+      }
+      Map<String, List<PendingUpdate>> keyspaces = new HashMap<>();
+      for (PendingUpdate update : updates.values()) {
+        keyspaces.computeIfAbsent(update.keyspaceName, k -> new ArrayList<>()).add(update);
+      }
+      for (Map.Entry<String, List<PendingUpdate>> keyspace : keyspaces.entrySet()) {
+        write(keyspace.getKey(), keyspace.getValue());
+      }
+    }
+  }
+
+  /**
+   * Write the pending update of a record now, if any, before the record is written without the
+   * buffer. An update being written by a flush in progress is waited for.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param record Columns of the record, including its primary key
+   */
+  public void flush(String keyspaceName, String tableName, Map<String, ?> record) {
+    if (!isEnabled(tableName)) {
+      return;
+    }
+    synchronized (flushLock) {
+      List<PendingUpdate> updates = remove(keyspaceName, tableName, record);
+      if (!updates.isEmpty()) {
+        write(keyspaceName, updates);
+      }
+    }
+  }
+
+  /**
+   * Drop the pending update of a record, if any, before the record is deleted. The update is
+   * acknowledged as the delete supersedes it. An update being written by a flush in progress is
+   * waited for.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKey Primary key column and value map of the record
+   */
+  public void discard(String keyspaceName, String tableName, Map<String, ?> primaryKey) {
+    if (!isEnabled(tableName)) {
+      return;
+    }
+    synchronized (flushLock) {
+      for (PendingUpdate update : remove(keyspaceName, tableName, primaryKey)) {
+        update.complete(null);
+      }
+    }
+  }
+
+  /** Stop flushing periodically and write all pending updates. */
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    flush();
+  }
+
+  private CompletionStage<Void> add(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKey,
+      Consumer<PendingUpdate> change) {
+    CompletableFuture<Void> written = new CompletableFuture<>();
+    boolean full;
+    synchronized (this) {
+      keyColumns
+          .computeIfAbsent(keyspaceName + Constants.DOT + tableName, k -> new HashSet<>())
+          .add(new HashSet<>(primaryKey.keySet()));
+      String key = keyspaceName + Constants.DOT + tableName + new TreeMap<>(primaryKey);
+      PendingUpdate update =
+          pending.computeIfAbsent(
+              key, k -> new PendingUpdate(keyspaceName, tableName, new HashMap<>(primaryKey)));
+      change.accept(update);
+      update.waiters.add(written);
+      full = pending.size() >= maxPending;
+    }
+    if (full && scheduler != null) {
+      scheduler.execute(this::flushQuietly);
+    }
+    return written;
+  }
+
+  private synchronized List<PendingUpdate> remove(
+      String keyspaceName, String tableName, Map<String, ?> record) {
+    Set<Set<String>> columnSets = keyColumns.get(keyspaceName + Constants.DOT + tableName);
+    if (columnSets == null) {
+      return Collections.emptyList();
+    }
+    List<PendingUpdate> updates = new ArrayList<>();
+    for (Set<String> columns : columnSets) {
+      Map<String, Object> primaryKey = new TreeMap<>();
+      for (String column : columns) {
+        primaryKey.put(column, record.get(column));
+      }
+      PendingUpdate update = pending.remove(keyspaceName + Constants.DOT + tableName + primaryKey);
+      if (update != null) {
+        updates.add(update);
+      }
+    }
+    return updates;
+  }
+
+  private void validate(String keyspaceName, String tableName, Collection<String> columns) {
+    TableMetadata table;
+    try {
+      KeyspaceMetadata keyspace =
+          sessions.apply(keyspaceName).getCluster().getMetadata().getKeyspace(keyspaceName);
+      table = keyspace == null ? null : keyspace.getTable(tableName);
+    } catch (RuntimeException e) {
+      ProjectLogger.log(
+          "WriteBehindBuffer:validate: Metadata of " + tableName + " not available", e);
+      return;
+    }
+    if (table == null) {
+      // the write reports the missing table
+      return;
+    }
+    for (String column : columns) {
+      if (table.getColumn(column) == null) {
+        throw new ProjectCommonException(
+            ResponseCode.invalidPropertyError.getErrorCode(),
+            ProjectUtil.formatMessage(ResponseCode.invalidPropertyError.getErrorMessage(), column),
+            ResponseCode.CLIENT_ERROR.getResponseCode());
+      }
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (Exception e) {
+      ProjectLogger.log("WriteBehindBuffer:flush: Exception occurred " + e.getMessage(), e);
+    }
+  }
+
+  private void write(String keyspaceName, List<PendingUpdate> updates) {
+    List<Statement> statements = new ArrayList<>(updates.size());
+    List<Object> partitionKeys = new ArrayList<>(updates.size());
+    Session session;
+    PartitionBatchWriter.Result result;
+    try {
+      session = sessions.apply(keyspaceName);
+      Map<String, List<String>> partitionKeyColumns = new HashMap<>();
+      for (PendingUpdate update : updates) {
+        statements.add(update.createStatement());
+        List<String> columns =
+            partitionKeyColumns.computeIfAbsent(
+                update.tableName,
+                table -> PartitionBatchWriter.getPartitionKeyColumns(session, keyspaceName, table));
+        partitionKeys.add(
+            Arrays.asList(
+                update.tableName,
+                columns.isEmpty()
+                    ? new TreeMap<>(update.primaryKey)
+                    : PartitionBatchWriter.getPartitionKey(columns, update.primaryKey)));
+      }
+      result = new PartitionBatchWriter(session).write(statements, partitionKeys);
+    } catch (Exception e) {
+      ProjectLogger.log(
+          "WriteBehindBuffer:write: Exception occurred writing to " + keyspaceName, e);
+      for (PendingUpdate update : updates) {
+        update.complete(e);
+      }
+      return;
+    }
+    for (int i = 0; i < updates.size(); i++) {
+      PendingUpdate update = updates.get(i);
+      nearCache.invalidate(
+          keyspaceName, update.tableName, update.primaryKey.get(Constants.IDENTIFIER));
+      if (!result.isSuccess(i)) {
+        ProjectLogger.log(
+            "WriteBehindBuffer:write: Update of "
+                + update.tableName
+                + " "
+                + update.primaryKey
+                + " failed",
+            LoggerEnum.ERROR);
+      }
+      update.complete(result.getError(i));
+    }
+  }
+
+  private static WriteBehindBuffer createInstance() {
+    PropertiesCache propertiesCache = PropertiesCache.getInstance();
+    Set<String> tables = new HashSet<>();
+    String tableNames = propertiesCache.readProperty(Constants.WRITE_BEHIND_TABLES);
+    if (StringUtils.isNotBlank(tableNames)) {
+      for (String table : tableNames.split(Constants.COMMA)) {
+        if (StringUtils.isNotBlank(table)) {
+          tables.add(table.trim());
+        }
+      }
+    }
+    Durability durability = Durability.ASYNC;
+    String mode = propertiesCache.readProperty(Constants.WRITE_BEHIND_DURABILITY);
+    if (StringUtils.isNotBlank(mode)) {
+      try {
+        durability = Durability.valueOf(mode.trim().toUpperCase());
+      } catch (IllegalArgumentException e) {
+        ProjectLogger.log(
+            "WriteBehindBuffer:createInstance: Invalid durability " + mode, LoggerEnum.ERROR);
+      }
+    }
+    if (!tables.isEmpty()) {
+      ProjectLogger.log(
+          "WriteBehindBuffer:createInstance: Buffering updates of tables " + tables,
+          LoggerEnum.INFO);
+    }
+    String cassandraMode = propertiesCache.getProperty(JsonKey.SUNBIRD_CASSANDRA_MODE);
+    return new WriteBehindBuffer(
+        tables,
+        keyspaceName ->
+            CassandraConnectionMngrFactory.getObject(cassandraMode).getSession(keyspaceName),
+        CassandraUtil.getIntProperty(Constants.WRITE_BEHIND_WINDOW_MILLIS, DEFAULT_WINDOW_MILLIS),
+        CassandraUtil.getIntProperty(Constants.WRITE_BEHIND_MAX_PENDING, DEFAULT_MAX_PENDING),
+        durability,
+        NearCache.getInstance());
+  }
+
+  /** Merged update of one record. */
+  private static final class PendingUpdate {
+
+    private final String keyspaceName;
+    private final String tableName;
+    private final Map<String, Object> primaryKey;
+    private final Map<String, Object> columns = new LinkedHashMap<>();
+    private final Map<String, Map<Object, Object>> mapPuts = new LinkedHashMap<>();
+    private final Map<String, Set<Object>> mapRemoves = new LinkedHashMap<>();
+    private final List<CompletableFuture<Void>> waiters = new ArrayList<>();
+
+    private PendingUpdate(String keyspaceName, String tableName, Map<String, Object> primaryKey) {
+      this.keyspaceName = keyspaceName;
+      this.tableName = tableName;
+      this.primaryKey = primaryKey;
+    }
+
+    private void set(String column, Object value) {
+      // the whole value replaces entries put or removed before
+      mapPuts.remove(column);
+      mapRemoves.remove(column);
+      columns.put(column, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putEntry(String column, Object key, Object value) {
+      Object current = columns.get(column);
+      if (current instanceof Map) {
+        Map<Object, Object> map = new HashMap<>((Map<Object, Object>) current);
+        map.put(key, value);
+        columns.put(column, map);
+        return;
+      }
+      if (mapRemoves.containsKey(column)) {
+        mapRemoves.get(column).remove(key);
+      }
+      mapPuts.computeIfAbsent(column, c -> new LinkedHashMap<>()).put(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeEntry(String column, Object key) {
+      Object current = columns.get(column);
+      if (current instanceof Map) {
+        Map<Object, Object> map = new HashMap<>((Map<Object, Object>) current);
+        map.remove(key);
+        columns.put(column, map);
+        return;
+      }
+      if (mapPuts.containsKey(column)) {
+        mapPuts.get(column).remove(key);
+      }
+      mapRemoves.computeIfAbsent(column, c -> new HashSet<>()).add(key);
+    }
+
+    private Statement createStatement() {
+      Update update = QueryBuilder.update(keyspaceName, tableName);
+      Update.Assignments assignments = update.with();
+      for (Map.Entry<String, Object> column : columns.entrySet()) {
+        assignments.and(QueryBuilder.set(column.getKey(), column.getValue()));
+      }
+      for (Map.Entry<String, Map<Object, Object>> column : mapPuts.entrySet()) {
+        if (!column.getValue().isEmpty()) {
+          assignments.and(QueryBuilder.putAll(column.getKey(), column.getValue()));
+        }
+      }
+      for (Map.Entry<String, Set<Object>> column : mapRemoves.entrySet()) {
+        if (!column.getValue().isEmpty()) {
+          assignments.and(QueryBuilder.removeAll(column.getKey(), column.getValue()));
+        }
+      }
+      Update.Where where = update.where();
+      for (Map.Entry<String, Object> key : primaryKey.entrySet()) {
+        where.and(QueryBuilder.eq(key.getKey(), key.getValue()));
+      }
+      update.setIdempotent(true);
+      return update;
+    }
+
+    private void complete(Throwable error) {
+      for (CompletableFuture<Void> waiter : waiters) {
+        if (error == null) {
+          waiter.complete(null);
+        } else {
+          waiter.completeExceptionally(error);
+        }
+      }
+    }
+  }
+}
@@ -1,32 +1,57 @@
 package org.sunbird.common;
 
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PagingState;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.RegularStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.PagingStateException;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.Delete;
+import com.datastax.driver.core.querybuilder.Insert;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import com.datastax.driver.core.querybuilder.Select.Builder;
+import com.datastax.driver.core.querybuilder.Select.Selection;
 import com.datastax.driver.core.querybuilder.Select.Where;
 import com.datastax.driver.core.querybuilder.Update;
 import com.datastax.driver.core.querybuilder.Update.Assignments;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
-import org.sunbird.cassandraannotation.ClusteringKey;
-import org.sunbird.cassandraannotation.PartitioningKey;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.response.Response;
 import org.sunbird.common.models.util.CassandraPropertyReader;
 import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.models.util.ProjectUtil;
+import org.sunbird.common.models.util.PropertiesCache;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.PreparedStatementCache;
 
 /**
  * @desc This class will provide all required helper method for cassandra db operation.
@@ -36,7 +61,6 @@ public final class CassandraUtil {
 
   private static final CassandraPropertyReader propertiesCache =
       CassandraPropertyReader.getInstance();
-  private static final String SERIAL_VERSION_UID = "serialVersionUID";
 
   private CassandraUtil() {}
 
@@ -50,15 +74,27 @@ public final class CassandraUtil {
    */
   public static String getPreparedStatement(
       String keyspaceName, String tableName, Map<String, Object> map) {
+    return getPreparedStatement(keyspaceName, tableName, getColumns(map));
+  }
+
+  /**
+   * @desc This method is used to create insert prepared statement based on table name and column
+   *     names. Values are bound in the same order as given columns.
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param columns Column names
+   * @return Prepared statement
+   */
+  public static String getPreparedStatement(
+      String keyspaceName, String tableName, Collection<String> columns) {
     StringBuilder query = new StringBuilder();
     query.append(
         Constants.INSERT_INTO + keyspaceName + Constants.DOT + tableName + Constants.OPEN_BRACE);
-    Set<String> keySet = map.keySet();
-    query.append(String.join(",", keySet) + Constants.VALUES_WITH_BRACE);
+    query.append(String.join(",", columns) + Constants.VALUES_WITH_BRACE);
     StringBuilder commaSepValueBuilder = new StringBuilder();
-    for (int i = 0; i < keySet.size(); i++) {
+    for (int i = 0; i < columns.size(); i++) {
       commaSepValueBuilder.append(Constants.QUE_MARK);
-      if (i != keySet.size() - 1) {
+      if (i != columns.size() - 1) {
         commaSepValueBuilder.append(Constants.COMMA);
       }
     }
@@ -67,6 +103,34 @@ public final class CassandraUtil {
     return query.toString();
   }
 
+  /**
+   * Get column names of given record in a stable (sorted) order so that records having same set of
+   * columns always map to the same prepared statement.
+   *
+   * @param map Map where key is column name and value is column value
+   * @return Sorted list of column names
+   */
+  public static List<String> getColumns(Map<String, Object> map) {
+    return new ArrayList<>(new TreeSet<>(map.keySet()));
+  }
+
+  /**
+   * Get values of given record to be bound to a prepared statement, looked up by column name in
+   * the order of given columns.
+   *
+   * @param columns Column names in bind order
+   * @param map Map where key is column name and value is column value
+   * @return Values in bind order
+   */
+  public static Object[] getBindValues(Collection<String> columns, Map<String, Object> map) {
+    Object[] values = new Object[columns.size()];
+    int i = 0;
+    for (String column : columns) {
+      values[i++] = map.get(column);
+    }
+    return values;
+  }
+
   /**
    * @desc This method is used for creating response from the resultset i.e return map
    *     <String,Object> or map<columnName,columnValue>
@@ -76,22 +140,125 @@ public final class CassandraUtil {
   public static Response createResponse(ResultSet results) {
     Response response = new Response();
     List<Map<String, Object>> responseList = new ArrayList<>();
-    Map<String, String> columnsMapping = fetchColumnsMapping(results);
+    RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
     Iterator<Row> rowIterator = results.iterator();
-    rowIterator.forEachRemaining(
-        row -> {
-          Map<String, Object> rowMap = new HashMap<>();
-          columnsMapping
-              .entrySet()
-              .stream()
-              .forEach(entry -> rowMap.put(entry.getKey(), row.getObject(entry.getValue())));
-          responseList.add(rowMap);
-        });
-    ProjectLogger.log(responseList.toString());
+    rowIterator.forEachRemaining(row -> responseList.add(decoder.decode(row)));
+    ProjectLogger.log("CassandraUtil:createResponse: rows fetched = " + responseList.size());
     response.put(Constants.RESPONSE, responseList);
     return response;
   }
 
+  /**
+   * Method to create response from the rows of the current page only, i.e. without fetching further
+   * pages. Paging state to be used for fetching the next page is put against {@link
+   * Constants#PAGING_STATE} (null for the last page).
+   *
+   * @param results Result set of a statement executed with a fetch size
+   * @return Response containing one page of records
+   */
+  public static Response createPageResponse(ResultSet results) {
+    Response response = new Response();
+    RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+    int available = results.getAvailableWithoutFetching();
+    List<Map<String, Object>> responseList = new ArrayList<>(available);
+    for (int i = 0; i < available; i++) {
+      responseList.add(decoder.decode(results.one()));
+    }
+    PagingState pagingState = results.getExecutionInfo().getPagingState();
+    response.put(Constants.RESPONSE, responseList);
+    response.put(Constants.PAGING_STATE, pagingState == null ? null : pagingState.toString());
+    return response;
+  }
+
+  /**
+   * Method to create lazy stream of records from the result set. Pages are fetched as the stream is
+   * consumed, prefetching the next page when less than half of the current one is left, so that
+   * only about one page is held in memory at a time.
+   *
+   * @param results Result set of a statement executed with a fetch size
+   * @return Stream of records
+   */
+  public static Stream<Map<String, Object>> createResultStream(ResultSet results) {
+    return StreamSupport.stream(
+        Spliterators.spliteratorUnknownSize(
+            new ResultSetIterator(results), Spliterator.ORDERED | Spliterator.NONNULL),
+        false);
+  }
+
+  /**
+   * Method to read integer configuration property, falling back to given default when it is not
+   * set or not a number.
+   *
+   * @param key Property name
+   * @param defaultValue Default value
+   * @return Property value
+   */
+  public static int getIntProperty(String key, int defaultValue) {
+    String value = PropertiesCache.getInstance().readProperty(key);
+    if (StringUtils.isNotBlank(value)) {
+      try {
+        return Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+        ProjectLogger.log(
+            "CassandraUtil:getIntProperty: Invalid value " + value + " for " + key,
+            LoggerEnum.ERROR);
+      }
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Method to read decimal configuration property, falling back to given default when it is not
+   * set or not a number.
+   *
+   * @param key Property name
+   * @param defaultValue Default value
+   * @return Property value
+   */
+  public static double getDoubleProperty(String key, double defaultValue) {
+    String value = PropertiesCache.getInstance().readProperty(key);
+    if (StringUtils.isNotBlank(value)) {
+      try {
+        return Double.parseDouble(value.trim());
+      } catch (NumberFormatException e) {
+        ProjectLogger.log(
+            "CassandraUtil:getDoubleProperty: Invalid value " + value + " for " + key,
+            LoggerEnum.ERROR);
+      }
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Method to set fetch size and (optional) paging state on the statement.
+   *
+   * @param statement Statement to be paged
+   * @param pageSize Number of rows per page
+   * @param pagingState Paging state returned with the previous page, null for the first page
+   * @return Statement
+   */
+  public static Statement setPaging(Statement statement, int pageSize, String pagingState) {
+    if (pageSize > 0) {
+      statement.setFetchSize(pageSize);
+    }
+    if (StringUtils.isNotBlank(pagingState)) {
+      try {
+        statement.setPagingState(PagingState.fromString(pagingState));
+      } catch (PagingStateException e) {
+        ProjectLogger.log(
+            "CassandraUtil:setPaging: Invalid paging state " + pagingState, LoggerEnum.ERROR);
+        throw new ProjectCommonException(
+            ResponseCode.invalidParameterValue.getErrorCode(),
+            ProjectUtil.formatMessage(
+                ResponseCode.invalidParameterValue.getErrorMessage(),
+                pagingState,
+                Constants.PAGING_STATE),
+            ResponseCode.CLIENT_ERROR.getResponseCode());
+      }
+    }
+    return statement;
+  }
+
   public static Map<String, String> fetchColumnsMapping(ResultSet results) {
     return results
         .getColumnDefinitions()
@@ -112,12 +279,25 @@ public final class CassandraUtil {
    */
   public static String getUpdateQueryStatement(
       String keyspaceName, String tableName, Map<String, Object> map) {
+    List<String> columns = getColumns(map);
+    columns.remove(Constants.IDENTIFIER);
+    return getUpdateQueryStatement(keyspaceName, tableName, columns);
+  }
+
+  /**
+   * @desc This method is used to create update by id query statement based on table name and
+   *     column names (excluding id). Values are bound in the order of given columns followed by id.
+   * @param keyspaceName String (data base keyspace name)
+   * @param tableName String
+   * @param columns Names of columns to be updated
+   * @return String String
+   */
+  public static String getUpdateQueryStatement(
+      String keyspaceName, String tableName, Collection<String> columns) {
     StringBuilder query =
         new StringBuilder(
             Constants.UPDATE + keyspaceName + Constants.DOT + tableName + Constants.SET);
-    Set<String> key = new HashSet<>(map.keySet());
-    key.remove(Constants.IDENTIFIER);
-    query.append(String.join(" = ? ,", key));
+    query.append(String.join(" = ? ,", columns));
     query.append(
         Constants.EQUAL_WITH_QUE_MARK + Constants.WHERE_ID + Constants.EQUAL_WITH_QUE_MARK);
     ProjectLogger.log(query.toString());
@@ -167,47 +347,12 @@ public final class CassandraUtil {
    * @return Map containing two submap with keys PK(containing primary key attributes) and
    *     NonPk(containing updatable attributes).
    */
+  @SuppressWarnings("unchecked")
   public static <T> Map<String, Map<String, Object>> batchUpdateQuery(T clazz) {
-    Field[] fieldList = clazz.getClass().getDeclaredFields();
-
-    Map<String, Object> primaryKeyMap = new HashMap<>();
-    Map<String, Object> nonPKMap = new HashMap<>();
-    try {
-      for (Field field : fieldList) {
-        String fieldName = null;
-        Object fieldValue = null;
-        Boolean isFieldPrimaryKeyPart = false;
-        if (Modifier.isPrivate(field.getModifiers())) {
-          field.setAccessible(true);
-        }
-        Annotation[] annotations = field.getDeclaredAnnotations();
-        for (Annotation annotation : annotations) {
-          if (annotation instanceof PartitioningKey) {
-            isFieldPrimaryKeyPart = true;
-          } else if (annotation instanceof ClusteringKey) {
-            isFieldPrimaryKeyPart = true;
-          }
-        }
-        fieldName = field.getName();
-        fieldValue = field.get(clazz);
-        if (!(fieldName.equalsIgnoreCase(SERIAL_VERSION_UID))) {
-          if (isFieldPrimaryKeyPart) {
-            primaryKeyMap.put(fieldName, fieldValue);
-          } else {
-            nonPKMap.put(fieldName, fieldValue);
-          }
-        }
-      }
-    } catch (Exception ex) {
-      ProjectLogger.log("Exception occurred - batchUpdateQuery", ex);
-      throw new ProjectCommonException(
-          ResponseCode.SERVER_ERROR.getErrorCode(),
-          ResponseCode.SERVER_ERROR.getErrorMessage(),
-          ResponseCode.SERVER_ERROR.getResponseCode());
-    }
+    EntityDescriptor<T> descriptor = EntityDescriptor.getInstance((Class<T>) clazz.getClass());
     Map<String, Map<String, Object>> map = new HashMap<>();
-    map.put(JsonKey.PRIMARY_KEY, primaryKeyMap);
-    map.put(JsonKey.NON_PRIMARY_KEY, nonPKMap);
+    map.put(JsonKey.PRIMARY_KEY, descriptor.getPrimaryKey(clazz));
+    map.put(JsonKey.NON_PRIMARY_KEY, descriptor.getNonPrimaryKey(clazz));
     return map;
   }
 
@@ -217,42 +362,20 @@ public final class CassandraUtil {
    * @param clazz class of Model class corresponding to table.
    * @return Map containing primary key attributes.
    */
+  @SuppressWarnings("unchecked")
   public static <T> Map<String, Object> getPrimaryKey(T clazz) {
-    Field[] fieldList = clazz.getClass().getDeclaredFields();
-    Map<String, Object> primaryKeyMap = new HashMap<>();
-
-    try {
-      for (Field field : fieldList) {
-        String fieldName = null;
-        Object fieldValue = null;
-        Boolean isFieldPrimaryKeyPart = false;
-        if (Modifier.isPrivate(field.getModifiers())) {
-          field.setAccessible(true);
-        }
-        Annotation[] annotations = field.getDeclaredAnnotations();
-        for (Annotation annotation : annotations) {
-          if (annotation instanceof PartitioningKey) {
-            isFieldPrimaryKeyPart = true;
-          } else if (annotation instanceof ClusteringKey) {
-            isFieldPrimaryKeyPart = true;
-          }
-        }
-        fieldName = field.getName();
-        fieldValue = field.get(clazz);
-        if (!(fieldName.equalsIgnoreCase(SERIAL_VERSION_UID))) {
-          if (isFieldPrimaryKeyPart) {
-            primaryKeyMap.put(fieldName, fieldValue);
-          }
-        }
-      }
-    } catch (Exception ex) {
-      ProjectLogger.log("Exception occurred - getPrimaryKey", ex);
-      throw new ProjectCommonException(
-          ResponseCode.SERVER_ERROR.getErrorCode(),
-          ResponseCode.SERVER_ERROR.getErrorMessage(),
-          ResponseCode.SERVER_ERROR.getResponseCode());
-    }
-    return primaryKeyMap;
+    return EntityDescriptor.getInstance((Class<T>) clazz.getClass()).getPrimaryKey(clazz);
+  }
+
+  /**
+   * Method to create model objects from the rows of a result set.
+   *
+   * @param results Result set
+   * @param type Model class corresponding to table, with an accessible no-arg constructor
+   * @return List of model objects
+   */
+  public static <T> List<T> createEntities(ResultSet results, Class<T> type) {
+    return EntityDescriptor.getInstance(type).map(results);
   }
 
   /**
@@ -344,4 +467,690 @@ public final class CassandraUtil {
       where.and(QueryBuilder.eq(key, value));
     }
   }
+
+  /**
+   * Method to create bound insert statement for given record using the cached prepared statement
+   * for its column set.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param request Map of column name and value
+   * @return Bound statement
+   */
+  public static BoundStatement createInsertStatement(
+      Session session, String keyspaceName, String tableName, Map<String, Object> request) {
+    List<String> columns = getColumns(request);
+    PreparedStatement statement =
+        PreparedStatementCache.getInstance(session)
+            .getStatement(
+                PreparedStatementCache.createKey(
+                    Constants.INSERT, keyspaceName, tableName, columns),
+                () -> getPreparedStatement(keyspaceName, tableName, columns));
+    return statement.bind(getBindValues(columns, request));
+  }
+
+  /**
+   * Method to create bound update by id statement for given record using the cached prepared
+   * statement for its column set.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param request Map of column name and value, including id
+   * @return Bound statement
+   */
+  public static BoundStatement createUpdateByIdStatement(
+      Session session, String keyspaceName, String tableName, Map<String, Object> request) {
+    List<String> columns = getColumns(request);
+    columns.remove(Constants.IDENTIFIER);
+    PreparedStatement statement =
+        PreparedStatementCache.getInstance(session)
+            .getStatement(
+                PreparedStatementCache.createKey(
+                    Constants.UPDATE_BY_ID, keyspaceName, tableName, columns),
+                () -> getUpdateQueryStatement(keyspaceName, tableName, columns));
+    // bind order is update columns followed by id of the where clause
+    columns.add(Constants.IDENTIFIER);
+    return statement.bind(getBindValues(columns, request));
+  }
+
+  /**
+   * Method to create bound select by id statement for given properties using the cached prepared
+   * statement.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param id Record identifier
+   * @param properties Columns to be returned
+   * @return Bound statement
+   */
+  public static BoundStatement createSelectByIdStatement(
+      Session session, String keyspaceName, String tableName, String id, String... properties) {
+    PreparedStatement statement =
+        PreparedStatementCache.getInstance(session)
+            .getStatement(
+                PreparedStatementCache.createKey(
+                    Constants.SELECT_BY_ID, keyspaceName, tableName, Arrays.asList(properties)),
+                () -> getSelectStatement(keyspaceName, tableName, properties));
+    BoundStatement boundStatement = new BoundStatement(statement);
+    // reads can safely be sent to several replicas, which enables speculative executions
+    boundStatement.setIdempotent(true);
+    return boundStatement.bind(id);
+  }
+
+  /**
+   * Method to create bound select statement for given query shape using the prepared statement
+   * cached for that shape.
+   *
+   * @param session Cassandra session
+   * @param shape Query shape along with the filter values
+   * @return Bound statement
+   */
+  public static BoundStatement createSelectStatement(Session session, QueryShape shape) {
+    PreparedStatement statement =
+        PreparedStatementCache.getInstance(session)
+            .getStatement(shape.getKey(), shape::getQueryString);
+    // reads can safely be sent to several replicas, bound statements inherit the flag
+    statement.setIdempotent(true);
+    return statement.bind(shape.getValues());
+  }
+
+  /**
+   * Method to create bound insert statement for given record without blocking, preparing the
+   * statement asynchronously on a cache miss.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param request Map of column name and value
+   * @return Stage completed with the bound statement
+   */
+  public static CompletionStage<BoundStatement> createInsertStatementAsync(
+      Session session, String keyspaceName, String tableName, Map<String, Object> request) {
+    List<String> columns = getColumns(request);
+    return PreparedStatementCache.getInstance(session)
+        .getStatementAsync(
+            PreparedStatementCache.createKey(Constants.INSERT, keyspaceName, tableName, columns),
+            () -> getPreparedStatement(keyspaceName, tableName, columns))
+        .thenApply(statement -> statement.bind(getBindValues(columns, request)));
+  }
+
+  /**
+   * Method to create bound update by id statement for given record without blocking, preparing
+   * the statement asynchronously on a cache miss.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param request Map of column name and value, including id
+   * @return Stage completed with the bound statement
+   */
+  public static CompletionStage<BoundStatement> createUpdateByIdStatementAsync(
+      Session session, String keyspaceName, String tableName, Map<String, Object> request) {
+    List<String> columns = getColumns(request);
+    columns.remove(Constants.IDENTIFIER);
+    String key =
+        PreparedStatementCache.createKey(Constants.UPDATE_BY_ID, keyspaceName, tableName, columns);
+    List<String> bindColumns = new ArrayList<>(columns);
+    bindColumns.add(Constants.IDENTIFIER);
+    return PreparedStatementCache.getInstance(session)
+        .getStatementAsync(key, () -> getUpdateQueryStatement(keyspaceName, tableName, columns))
+        .thenApply(statement -> statement.bind(getBindValues(bindColumns, request)));
+  }
+
+  /**
+   * Method to create bound select by id statement for given properties without blocking,
+   * preparing the statement asynchronously on a cache miss.
+   *
+   * @param session Cassandra session
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param id Record identifier
+   * @param properties Columns to be returned
+   * @return Stage completed with the bound statement
+   */
+  public static CompletionStage<BoundStatement> createSelectByIdStatementAsync(
+      Session session, String keyspaceName, String tableName, String id, String... properties) {
+    return PreparedStatementCache.getInstance(session)
+        .getStatementAsync(
+            PreparedStatementCache.createKey(
+                Constants.SELECT_BY_ID, keyspaceName, tableName, Arrays.asList(properties)),
+            () -> getSelectStatement(keyspaceName, tableName, properties))
+        .thenApply(
+            statement -> {
+              BoundStatement boundStatement = statement.bind(id);
+              boundStatement.setIdempotent(true);
+              return boundStatement;
+            });
+  }
+
+  /**
+   * Method to create bound select statement for given query shape without blocking, preparing the
+   * statement asynchronously on a cache miss.
+   *
+   * @param session Cassandra session
+   * @param shape Query shape along with the filter values
+   * @return Stage completed with the bound statement
+   */
+  public static CompletionStage<BoundStatement> createSelectStatementAsync(
+      Session session, QueryShape shape) {
+    return PreparedStatementCache.getInstance(session)
+        .getStatementAsync(shape.getKey(), shape::getQueryString)
+        .thenApply(
+            statement -> {
+              BoundStatement boundStatement = statement.bind(shape.getValues());
+              boundStatement.setIdempotent(true);
+              return boundStatement;
+            });
+  }
+
+  /**
+   * Adapt a future of the driver to a completable future, completed on the thread completing it.
+   *
+   * @param future Driver future
+   * @return Future completed with the same value or failure
+   */
+  public static <V> CompletableFuture<V> toCompletableFuture(ListenableFuture<V> future) {
+    CompletableFuture<V> result = new CompletableFuture<>();
+    Futures.addCallback(
+        future,
+        new FutureCallback<V>() {
+          @Override
+          public void onSuccess(V value) {
+            result.complete(value);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            result.completeExceptionally(t);
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
+  }
+
+  /**
+   * Method to create select query for records matching given column value.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param propertyName Column name
+   * @param propertyValue Column value
+   * @param fields Columns to be returned (all if empty)
+   * @return Select query
+   */
+  public static Statement createSelectQuery(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      Object propertyValue,
+      List<String> fields) {
+    Builder selectBuilder;
+    if (CollectionUtils.isNotEmpty(fields)) {
+      selectBuilder = QueryBuilder.select(fields.toArray(new String[fields.size()]));
+    } else {
+      selectBuilder = QueryBuilder.select().all();
+    }
+    return selectBuilder
+        .from(keyspaceName, tableName)
+        .where(QueryBuilder.eq(propertyName, propertyValue));
+  }
+
+  /**
+   * Method to create select query for records whose column value is in given list.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param propertyName Column name
+   * @param propertyValueList Column values
+   * @param fields Columns to be returned (all if empty)
+   * @return Select query
+   */
+  public static Statement createSelectInQuery(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      List<Object> propertyValueList,
+      List<String> fields) {
+    Builder selectBuilder;
+    if (CollectionUtils.isNotEmpty(fields)) {
+      selectBuilder = QueryBuilder.select(fields.toArray(new String[fields.size()]));
+    } else {
+      selectBuilder = QueryBuilder.select().all();
+    }
+    return selectBuilder
+        .from(keyspaceName, tableName)
+        .where(QueryBuilder.in(propertyName, propertyValueList));
+  }
+
+  /**
+   * Method to create select query returning given columns along with ttl of given ttl columns.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param key Column map representing primary key
+   * @param ttlFields Columns whose ttl is returned as column name with _ttl suffix
+   * @param fields Columns to be returned
+   * @return Select query
+   */
+  public static Statement createSelectWithTTLQuery(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> key,
+      List<String> ttlFields,
+      List<String> fields) {
+    Selection select = QueryBuilder.select();
+    for (String field : fields) {
+      select.column(field);
+    }
+    for (String field : ttlFields) {
+      select.ttl(field).as(field + "_ttl");
+    }
+    Select.Where selectWhere = select.from(keyspaceName, tableName).where();
+    key.entrySet()
+        .stream()
+        .forEach(
+            x -> {
+              selectWhere.and(QueryBuilder.eq(x.getKey(), x.getValue()));
+            });
+    return selectWhere;
+  }
+
+  /**
+   * Method to create select query returning given columns along with ttl of given columns under
+   * given alias.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param primaryKeys Column map for partition / primary key
+   * @param properties Columns to be returned
+   * @param ttlPropertiesWithAlias Map containing TTL column as key and alias as value
+   * @return Select query
+   */
+  public static Select createSelectWithTTLAliasQuery(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> primaryKeys,
+      List<String> properties,
+      Map<String, String> ttlPropertiesWithAlias) {
+    Selection selection = QueryBuilder.select();
+    if (CollectionUtils.isNotEmpty(properties)) {
+      properties
+          .stream()
+          .forEach(
+              property -> {
+                selection.column(property);
+              });
+    }
+    if (MapUtils.isNotEmpty(ttlPropertiesWithAlias)) {
+      ttlPropertiesWithAlias
+          .entrySet()
+          .stream()
+          .forEach(
+              property -> {
+                if (StringUtils.isBlank(property.getValue())) {
+                  ProjectLogger.log(
+                      "CassandraUtil:createSelectWithTTLAliasQuery: Alias not provided for ttl key = "
+                          + property.getKey(),
+                      LoggerEnum.ERROR);
+                  ProjectCommonException.throwServerErrorException(ResponseCode.SERVER_ERROR);
+                }
+                selection.ttl(property.getKey()).as(property.getValue());
+              });
+    }
+    Select select = selection.from(keyspaceName, tableName);
+    primaryKeys
+        .entrySet()
+        .stream()
+        .forEach(
+            primaryKey -> {
+              select.where().and(QueryBuilder.eq(primaryKey.getKey(), primaryKey.getValue()));
+            });
+    return select;
+  }
+
+  /**
+   * Method to create insert query for given record.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param record Map of column name and value
+   * @return Insert query
+   */
+  public static Insert createInsertQuery(
+      String keyspaceName, String tableName, Map<String, Object> record) {
+    Insert insert = QueryBuilder.insertInto(keyspaceName, tableName);
+    record
+        .entrySet()
+        .stream()
+        .forEach(
+            x -> {
+              insert.value(x.getKey(), x.getValue());
+            });
+    return insert;
+  }
+
+  /**
+   * Method to create update by id query for given record, id is used in where clause and all other
+   * columns in set clause.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param record Map of column name and value, including id
+   * @return Update query
+   */
+  public static Update createUpdateByIdQuery(
+      String keyspaceName, String tableName, Map<String, Object> record) {
+    Update update = QueryBuilder.update(keyspaceName, tableName);
+    Assignments assignments = update.with();
+    Update.Where where = update.where();
+    record
+        .entrySet()
+        .stream()
+        .forEach(
+            x -> {
+              if (Constants.ID.equals(x.getKey())) {
+                where.and(QueryBuilder.eq(x.getKey(), x.getValue()));
+              } else {
+                assignments.and(QueryBuilder.set(x.getKey(), x.getValue()));
+              }
+            });
+    return update;
+  }
+
+  /**
+   * Method to create batch statement inserting all given records.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param records List of records
+   * @return Batch statement
+   */
+  public static BatchStatement createBatchInsertStatement(
+      String keyspaceName, String tableName, List<Map<String, Object>> records) {
+    BatchStatement batchStatement = new BatchStatement();
+    for (Map<String, Object> map : records) {
+      batchStatement.add(createInsertQuery(keyspaceName, tableName, map));
+    }
+    return batchStatement;
+  }
+
+  /**
+   * Method to create batch statement inserting all given records, each with its own ttl. TTL is
+   * ignored if value is not a positive number.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param records List of records
+   * @param ttls TTL (in seconds) for each record
+   * @return Batch statement
+   */
+  public static BatchStatement createBatchInsertWithTTLStatement(
+      String keyspaceName,
+      String tableName,
+      List<Map<String, Object>> records,
+      List<Integer> ttls) {
+    BatchStatement batchStatement = new BatchStatement();
+    Iterator<Integer> ttlIterator = ttls.iterator();
+    for (Map<String, Object> map : records) {
+      Insert insert = createInsertQuery(keyspaceName, tableName, map);
+      if (ttlIterator.hasNext()) {
+        Integer ttlVal = ttlIterator.next();
+        if (ttlVal != null && ttlVal > 0) {
+          insert.using(QueryBuilder.ttl(ttlVal));
+        }
+      }
+      batchStatement.add(insert);
+    }
+    return batchStatement;
+  }
+
+  /**
+   * Method to create batch statement updating all given records by id.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param records List of records, each including id
+   * @return Batch statement
+   */
+  public static BatchStatement createBatchUpdateByIdStatement(
+      String keyspaceName, String tableName, List<Map<String, Object>> records) {
+    BatchStatement batchStatement = new BatchStatement();
+    for (Map<String, Object> map : records) {
+      batchStatement.add(createUpdateByIdQuery(keyspaceName, tableName, map));
+    }
+    return batchStatement;
+  }
+
+  /**
+   * Method to create batch statement updating all given records by composite key.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param records List of map consisting of primary key map (PK) and map of columns to be updated
+   *     (NonPK)
+   * @return Batch statement
+   */
+  public static BatchStatement createBatchUpdateStatement(
+      String keyspaceName, String tableName, List<Map<String, Map<String, Object>>> records) {
+    BatchStatement batchStatement = new BatchStatement();
+    for (Map<String, Map<String, Object>> record : records) {
+      Map<String, Object> primaryKey = record.get(JsonKey.PRIMARY_KEY);
+      Map<String, Object> nonPKRecord = record.get(JsonKey.NON_PRIMARY_KEY);
+      batchStatement.add(createUpdateQuery(primaryKey, nonPKRecord, keyspaceName, tableName));
+    }
+    return batchStatement;
+  }
+
+  /**
+   * Method to create batch statement performing insert and update actions of given input.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param inputData Map of action (insert or update) and the record for the action
+   * @return Batch statement
+   */
+  public static BatchStatement createBatchActionStatement(
+      String keyspaceName, String tableName, Map<String, Object> inputData) {
+    BatchStatement batchStatement = new BatchStatement();
+    inputData.forEach(
+        (key, inputMap) -> {
+          Map<String, Object> record = (Map<String, Object>) inputMap;
+          if (key.equals(JsonKey.INSERT)) {
+            batchStatement.add(createInsertQuery(keyspaceName, tableName, record));
+          } else if (key.equals(JsonKey.UPDATE)) {
+            batchStatement.add(createUpdateByIdQuery(keyspaceName, tableName, record));
+          }
+        });
+    return batchStatement;
+  }
+
+  /**
+   * Method to create delete query for record with given composite key.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param compositeKeyMap Column map for composite primary key
+   * @return Delete query
+   */
+  public static Delete createDeleteQuery(
+      String keyspaceName, String tableName, Map<String, String> compositeKeyMap) {
+    Delete delete = QueryBuilder.delete().from(keyspaceName, tableName);
+    Delete.Where deleteWhere = delete.where();
+    compositeKeyMap
+        .entrySet()
+        .stream()
+        .forEach(
+            x -> {
+              Clause clause = QueryBuilder.eq(x.getKey(), x.getValue());
+              deleteWhere.and(clause);
+            });
+    return delete;
+  }
+
+  /**
+   * Method to create insert query with ttl for given record.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param request Map of column name and value
+   * @param ttl Time to live in seconds
+   * @return Insert query
+   */
+  public static Insert createInsertWithTTLQuery(
+      String keyspaceName, String tableName, Map<String, Object> request, int ttl) {
+    Insert insert = createInsertQuery(keyspaceName, tableName, request);
+    insert.using(QueryBuilder.ttl(ttl));
+    return insert;
+  }
+
+  /**
+   * Method to create update query with ttl for record with given composite key.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param request Column map to be used in set clause
+   * @param compositeKey Column map for composite primary key
+   * @param ttl Time to live in seconds
+   * @return Update query
+   */
+  public static Update createUpdateWithTTLQuery(
+      String keyspaceName,
+      String tableName,
+      Map<String, Object> request,
+      Map<String, Object> compositeKey,
+      int ttl) {
+    Update update = QueryBuilder.update(keyspaceName, tableName);
+    Assignments assignments = update.with();
+    Update.Where where = update.where();
+    request
+        .entrySet()
+        .stream()
+        .forEach(
+            x -> {
+              assignments.and(QueryBuilder.set(x.getKey(), x.getValue()));
+            });
+    compositeKey
+        .entrySet()
+        .stream()
+        .forEach(
+            x -> {
+              where.and(QueryBuilder.eq(x.getKey(), x.getValue()));
+            });
+    update.using(QueryBuilder.ttl(ttl));
+    return update;
+  }
+
+  /**
+   * Method to create select query for records of given object type whose key column is less than
+   * given value.
+   *
+   * @param keyspace Keyspace name
+   * @param tableName Table name
+   * @param columnName Column to be returned
+   * @param key Column to be compared
+   * @param value Value to compare with
+   * @param objectType Object type
+   * @return Select query
+   */
+  public static Select createSelectByObjectTypeQuery(
+      String keyspace,
+      String tableName,
+      String columnName,
+      String key,
+      int value,
+      String objectType) {
+    Select selectQuery = QueryBuilder.select().column(columnName).from(keyspace, tableName);
+    Clause clause = QueryBuilder.lt(key, value);
+    selectQuery.where(QueryBuilder.eq(JsonKey.OBJECT_TYPE, objectType)).and(clause);
+    selectQuery.allowFiltering();
+    return selectQuery;
+  }
+
+  /**
+   * Method to create select query for records whose list column contains given value, optionally
+   * matching other given columns.
+   *
+   * @param keyspace Keyspace name
+   * @param tableName Table name
+   * @param key List column name
+   * @param value Value to be searched in the list
+   * @param propertyMap Additional column map to be matched
+   * @return Select query
+   */
+  public static Select createSearchValueInListQuery(
+      String keyspace,
+      String tableName,
+      String key,
+      String value,
+      Map<String, Object> propertyMap) {
+    Select selectQuery = QueryBuilder.select().all().from(keyspace, tableName);
+    Clause clause = QueryBuilder.contains(key, value);
+    selectQuery.where(clause);
+    if (MapUtils.isNotEmpty(propertyMap)) {
+      for (Map.Entry<String, Object> entry : propertyMap.entrySet()) {
+        if (entry.getValue() instanceof List) {
+          List<Object> list = (List) entry.getValue();
+          if (null != list) {
+            Object[] propertyValues = list.toArray(new Object[list.size()]);
+            Clause clauseList = QueryBuilder.in(entry.getKey(), propertyValues);
+            selectQuery.where(clauseList);
+          }
+        } else {
+          Clause clauseMap = QueryBuilder.eq(entry.getKey(), entry.getValue());
+          selectQuery.where(clauseMap);
+        }
+      }
+    }
+    return selectQuery;
+  }
+
+  /**
+   * Method to create update query adding (or removing) a key of a map column.
+   *
+   * @param keySpace Keyspace name
+   * @param table Table name
+   * @param primaryKey Column map for primary key
+   * @param column Map column name
+   * @param key Key within the map column
+   * @param value Value to be put against key (ignored for remove)
+   * @param add true to put the key, false to remove it
+   * @return Update query
+   */
+  public static Update createUpdateMapQuery(
+      String keySpace,
+      String table,
+      Map<String, Object> primaryKey,
+      String column,
+      String key,
+      Object value,
+      boolean add) {
+    Update update = QueryBuilder.update(keySpace, table);
+    if (add) {
+      update.with(QueryBuilder.put(column, key, value));
+    } else {
+      update.with(QueryBuilder.remove(column, key));
+    }
+    if (MapUtils.isEmpty(primaryKey)) {
+      ProjectLogger.log(
+          Constants.EXCEPTION_MSG_FETCH + table + " : primary key is a must for update call",
+          LoggerEnum.ERROR.name());
+      throw new ProjectCommonException(
+          ResponseCode.SERVER_ERROR.getErrorCode(),
+          ResponseCode.SERVER_ERROR.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+    Update.Where where = update.where();
+    for (Map.Entry<String, Object> filter : primaryKey.entrySet()) {
+      Object filterValue = filter.getValue();
+      if (filterValue instanceof List) {
+        where = where.and(QueryBuilder.in(filter.getKey(), ((List) filter.getValue())));
+      } else {
+        where = where.and(QueryBuilder.eq(filter.getKey(), filter.getValue()));
+      }
+    }
+    return update;
+  }
 }
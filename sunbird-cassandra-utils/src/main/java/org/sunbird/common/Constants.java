@@ -17,7 +17,42 @@ public interface Constants {
   public static final String CONTACT_POINT = "contactPoint";
   public static final String PORT = "port";
   public static final String QUERY_LOGGER_THRESHOLD = "queryLoggerConstantThreshold";
+  public static final String LOCAL_DATACENTER = "localDatacenter";
+  public static final String PROTOCOL_VERSION = "protocolVersion";
+  public static final String COMPRESSION = "compression";
   public static final String CASSANDRA_PROPERTIES_FILE = "cassandra.config.properties";
+  public static final String PREPARED_STATEMENT_CACHE_SIZE = "preparedStatementCacheSize";
+  public static final String ROW_DECODER_CACHE_SIZE = "rowDecoderCacheSize";
+  public static final String BATCH_WRITER_MAX_BATCH_SIZE = "batchWriterMaxBatchSize";
+  public static final String BATCH_WRITER_MAX_IN_FLIGHT = "batchWriterMaxInFlight";
+  public static final String BATCH_WRITER_MAX_RETRIES = "batchWriterMaxRetries";
+  public static final String SPECULATIVE_EXECUTION_MAX_ATTEMPTS =
+      "speculativeExecutionMaxAttempts";
+  public static final String SPECULATIVE_EXECUTION_PERCENTILE = "speculativeExecutionPercentile";
+  public static final String SPECULATIVE_EXECUTION_HIGHEST_LATENCY =
+      "speculativeExecutionHighestLatencyMillis";
+  public static final String METRICS_REGISTRY_NAME = "metricsRegistryName";
+  public static final String METRICS_LATENCY_WINDOW = "metricsLatencyWindowMillis";
+  public static final String SLOW_QUERY_THRESHOLD = "slowQueryThresholdMillis";
+  public static final String SLOW_QUERY_SAMPLE_RATE = "slowQuerySampleRate";
+  public static final String NEAR_CACHE_TABLES = "nearCacheTables";
+  public static final String PARTITION_READ_MIN_KEYS = "partitionReadMinKeys";
+  public static final String PARTITION_READ_CONCURRENCY = "partitionReadConcurrency";
+  public static final String CALLBACK_EXECUTOR_THREADS = "callbackExecutorThreads";
+  public static final String CALLBACK_EXECUTOR_QUEUE_SIZE = "callbackExecutorQueueSize";
+  public static final String WRITE_BEHIND_TABLES = "writeBehindTables";
+  public static final String WRITE_BEHIND_WINDOW_MILLIS = "writeBehindWindowMillis";
+  public static final String WRITE_BEHIND_MAX_PENDING = "writeBehindMaxPending";
+  public static final String WRITE_BEHIND_DURABILITY = "writeBehindDurability";
+  public static final String LOOKUP_INDEXES = "lookupIndexes";
+  public static final String LOOKUP_TABLE_RECHECK_MILLIS = "lookupTableRecheckMillis";
+  public static final String WARM_UP_ENABLED = "warmUpEnabled";
+  public static final String WARM_UP_STATEMENTS = "warmUpStatements";
+  public static final String WARM_UP_STATEMENTS_FILE = "warmUpStatementsFile";
+  public static final String WARM_UP_CANARY_QUERIES = "warmUpCanaryQueries";
+  public static final String WARM_UP_TIMEOUT = "warmUpTimeoutMillis";
+  public static final String BULK_LOAD_THREADS = "bulkLoadThreads";
+  public static final String BULK_LOAD_BUFFER_SIZE_IN_MB = "bulkLoadBufferSizeInMB";
 
   // CONSTANT
   public static final String COURSE_ID = "courseId";
@@ -37,6 +72,7 @@ public interface Constants {
   public static final String CLOSING_BRACE = ");";
   public static final String OPEN_BRACE = "(";
   public static final String COMMA = ",";
+  public static final String COLON = ":";
   public static final String COMMA_BRAC = "),";
   public static final String UPDATE = "UPDATE ";
   public static final String SET = " SET ";
@@ -62,4 +98,8 @@ public interface Constants {
   public static final String GTE = ">=";
   public static final String GT = ">";
   public static final String ID = "id";
+  public static final String INSERT = "insert";
+  public static final String UPDATE_BY_ID = "updateById";
+  public static final String SELECT_BY_ID = "selectById";
+  public static final String PAGING_STATE = "pagingState";
 }
@@ -0,0 +1,256 @@
+package org.sunbird.common;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.google.common.cache.CacheBuilder;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import org.sunbird.cassandraannotation.ClusteringKey;
+import org.sunbird.cassandraannotation.PartitioningKey;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.responsecode.ResponseCode;
+
+/**
+ * Describes the columns of a model class whose primary key fields are annotated with {@link
+ * PartitioningKey} or {@link ClusteringKey}. Fields are looked up and method handles to read and
+ * write them are created once per class, so splitting an object into primary key and other columns
+ * or filling an object from a row does not use reflection.
+ *
+ * @param <T> Model class
+ */
+public final class EntityDescriptor<T> {
+
+  private static final String SERIAL_VERSION_UID = "serialVersionUID";
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+  private static final ClassValue<EntityDescriptor<?>> descriptors =
+      new ClassValue<EntityDescriptor<?>>() {
+        @Override
+        protected EntityDescriptor<?> computeValue(Class<?> type) {
+          return new EntityDescriptor<>(type);
+        }
+      };
+
+  private final Class<T> type;
+  private final Column[] columns;
+  private final Map<String, Column> columnsByName = new HashMap<>();
+  private final MethodHandle constructor;
+  // weak keys so that the mapping of a decoder evicted from the decoder cache goes with it
+  private final ConcurrentMap<RowDecoder, Column[]> rowMappings =
+      CacheBuilder.newBuilder().weakKeys().<RowDecoder, Column[]>build().asMap();
+
+  private EntityDescriptor(Class<T> type) {
+    this.type = type;
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    List<Column> columnList = new ArrayList<>();
+    try {
+      for (Field field : type.getDeclaredFields()) {
+        if (SERIAL_VERSION_UID.equalsIgnoreCase(field.getName())) {
+          continue;
+        }
+        field.setAccessible(true);
+        Column column = new Column(field, lookup);
+        columnList.add(column);
+        columnsByName.put(field.getName().toLowerCase(), column);
+      }
+      constructor = createConstructor(type, lookup);
+    } catch (IllegalAccessException | RuntimeException e) {
+      throw new IllegalStateException("Cannot describe entity " + type.getName(), e);
+    }
+    columns = columnList.toArray(new Column[columnList.size()]);
+  }
+
+  /**
+   * Get descriptor of given model class.
+   *
+   * @param type Model class
+   * @return Entity descriptor
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> EntityDescriptor<T> getInstance(Class<T> type) {
+    try {
+      return (EntityDescriptor<T>) descriptors.get(type);
+    } catch (IllegalStateException e) {
+      ProjectLogger.log("EntityDescriptor:getInstance: " + e.getMessage(), e);
+      throw createServerError();
+    }
+  }
+
+  /**
+   * Get values of the primary key fields of given object.
+   *
+   * @param entity Model object
+   * @return Map of field name and value
+   */
+  public Map<String, Object> getPrimaryKey(T entity) {
+    Map<String, Object> primaryKey = new HashMap<>();
+    for (Column column : columns) {
+      if (column.primaryKey) {
+        primaryKey.put(column.name, column.get(entity));
+      }
+    }
+    return primaryKey;
+  }
+
+  /**
+   * Get values of the fields which are not part of the primary key of given object.
+   *
+   * @param entity Model object
+   * @return Map of field name and value
+   */
+  public Map<String, Object> getNonPrimaryKey(T entity) {
+    Map<String, Object> nonPrimaryKey = new HashMap<>();
+    for (Column column : columns) {
+      if (!column.primaryKey) {
+        nonPrimaryKey.put(column.name, column.get(entity));
+      }
+    }
+    return nonPrimaryKey;
+  }
+
+  /**
+   * Create object from given row. Columns are matched to fields by name ignoring case, columns
+   * without a matching field and null values of primitive fields are skipped.
+   *
+   * @param row Row
+   * @return Model object
+   */
+  public T map(Row row) {
+    RowDecoder decoder = RowDecoder.getInstance(row.getColumnDefinitions());
+    return map(row, decoder, rowMappings.computeIfAbsent(decoder, this::createRowMapping));
+  }
+
+  /**
+   * Create objects from all rows of given result set.
+   *
+   * @param results Result set
+   * @return Model objects
+   */
+  public List<T> map(ResultSet results) {
+    RowDecoder decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+    Column[] mapping = rowMappings.computeIfAbsent(decoder, this::createRowMapping);
+    List<T> entities = new ArrayList<>();
+    for (Row row : results) {
+      entities.add(map(row, decoder, mapping));
+    }
+    return entities;
+  }
+
+  private T map(Row row, RowDecoder decoder, Column[] mapping) {
+    T entity = newInstance();
+    for (int i = 0; i < mapping.length; i++) {
+      if (mapping[i] != null) {
+        mapping[i].set(entity, decoder.decode(row, i));
+      }
+    }
+    return entity;
+  }
+
+  private Column[] createRowMapping(RowDecoder decoder) {
+    String[] properties = decoder.getProperties();
+    Column[] mapping = new Column[properties.length];
+    for (int i = 0; i < properties.length; i++) {
+      Column column = columnsByName.get(properties[i].toLowerCase());
+      if (column != null && column.setter != null) {
+        mapping[i] = column;
+      }
+    }
+    return mapping;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T newInstance() {
+    if (constructor == null) {
+      ProjectLogger.log(
+          "EntityDescriptor:newInstance: No accessible no-arg constructor in " + type.getName());
+      throw createServerError();
+    }
+    try {
+      return (T) constructor.invoke();
+    } catch (Throwable t) {
+      ProjectLogger.log("EntityDescriptor:newInstance: Exception occurred", t);
+      throw createServerError();
+    }
+  }
+
+  private static MethodHandle createConstructor(Class<?> type, MethodHandles.Lookup lookup)
+      throws IllegalAccessException {
+    if (Modifier.isAbstract(type.getModifiers())) {
+      return null;
+    }
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return lookup.unreflectConstructor(constructor).asType(MethodType.methodType(Object.class));
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static ProjectCommonException createServerError() {
+    return new ProjectCommonException(
+        ResponseCode.SERVER_ERROR.getErrorCode(),
+        ResponseCode.SERVER_ERROR.getErrorMessage(),
+        ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+
+  private static final class Column {
+
+    private final String name;
+    private final boolean primaryKey;
+    private final boolean primitive;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private Column(Field field, MethodHandles.Lookup lookup) throws IllegalAccessException {
+      name = field.getName();
+      primaryKey =
+          field.isAnnotationPresent(PartitioningKey.class)
+              || field.isAnnotationPresent(ClusteringKey.class);
+      primitive = field.getType().isPrimitive();
+      boolean isStatic = Modifier.isStatic(field.getModifiers());
+      MethodHandle get = lookup.unreflectGetter(field);
+      if (isStatic) {
+        get = MethodHandles.dropArguments(get, 0, Object.class);
+      }
+      getter = get.asType(GETTER_TYPE);
+      if (isStatic || Modifier.isFinal(field.getModifiers())) {
+        setter = null;
+      } else {
+        setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+      }
+    }
+
+    private Object get(Object entity) {
+      try {
+        return getter.invokeExact(entity);
+      } catch (Throwable t) {
+        ProjectLogger.log("EntityDescriptor:get: Exception occurred reading " + name, t);
+        throw createServerError();
+      }
+    }
+
+    private void set(Object entity, Object value) {
+      if (value == null && primitive) {
+        return;
+      }
+      try {
+        setter.invokeExact(entity, value);
+      } catch (Throwable t) {
+        ProjectLogger.log("EntityDescriptor:set: Exception occurred writing " + name, t);
+        throw createServerError();
+      }
+    }
+  }
+}
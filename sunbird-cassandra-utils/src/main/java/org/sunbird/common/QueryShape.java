@@ -0,0 +1,195 @@
+package org.sunbird.common;
+
+import com.datastax.driver.core.querybuilder.BindMarker;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.datastax.driver.core.querybuilder.Select;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+
+/**
+ * Describes the shape of a select query i.e. keyspace, table, projected columns, filter columns and
+ * their operators, without the filter values. Queries of the same shape share one prepared
+ * statement and only differ in the values bound to it.
+ *
+ * <p>IN clauses are expressed with a single bind marker to which the whole value list is bound, so
+ * the arity of the list does not change the shape.
+ */
+public final class QueryShape {
+
+  private static final String SELECT = "select";
+  private static final String ALLOW_FILTERING = "|allowFiltering";
+  private static final String IN = " in";
+
+  private final String keyspaceName;
+  private final String tableName;
+  private final List<String> fields;
+  private final List<String> columns = new ArrayList<>();
+  private final List<String> operators = new ArrayList<>();
+  private final List<Object> values = new ArrayList<>();
+  private boolean allowFiltering;
+
+  public QueryShape(String keyspaceName, String tableName, List<String> fields) {
+    this.keyspaceName = keyspaceName;
+    this.tableName = tableName;
+    this.fields = fields;
+  }
+
+  /**
+   * Add filter for each entry of given map (in sorted column order). List values are matched with
+   * IN, other values with equality.
+   *
+   * @param filters Map of column name and value
+   * @return this
+   */
+  public QueryShape where(Map<String, Object> filters) {
+    if (MapUtils.isNotEmpty(filters)) {
+      for (Map.Entry<String, Object> filter : new TreeMap<>(filters).entrySet()) {
+        if (filter.getValue() instanceof List) {
+          in(filter.getKey(), (List<?>) filter.getValue());
+        } else {
+          eq(filter.getKey(), filter.getValue());
+        }
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Add filter for each entry of given map (in sorted column order) in the same way as {@link
+   * CassandraUtil#createQuery}, i.e. map values describe range operators.
+   *
+   * @param filters Map of column name and value
+   * @return this
+   */
+  public QueryShape whereWithRange(Map<String, Object> filters) {
+    if (MapUtils.isNotEmpty(filters)) {
+      for (Map.Entry<String, Object> filter : new TreeMap<>(filters).entrySet()) {
+        Object value = filter.getValue();
+        if (value instanceof Map) {
+          for (Map.Entry<String, Object> range :
+              new TreeMap<>((Map<String, Object>) value).entrySet()) {
+            addRange(filter.getKey(), range.getKey(), range.getValue());
+          }
+        } else if (value instanceof List) {
+          in(filter.getKey(), (List<?>) value);
+        } else {
+          eq(filter.getKey(), value);
+        }
+      }
+    }
+    return this;
+  }
+
+  public QueryShape eq(String column, Object value) {
+    return add(column, Constants.EQUAL.trim(), value);
+  }
+
+  public QueryShape in(String column, List<?> value) {
+    return add(column, IN, value);
+  }
+
+  public QueryShape allowFiltering() {
+    this.allowFiltering = true;
+    return this;
+  }
+
+  private void addRange(String column, String operator, Object value) {
+    if (Constants.LTE.equalsIgnoreCase(operator)
+        || Constants.LT.equalsIgnoreCase(operator)
+        || Constants.GTE.equalsIgnoreCase(operator)
+        || Constants.GT.equalsIgnoreCase(operator)) {
+      add(column, operator, value);
+    }
+  }
+
+  private QueryShape add(String column, String operator, Object value) {
+    columns.add(column);
+    operators.add(operator);
+    values.add(value);
+    return this;
+  }
+
+  /**
+   * Get key identifying this shape, to be used for looking up the prepared statement.
+   *
+   * @return Shape key
+   */
+  public String getKey() {
+    StringBuilder key = new StringBuilder(SELECT);
+    key.append(Constants.COLON).append(keyspaceName).append(Constants.DOT).append(tableName);
+    key.append(Constants.COLON);
+    if (CollectionUtils.isNotEmpty(fields)) {
+      for (String field : fields) {
+        key.append(field).append(Constants.COMMA);
+      }
+    } else {
+      key.append('*');
+    }
+    key.append(Constants.COLON);
+    for (int i = 0; i < columns.size(); i++) {
+      key.append(columns.get(i)).append(operators.get(i)).append(Constants.COMMA);
+    }
+    if (allowFiltering) {
+      key.append(ALLOW_FILTERING);
+    }
+    return key.toString();
+  }
+
+  /**
+   * Build select query of this shape with bind markers in place of filter values.
+   *
+   * @return CQL query string
+   */
+  public String getQueryString() {
+    Select select;
+    if (CollectionUtils.isNotEmpty(fields)) {
+      select =
+          QueryBuilder.select(fields.toArray(new String[fields.size()]))
+              .from(keyspaceName, tableName);
+    } else {
+      select = QueryBuilder.select().all().from(keyspaceName, tableName);
+    }
+    if (!columns.isEmpty()) {
+      Select.Where where = select.where();
+      for (int i = 0; i < columns.size(); i++) {
+        where.and(createClause(columns.get(i), operators.get(i)));
+      }
+    }
+    if (allowFiltering) {
+      select.allowFiltering();
+    }
+    return select.getQueryString();
+  }
+
+  /**
+   * Get filter values in bind order.
+   *
+   * @return Values to be bound to the prepared statement of this shape
+   */
+  public Object[] getValues() {
+    return values.toArray();
+  }
+
+  private static Clause createClause(String column, String operator) {
+    BindMarker marker = QueryBuilder.bindMarker();
+    switch (operator) {
+      case IN:
+        return QueryBuilder.in(column, marker);
+      case Constants.LTE:
+        return QueryBuilder.lte(column, marker);
+      case Constants.LT:
+        return QueryBuilder.lt(column, marker);
+      case Constants.GTE:
+        return QueryBuilder.gte(column, marker);
+      case Constants.GT:
+        return QueryBuilder.gt(column, marker);
+      default:
+        return QueryBuilder.eq(column, marker);
+    }
+  }
+}
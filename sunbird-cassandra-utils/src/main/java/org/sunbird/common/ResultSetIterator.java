@@ -0,0 +1,41 @@
+package org.sunbird.common;
+
+import com.datastax.driver.core.ResultSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the records of a result set which fetches pages lazily. Once less than half of the
+ * current page is left to be consumed, the next page is requested in the background so that it is
+ * usually available by the time the current one is exhausted. Rows are converted to maps one at a
+ * time, hence memory use is bounded by the fetch size rather than the size of the result.
+ */
+public final class ResultSetIterator implements Iterator<Map<String, Object>> {
+
+  private final ResultSet results;
+  private final RowDecoder decoder;
+  private final int prefetchThreshold;
+
+  public ResultSetIterator(ResultSet results) {
+    this.results = results;
+    this.decoder = RowDecoder.getInstance(results.getColumnDefinitions());
+    this.prefetchThreshold = Math.max(1, results.getAvailableWithoutFetching() / 2);
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !results.isExhausted();
+  }
+
+  @Override
+  public Map<String, Object> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    if (results.getAvailableWithoutFetching() == prefetchThreshold && !results.isFullyFetched()) {
+      results.fetchMoreResults();
+    }
+    return decoder.decode(results.one());
+  }
+}
@@ -0,0 +1,119 @@
+package org.sunbird.common;
+
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.TypeCodec;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import org.sunbird.common.models.util.CassandraPropertyReader;
+
+/**
+ * Decodes rows of one projection (keyspace, table and selected columns with their types) into maps
+ * of property name and value. Property names and type codecs of all columns are resolved once when
+ * the decoder is created and decoders are cached per projection, so decoding a row only reads its
+ * columns by index into a presized map.
+ */
+public final class RowDecoder {
+
+  private static final int DEFAULT_MAX_SIZE = 1000;
+  private static final CassandraPropertyReader propertiesCache =
+      CassandraPropertyReader.getInstance();
+  private static final Cache<String, RowDecoder> decoders =
+      CacheBuilder.newBuilder()
+          .maximumSize(
+              CassandraUtil.getIntProperty(Constants.ROW_DECODER_CACHE_SIZE, DEFAULT_MAX_SIZE))
+          .build();
+
+  private final String[] properties;
+  private final TypeCodec<Object>[] codecs;
+  private final int capacity;
+
+  @SuppressWarnings("unchecked")
+  private RowDecoder(List<ColumnDefinitions.Definition> definitions) {
+    properties = new String[definitions.size()];
+    codecs = new TypeCodec[definitions.size()];
+    for (int i = 0; i < definitions.size(); i++) {
+      ColumnDefinitions.Definition definition = definitions.get(i);
+      properties[i] = propertiesCache.readProperty(definition.getName()).trim();
+      codecs[i] = CodecRegistry.DEFAULT_INSTANCE.codecFor(definition.getType());
+    }
+    // initial capacity for which the map is never resized
+    capacity = (int) (properties.length / 0.75f) + 1;
+  }
+
+  /**
+   * Get decoder for rows described by given column definitions.
+   *
+   * @param columnDefinitions Column definitions of a result set
+   * @return Row decoder
+   */
+  public static RowDecoder getInstance(ColumnDefinitions columnDefinitions) {
+    List<ColumnDefinitions.Definition> definitions = columnDefinitions.asList();
+    try {
+      return decoders.get(createKey(definitions), () -> new RowDecoder(definitions));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Decode given row into map of property name and value.
+   *
+   * @param row Row
+   * @return Map of property name and value
+   */
+  public Map<String, Object> decode(Row row) {
+    Map<String, Object> rowMap = new HashMap<>(capacity);
+    for (int i = 0; i < properties.length; i++) {
+      rowMap.put(properties[i], row.get(i, codecs[i]));
+    }
+    return rowMap;
+  }
+
+  /**
+   * Decode value of the column at given index, e.g. for filling a typed object.
+   *
+   * @param row Row
+   * @param index Column index as in {@link #getProperties()}
+   * @return Column value
+   */
+  public Object decode(Row row, int index) {
+    return row.get(index, codecs[index]);
+  }
+
+  /**
+   * Get property names of the columns in column index order.
+   *
+   * @return Property names
+   */
+  public String[] getProperties() {
+    return properties.clone();
+  }
+
+  private static String createKey(List<ColumnDefinitions.Definition> definitions) {
+    StringBuilder key = new StringBuilder();
+    if (!definitions.isEmpty()) {
+      key.append(definitions.get(0).getKeyspace())
+          .append(Constants.DOT)
+          .append(definitions.get(0).getTable());
+    }
+    key.append(Constants.COLON);
+    for (ColumnDefinitions.Definition definition : definitions) {
+      key.append(definition.getName())
+          .append(' ')
+          .append(definition.getType())
+          .append(Constants.COMMA);
+    }
+    return key.toString();
+  }
+}
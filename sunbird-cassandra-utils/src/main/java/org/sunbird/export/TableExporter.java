@@ -0,0 +1,377 @@
+package org.sunbird.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.CassandraPropertyReader;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.responsecode.ResponseCode;
+
+/**
+ * Export of all records of a table to gzip compressed CSV or JSON lines files, one file (shard)
+ * per token range. The ranges are read in parallel with {@link
+ * CassandraOperation#scanTokenRange}, page by page, and each record is written as soon as it is
+ * read, so the memory used does not depend on the size of the table.
+ *
+ * <p>The token ranges are saved to the file table.ranges of the output directory, and the index of
+ * each exported range is appended to table.done once its shard is complete. An interrupted export
+ * is resumed by running it again with the same arguments and output directory: the ranges already
+ * done are skipped and the other ones exported again from the start.
+ *
+ * <p>Records are written with the CQL column names, rather than the property names the records are
+ * read with. In CSV files, the first row holds the column names; collection values are written as
+ * JSON and timestamps as milliseconds, so that the files can be loaded back with the SSTable bulk
+ * loader.
+ */
+public class TableExporter {
+
+  /** Format of the exported files. */
+  public enum Format {
+    CSV(".csv"),
+    JSON_LINES(".jsonl");
+
+    private final String extension;
+
+    Format(String extension) {
+      this.extension = extension;
+    }
+  }
+
+  private static final String RANGES_EXTENSION = ".ranges";
+  private static final String DONE_EXTENSION = ".done";
+  private static final String PART_EXTENSION = ".part";
+  private static final String GZIP_EXTENSION = ".gz";
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final ObjectMapper mapper = new ObjectMapper();
+  private static final CassandraPropertyReader propertiesCache =
+      CassandraPropertyReader.getInstance();
+
+  private final CassandraOperation cassandraOperation;
+  private final String keyspaceName;
+  private final String tableName;
+  private final List<String> fields;
+  private final Format format;
+  private final Path outputDirectory;
+
+  /**
+   * Create table exporter.
+   *
+   * @param cassandraOperation Cassandra operation
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param fields Columns or properties to be exported (all if empty)
+   * @param format Format of the exported files
+   * @param outputDirectory Directory of the exported files
+   */
+  public TableExporter(
+      CassandraOperation cassandraOperation,
+      String keyspaceName,
+      String tableName,
+      List<String> fields,
+      Format format,
+      Path outputDirectory) {
+    this.cassandraOperation = cassandraOperation;
+    this.keyspaceName = keyspaceName;
+    this.tableName = tableName;
+    this.fields = new ArrayList<>();
+    if (fields != null) {
+      for (String field : fields) {
+        // unquoted column names are case insensitive
+        this.fields.add(field.toLowerCase().trim());
+      }
+    }
+    this.format = format;
+    this.outputDirectory = outputDirectory;
+  }
+
+  /**
+   * Export the table, resuming a previous export to the output directory if any.
+   *
+   * @param shards Minimum number of token ranges, i.e. of exported files
+   * @param concurrency Maximum number of token ranges exported in parallel
+   * @return Numbers of ranges and records exported
+   */
+  public Result export(int shards, int concurrency) {
+    long startTime = System.currentTimeMillis();
+    List<String> ranges;
+    Set<String> done;
+    try {
+      Files.createDirectories(outputDirectory);
+      ranges = getRanges(shards);
+      done = getDoneRanges();
+    } catch (IOException e) {
+      throw exportError(e);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+    int exported = 0;
+    long records = 0;
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < ranges.size(); i++) {
+        String index = String.valueOf(i);
+        if (!done.contains(index)) {
+          String range = ranges.get(i);
+          futures.add(executor.submit(() -> exportRange(index, range)));
+        }
+      }
+      for (Future<Long> future : futures) {
+        records += future.get();
+        exported++;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw exportError(e);
+    } catch (ExecutionException e) {
+      throw exportError(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    Result result = new Result(ranges.size(), exported, records);
+    ProjectLogger.log(
+        "TableExporter:export: Exported "
+            + keyspaceName
+            + "."
+            + tableName
+            + " with "
+            + result
+            + " in "
+            + (System.currentTimeMillis() - startTime)
+            + " ms",
+        LoggerEnum.INFO);
+    return result;
+  }
+
+  private List<String> getRanges(int shards) throws IOException {
+    Path file = outputDirectory.resolve(tableName + RANGES_EXTENSION);
+    if (Files.exists(file)) {
+      return Files.readAllLines(file, StandardCharsets.UTF_8);
+    }
+    List<String> ranges = cassandraOperation.getTokenRanges(keyspaceName, shards);
+    Path part = outputDirectory.resolve(tableName + RANGES_EXTENSION + PART_EXTENSION);
+    Files.write(part, ranges, StandardCharsets.UTF_8);
+    Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+    return ranges;
+  }
+
+  private Set<String> getDoneRanges() throws IOException {
+    Path file = outputDirectory.resolve(tableName + DONE_EXTENSION);
+    if (!Files.exists(file)) {
+      return Collections.emptySet();
+    }
+    return new HashSet<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+  }
+
+  private long exportRange(String index, String range) throws IOException {
+    Path file =
+        outputDirectory.resolve(tableName + "-" + index + format.extension + GZIP_EXTENSION);
+    Path part = file.resolveSibling(file.getFileName() + PART_EXTENSION);
+    long count;
+    try (FileChannel channel =
+        FileChannel.open(
+            part,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      GZIPOutputStream gzip =
+          new GZIPOutputStream(
+              new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE),
+              BUFFER_SIZE);
+      Writer writer =
+          new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+      RecordWriter recordWriter =
+          format == Format.CSV ? new CsvRecordWriter(writer) : new JsonRecordWriter(writer);
+      count =
+          cassandraOperation.scanTokenRange(
+              keyspaceName,
+              tableName,
+              fields,
+              range,
+              record -> {
+                try {
+                  recordWriter.write(record);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+      writer.flush();
+      gzip.finish();
+      gzip.flush();
+      channel.force(true);
+    }
+    Files.move(part, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    markDone(index);
+    return count;
+  }
+
+  private synchronized void markDone(String index) throws IOException {
+    Files.write(
+        outputDirectory.resolve(tableName + DONE_EXTENSION),
+        Collections.singletonList(index),
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  /** Convert value to a type written the same way to CSV and JSON, and loadable back. */
+  private static Object toExportValue(Object value) {
+    if (value == null
+        || value instanceof CharSequence
+        || value instanceof Number
+        || value instanceof Boolean
+        || value instanceof Collection
+        || value instanceof Map) {
+      return value;
+    }
+    if (value instanceof Date) {
+      return ((Date) value).getTime();
+    }
+    return value.toString();
+  }
+
+  private static String getProperty(String column) {
+    return propertiesCache.readProperty(column).trim();
+  }
+
+  private static ProjectCommonException exportError(Throwable e) {
+    ProjectLogger.log("TableExporter:export: Exception occurred " + e.getMessage(), e);
+    return new ProjectCommonException(
+        ResponseCode.SERVER_ERROR.getErrorCode(),
+        ResponseCode.SERVER_ERROR.getErrorMessage(),
+        ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+
+  private interface RecordWriter {
+    void write(Map<String, Object> record) throws IOException;
+  }
+
+  private class CsvRecordWriter implements RecordWriter {
+
+    private final Writer writer;
+    private CSVPrinter printer;
+    private List<String> properties;
+
+    CsvRecordWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public void write(Map<String, Object> record) throws IOException {
+      if (printer == null) {
+        List<String> columns = new ArrayList<>();
+        properties = new ArrayList<>();
+        if (CollectionUtils.isEmpty(fields)) {
+          // without projection the columns are the ones of the first record
+          for (String property : record.keySet()) {
+            columns.add(propertiesCache.getColumn(property));
+            properties.add(property);
+          }
+        } else {
+          for (String column : fields) {
+            columns.add(column);
+            properties.add(getProperty(column));
+          }
+        }
+        printer = CSVFormat.DEFAULT.withHeader(columns.toArray(new String[0])).print(writer);
+      }
+      List<Object> values = new ArrayList<>(properties.size());
+      for (String property : properties) {
+        Object value = toExportValue(record.get(property));
+        if (value instanceof Collection || value instanceof Map) {
+          value = mapper.writeValueAsString(value);
+        }
+        values.add(value);
+      }
+      printer.printRecord(values);
+    }
+  }
+
+  private static class JsonRecordWriter implements RecordWriter {
+
+    private final Writer writer;
+
+    JsonRecordWriter(Writer writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public void write(Map<String, Object> record) throws IOException {
+      Map<String, Object> values = new LinkedHashMap<>();
+      for (Map.Entry<String, Object> entry : record.entrySet()) {
+        values.put(propertiesCache.getColumn(entry.getKey()), toExportValue(entry.getValue()));
+      }
+      writer.write(mapper.writeValueAsString(values));
+      writer.write('\n');
+    }
+  }
+
+  /** Numbers of token ranges and records exported. */
+  public static final class Result {
+
+    private final int ranges;
+    private final int exportedRanges;
+    private final long records;
+
+    private Result(int ranges, int exportedRanges, long records) {
+      this.ranges = ranges;
+      this.exportedRanges = exportedRanges;
+      this.records = records;
+    }
+
+    /** Number of token ranges of the export. */
+    public int getRanges() {
+      return ranges;
+    }
+
+    /** Number of token ranges exported by this run, the other ones being done by previous runs. */
+    public int getExportedRanges() {
+      return exportedRanges;
+    }
+
+    /** Number of records exported by this run. */
+    public long getRecords() {
+      return records;
+    }
+
+    @Override
+    public String toString() {
+      return "ranges = "
+          + ranges
+          + ", exported ranges = "
+          + exportedRanges
+          + ", records = "
+          + records;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package org.sunbird.helper;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/**
+ * Shared executor for callbacks of asynchronous queries, so that application code never runs on the
+ * driver I/O threads. The number of threads is given by callbackExecutorThreads and the number of
+ * waiting callbacks by callbackExecutorQueueSize. When the queue is full, or once the executor is
+ * shut down, a callback is rejected rather than run on the submitting thread, which is usually a
+ * driver I/O thread; callbacks registered with {@link #addCallback(ListenableFuture,
+ * FutureCallback)} then fail with the RejectedExecutionException, so that no operation is left
+ * without completion.
+ */
+public final class CallbackExecutor {
+
+  private static final int DEFAULT_THREADS = 4;
+  private static final int DEFAULT_QUEUE_SIZE = 10000;
+  private static final ThreadPoolExecutor executor = createExecutor();
+
+  private CallbackExecutor() {}
+
+  public static Executor getInstance() {
+    return executor;
+  }
+
+  /**
+   * Register a callback of given future to be run on the shared executor, or to fail with the
+   * rejection if the executor does not accept it.
+   *
+   * @param future Future
+   * @param callback Callback of the future
+   */
+  public static <V> void addCallback(
+      ListenableFuture<V> future, FutureCallback<? super V> callback) {
+    Futures.addCallback(
+        future,
+        callback,
+        runnable -> {
+          try {
+            executor.execute(runnable);
+          } catch (RejectedExecutionException e) {
+            callback.onFailure(e);
+          }
+        });
+  }
+
+  /** Stop accepting callbacks and wait briefly for the queued ones to complete. */
+  public static void shutdown() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  private static ThreadPoolExecutor createExecutor() {
+    int threads =
+        Math.max(
+            1, CassandraUtil.getIntProperty(Constants.CALLBACK_EXECUTOR_THREADS, DEFAULT_THREADS));
+    int queueSize =
+        Math.max(
+            1,
+            CassandraUtil.getIntProperty(
+                Constants.CALLBACK_EXECUTOR_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> {
+          Thread thread = new Thread(runnable, "cassandra-callback-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        };
+    return new ThreadPoolExecutor(
+        threads,
+        threads,
+        60,
+        TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueSize),
+        threadFactory,
+        (runnable, pool) -> {
+          String reason = pool.isShutdown() ? "executor is shut down" : "queue is full";
+          ProjectLogger.log(
+              "CallbackExecutor: " + reason + ", rejecting callback", LoggerEnum.WARN);
+          throw new RejectedExecutionException("Callback rejected as " + reason);
+        });
+  }
+}
@@ -49,4 +49,13 @@ public interface CassandraConnectionManager {
    * @return List<String>
    */
   List<String> getTableList(String keyspaceName);
+
+  /**
+   * Method to check whether the session of given keyspace is connected and warmed up, so that it
+   * can be reported ready to serve requests.
+   *
+   * @param keyspaceName
+   * @return boolean
+   */
+  boolean isReady(String keyspaceName);
 }
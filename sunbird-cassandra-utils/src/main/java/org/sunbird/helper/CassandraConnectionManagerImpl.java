@@ -2,23 +2,35 @@ package org.sunbird.helper;
 
 import com.datastax.driver.core.AtomicMonotonicTimestampGenerator;
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ClusterWidePercentileTracker;
 import com.datastax.driver.core.ConsistencyLevel;
 import com.datastax.driver.core.Host;
 import com.datastax.driver.core.HostDistance;
 import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PercentileTracker;
 import com.datastax.driver.core.PoolingOptions;
+import com.datastax.driver.core.ProtocolOptions;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.QueryLogger;
 import com.datastax.driver.core.QueryOptions;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
 import com.datastax.driver.core.policies.DefaultRetryPolicy;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import com.datastax.driver.core.policies.NoSpeculativeExecutionPolicy;
+import com.datastax.driver.core.policies.PercentileSpeculativeExecutionPolicy;
+import com.datastax.driver.core.policies.SpeculativeExecutionPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
+import org.sunbird.cassandraimpl.WriteBehindBuffer;
+import org.sunbird.common.CassandraUtil;
 import org.sunbird.common.Constants;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.util.JsonKey;
@@ -27,6 +39,7 @@ import org.sunbird.common.models.util.ProjectLogger;
 import org.sunbird.common.models.util.ProjectUtil;
 import org.sunbird.common.models.util.PropertiesCache;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.metrics.SlowQueryTracker;
 
 /**
  * @author Amit Kumar
@@ -34,9 +47,20 @@ import org.sunbird.common.responsecode.ResponseCode;
  */
 public class CassandraConnectionManagerImpl implements CassandraConnectionManager {
 
+  private static final int DEFAULT_SPECULATIVE_MAX_ATTEMPTS = 0;
+  private static final double DEFAULT_SPECULATIVE_PERCENTILE = 99.0;
+  private static final int DEFAULT_SPECULATIVE_HIGHEST_LATENCY = 15000;
+  private static final int DEFAULT_SLOW_QUERY_THRESHOLD = 1000;
+  private static final double DEFAULT_SLOW_QUERY_SAMPLE_RATE = 1.0;
+
   private String mode;
-  private static Map<String, Session> cassandraSessionMap = new HashMap<>();
-  private static Map<String, Cluster> cassandraclusterMap = new HashMap<>();
+  private static Map<String, Session> cassandraSessionMap = new ConcurrentHashMap<>();
+  private static Map<String, Cluster> cassandraclusterMap = new ConcurrentHashMap<>();
+  // clusters shared by all keyspaces connected through the same contact points and credentials
+  private static Map<String, Cluster> contactPointClusterMap = new ConcurrentHashMap<>();
+  // keyspaces whose session has finished the warm-up
+  private static Set<String> readyKeyspaces = ConcurrentHashMap.newKeySet();
+  private static final SessionWarmUp sessionWarmUp = SessionWarmUp.create();
 
   static {
     registerShutDownHook();
@@ -73,7 +97,7 @@ public class CassandraConnectionManagerImpl implements CassandraConnectionManage
    * @param keyspace
    * @return
    */
-  private boolean createStandaloneConnection(
+  private synchronized boolean createStandaloneConnection(
       String ip, String port, String userName, String password, String keyspace) {
 
     Session cassandraSession = null;
@@ -81,38 +105,17 @@ public class CassandraConnectionManagerImpl implements CassandraConnectionManage
     Cluster cluster = null;
     try {
       if (null == cassandraSessionMap.get(keyspace)) {
-        PropertiesCache cache = PropertiesCache.getInstance();
-        PoolingOptions poolingOptions = new PoolingOptions();
-        poolingOptions.setCoreConnectionsPerHost(
-            HostDistance.LOCAL,
-            Integer.parseInt(cache.getProperty(Constants.CORE_CONNECTIONS_PER_HOST_FOR_LOCAL)));
-        poolingOptions.setMaxConnectionsPerHost(
-            HostDistance.LOCAL,
-            Integer.parseInt(cache.getProperty(Constants.MAX_CONNECTIONS_PER_HOST_FOR_LOCAl)));
-        poolingOptions.setCoreConnectionsPerHost(
-            HostDistance.REMOTE,
-            Integer.parseInt(cache.getProperty(Constants.CORE_CONNECTIONS_PER_HOST_FOR_REMOTE)));
-        poolingOptions.setMaxConnectionsPerHost(
-            HostDistance.REMOTE,
-            Integer.parseInt(cache.getProperty(Constants.MAX_CONNECTIONS_PER_HOST_FOR_REMOTE)));
-        poolingOptions.setMaxRequestsPerConnection(
-            HostDistance.LOCAL,
-            Integer.parseInt(cache.getProperty(Constants.MAX_REQUEST_PER_CONNECTION)));
-        poolingOptions.setHeartbeatIntervalSeconds(
-            Integer.parseInt(cache.getProperty(Constants.HEARTBEAT_INTERVAL)));
-        poolingOptions.setPoolTimeoutMillis(
-            Integer.parseInt(cache.getProperty(Constants.POOL_TIMEOUT)));
-        if (!StringUtils.isBlank(userName) && !StringUtils.isBlank(password)) {
-          cluster = createCluster(ip, port, userName, password, poolingOptions);
-        } else {
-          cluster = createCluster(ip, port, poolingOptions);
+        String clusterKey = ip + Constants.COLON + port + Constants.COLON + userName;
+        cluster = contactPointClusterMap.get(clusterKey);
+        if (null == cluster) {
+          cluster = createCluster(ip, port, userName, password);
+          contactPointClusterMap.put(clusterKey, cluster);
         }
         cassandraSession = cluster.connect(keyspace);
 
         if (null != cassandraSession) {
+          addSession(keyspace, cluster, cassandraSession, sessionWarmUp);
           connection = true;
-          cassandraSessionMap.put(keyspace, cassandraSession);
-          cassandraclusterMap.put(keyspace, cluster);
         }
         final Metadata metadata = cluster.getMetadata();
         String msg = String.format("Connected to cluster: %s", metadata.getClusterName());
@@ -161,30 +164,47 @@ public class CassandraConnectionManagerImpl implements CassandraConnectionManage
   }
 
   /**
-   * Create cassandra cluster with user credentials.
+   * Create cassandra cluster with user credentials. All keyspaces connected through the same
+   * contact points share the cluster and its connection pools. Requests are routed to a replica of
+   * the partition (token aware) in the local data center, trying the contact points given as a
+   * comma separated list.
    *
-   * @param ip IP address of cluster node
+   * @param ip IP address of cluster node(s), comma separated
    * @param port Port of cluster node
    * @param userName DB username
    * @param password DB password
-   * @param poolingOptions Pooling options
    * @return Cassandra cluster
    */
-  private static Cluster createCluster(
-      String ip, String port, String userName, String password, PoolingOptions poolingOptions) {
-    Cluster.Builder builder =
-        Cluster.builder()
-            .addContactPoint(ip)
-            .withPort(Integer.parseInt(port))
-            .withProtocolVersion(ProtocolVersion.V3)
-            .withRetryPolicy(DefaultRetryPolicy.INSTANCE)
-            .withTimestampGenerator(new AtomicMonotonicTimestampGenerator())
-            .withPoolingOptions(poolingOptions);
+  private static Cluster createCluster(String ip, String port, String userName, String password) {
+    Cluster.Builder builder = Cluster.builder();
+    for (String contactPoint : ip.split(Constants.COMMA)) {
+      if (StringUtils.isNotBlank(contactPoint)) {
+        builder.addContactPoint(contactPoint.trim());
+      }
+    }
+    builder
+        .withPort(Integer.parseInt(port))
+        .withRetryPolicy(DefaultRetryPolicy.INSTANCE)
+        .withTimestampGenerator(new AtomicMonotonicTimestampGenerator())
+        .withPoolingOptions(createPoolingOptions());
+    builder.withLoadBalancingPolicy(createLoadBalancingPolicy());
+    builder.withSpeculativeExecutionPolicy(createSpeculativeExecutionPolicy());
 
     if (StringUtils.isNotBlank(userName) && StringUtils.isNotBlank(password)) {
       builder.withCredentials(userName, password);
     }
 
+    ProtocolVersion protocolVersion = getProtocolVersion();
+    // without an explicit version the highest one supported by the cluster is negotiated
+    if (protocolVersion != null) {
+      builder.withProtocolVersion(protocolVersion);
+    }
+
+    ProtocolOptions.Compression compression = getCompression();
+    if (compression != null) {
+      builder.withCompression(compression);
+    }
+
     ConsistencyLevel consistencyLevel = getConsistencyLevel();
     ProjectLogger.log(
         "CassandraConnectionManagerImpl:createCluster: Consistency level = " + consistencyLevel,
@@ -194,19 +214,111 @@ public class CassandraConnectionManagerImpl implements CassandraConnectionManage
       builder.withQueryOptions(new QueryOptions().setConsistencyLevel(consistencyLevel));
     }
 
-    return builder.build();
+    Cluster cluster = builder.build();
+    cluster.register(
+        new SlowQueryTracker(
+            CassandraUtil.getIntProperty(
+                Constants.SLOW_QUERY_THRESHOLD, DEFAULT_SLOW_QUERY_THRESHOLD),
+            CassandraUtil.getDoubleProperty(
+                Constants.SLOW_QUERY_SAMPLE_RATE, DEFAULT_SLOW_QUERY_SAMPLE_RATE)));
+    return cluster;
+  }
+
+  private static PoolingOptions createPoolingOptions() {
+    PropertiesCache cache = PropertiesCache.getInstance();
+    PoolingOptions poolingOptions = new PoolingOptions();
+    poolingOptions.setCoreConnectionsPerHost(
+        HostDistance.LOCAL,
+        Integer.parseInt(cache.getProperty(Constants.CORE_CONNECTIONS_PER_HOST_FOR_LOCAL)));
+    poolingOptions.setMaxConnectionsPerHost(
+        HostDistance.LOCAL,
+        Integer.parseInt(cache.getProperty(Constants.MAX_CONNECTIONS_PER_HOST_FOR_LOCAl)));
+    poolingOptions.setCoreConnectionsPerHost(
+        HostDistance.REMOTE,
+        Integer.parseInt(cache.getProperty(Constants.CORE_CONNECTIONS_PER_HOST_FOR_REMOTE)));
+    poolingOptions.setMaxConnectionsPerHost(
+        HostDistance.REMOTE,
+        Integer.parseInt(cache.getProperty(Constants.MAX_CONNECTIONS_PER_HOST_FOR_REMOTE)));
+    poolingOptions.setMaxRequestsPerConnection(
+        HostDistance.LOCAL,
+        Integer.parseInt(cache.getProperty(Constants.MAX_REQUEST_PER_CONNECTION)));
+    poolingOptions.setHeartbeatIntervalSeconds(
+        Integer.parseInt(cache.getProperty(Constants.HEARTBEAT_INTERVAL)));
+    poolingOptions.setPoolTimeoutMillis(
+        Integer.parseInt(cache.getProperty(Constants.POOL_TIMEOUT)));
+    return poolingOptions;
+  }
+
+  private static LoadBalancingPolicy createLoadBalancingPolicy() {
+    DCAwareRoundRobinPolicy.Builder dcAwareBuilder = DCAwareRoundRobinPolicy.builder();
+    String localDc = PropertiesCache.getInstance().readProperty(Constants.LOCAL_DATACENTER);
+    // without a configured local data center the one of the first contact point is used
+    if (StringUtils.isNotBlank(localDc)) {
+      dcAwareBuilder.withLocalDc(localDc.trim());
+    }
+    return new TokenAwarePolicy(dcAwareBuilder.build());
   }
 
   /**
-   * Create cassandra cluster.
-   *
-   * @param ip IP address of cluster node
-   * @param port Port of cluster node
-   * @param poolingOptions Pooling options
-   * @return Cassandra cluster
+   * Speculative executions send an idempotent request to another replica when the first one has
+   * not answered within the configured percentile of the latencies observed in the cluster, so a
+   * replica stalled by a GC pause or compaction does not hold up the response. They are disabled
+   * unless speculativeExecutionMaxAttempts is set, as each one adds load to the cluster.
    */
-  private static Cluster createCluster(String ip, String port, PoolingOptions poolingOptions) {
-    return createCluster(ip, port, null, null, poolingOptions);
+  private static SpeculativeExecutionPolicy createSpeculativeExecutionPolicy() {
+    int maxAttempts =
+        CassandraUtil.getIntProperty(
+            Constants.SPECULATIVE_EXECUTION_MAX_ATTEMPTS, DEFAULT_SPECULATIVE_MAX_ATTEMPTS);
+    if (maxAttempts <= 0) {
+      return NoSpeculativeExecutionPolicy.INSTANCE;
+    }
+    double percentile =
+        CassandraUtil.getDoubleProperty(
+            Constants.SPECULATIVE_EXECUTION_PERCENTILE, DEFAULT_SPECULATIVE_PERCENTILE);
+    PercentileTracker tracker =
+        ClusterWidePercentileTracker.builder(
+                CassandraUtil.getIntProperty(
+                    Constants.SPECULATIVE_EXECUTION_HIGHEST_LATENCY,
+                    DEFAULT_SPECULATIVE_HIGHEST_LATENCY))
+            .build();
+    ProjectLogger.log(
+        "CassandraConnectionManagerImpl:createSpeculativeExecutionPolicy: percentile = "
+            + percentile
+            + ", max attempts = "
+            + maxAttempts,
+        LoggerEnum.INFO);
+    return new PercentileSpeculativeExecutionPolicy(tracker, percentile, maxAttempts);
+  }
+
+  private static ProtocolVersion getProtocolVersion() {
+    String version = PropertiesCache.getInstance().readProperty(Constants.PROTOCOL_VERSION);
+    if (StringUtils.isBlank(version)) {
+      return null;
+    }
+    try {
+      return ProtocolVersion.valueOf(version.trim().toUpperCase());
+    } catch (IllegalArgumentException exception) {
+      ProjectLogger.log(
+          "CassandraConnectionManagerImpl:getProtocolVersion: Invalid protocol version = "
+              + version,
+          LoggerEnum.ERROR);
+    }
+    return null;
+  }
+
+  private static ProtocolOptions.Compression getCompression() {
+    String compression = PropertiesCache.getInstance().readProperty(Constants.COMPRESSION);
+    if (StringUtils.isBlank(compression)) {
+      return null;
+    }
+    try {
+      return ProtocolOptions.Compression.valueOf(compression.trim().toUpperCase());
+    } catch (IllegalArgumentException exception) {
+      ProjectLogger.log(
+          "CassandraConnectionManagerImpl:getCompression: Invalid compression = " + compression,
+          LoggerEnum.ERROR);
+    }
+    return null;
   }
 
   @Override
@@ -231,6 +343,28 @@ public class CassandraConnectionManagerImpl implements CassandraConnectionManage
     return cassandraclusterMap.get(keyspaceName);
   }
 
+  /**
+   * Add the session of given keyspace, reported ready once it is warmed up.
+   *
+   * @param keyspace Keyspace name
+   * @param cluster Cluster of the session
+   * @param session Session connected to the keyspace
+   * @param warmUp Warm-up of the session, null if it is not enabled
+   */
+  static void addSession(String keyspace, Cluster cluster, Session session, SessionWarmUp warmUp) {
+    if (null != warmUp) {
+      warmUp.warmUp(session, keyspace);
+    }
+    cassandraSessionMap.put(keyspace, session);
+    cassandraclusterMap.put(keyspace, cluster);
+    readyKeyspaces.add(keyspace);
+  }
+
+  @Override
+  public boolean isReady(String keyspaceName) {
+    return readyKeyspaces.contains(keyspaceName);
+  }
+
   @Override
   public List<String> getTableList(String keyspacename) {
     Collection<TableMetadata> tables =
@@ -255,9 +389,17 @@ public class CassandraConnectionManagerImpl implements CassandraConnectionManage
     @Override
     public void run() {
       ProjectLogger.log("started resource cleanup Cassandra.");
+      WriteBehindBuffer.shutdown();
+      CallbackExecutor.shutdown();
+      readyKeyspaces.clear();
+      if (null != sessionWarmUp) {
+        sessionWarmUp.record(cassandraSessionMap);
+      }
       for (Map.Entry<String, Session> entry : cassandraSessionMap.entrySet()) {
         cassandraSessionMap.get(entry.getKey()).close();
-        cassandraclusterMap.get(entry.getKey()).close();
+      }
+      for (Cluster cluster : contactPointClusterMap.values()) {
+        cluster.close();
       }
       ProjectLogger.log("completed resource cleanup Cassandra.");
     }
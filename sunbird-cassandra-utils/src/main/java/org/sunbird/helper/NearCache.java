@@ -0,0 +1,263 @@
+package org.sunbird.helper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.CassandraPropertyReader;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.PropertiesCache;
+
+/**
+ * In-process read-through cache for reference data tables, enabled per table with the
+ * nearCacheTables property as a comma separated list of table[:maxSize[:ttlSeconds]], e.g.
+ * system_settings,organisation:50000:600. Each table gets a size bounded cache with W-TinyLFU
+ * eviction and expiry after write.
+ *
+ * <p>Records read by identifier are cached as whole rows and projected on the requested columns,
+ * so that a write to a record invalidates exactly one entry. Records read by property are cached
+ * per query and dropped on any write to the table. Writes made by other processes are only seen
+ * once cached entries expire, hence the cache suits data which rarely changes.
+ *
+ * <p>Cached records are never handed out: every response carries copies of the record maps.
+ */
+public final class NearCache {
+
+  private static final int DEFAULT_MAX_SIZE = 10000;
+  private static final int DEFAULT_TTL_SECONDS = 300;
+  private static final char SEPARATOR = '\u0000';
+  private static final NearCache instance = new NearCache(readConfig());
+
+  private final Map<String, int[]> tableConfig;
+  private final Map<String, TableCache> tableCaches = new ConcurrentHashMap<>();
+
+  /**
+   * Create a near cache of given tables, instead of the ones of nearCacheTables.
+   *
+   * @param tableConfig Maximum size and TTL in seconds of the cache of each table
+   */
+  public NearCache(Map<String, int[]> tableConfig) {
+    this.tableConfig = tableConfig;
+  }
+
+  public static NearCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * Check whether records of given table are cached.
+   *
+   * @param tableName Table name
+   * @return True if the cache is enabled for the table
+   */
+  public boolean isEnabled(String tableName) {
+    return tableConfig.containsKey(tableName);
+  }
+
+  /**
+   * Get record by identifier from the cache, reading the whole row with the loader on a miss.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param id Record identifier
+   * @param fields Columns to be returned (all if empty)
+   * @param loader Reads the record, given the columns to be returned
+   * @return Response containing the record, if found
+   */
+  public Response getRecordById(
+      String keyspaceName,
+      String tableName,
+      String id,
+      List<String> fields,
+      Function<List<String>, Response> loader) {
+    TableCache cache = getTableCache(keyspaceName, tableName);
+    if (cache == null || id == null) {
+      return loader.apply(fields);
+    }
+    List<Map<String, Object>> records =
+        cache.records.get(id, key -> getRecords(loader.apply(null)));
+    return createResponse(records, fields);
+  }
+
+  /**
+   * Get records matching given property value from the cache, reading them with the loader on a
+   * miss.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param propertyName Column name
+   * @param propertyValue Column value
+   * @param fields Columns to be returned (all if empty)
+   * @param loader Reads the records
+   * @return Response containing the records
+   */
+  public Response getRecordsByProperty(
+      String keyspaceName,
+      String tableName,
+      String propertyName,
+      Object propertyValue,
+      List<String> fields,
+      Supplier<Response> loader) {
+    TableCache cache = getTableCache(keyspaceName, tableName);
+    if (cache == null) {
+      return loader.get();
+    }
+    String key =
+        propertyName
+            + SEPARATOR
+            + propertyValue
+            + SEPARATOR
+            + (CollectionUtils.isEmpty(fields) ? "" : String.join(Constants.COMMA, fields));
+    return createResponse(cache.queries.get(key, k -> getRecords(loader.get())), null);
+  }
+
+  /**
+   * Invalidate the cached record of given identifier along with all cached queries of the table.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param id Record identifier, or null to invalidate all records of the table
+   */
+  public void invalidate(String keyspaceName, String tableName, Object id) {
+    if (!isEnabled(tableName)) {
+      return;
+    }
+    TableCache cache = tableCaches.get(keyspaceName + Constants.DOT + tableName);
+    if (cache == null) {
+      return;
+    }
+    if (id == null) {
+      cache.records.invalidateAll();
+    } else {
+      cache.records.invalidate(String.valueOf(id));
+    }
+    cache.queries.invalidateAll();
+  }
+
+  /**
+   * Invalidate all cached records and queries of given table.
+   *
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   */
+  public void invalidateAll(String keyspaceName, String tableName) {
+    invalidate(keyspaceName, tableName, null);
+  }
+
+  /**
+   * Get statistics of the caches, keyed by keyspace and table name.
+   *
+   * @return Cache statistics per table
+   */
+  public Map<String, CacheStats> getStats() {
+    Map<String, CacheStats> stats = new HashMap<>();
+    for (Map.Entry<String, TableCache> entry : tableCaches.entrySet()) {
+      stats.put(
+          entry.getKey(),
+          entry.getValue().records.stats().plus(entry.getValue().queries.stats()));
+    }
+    return stats;
+  }
+
+  private TableCache getTableCache(String keyspaceName, String tableName) {
+    int[] config = tableConfig.get(tableName);
+    if (config == null) {
+      return null;
+    }
+    return tableCaches.computeIfAbsent(
+        keyspaceName + Constants.DOT + tableName, key -> new TableCache(config[0], config[1]));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> getRecords(Response response) {
+    Object records = response.get(Constants.RESPONSE);
+    if (!(records instanceof List)) {
+      return null;
+    }
+    return copy((List<Map<String, Object>>) records, null);
+  }
+
+  private static Response createResponse(List<Map<String, Object>> records, List<String> fields) {
+    Response response = new Response();
+    response.put(
+        Constants.RESPONSE, records == null ? new ArrayList<>() : copy(records, fields));
+    return response;
+  }
+
+  private static List<Map<String, Object>> copy(
+      List<Map<String, Object>> records, List<String> fields) {
+    List<Map<String, Object>> copies = new ArrayList<>(records.size());
+    for (Map<String, Object> record : records) {
+      if (CollectionUtils.isEmpty(fields)) {
+        copies.add(new HashMap<>(record));
+        continue;
+      }
+      Map<String, Object> projection = new HashMap<>();
+      for (String field : fields) {
+        // unquoted column names are case insensitive and rows carry the property of the lower
+        // case column name
+        String property =
+            CassandraPropertyReader.getInstance().readProperty(field.toLowerCase()).trim();
+        projection.put(property, record.get(property));
+      }
+      copies.add(projection);
+    }
+    return copies;
+  }
+
+  private static Map<String, int[]> readConfig() {
+    Map<String, int[]> config = new HashMap<>();
+    String tables = PropertiesCache.getInstance().readProperty(Constants.NEAR_CACHE_TABLES);
+    if (StringUtils.isBlank(tables)) {
+      return config;
+    }
+    for (String table : tables.split(Constants.COMMA)) {
+      String[] parts = table.trim().split(Constants.COLON);
+      if (StringUtils.isBlank(parts[0])) {
+        continue;
+      }
+      try {
+        int maxSize = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : DEFAULT_MAX_SIZE;
+        int ttl = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : DEFAULT_TTL_SECONDS;
+        config.put(parts[0].trim(), new int[] {maxSize, ttl});
+      } catch (NumberFormatException e) {
+        ProjectLogger.log(
+            "NearCache:readConfig: Invalid near cache configuration " + table, LoggerEnum.ERROR);
+      }
+    }
+    ProjectLogger.log("NearCache:readConfig: Caching tables " + config.keySet(), LoggerEnum.INFO);
+    return config;
+  }
+
+  private static final class TableCache {
+
+    private final Cache<String, List<Map<String, Object>>> records;
+    private final Cache<String, List<Map<String, Object>>> queries;
+
+    private TableCache(int maxSize, int ttlSeconds) {
+      records = createCache(maxSize, ttlSeconds);
+      queries = createCache(maxSize, ttlSeconds);
+    }
+
+    private static Cache<String, List<Map<String, Object>>> createCache(
+        int maxSize, int ttlSeconds) {
+      return Caffeine.newBuilder()
+          .maximumSize(maxSize)
+          .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+          .recordStats()
+          .build();
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package org.sunbird.helper;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+
+/**
+ * Bounded cache of prepared statements, one instance per cassandra session. Statements are keyed by
+ * the caller (keyspace, table and column set for writes, query shape for reads) so that the query
+ * string is built and sent to the coordinator for preparation only on a cache miss. Least recently
+ * used statements are evicted once the size bound is reached. Statements can also be prepared
+ * without blocking, concurrent misses of the same key then sharing one preparation.
+ */
+public final class PreparedStatementCache {
+
+  private static final int DEFAULT_MAX_SIZE = 1000;
+  private static final Map<Session, PreparedStatementCache> sessionCacheMap =
+      new ConcurrentHashMap<>();
+
+  private final Session session;
+  private final Cache<String, PreparedStatement> statements;
+  private final Map<String, CompletableFuture<PreparedStatement>> preparing =
+      new ConcurrentHashMap<>();
+
+  private PreparedStatementCache(Session session, int maxSize) {
+    this.session = session;
+    this.statements = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  /**
+   * Get the prepared statement cache bound to given session.
+   *
+   * @param session Cassandra session
+   * @return Prepared statement cache for the session
+   */
+  public static PreparedStatementCache getInstance(Session session) {
+    return sessionCacheMap.computeIfAbsent(
+        session,
+        s ->
+            new PreparedStatementCache(
+                s,
+                CassandraUtil.getIntProperty(
+                    Constants.PREPARED_STATEMENT_CACHE_SIZE, DEFAULT_MAX_SIZE)));
+  }
+
+  /**
+   * Get prepared statement for given key, preparing the query supplied on a cache miss.
+   *
+   * @param key Key identifying the statement within this session
+   * @param query Supplier of the CQL query, invoked only when statement is not cached
+   * @return Prepared statement
+   */
+  public PreparedStatement getStatement(String key, Supplier<String> query) {
+    try {
+      return statements.get(key, () -> session.prepare(query.get()));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      // rethrow driver exception as is so that callers keep their error mapping
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Get prepared statement for given key without blocking, preparing the query supplied
+   * asynchronously on a cache miss.
+   *
+   * @param key Key identifying the statement within this session
+   * @param query Supplier of the CQL query, invoked only when statement is not cached
+   * @return Stage completed with the prepared statement
+   */
+  public CompletionStage<PreparedStatement> getStatementAsync(String key, Supplier<String> query) {
+    PreparedStatement statement = statements.getIfPresent(key);
+    if (statement != null) {
+      return CompletableFuture.completedFuture(statement);
+    }
+    CompletableFuture<PreparedStatement> result = new CompletableFuture<>();
+    CompletableFuture<PreparedStatement> current = preparing.putIfAbsent(key, result);
+    if (current != null) {
+      return current;
+    }
+    try {
+      Futures.addCallback(
+          session.prepareAsync(query.get()),
+          new FutureCallback<PreparedStatement>() {
+            @Override
+            public void onSuccess(PreparedStatement prepared) {
+              statements.put(key, prepared);
+              preparing.remove(key, result);
+              result.complete(prepared);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              // failures are not cached, so the next call prepares again
+              preparing.remove(key, result);
+              result.completeExceptionally(t);
+            }
+          },
+          MoreExecutors.directExecutor());
+    } catch (RuntimeException e) {
+      preparing.remove(key, result);
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
+  /**
+   * Get number of statements currently cached for this session.
+   *
+   * @return Cached statement count
+   */
+  public long size() {
+    return statements.size();
+  }
+
+  /**
+   * Get hit, miss and eviction counters of this cache.
+   *
+   * @return Cache statistics
+   */
+  public CacheStats getStats() {
+    return statements.stats();
+  }
+
+  /**
+   * Get query strings of the cached statements, e.g. to prepare them again after a restart.
+   *
+   * @return Map of statement key and query string
+   */
+  public Map<String, String> getQueries() {
+    Map<String, String> queries = new HashMap<>();
+    for (Map.Entry<String, PreparedStatement> entry : statements.asMap().entrySet()) {
+      queries.put(entry.getKey(), entry.getValue().getQueryString());
+    }
+    return queries;
+  }
+
+  /** Remove all cached statements of this session, e.g. after a schema change. */
+  public void invalidateAll() {
+    statements.invalidateAll();
+  }
+
+  /**
+   * Create cache key from statement type, keyspace, table and columns.
+   *
+   * @param type Statement type e.g. insert, update
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @param columns Columns used in the statement
+   * @return Cache key
+   */
+  public static String createKey(
+      String type, String keyspaceName, String tableName, Iterable<String> columns) {
+    StringBuilder key = new StringBuilder(type);
+    key.append(Constants.COLON).append(keyspaceName).append(Constants.DOT).append(tableName);
+    key.append(Constants.COLON);
+    for (String column : columns) {
+      key.append(column).append(Constants.COMMA);
+    }
+    return key.toString();
+  }
+}
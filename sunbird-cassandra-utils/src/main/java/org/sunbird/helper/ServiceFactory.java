@@ -1,6 +1,8 @@
 package org.sunbird.helper;
 
+import org.sunbird.cassandra.AsyncCassandraOperation;
 import org.sunbird.cassandra.CassandraOperation;
+import org.sunbird.cassandraimpl.AsyncCassandraOperationImpl;
 import org.sunbird.cassandraimpl.CassandraDACImpl;
 
 /**
@@ -10,6 +12,7 @@ import org.sunbird.cassandraimpl.CassandraDACImpl;
  */
 public class ServiceFactory {
   private static CassandraOperation operation = null;
+  private static AsyncCassandraOperation asyncOperation = null;
 
   private ServiceFactory() {}
 
@@ -29,6 +32,22 @@ public class ServiceFactory {
     return operation;
   }
 
+  /**
+   * On call of this method, it will provide the non blocking AsyncCassandraOperation instance.
+   *
+   * @return
+   */
+  public static AsyncCassandraOperation getAsyncInstance() {
+    if (null == asyncOperation) {
+      synchronized (ServiceFactory.class) {
+        if (null == asyncOperation) {
+          asyncOperation = new AsyncCassandraOperationImpl();
+        }
+      }
+    }
+    return asyncOperation;
+  }
+
   public CassandraOperation readResolve() {
     return getInstance();
   }
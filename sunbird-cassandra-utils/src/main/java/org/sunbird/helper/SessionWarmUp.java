@@ -0,0 +1,212 @@
+package org.sunbird.helper;
+
+import com.datastax.driver.core.Configuration;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.HostDistance;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.policies.LoadBalancingPolicy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.PropertiesCache;
+
+/**
+ * Warm-up of a new session before it serves requests, enabled with the warmUpEnabled property.
+ * It waits (up to warmUpTimeoutMillis) until the core connections to all hosts are open, prepares
+ * the statements given by the warmUpStatements property (separated by semicolons) and the ones
+ * recorded in the warmUpStatementsFile at the previous shutdown, and runs warmUpCanaryQueries
+ * light queries so that the connections, the statement caches and the latency trackers of the
+ * driver are initialised.
+ *
+ * <p>Statements recorded from a previous run are put back under the same keys into the {@link
+ * PreparedStatementCache}, so the first requests find them prepared.
+ */
+public final class SessionWarmUp {
+
+  private static final int DEFAULT_CANARY_QUERIES = 20;
+  private static final int DEFAULT_TIMEOUT_MILLIS = 30000;
+  private static final long POLL_INTERVAL_MILLIS = 100;
+  private static final String CANARY_QUERY = "SELECT release_version FROM system.local";
+  private static final String FIELD_SEPARATOR = "\t";
+
+  private final int canaryQueries;
+  private final long timeoutMillis;
+  private final List<String> statements;
+  private final Path statementsFile;
+
+  SessionWarmUp(
+      int canaryQueries, long timeoutMillis, List<String> statements, Path statementsFile) {
+    this.canaryQueries = canaryQueries;
+    this.timeoutMillis = timeoutMillis;
+    this.statements = statements;
+    this.statementsFile = statementsFile;
+  }
+
+  /**
+   * Create warm-up from the configuration.
+   *
+   * @return Warm-up, or null if it is not enabled
+   */
+  public static SessionWarmUp create() {
+    PropertiesCache propertiesCache = PropertiesCache.getInstance();
+    if (!Boolean.parseBoolean(propertiesCache.readProperty(Constants.WARM_UP_ENABLED))) {
+      return null;
+    }
+    List<String> statements = new ArrayList<>();
+    String configured = propertiesCache.readProperty(Constants.WARM_UP_STATEMENTS);
+    if (StringUtils.isNotBlank(configured)) {
+      for (String statement : configured.split(Constants.SEMICOLON)) {
+        if (StringUtils.isNotBlank(statement)) {
+          statements.add(statement.trim());
+        }
+      }
+    }
+    String file = propertiesCache.readProperty(Constants.WARM_UP_STATEMENTS_FILE);
+    return new SessionWarmUp(
+        CassandraUtil.getIntProperty(Constants.WARM_UP_CANARY_QUERIES, DEFAULT_CANARY_QUERIES),
+        CassandraUtil.getIntProperty(Constants.WARM_UP_TIMEOUT, DEFAULT_TIMEOUT_MILLIS),
+        statements,
+        StringUtils.isBlank(file) ? null : Paths.get(file.trim()));
+  }
+
+  /**
+   * Warm up given session. Failures are logged and do not fail the warm-up, as the session is
+   * usable anyway.
+   *
+   * @param session Session connected to the keyspace
+   * @param keyspaceName Keyspace name
+   */
+  public void warmUp(Session session, String keyspaceName) {
+    long startTime = System.currentTimeMillis();
+    int connections = awaitConnections(session, startTime + timeoutMillis);
+    int prepared = 0;
+    for (String statement : statements) {
+      prepared += prepare(session, statement, statement);
+    }
+    for (String[] recorded : readRecordedStatements(keyspaceName)) {
+      prepared += prepare(session, recorded[0], recorded[1]);
+    }
+    for (int i = 0; i < canaryQueries; i++) {
+      try {
+        session.execute(new SimpleStatement(CANARY_QUERY).setIdempotent(true));
+      } catch (Exception e) {
+        ProjectLogger.log("SessionWarmUp:warmUp: Canary query failed " + e.getMessage(), e);
+      }
+    }
+    ProjectLogger.log(
+        "SessionWarmUp:warmUp: Warmed up "
+            + keyspaceName
+            + " with "
+            + connections
+            + " connections and "
+            + prepared
+            + " prepared statements in "
+            + (System.currentTimeMillis() - startTime)
+            + " ms",
+        LoggerEnum.INFO);
+  }
+
+  /**
+   * Record the statements prepared in given sessions, to be prepared by the warm-up of the next
+   * run.
+   *
+   * @param sessions Map of keyspace name and session
+   */
+  public void record(Map<String, Session> sessions) {
+    if (statementsFile == null) {
+      return;
+    }
+    try (BufferedWriter writer = Files.newBufferedWriter(statementsFile, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, Session> session : sessions.entrySet()) {
+        for (Map.Entry<String, String> query :
+            PreparedStatementCache.getInstance(session.getValue()).getQueries().entrySet()) {
+          writer.write(
+              session.getKey()
+                  + FIELD_SEPARATOR
+                  + query.getKey()
+                  + FIELD_SEPARATOR
+                  + query.getValue().replace('\n', ' '));
+          writer.newLine();
+        }
+      }
+    } catch (IOException e) {
+      ProjectLogger.log("SessionWarmUp:record: Exception occurred " + e.getMessage(), e);
+    }
+  }
+
+  private int awaitConnections(Session session, long deadline) {
+    Configuration configuration = session.getCluster().getConfiguration();
+    LoadBalancingPolicy loadBalancingPolicy = configuration.getPolicies().getLoadBalancingPolicy();
+    int open = 0;
+    while (true) {
+      boolean complete = true;
+      open = 0;
+      Session.State state = session.getState();
+      for (Host host : state.getConnectedHosts()) {
+        HostDistance distance = loadBalancingPolicy.distance(host);
+        int core = configuration.getPoolingOptions().getCoreConnectionsPerHost(distance);
+        open += state.getOpenConnections(host);
+        complete &= state.getOpenConnections(host) >= core;
+      }
+      if (complete || System.currentTimeMillis() >= deadline) {
+        if (!complete) {
+          ProjectLogger.log(
+              "SessionWarmUp:awaitConnections: Timed out with " + open + " open connections",
+              LoggerEnum.WARN);
+        }
+        return open;
+      }
+      try {
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return open;
+      }
+    }
+  }
+
+  private static int prepare(Session session, String key, String query) {
+    try {
+      PreparedStatementCache.getInstance(session).getStatement(key, () -> query);
+      return 1;
+    } catch (Exception e) {
+      // e.g. the table of a recorded statement has been dropped since
+      ProjectLogger.log(
+          "SessionWarmUp:prepare: Cannot prepare " + query + " : " + e.getMessage(),
+          LoggerEnum.WARN);
+      return 0;
+    }
+  }
+
+  private List<String[]> readRecordedStatements(String keyspaceName) {
+    List<String[]> recorded = new ArrayList<>();
+    if (statementsFile == null || !Files.isReadable(statementsFile)) {
+      return recorded;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(statementsFile, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split(FIELD_SEPARATOR, 3);
+        if (fields.length == 3 && keyspaceName.equals(fields[0])) {
+          recorded.add(new String[] {fields[1], fields[2]});
+        }
+      }
+    } catch (IOException e) {
+      ProjectLogger.log("SessionWarmUp:readRecordedStatements: " + e.getMessage(), e);
+    }
+    return recorded;
+  }
+}
@@ -0,0 +1,61 @@
+package org.sunbird.helper;
+
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.ResultSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of speculative executions of reads. A request is hedged when the driver started at least
+ * one speculative execution for it because the first replica was slower than the configured
+ * latency percentile, and the speculative execution won when its response was the one returned.
+ */
+public final class SpeculativeExecutionStats {
+
+  private static final AtomicLong requests = new AtomicLong();
+  private static final AtomicLong hedgedRequests = new AtomicLong();
+  private static final AtomicLong speculativeExecutions = new AtomicLong();
+  private static final AtomicLong speculativeWins = new AtomicLong();
+
+  private SpeculativeExecutionStats() {}
+
+  /**
+   * Record speculative executions of the request which returned given result set.
+   *
+   * @param results Result set
+   */
+  public static void record(ResultSet results) {
+    ExecutionInfo info = results == null ? null : results.getExecutionInfo();
+    if (info == null) {
+      return;
+    }
+    requests.incrementAndGet();
+    if (info.getSpeculativeExecutions() > 0) {
+      hedgedRequests.incrementAndGet();
+      speculativeExecutions.addAndGet(info.getSpeculativeExecutions());
+    }
+    // execution 0 is the initial one, any other index is a speculative execution
+    if (info.getSuccessfulExecutionIndex() > 0) {
+      speculativeWins.incrementAndGet();
+    }
+  }
+
+  /** @return Number of recorded requests */
+  public static long getRequests() {
+    return requests.get();
+  }
+
+  /** @return Number of recorded requests for which speculative executions were started */
+  public static long getHedgedRequests() {
+    return hedgedRequests.get();
+  }
+
+  /** @return Number of speculative executions started for recorded requests */
+  public static long getSpeculativeExecutions() {
+    return speculativeExecutions.get();
+  }
+
+  /** @return Number of recorded requests answered by a speculative execution */
+  public static long getSpeculativeWins() {
+    return speculativeWins.get();
+  }
+}
@@ -0,0 +1,98 @@
+package org.sunbird.metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.sunbird.common.CassandraUtil;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.util.PropertiesCache;
+
+/**
+ * Metrics of Cassandra operations, per operation, keyspace and table: a latency timer backed by an
+ * {@link HdrHistogramReservoir} with windows of metricsLatencyWindowMillis, a counter of failed
+ * calls and a counter of returned rows. Metrics are registered in a Dropwizard metric registry, by
+ * default the shared registry named by the metricsRegistryName property, so that any reporter (JMX,
+ * Graphite, Prometheus etc.) attached to that registry exports them. Another registry can be
+ * plugged in with {@link #setRegistry(MetricRegistry)}.
+ *
+ * <p>Metric names are cassandra.&lt;operation&gt;.&lt;keyspace&gt;.&lt;table&gt; followed by
+ * latency, errors or rows.
+ */
+public final class CassandraMetrics {
+
+  private static final String DEFAULT_REGISTRY_NAME = "sunbird-cassandra";
+  private static final int DEFAULT_LATENCY_WINDOW = 60000;
+  private static final String PREFIX = "cassandra";
+
+  private static final int latencyWindowMillis =
+      CassandraUtil.getIntProperty(Constants.METRICS_LATENCY_WINDOW, DEFAULT_LATENCY_WINDOW);
+  private static volatile MetricRegistry registry =
+      SharedMetricRegistries.getOrCreate(getRegistryName());
+  private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+  private CassandraMetrics() {}
+
+  /**
+   * Start timing a call of given operation.
+   *
+   * @param operation Operation name
+   * @param keyspaceName Keyspace name
+   * @param tableName Table name
+   * @return Timer of the call
+   */
+  public static OperationTimer start(String operation, String keyspaceName, String tableName) {
+    String key = operation + Constants.DOT + keyspaceName + Constants.DOT + tableName;
+    OperationMetrics metrics = operations.get(key);
+    if (metrics == null) {
+      metrics =
+          operations.computeIfAbsent(
+              key, k -> new OperationMetrics(registry, operation, keyspaceName, tableName));
+    }
+    return new OperationTimer(metrics);
+  }
+
+  /** @return Registry the metrics are registered in */
+  public static MetricRegistry getRegistry() {
+    return registry;
+  }
+
+  /**
+   * Register metrics in given registry from now on.
+   *
+   * @param metricRegistry Metric registry
+   */
+  public static void setRegistry(MetricRegistry metricRegistry) {
+    registry = metricRegistry;
+    operations.clear();
+  }
+
+  private static String getRegistryName() {
+    String name = PropertiesCache.getInstance().readProperty(Constants.METRICS_REGISTRY_NAME);
+    return StringUtils.isNotBlank(name) ? name.trim() : DEFAULT_REGISTRY_NAME;
+  }
+
+  /** Metrics of one operation on one table. */
+  static final class OperationMetrics {
+
+    final String operation;
+    final Timer latency;
+    final Counter errors;
+    final Counter rows;
+
+    private OperationMetrics(
+        MetricRegistry registry, String operation, String keyspaceName, String tableName) {
+      this.operation = operation;
+      String name = MetricRegistry.name(PREFIX, operation, keyspaceName, tableName);
+      this.latency =
+          registry.timer(
+              MetricRegistry.name(name, "latency"),
+              () -> new Timer(new HdrHistogramReservoir(latencyWindowMillis)));
+      this.errors = registry.counter(MetricRegistry.name(name, "errors"));
+      this.rows = registry.counter(MetricRegistry.name(name, "rows"));
+    }
+  }
+}
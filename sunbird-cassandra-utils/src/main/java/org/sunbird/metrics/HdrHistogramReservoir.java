@@ -0,0 +1,133 @@
+package org.sunbird.metrics;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Reservoir keeping every recorded value in an HdrHistogram with two significant digits, instead of
+ * a random sample, so that high percentiles stay accurate however rare the slow values are.
+ * Recording is lock free; values recorded since the last snapshot are merged into the histogram of
+ * the current time window when a snapshot is taken. A snapshot covers the current and the previous
+ * window, so older values are forgotten and the percentiles follow the recent latencies.
+ */
+public final class HdrHistogramReservoir implements Reservoir {
+
+  private static final int SIGNIFICANT_DIGITS = 2;
+  private static final long DEFAULT_WINDOW_MILLIS = 60000;
+
+  private final long windowNanos;
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+  private Histogram interval;
+  private Histogram current = new Histogram(SIGNIFICANT_DIGITS);
+  private Histogram previous = new Histogram(SIGNIFICANT_DIGITS);
+  private long windowStart = System.nanoTime();
+
+  public HdrHistogramReservoir() {
+    this(DEFAULT_WINDOW_MILLIS);
+  }
+
+  /** @param windowMillis Duration of a time window */
+  public HdrHistogramReservoir(long windowMillis) {
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, windowMillis));
+  }
+
+  @Override
+  public int size() {
+    return getSnapshot().size();
+  }
+
+  @Override
+  public void update(long value) {
+    recorder.recordValue(Math.max(0, value));
+  }
+
+  @Override
+  public synchronized Snapshot getSnapshot() {
+    interval = recorder.getIntervalHistogram(interval);
+    current.add(interval);
+    long now = System.nanoTime();
+    if (now - windowStart >= windowNanos) {
+      Histogram expired = previous;
+      previous = current;
+      current = expired;
+      current.reset();
+      windowStart = now;
+    }
+    Histogram snapshot = current.copy();
+    snapshot.add(previous);
+    return new HistogramSnapshot(snapshot);
+  }
+
+  private static final class HistogramSnapshot extends Snapshot {
+
+    private final Histogram histogram;
+
+    private HistogramSnapshot(Histogram histogram) {
+      this.histogram = histogram;
+    }
+
+    @Override
+    public double getValue(double quantile) {
+      return histogram.getValueAtPercentile(quantile * 100);
+    }
+
+    /** Distinct recorded values, i.e. one value per non empty histogram bucket. */
+    @Override
+    public long[] getValues() {
+      List<Long> values = new ArrayList<>();
+      for (HistogramIterationValue value : histogram.recordedValues()) {
+        values.add(value.getValueIteratedTo());
+      }
+      long[] result = new long[values.size()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = values.get(i);
+      }
+      return result;
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(Integer.MAX_VALUE, histogram.getTotalCount());
+    }
+
+    @Override
+    public long getMax() {
+      return histogram.getMaxValue();
+    }
+
+    @Override
+    public double getMean() {
+      return histogram.getMean();
+    }
+
+    @Override
+    public long getMin() {
+      return histogram.getMinValue();
+    }
+
+    @Override
+    public double getStdDev() {
+      return histogram.getStdDeviation();
+    }
+
+    @Override
+    public void dump(OutputStream output) {
+      try (PrintWriter writer =
+          new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+        for (long value : getValues()) {
+          writer.println(value);
+        }
+      }
+    }
+  }
+}
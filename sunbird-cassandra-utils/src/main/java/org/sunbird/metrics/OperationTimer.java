@@ -0,0 +1,65 @@
+package org.sunbird.metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/** Timer of one call of a Cassandra operation, started by {@link CassandraMetrics#start}. */
+public final class OperationTimer {
+
+  private final CassandraMetrics.OperationMetrics metrics;
+  private final long startTime = System.currentTimeMillis();
+  private final long startNanos = System.nanoTime();
+
+  OperationTimer(CassandraMetrics.OperationMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /** @return Wall clock time the call started at, in milliseconds */
+  public long getStartTime() {
+    return startTime;
+  }
+
+  /** Count the call as failed. */
+  public void error() {
+    metrics.errors.inc();
+  }
+
+  /**
+   * Stop timing a call which returned given response, counting the records in it.
+   *
+   * @param response Response of the call
+   */
+  public void stop(Response response) {
+    Object result = response == null ? null : response.get(Constants.RESPONSE);
+    stop(result instanceof List ? ((List<?>) result).size() : 0);
+  }
+
+  /**
+   * Stop timing a call which returned given number of rows.
+   *
+   * @param rows Number of rows returned
+   */
+  public void stop(long rows) {
+    long elapsedNanos = System.nanoTime() - startNanos;
+    metrics.latency.update(elapsedNanos, TimeUnit.NANOSECONDS);
+    if (rows > 0) {
+      metrics.rows.inc(rows);
+    }
+    long elapsedTime = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    ProjectLogger.log(
+        "Cassandra operation "
+            + metrics.operation
+            + " started at "
+            + startTime
+            + " and completed at "
+            + (startTime + elapsedTime)
+            + ". Total time elapsed is "
+            + elapsedTime
+            + ".",
+        LoggerEnum.PERF_LOG);
+  }
+}
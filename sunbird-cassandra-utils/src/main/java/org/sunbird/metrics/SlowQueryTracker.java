@@ -0,0 +1,83 @@
+package org.sunbird.metrics;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.LatencyTracker;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+
+/**
+ * Latency tracker logging a sample of the queries slower than a threshold along with the host they
+ * were sent to. Only the shape of a statement, i.e. its CQL with bind markers, is logged and never
+ * the bound values. Literals of statements which are not prepared, such as the ones built with the
+ * query builder, are replaced by question marks.
+ */
+public final class SlowQueryTracker implements LatencyTracker {
+
+  // string and blob literals, uuids and numbers which are not part of an identifier
+  private static final Pattern LITERAL =
+      Pattern.compile(
+          "'(?:[^']|'')*'|\\b(?:0[xX][0-9a-fA-F]*"
+              + "|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}"
+              + "|\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?)\\b");
+
+  private final long thresholdNanos;
+  private final double sampleRate;
+
+  /**
+   * @param thresholdMillis Queries taking at least this long are slow
+   * @param sampleRate Fraction of the slow queries to be logged, between 0 and 1
+   */
+  public SlowQueryTracker(long thresholdMillis, double sampleRate) {
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.sampleRate = sampleRate;
+  }
+
+  @Override
+  public void update(Host host, Statement statement, Exception exception, long latencyNanos) {
+    if (latencyNanos < thresholdNanos
+        || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+      return;
+    }
+    ProjectLogger.log(
+        "SlowQueryTracker: query took "
+            + TimeUnit.NANOSECONDS.toMillis(latencyNanos)
+            + " ms on "
+            + host
+            + (exception == null ? "" : " and failed with " + exception.getClass().getSimpleName())
+            + ": "
+            + getShape(statement),
+        LoggerEnum.WARN);
+  }
+
+  @Override
+  public void onRegister(Cluster cluster) {}
+
+  @Override
+  public void onUnregister(Cluster cluster) {}
+
+  static String getShape(Statement statement) {
+    if (statement instanceof BoundStatement) {
+      return ((BoundStatement) statement).preparedStatement().getQueryString();
+    }
+    if (statement instanceof RegularStatement) {
+      return LITERAL.matcher(((RegularStatement) statement).getQueryString()).replaceAll("?");
+    }
+    if (statement instanceof BatchStatement) {
+      BatchStatement batch = (BatchStatement) statement;
+      StringBuilder shape = new StringBuilder("BATCH of ").append(batch.size());
+      if (!batch.getStatements().isEmpty()) {
+        shape.append(" like ").append(getShape(batch.getStatements().iterator().next()));
+      }
+      return shape.toString();
+    }
+    return statement.getClass().getSimpleName();
+  }
+}
@@ -0,0 +1,71 @@
+package org.sunbird.bulkload;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.responsecode.ResponseCode;
+
+public class SSTableBulkLoaderTest {
+
+  private static final String SCHEMA =
+      "CREATE TABLE sunbird.bulk_load_test "
+          + "(id text PRIMARY KEY, name text, age int, tags set<text>)";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testLoadWritesSSTablesAndSkipsInvalidRows() throws IOException {
+    File csv =
+        write(
+            "users.csv",
+            "id,name,age,tags",
+            "u1,Amit,30,\"[\"\"a\"\",\"\"b\"\"]\"",
+            "u2,,31,",
+            "u3,Arvind,unknown,");
+    File json =
+        write(
+            "users.json",
+            "{\"id\":\"u4\",\"name\":\"Kumar\",\"age\":32,\"tags\":[\"c\"]}",
+            "",
+            "{\"name\":\"without id\"}",
+            "not json");
+    File output = folder.newFolder("output");
+
+    SSTableBulkLoader.Result result =
+        new SSTableBulkLoader(SCHEMA, output, 2, 1).load(Arrays.asList(csv, json));
+
+    assertEquals(3, result.getRows());
+    assertEquals(3, result.getRejected());
+    File[] dataFiles =
+        new File(output, "sunbird/bulk_load_test")
+            .listFiles((directory, name) -> name.endsWith("-Data.db"));
+    assertTrue(dataFiles != null && dataFiles.length == 2);
+  }
+
+  @Test
+  public void testMainWithoutInputFilesFailsWithInvalidRequest() throws IOException {
+    try {
+      SSTableBulkLoader.main(new String[] {"schema.cql", "output"});
+    } catch (ProjectCommonException e) {
+      assertEquals(ResponseCode.invalidRequestData.getErrorCode(), e.getCode());
+      return;
+    }
+    fail();
+  }
+
+  private File write(String name, String... lines) throws IOException {
+    File file = folder.newFile(name);
+    Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    return file;
+  }
+}
@@ -0,0 +1,267 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.google.common.util.concurrent.Futures;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.sunbird.common.Constants;
+import org.sunbird.common.TestColumnDefinitions;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.NearCache;
+
+public class AsyncCassandraOperationImplTest {
+
+  private static final String KEYSPACE = "sunbird";
+
+  private Session session;
+  private AsyncCassandraOperationImpl operation;
+
+  @Before
+  public void setUp() {
+    session = Mockito.mock(Session.class);
+    CassandraConnectionManager connectionManager = Mockito.mock(CassandraConnectionManager.class);
+    Mockito.when(connectionManager.getSession(KEYSPACE)).thenReturn(session);
+    operation = new AsyncCassandraOperationImpl();
+    operation.connectionManager = connectionManager;
+  }
+
+  @Test
+  public void testGetRecordsByPropertySelectsGivenFields() throws Exception {
+    ResultSet results = mockResultSet("u1");
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.completed(results));
+
+    Response response =
+        operation
+            .getRecordsByProperty(
+                KEYSPACE, "user", JsonKey.EMAIL, "a@b.c", Arrays.asList(JsonKey.ID, "email"))
+            .toCompletableFuture()
+            .get();
+
+    ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session).executeAsync(statement.capture());
+    assertTrue(
+        ((RegularStatement) statement.getValue())
+            .getQueryString()
+            .startsWith("SELECT id,email FROM sunbird.user"));
+    assertEquals("u1", getRecords(response).get(0).get(JsonKey.ID));
+  }
+
+  @Test
+  public void testInsertRecordPreparesWithoutBlocking() throws Exception {
+    BoundStatement bound = mockPreparedStatement();
+    ResultSet results = mockResultSet();
+    Mockito.when(session.executeAsync(bound)).thenReturn(TestResultSetFuture.completed(results));
+    Map<String, Object> record = new HashMap<>();
+    record.put(JsonKey.ID, "u1");
+
+    Response response =
+        operation.insertRecord(KEYSPACE, "user", record).toCompletableFuture().get();
+
+    assertEquals(Constants.SUCCESS, response.get(Constants.RESPONSE));
+    Mockito.verify(session).prepareAsync(Mockito.anyString());
+    Mockito.verify(session, Mockito.never()).prepare(Mockito.anyString());
+  }
+
+  @Test
+  public void testInsertRecordWithUnknownColumnFailsWithInvalidProperty() {
+    Mockito.when(session.prepareAsync(Mockito.anyString()))
+        .thenReturn(
+            Futures.immediateFailedFuture(
+                new InvalidQueryException(JsonKey.UNKNOWN_IDENTIFIER + " dummy")));
+    Map<String, Object> record = new HashMap<>();
+    record.put(JsonKey.ID, "u1");
+    record.put("dummy", "value");
+
+    ProjectCommonException error = getError(operation.insertRecord(KEYSPACE, "user", record));
+
+    assertEquals(ResponseCode.invalidPropertyError.getErrorCode(), error.getCode());
+    Mockito.verify(session, Mockito.never()).executeAsync(Mockito.any(Statement.class));
+  }
+
+  @Test
+  public void testGetRecordByIdFetchesAllPages() throws Exception {
+    BoundStatement bound = mockPreparedStatement();
+    ResultSet results = mockResultSet("u1");
+    Mockito.when(results.isFullyFetched()).thenReturn(false, true);
+    Mockito.when(results.fetchMoreResults()).thenReturn(Futures.immediateFuture(results));
+    Mockito.when(session.executeAsync(bound)).thenReturn(TestResultSetFuture.completed(results));
+
+    Response response =
+        operation.getRecordById(KEYSPACE, "user", "u1").toCompletableFuture().get();
+
+    Mockito.verify(results, Mockito.times(1)).fetchMoreResults();
+    assertEquals(1, getRecords(response).size());
+  }
+
+  @Test
+  public void testDeleteRecordFailureMapsToServerError() {
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.failed(new IllegalStateException("timeout")));
+
+    ProjectCommonException error = getError(operation.deleteRecord(KEYSPACE, "user", "u1"));
+
+    assertEquals(ResponseCode.SERVER_ERROR.getErrorCode(), error.getCode());
+    assertEquals(ResponseCode.SERVER_ERROR.getResponseCode(), error.getResponseCode());
+  }
+
+  @Test
+  public void testWritesInvalidateNearCache() throws Exception {
+    AtomicInteger reads = new AtomicInteger();
+    operation.nearCache = new NearCache(Collections.singletonMap("user", new int[] {100, 60}));
+    ResultSet results = mockResultSet();
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.completed(results));
+    readThroughNearCache("u1", reads);
+    readThroughNearCache("u2", reads);
+
+    operation.deleteRecords(KEYSPACE, "user", Arrays.asList("u1")).toCompletableFuture().get();
+    readThroughNearCache("u1", reads);
+    readThroughNearCache("u2", reads);
+    assertEquals(3, reads.get());
+
+    Map<String, Object> record = new HashMap<>();
+    record.put(JsonKey.ID, "u3");
+    operation.batchInsert(KEYSPACE, "user", Arrays.asList(record)).toCompletableFuture().get();
+    readThroughNearCache("u2", reads);
+    assertEquals(4, reads.get());
+  }
+
+  @Test
+  public void testWritesFlushAndDeletesDiscardPendingUpdates() throws Exception {
+    List<String> queries = new ArrayList<>();
+    ResultSet results = mockResultSet();
+    // values of built statements are only inlined by toString
+    Answer<Object> execute =
+        invocation -> {
+          queries.add(invocation.getArguments()[0].toString());
+          return TestResultSetFuture.completed(results);
+        };
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class))).thenAnswer(execute);
+    Session bufferSession = Mockito.mock(Session.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(bufferSession.executeAsync(Mockito.any(Statement.class))).thenAnswer(execute);
+    WriteBehindBuffer buffer =
+        new WriteBehindBuffer(
+            Collections.singleton("user"),
+            keyspace -> bufferSession,
+            TimeUnit.HOURS.toMillis(1),
+            1000,
+            WriteBehindBuffer.Durability.ASYNC,
+            new NearCache(Collections.emptyMap()));
+    operation.writeBehindBuffer = buffer;
+    CompletableFuture<Void> updated =
+        buffer
+            .update(KEYSPACE, "user", key("u1"), Collections.singletonMap("lastLoginTime", 1L))
+            .toCompletableFuture();
+    CompletableFuture<Void> deleted =
+        buffer
+            .update(KEYSPACE, "user", key("u2"), Collections.singletonMap("lastLoginTime", 2L))
+            .toCompletableFuture();
+
+    operation
+        .updateRecord(KEYSPACE, "user", Collections.singletonMap("firstName", "Jane"), key("u1"))
+        .toCompletableFuture()
+        .get();
+    operation.deleteRecord(KEYSPACE, "user", "u2").toCompletableFuture().get();
+    buffer.flush();
+
+    assertTrue(updated.isDone());
+    assertTrue(deleted.isDone());
+    assertEquals(3, queries.size());
+    assertEquals("UPDATE sunbird.user SET lastLoginTime=1 WHERE id='u1';", queries.get(0));
+    assertTrue(queries.get(1).startsWith("UPDATE sunbird.user SET firstName"));
+    assertTrue(queries.get(2).startsWith("DELETE FROM sunbird.user"));
+  }
+
+  private void readThroughNearCache(String id, AtomicInteger reads) {
+    operation.nearCache.getRecordById(
+        KEYSPACE,
+        "user",
+        id,
+        null,
+        fields -> {
+          reads.incrementAndGet();
+          Response response = new Response();
+          response.put(
+              Constants.RESPONSE, Arrays.asList(Collections.singletonMap(JsonKey.ID, id)));
+          return response;
+        });
+  }
+
+  private static Map<String, Object> key(String id) {
+    return Collections.singletonMap(JsonKey.ID, id);
+  }
+
+  private BoundStatement mockPreparedStatement() {
+    PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+    BoundStatement bound = Mockito.mock(BoundStatement.class);
+    Mockito.when(prepared.bind(Mockito.<Object>anyVararg())).thenReturn(bound);
+    Mockito.when(session.prepareAsync(Mockito.anyString()))
+        .thenReturn(Futures.immediateFuture(prepared));
+    return bound;
+  }
+
+  private static ResultSet mockResultSet(String... ids) {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    Mockito.when(columnDefinitions.asList())
+        .thenReturn(
+            Arrays.asList(TestColumnDefinitions.mockDefinition(JsonKey.ID, DataType.text())));
+    Mockito.when(results.getColumnDefinitions()).thenReturn(columnDefinitions);
+    Mockito.when(results.isFullyFetched()).thenReturn(true);
+    Row[] rows = new Row[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      rows[i] = Mockito.mock(Row.class);
+      Mockito.when(rows[i].get(Mockito.eq(0), Mockito.any(TypeCodec.class))).thenReturn(ids[i]);
+    }
+    Mockito.when(results.iterator()).thenAnswer(invocation -> Arrays.asList(rows).iterator());
+    return results;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> getRecords(Response response) {
+    return (List<Map<String, Object>>) response.get(Constants.RESPONSE);
+  }
+
+  private static ProjectCommonException getError(CompletionStage<?> stage) {
+    try {
+      stage.toCompletableFuture().get();
+    } catch (ExecutionException e) {
+      return (ProjectCommonException) e.getCause();
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+    throw new AssertionError("stage completed without error");
+  }
+}
@@ -0,0 +1,101 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.CassandraConnectionManager;
+import org.sunbird.helper.NearCache;
+
+public class CassandraDACImplTest {
+
+  private static final String KEYSPACE = "sunbird";
+
+  private Session session;
+  private CassandraDACImpl cassandraDAC;
+
+  @Before
+  public void setUp() {
+    session = Mockito.mock(Session.class);
+    CassandraConnectionManager connectionManager = Mockito.mock(CassandraConnectionManager.class);
+    Mockito.when(connectionManager.getSession(KEYSPACE)).thenReturn(session);
+    cassandraDAC = new CassandraDACImpl();
+    cassandraDAC.connectionManager = connectionManager;
+  }
+
+  @Test
+  public void testApplyOperationOnRecordsAsyncFetchesAllPagesOfFields() throws Exception {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    Mockito.when(results.isFullyFetched()).thenReturn(false, false, true);
+    Mockito.when(results.fetchMoreResults()).thenReturn(Futures.immediateFuture(results));
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.completed(results));
+    SettableFuture<ResultSet> received = SettableFuture.create();
+
+    cassandraDAC.applyOperationOnRecordsAsync(
+        KEYSPACE,
+        "user",
+        null,
+        Arrays.asList(JsonKey.ID, "email"),
+        new FutureCallback<ResultSet>() {
+          @Override
+          public void onSuccess(ResultSet resultSet) {
+            received.set(resultSet);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            received.setException(t);
+          }
+        });
+
+    assertSame(results, received.get(10, TimeUnit.SECONDS));
+    Mockito.verify(results, Mockito.times(2)).fetchMoreResults();
+    ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session).executeAsync(statement.capture());
+    String query = ((RegularStatement) statement.getValue()).getQueryString();
+    assertTrue(query, query.startsWith("SELECT id,email FROM sunbird.user"));
+  }
+
+  @Test
+  public void testDeleteRecordDropsBufferedUpdateOfRecord() {
+    WriteBehindBuffer buffer =
+        new WriteBehindBuffer(
+            Collections.singleton("user"),
+            keyspace -> session,
+            TimeUnit.HOURS.toMillis(1),
+            1000,
+            WriteBehindBuffer.Durability.ASYNC,
+            new NearCache(Collections.emptyMap()));
+    cassandraDAC.writeBehindBuffer = buffer;
+    Map<String, Object> record = new HashMap<>();
+    record.put(JsonKey.ID, "u1");
+    record.put("lastLoginTime", 1L);
+
+    cassandraDAC.updateRecord(KEYSPACE, "user", record);
+    cassandraDAC.deleteRecord(KEYSPACE, "user", "u1");
+    buffer.flush();
+
+    Mockito.verify(session, Mockito.never()).executeAsync(Mockito.any(Statement.class));
+    ArgumentCaptor<Statement> statement = ArgumentCaptor.forClass(Statement.class);
+    Mockito.verify(session).execute(statement.capture());
+    String query = ((RegularStatement) statement.getValue()).getQueryString();
+    assertTrue(query, query.startsWith("DELETE FROM sunbird.user"));
+  }
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.reset;
 import static org.powermock.api.mockito.PowerMockito.when;
 
 import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.datastax.driver.core.querybuilder.*;
 import com.google.common.util.concurrent.Uninterruptibles;
 import java.text.MessageFormat;
@@ -387,6 +388,7 @@ public class CassandraOperationImplTest {
 
   @Test
   public void testGetRecordSuccessById() {
+    when(session.execute(Mockito.any(Statement.class))).thenReturn(resultSet);
     Iterator<Row> rowItr = Mockito.mock(Iterator.class);
     Mockito.when(resultSet.iterator()).thenReturn(rowItr);
     when(session.execute(boundStatement.bind("123"))).thenReturn(resultSet);
@@ -450,6 +452,7 @@ public class CassandraOperationImplTest {
 
   @Test
   public void testGetRecordSuccessByProperties() throws Exception {
+    when(session.execute(Mockito.any(Statement.class))).thenReturn(resultSet);
 
     Map<String, Object> map = new HashMap<>();
     map.put(JsonKey.USER_ID, "USR1");
@@ -581,6 +584,7 @@ public class CassandraOperationImplTest {
 
   @Test
   public void testGetRecordsSuccessById() {
+    when(session.execute(Mockito.any(Statement.class))).thenReturn(resultSet);
     Iterator<Row> rowItr = Mockito.mock(Iterator.class);
     Mockito.when(resultSet.iterator()).thenReturn(rowItr);
     when(session.execute(where)).thenReturn(resultSet);
@@ -649,6 +653,25 @@ public class CassandraOperationImplTest {
             == ResponseCode.SERVER_ERROR.getResponseCode());
   }
 
+  @Test
+  public void testBatchInsertFailureWithInvalidType() {
+    when(statement.bind(Mockito.<Object>anyVararg()))
+        .thenThrow(new InvalidTypeException("Invalid type for value 1"));
+    Map<String, Object> record = new HashMap<>();
+    record.put(JsonKey.ID, "123");
+    record.put("count", "one");
+
+    Throwable exception = null;
+    try {
+      operation.batchInsert(cassandraKeySpace, "address_batch", Arrays.asList(record));
+    } catch (Exception ex) {
+      exception = ex;
+    }
+    assertTrue(
+        (((ProjectCommonException) exception).getResponseCode())
+            == ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+
   @Test
   public void testGetTableListSuccess() throws Exception {
 
@@ -0,0 +1,673 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.Token;
+import com.datastax.driver.core.TokenRange;
+import com.google.common.util.concurrent.Futures;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.sunbird.common.TestColumnDefinitions;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.helper.CassandraConnectionManager;
+
+public class LookupIndexManagerTest {
+
+  private static final String KEYSPACE = "sunbird";
+  private static final String MIN_TOKEN = "-9223372036854775808";
+  private static final Pattern TABLE = Pattern.compile("(?:FROM|INTO) sunbird\\.(\\w+)");
+  private static final Pattern SELECT = Pattern.compile("SELECT (.+) FROM");
+  private static final Pattern INSERT = Pattern.compile("\\(([\\w,]+)\\) VALUES");
+  private static final Pattern FILTER = Pattern.compile("(\\w+)=\\?");
+
+  private final LookupIndexManager manager = createManager();
+  private final Map<String, List<Map<String, Object>>> tables = new ConcurrentHashMap<>();
+  private final Map<Statement, Binding> bindings = new ConcurrentHashMap<>();
+  private final List<Binding> executed = new CopyOnWriteArrayList<>();
+  private Session session;
+  private KeyspaceMetadata keyspace;
+  private volatile boolean lookupTableCreated;
+
+  @Before
+  public void setUp() throws Exception {
+    tables.put("user", new CopyOnWriteArrayList<>());
+    tables.put("user_by_email", new CopyOnWriteArrayList<>());
+    session = Mockito.mock(Session.class);
+    Cluster cluster = Mockito.mock(Cluster.class);
+    Metadata metadata = Mockito.mock(Metadata.class);
+    keyspace = Mockito.mock(KeyspaceMetadata.class);
+    Mockito.when(session.getCluster()).thenReturn(cluster);
+    Mockito.when(cluster.getMetadata()).thenReturn(metadata);
+    Mockito.when(metadata.getKeyspace(KEYSPACE)).thenReturn(keyspace);
+    Mockito.when(metadata.getTokenRanges())
+        .thenReturn(
+            new HashSet<>(Arrays.asList(newRange(MIN_TOKEN, "0"), newRange("0", MIN_TOKEN))));
+    TableMetadata table = mockTable("id");
+    ColumnMetadata id = mockColumn("id");
+    ColumnMetadata email = mockColumn("email");
+    Mockito.when(table.getColumn("id")).thenReturn(id);
+    Mockito.when(table.getColumn("email")).thenReturn(email);
+    Mockito.when(keyspace.getTable("user")).thenReturn(table);
+    TableMetadata lookupTable = mockTable("email");
+    Mockito.when(keyspace.getTable("user_by_email"))
+        .thenAnswer(invocation -> lookupTableCreated ? lookupTable : null);
+
+    Mockito.when(session.prepare(Mockito.anyString()))
+        .thenAnswer(invocation -> prepare((String) invocation.getArguments()[0]));
+    Mockito.when(session.prepareAsync(Mockito.anyString()))
+        .thenAnswer(
+            invocation ->
+                Futures.immediateFuture(prepare((String) invocation.getArguments()[0])));
+    Mockito.when(session.execute(Mockito.any(Statement.class)))
+        .thenAnswer(invocation -> execute((Statement) invocation.getArguments()[0]));
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenAnswer(
+            invocation ->
+                TestResultSetFuture.completed(
+                    execute((Statement) invocation.getArguments()[0])));
+    Mockito.when(session.execute(Mockito.anyString()))
+        .thenAnswer(
+            invocation -> {
+              lookupTableCreated = true;
+              return null;
+            });
+  }
+
+  @Test
+  public void testIsIndexedIgnoresColumnCase() {
+    assertTrue(manager.isIndexed("user", "loginId"));
+    assertTrue(manager.isIndexed("user", "email"));
+    assertFalse(manager.isIndexed("user", "phone"));
+    assertFalse(manager.isIndexed("organisation", "email"));
+    assertEquals("user_by_loginid", LookupIndexManager.getLookupTableName("user", "loginId"));
+  }
+
+  @Test
+  public void testGetIndexedColumnSkipsRangeFilters() {
+    Map<String, Object> filters = new HashMap<>();
+    filters.put("status", 1);
+    filters.put("email", Collections.singletonMap(">=", "a"));
+    assertNull(manager.getIndexedColumn("user", filters));
+
+    filters.put("loginId", Arrays.asList("a@b", "c@d"));
+    assertEquals("loginId", manager.getIndexedColumn("user", filters));
+  }
+
+  @Test
+  public void testIndexWritesEntriesOfIndexedColumns() {
+    createLookupTable();
+    Map<String, Object> record = user("u1", "a@b");
+    record.put("firstName", "Jane");
+
+    manager.index(session, KEYSPACE, "user", record);
+    manager.index(session, KEYSPACE, "user", user("u2", "c@d"), 60);
+
+    assertEquals(
+        Arrays.asList(entry("a@b", "u1"), entry("c@d", "u2")), tables.get("user_by_email"));
+    assertEquals(2, executed.size());
+    assertFalse(executed.get(0).query.contains("TTL"));
+    assertTrue(executed.get(1).query.contains("USING TTL ?"));
+    assertEquals(60, executed.get(1).values[2]);
+  }
+
+  @Test
+  public void testIndexSkipsMissingLookupTable() {
+    manager.index(session, KEYSPACE, "user", user("u1", "a@b"));
+    manager.index(session, KEYSPACE, "user", user("u2", "c@d"));
+
+    assertTrue(executed.isEmpty());
+    assertFalse(manager.isIndexed(session, KEYSPACE, "user", "email"));
+    assertNull(
+        manager.getIndexedColumn(
+            session, KEYSPACE, "user", Collections.singletonMap("email", "a@b")));
+    // the lookup table is only looked up once within the recheck interval
+    Mockito.verify(keyspace, Mockito.times(1)).getTable("user_by_email");
+  }
+
+  @Test
+  public void testMissingLookupTableIsRechecked() {
+    Map<String, Set<String>> indexes =
+        Collections.singletonMap("user", Collections.singleton("email"));
+    LookupIndexManager manager = new LookupIndexManager(indexes, 0);
+
+    manager.index(session, KEYSPACE, "user", user("u1", "a@b"));
+    // e.g. backfilled by another process
+    createLookupTable();
+    manager.index(session, KEYSPACE, "user", user("u2", "c@d"));
+    manager.index(session, KEYSPACE, "user", user("u3", "e@f"));
+
+    assertEquals(
+        Arrays.asList(entry("c@d", "u2"), entry("e@f", "u3")), tables.get("user_by_email"));
+    // found tables are not looked up again
+    Mockito.verify(keyspace, Mockito.times(2)).getTable("user_by_email");
+  }
+
+  @Test
+  public void testIndexAsyncWritesEntriesOfGivenColumns() throws Exception {
+    createLookupTable();
+
+    manager
+        .indexAsync(
+            session,
+            KEYSPACE,
+            "user",
+            Collections.singletonMap("id", "u1"),
+            Collections.singletonMap("email", "a@b"),
+            60)
+        .toCompletableFuture()
+        .get();
+
+    assertEquals(Collections.singletonList(entry("a@b", "u1")), tables.get("user_by_email"));
+    assertEquals(60, executed.get(0).values[2]);
+    Mockito.verify(session, Mockito.never()).prepare(Mockito.anyString());
+  }
+
+  @Test
+  public void testUpdateRecordByCompositeKeyIndexes() {
+    createLookupTable();
+
+    createOperation()
+        .updateRecord(
+            KEYSPACE,
+            "user",
+            Collections.singletonMap("email", "a@b"),
+            Collections.singletonMap("id", "u1"));
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testUpdateRecordWithTTLIndexesWithTTL() {
+    createLookupTable();
+
+    createOperation()
+        .updateRecordWithTTL(
+            KEYSPACE,
+            "user",
+            Collections.singletonMap("email", "a@b"),
+            Collections.singletonMap("id", "u1"),
+            60);
+
+    assertIndexed("a@b", "u1");
+    assertEquals(60, executed.get(0).values[2]);
+  }
+
+  @Test
+  public void testBatchUpdateIndexes() {
+    createLookupTable();
+
+    createOperation().batchUpdate(KEYSPACE, "user", Arrays.asList(update("u1", "a@b")));
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testPerformBatchActionIndexes() {
+    createLookupTable();
+
+    createOperation().performBatchAction(KEYSPACE, "user", batchAction());
+
+    assertIndexed("a@b", "u1");
+    assertIndexed("c@d", "u2");
+  }
+
+  @Test
+  public void testAsyncInsertRecordIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .insertRecord(KEYSPACE, "user", user("u1", "a@b"))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testAsyncUpsertRecordIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .upsertRecord(KEYSPACE, "user", user("u1", "a@b"))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testAsyncUpdateRecordIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .updateRecord(KEYSPACE, "user", user("u1", "a@b"))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testAsyncUpdateRecordByCompositeKeyIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .updateRecord(
+            KEYSPACE,
+            "user",
+            Collections.singletonMap("email", "a@b"),
+            Collections.singletonMap("id", "u1"))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testAsyncBatchInsertIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .batchInsert(KEYSPACE, "user", Arrays.asList(user("u1", "a@b"), user("u2", "c@d")))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+    assertIndexed("c@d", "u2");
+  }
+
+  @Test
+  public void testAsyncBatchUpdateIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .batchUpdate(KEYSPACE, "user", Arrays.asList(update("u1", "a@b")))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testAsyncBatchUpdateByIdIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .batchUpdateById(KEYSPACE, "user", Arrays.asList(user("u1", "a@b")))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+  }
+
+  @Test
+  public void testAsyncInsertRecordWithTTLIndexesWithTTL() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .insertRecordWithTTL(KEYSPACE, "user", user("u1", "a@b"), 60)
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+    assertEquals(60, executed.get(0).values[2]);
+  }
+
+  @Test
+  public void testAsyncUpdateRecordWithTTLIndexesWithTTL() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .updateRecordWithTTL(
+            KEYSPACE,
+            "user",
+            Collections.singletonMap("email", "a@b"),
+            Collections.singletonMap("id", "u1"),
+            60)
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+    assertEquals(60, executed.get(0).values[2]);
+  }
+
+  @Test
+  public void testAsyncBatchInsertWithTTLIndexesWithTTL() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .batchInsertWithTTL(
+            KEYSPACE,
+            "user",
+            Arrays.asList(user("u1", "a@b"), user("u2", "c@d")),
+            Arrays.asList(60, 120))
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+    assertIndexed("c@d", "u2");
+    assertEquals(
+        new HashSet<>(Arrays.asList(60, 120)),
+        new HashSet<>(Arrays.asList(executed.get(0).values[2], executed.get(1).values[2])));
+  }
+
+  @Test
+  public void testAsyncPerformBatchActionIndexes() throws Exception {
+    createLookupTable();
+
+    createAsyncOperation()
+        .performBatchAction(KEYSPACE, "user", batchAction())
+        .toCompletableFuture()
+        .get();
+
+    assertIndexed("a@b", "u1");
+    assertIndexed("c@d", "u2");
+  }
+
+  @Test
+  public void testReadSkipsStaleEntries() {
+    createLookupTable();
+    tables.get("user").add(user("u1", "a@b"));
+    tables.get("user").add(user("u2", "c@d"));
+    tables.get("user_by_email").add(entry("a@b", "u1"));
+    tables.get("user_by_email").add(entry("a@b", "u2"));
+
+    List<Map<String, Object>> records =
+        manager.read(
+            session,
+            KEYSPACE,
+            "user",
+            "email",
+            Collections.singletonMap("email", "a@b"),
+            Arrays.asList("id"));
+
+    assertEquals(Collections.singletonList(Collections.singletonMap("id", "u1")), records);
+  }
+
+  @Test
+  public void testCheckRepairsMissingAndStaleEntries() {
+    createLookupTable();
+    tables.get("user").add(user("u1", "a@b"));
+    tables.get("user").add(user("u2", "c@d"));
+    tables.get("user_by_email").add(entry("a@b", "u1"));
+    tables.get("user_by_email").add(entry("x@y", "u3"));
+
+    LookupIndexManager.Report report = manager.check(session, KEYSPACE, "user", "email", 1, true);
+
+    assertEquals(2, report.getScanned());
+    assertEquals(1, report.getMissing());
+    assertEquals(1, report.getStale());
+    assertEquals(
+        new HashSet<>(Arrays.asList(entry("a@b", "u1"), entry("c@d", "u2"))),
+        new HashSet<>(tables.get("user_by_email")));
+  }
+
+  @Test
+  public void testBackfillCreatesLookupTableAndAddsEntries() {
+    tables.get("user").add(user("u1", "a@b"));
+    tables.get("user").add(user("u2", null));
+    assertFalse(manager.isIndexed(session, KEYSPACE, "user", "email"));
+
+    long added = manager.backfill(session, KEYSPACE, "user", "email", 1);
+
+    assertEquals(1, added);
+    Mockito.verify(session)
+        .execute(
+            "CREATE TABLE IF NOT EXISTS sunbird.user_by_email "
+                + "(email text, id text, PRIMARY KEY (email, id))");
+    assertEquals(Collections.singletonList(entry("a@b", "u1")), tables.get("user_by_email"));
+    assertTrue(manager.isIndexed(session, KEYSPACE, "user", "email"));
+  }
+
+  private void createLookupTable() {
+    lookupTableCreated = true;
+  }
+
+  private void assertIndexed(String email, String id) {
+    assertTrue(tables.get("user_by_email").contains(entry(email, id)));
+  }
+
+  private CassandraOperationImpl createOperation() {
+    CassandraOperationImpl operation = new CassandraDACImpl();
+    operation.connectionManager = createConnectionManager();
+    operation.lookupIndexManager = manager;
+    return operation;
+  }
+
+  private AsyncCassandraOperationImpl createAsyncOperation() {
+    AsyncCassandraOperationImpl operation = new AsyncCassandraOperationImpl();
+    operation.connectionManager = createConnectionManager();
+    operation.lookupIndexManager = manager;
+    return operation;
+  }
+
+  private CassandraConnectionManager createConnectionManager() {
+    CassandraConnectionManager connectionManager = Mockito.mock(CassandraConnectionManager.class);
+    Mockito.when(connectionManager.getSession(KEYSPACE)).thenReturn(session);
+    return connectionManager;
+  }
+
+  private PreparedStatement prepare(String query) {
+    return Mockito.mock(
+        PreparedStatement.class,
+        (Answer<Object>)
+            invocation ->
+            "bind".equals(invocation.getMethod().getName())
+                ? bind(query, invocation.getArguments())
+                : null);
+  }
+
+  private BoundStatement bind(String query, Object[] values) {
+    Binding binding = new Binding(query, values);
+    BoundStatement statement =
+        Mockito.mock(
+            BoundStatement.class,
+            (Answer<Object>)
+                invocation -> {
+              if ("setToken".equals(invocation.getMethod().getName())) {
+                binding.tokens.add(invocation.getArguments()[1].toString());
+              }
+              // setters return the statement itself
+              return invocation.getMethod().getReturnType().isInstance(invocation.getMock())
+                  ? invocation.getMock()
+                  : null;
+            });
+    bindings.put(statement, binding);
+    return statement;
+  }
+
+  /** Run a statement, keeping only the rows written by prepared inserts. */
+  private ResultSet execute(Statement statement) {
+    Binding binding = bindings.get(statement);
+    if (binding == null || binding.query.startsWith("UPDATE")) {
+      return createResultSet(Collections.emptyList(), Collections.emptyList());
+    }
+    return execute(binding);
+  }
+
+  /** Run a query of the lookup manager against the in-memory tables. */
+  private ResultSet execute(Binding binding) {
+    String query = binding.query;
+    Matcher table = TABLE.matcher(query);
+    table.find();
+    List<Map<String, Object>> rows = tables.get(table.group(1));
+    if (query.startsWith("INSERT")) {
+      executed.add(binding);
+      Matcher insert = INSERT.matcher(query);
+      insert.find();
+      String[] columns = insert.group(1).split(",");
+      Map<String, Object> row = new LinkedHashMap<>();
+      for (int i = 0; i < columns.length; i++) {
+        row.put(columns[i], binding.values[i]);
+      }
+      rows.add(row);
+      return createResultSet(Collections.emptyList(), Collections.emptyList());
+    }
+    List<Map<String, Object>> matches = new ArrayList<>();
+    // scans read all rows from the range starting at the minimum token
+    if (binding.tokens.isEmpty() || MIN_TOKEN.equals(binding.tokens.get(0))) {
+      for (Map<String, Object> row : rows) {
+        if (binding.tokens.isEmpty() && !matches(query, binding.values, row)) {
+          continue;
+        }
+        matches.add(row);
+      }
+    }
+    if (query.startsWith("DELETE")) {
+      rows.removeAll(matches);
+      return createResultSet(Collections.emptyList(), Collections.emptyList());
+    }
+    Matcher select = SELECT.matcher(query);
+    select.find();
+    List<String> columns =
+        "*".equals(select.group(1))
+            ? Arrays.asList("id", "email")
+            : Arrays.asList(select.group(1).split(","));
+    return createResultSet(columns, matches);
+  }
+
+  private static boolean matches(String query, Object[] values, Map<String, Object> row) {
+    Matcher filter = FILTER.matcher(query);
+    for (int i = 0; filter.find(); i++) {
+      if (!values[i].equals(row.get(filter.group(1)))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static ResultSet createResultSet(List<String> columns, List<Map<String, Object>> rows) {
+    List<ColumnDefinitions.Definition> definitions = new ArrayList<>();
+    for (String column : columns) {
+      definitions.add(TestColumnDefinitions.mockDefinition(column, DataType.text()));
+    }
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    Mockito.when(columnDefinitions.asList()).thenReturn(definitions);
+    List<Row> results = new ArrayList<>();
+    for (Map<String, Object> row : rows) {
+      results.add(
+          Mockito.mock(
+              Row.class,
+              (Answer<Object>)
+                  invocation ->
+                  invocation.getMethod().getName().startsWith("get")
+                      ? row.get(columns.get((Integer) invocation.getArguments()[0]))
+                      : null));
+    }
+    ResultSet resultSet = Mockito.mock(ResultSet.class);
+    Mockito.when(resultSet.getColumnDefinitions()).thenReturn(columnDefinitions);
+    Mockito.when(resultSet.isFullyFetched()).thenReturn(true);
+    Mockito.when(resultSet.iterator()).thenAnswer(invocation -> results.iterator());
+    Mockito.when(resultSet.one()).thenReturn(results.isEmpty() ? null : results.get(0));
+    return resultSet;
+  }
+
+  private static TableMetadata mockTable(String partitionKey) {
+    List<ColumnMetadata> columns = Collections.singletonList(mockColumn(partitionKey));
+    TableMetadata table = Mockito.mock(TableMetadata.class);
+    Mockito.when(table.getPartitionKey()).thenReturn(columns);
+    return table;
+  }
+
+  private static ColumnMetadata mockColumn(String name) {
+    ColumnMetadata column = Mockito.mock(ColumnMetadata.class);
+    Mockito.when(column.getName()).thenReturn(name);
+    Mockito.when(column.getType()).thenReturn(DataType.text());
+    return column;
+  }
+
+  private static Map<String, Object> user(String id, String email) {
+    Map<String, Object> user = new LinkedHashMap<>();
+    user.put("id", id);
+    user.put("email", email);
+    return user;
+  }
+
+  private static Map<String, Map<String, Object>> update(String id, String email) {
+    Map<String, Map<String, Object>> update = new HashMap<>();
+    update.put(JsonKey.PRIMARY_KEY, Collections.singletonMap("id", id));
+    update.put(JsonKey.NON_PRIMARY_KEY, Collections.singletonMap("email", email));
+    return update;
+  }
+
+  private static Map<String, Object> batchAction() {
+    Map<String, Object> inputData = new HashMap<>();
+    inputData.put(JsonKey.INSERT, user("u1", "a@b"));
+    inputData.put(JsonKey.UPDATE, user("u2", "c@d"));
+    return inputData;
+  }
+
+  private static Map<String, Object> entry(String email, String id) {
+    Map<String, Object> entry = new LinkedHashMap<>();
+    entry.put("email", email);
+    entry.put("id", id);
+    return entry;
+  }
+
+  /** Token range of the Murmur3 partitioner, which the driver only builds from cluster metadata. */
+  private static TokenRange newRange(String start, String end) throws Exception {
+    Method getFactory = Token.class.getDeclaredMethod("getFactory", String.class);
+    getFactory.setAccessible(true);
+    Object factory = getFactory.invoke(null, "Murmur3Partitioner");
+    Class<?> factoryClass = factory.getClass().getSuperclass();
+    Method fromString = factoryClass.getDeclaredMethod("fromString", String.class);
+    fromString.setAccessible(true);
+    Constructor<TokenRange> constructor =
+        TokenRange.class.getDeclaredConstructor(Token.class, Token.class, factoryClass);
+    constructor.setAccessible(true);
+    return constructor.newInstance(
+        fromString.invoke(factory, start), fromString.invoke(factory, end), factory);
+  }
+
+  private static LookupIndexManager createManager() {
+    Map<String, Set<String>> indexes = new HashMap<>();
+    indexes.put("user", new HashSet<>(Arrays.asList("loginid", "email")));
+    return new LookupIndexManager(indexes);
+  }
+
+  /** Query and values a prepared statement is bound with. */
+  private static final class Binding {
+
+    private final String query;
+    private final Object[] values;
+    private final List<String> tokens = new ArrayList<>();
+
+    private Binding(String query, Object[] values) {
+      this.query = query;
+      this.values = values;
+    }
+  }
+}
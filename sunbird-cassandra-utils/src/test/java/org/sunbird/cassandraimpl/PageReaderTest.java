@@ -0,0 +1,116 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TypeCodec;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sunbird.common.TestColumnDefinitions;
+
+public class PageReaderTest {
+
+  @Test
+  public void testReadPassesEveryPageToConsumer() throws Exception {
+    ResultSet results = mockResultSet();
+    Mockito.when(results.getAvailableWithoutFetching()).thenReturn(2, 1);
+    Mockito.when(results.isFullyFetched()).thenReturn(false, true);
+    Mockito.when(results.fetchMoreResults()).thenReturn(Futures.immediateFuture(results));
+    Row[] rows = {mockRow("u1"), mockRow("u2"), mockRow("u3")};
+    Mockito.when(results.one()).thenReturn(rows[0], rows[1], rows[2]);
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.completed(results));
+    List<Integer> pageSizes = new ArrayList<>();
+
+    CompletableFuture<Long> count =
+        new PageReader(session, MoreExecutors.directExecutor())
+            .read(
+                new SimpleStatement("SELECT * FROM sunbird.user"),
+                page -> pageSizes.add(page.size()))
+            .toCompletableFuture();
+
+    assertEquals(Long.valueOf(3), count.get());
+    assertEquals(Arrays.asList(2, 1), pageSizes);
+  }
+
+  @Test
+  public void testReadStopsWhenConsumerFails() {
+    ResultSet results = mockResultSet();
+    Mockito.when(results.getAvailableWithoutFetching()).thenReturn(1);
+    Mockito.when(results.isFullyFetched()).thenReturn(false);
+    Row row = mockRow("u1");
+    Mockito.when(results.one()).thenReturn(row);
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.completed(results));
+
+    CompletableFuture<Long> count =
+        new PageReader(session, MoreExecutors.directExecutor())
+            .read(
+                new SimpleStatement("SELECT * FROM sunbird.user"),
+                page -> {
+                  throw new IllegalStateException("consumer failed");
+                })
+            .toCompletableFuture();
+
+    assertTrue(count.isCompletedExceptionally());
+    Mockito.verify(results, Mockito.never()).fetchMoreResults();
+  }
+
+  @Test
+  public void testReadFailsWhenCallbackIsRejected() throws Exception {
+    ResultSet results = mockResultSet();
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenReturn(TestResultSetFuture.completed(results));
+
+    CompletableFuture<Long> count =
+        new PageReader(
+                session,
+                runnable -> {
+                  throw new RejectedExecutionException("shut down");
+                })
+            .read(new SimpleStatement("SELECT * FROM sunbird.user"), page -> {})
+            .toCompletableFuture();
+
+    try {
+      count.get();
+      fail("read did not fail");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+
+  private static ResultSet mockResultSet() {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    ColumnDefinitions.Definition definition =
+        TestColumnDefinitions.mockDefinition("id", DataType.text());
+    Mockito.when(columnDefinitions.asList()).thenReturn(Arrays.asList(definition));
+    Mockito.when(results.getColumnDefinitions()).thenReturn(columnDefinitions);
+    return results;
+  }
+
+  private static Row mockRow(String id) {
+    Row row = Mockito.mock(Row.class);
+    Mockito.when(row.get(Mockito.eq(0), Mockito.any(TypeCodec.class))).thenReturn(id);
+    return row;
+  }
+}
@@ -0,0 +1,65 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class PartitionBatchWriterTest {
+
+  @Test
+  public void testWriteGroupsStatementsByPartition() {
+    Session session = Mockito.mock(Session.class);
+    List<Statement> executed = new ArrayList<>();
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenAnswer(
+            invocation -> {
+              executed.add((Statement) invocation.getArguments()[0]);
+              return TestResultSetFuture.completed(null);
+            });
+
+    PartitionBatchWriter.Result result =
+        new PartitionBatchWriter(session, 2, 4, 0)
+            .write(createStatements(5), Arrays.asList("a", "a", "b", "a", "c"));
+
+    assertTrue(result.isSuccess());
+    assertEquals(4, executed.size());
+    assertTrue(executed.get(0) instanceof BatchStatement);
+    assertEquals(2, ((BatchStatement) executed.get(0)).size());
+  }
+
+  @Test
+  public void testWriteRetriesAndReportsFailedRecords() {
+    Session session = Mockito.mock(Session.class);
+    List<Statement> statements = createStatements(2);
+    Mockito.when(session.executeAsync(statements.get(0)))
+        .thenReturn(TestResultSetFuture.completed(null));
+    Mockito.when(session.executeAsync(statements.get(1)))
+        .thenAnswer(invocation -> TestResultSetFuture.failed(new IllegalStateException("timeout")));
+
+    PartitionBatchWriter.Result result =
+        new PartitionBatchWriter(session, 2, 4, 2).write(statements, Arrays.asList("a", "b"));
+
+    assertFalse(result.isSuccess());
+    assertTrue(result.isSuccess(0));
+    assertEquals(Arrays.asList(1), result.getFailedIndexes());
+    Mockito.verify(session, Mockito.times(3)).executeAsync(statements.get(1));
+  }
+
+  private static List<Statement> createStatements(int count) {
+    List<Statement> statements = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      statements.add(new SimpleStatement("INSERT INTO sunbird.user (id) VALUES ('" + i + "')"));
+    }
+    return statements;
+  }
+}
@@ -0,0 +1,131 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.TypeCodec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sunbird.common.TestColumnDefinitions;
+
+public class PartitionReaderTest {
+
+  private ScheduledExecutorService scheduler;
+  private Session session;
+  private AtomicInteger inFlight;
+  private AtomicInteger maxInFlight;
+
+  @Before
+  public void setUp() {
+    scheduler = Executors.newScheduledThreadPool(4);
+    inFlight = new AtomicInteger();
+    maxInFlight = new AtomicInteger();
+    session = mockSession();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testReadMergesRecordsInKeyOrder() {
+    List<Map<String, Object>> records =
+        new PartitionReader(session, 2)
+            .read("sunbird", "user", "id", Arrays.asList("u1", "u2", "u3", "u1", "u4"), null);
+
+    assertEquals(4, records.size());
+    assertEquals("u1", records.get(0).get("id"));
+    assertEquals("u4", records.get(3).get("id"));
+    assertTrue(maxInFlight.get() <= 2);
+    Mockito.verify(session, Mockito.times(4)).executeAsync(Mockito.any(Statement.class));
+  }
+
+  @Test
+  public void testReadStreamsAllRecords() {
+    List<Object> ids = new ArrayList<>();
+    long count =
+        new PartitionReader(session, 3)
+            .read(
+                "sunbird",
+                "user",
+                "id",
+                Arrays.asList("u1", "u2", "u3", "u4", "u5"),
+                null,
+                record -> ids.add(record.get("id")));
+
+    assertEquals(5, count);
+    assertEquals(new HashSet<>(Arrays.asList("u1", "u2", "u3", "u4", "u5")), new HashSet<>(ids));
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  private Session mockSession() {
+    Session session = Mockito.mock(Session.class);
+    PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+    Map<BoundStatement, Object> keys = new HashMap<>();
+    Mockito.when(session.prepare(Mockito.anyString())).thenReturn(prepared);
+    Mockito.when(prepared.bind(Mockito.<Object>anyVararg()))
+        .thenAnswer(
+            invocation -> {
+              BoundStatement statement = Mockito.mock(BoundStatement.class);
+              synchronized (keys) {
+                keys.put(statement, invocation.getArguments()[0]);
+              }
+              return statement;
+            });
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenAnswer(
+            invocation -> {
+              Object key;
+              synchronized (keys) {
+                key = keys.get(invocation.getArguments()[0]);
+              }
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              TestResultSetFuture future = new TestResultSetFuture();
+              // later keys complete first
+              long delay = 60 - 10L * (((String) key).charAt(1) - '0');
+              scheduler.schedule(
+                  () -> {
+                    inFlight.decrementAndGet();
+                    future.set(mockResultSet(key));
+                  },
+                  delay,
+                  TimeUnit.MILLISECONDS);
+              return future;
+            });
+    return session;
+  }
+
+  private static ResultSet mockResultSet(Object key) {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    ColumnDefinitions.Definition definition =
+        TestColumnDefinitions.mockDefinition("id", DataType.text());
+    Mockito.when(columnDefinitions.asList()).thenReturn(Arrays.asList(definition));
+    Mockito.when(results.getColumnDefinitions()).thenReturn(columnDefinitions);
+    Row row = Mockito.mock(Row.class);
+    Mockito.when(row.get(Mockito.eq(0), Mockito.any(TypeCodec.class))).thenReturn(key);
+    Mockito.when(results.iterator()).thenAnswer(invocation -> Arrays.asList(row).iterator());
+    return results;
+  }
+}
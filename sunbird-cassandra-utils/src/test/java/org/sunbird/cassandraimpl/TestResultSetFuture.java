@@ -0,0 +1,59 @@
+package org.sunbird.cassandraimpl;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** Result set future returned by mocked sessions, completed by the test. */
+class TestResultSetFuture extends AbstractFuture<ResultSet> implements ResultSetFuture {
+
+  static TestResultSetFuture completed(ResultSet results) {
+    TestResultSetFuture future = new TestResultSetFuture();
+    future.set(results);
+    return future;
+  }
+
+  static TestResultSetFuture failed(Throwable error) {
+    TestResultSetFuture future = new TestResultSetFuture();
+    future.setException(error);
+    return future;
+  }
+
+  @Override
+  public boolean set(ResultSet value) {
+    return super.set(value);
+  }
+
+  @Override
+  public boolean setException(Throwable error) {
+    return super.setException(error);
+  }
+
+  @Override
+  public ResultSet getUninterruptibly() {
+    try {
+      return Uninterruptibles.getUninterruptibly(this);
+    } catch (ExecutionException e) {
+      throw propagate(e.getCause());
+    }
+  }
+
+  @Override
+  public ResultSet getUninterruptibly(long timeout, TimeUnit unit) throws TimeoutException {
+    try {
+      return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+    } catch (ExecutionException e) {
+      throw propagate(e.getCause());
+    }
+  }
+
+  private static RuntimeException propagate(Throwable cause) {
+    return cause instanceof RuntimeException
+        ? (RuntimeException) cause
+        : new IllegalStateException(cause);
+  }
+}
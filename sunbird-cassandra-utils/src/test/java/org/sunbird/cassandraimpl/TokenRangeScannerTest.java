@@ -0,0 +1,157 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.Token;
+import com.datastax.driver.core.TokenRange;
+import com.datastax.driver.core.TypeCodec;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sunbird.common.TestColumnDefinitions;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.responsecode.ResponseCode;
+
+public class TokenRangeScannerTest {
+
+  private Session session;
+  private Metadata metadata;
+  private BoundStatement statement;
+
+  @Before
+  public void setUp() throws Exception {
+    session = Mockito.mock(Session.class);
+    Cluster cluster = Mockito.mock(Cluster.class);
+    metadata = Mockito.mock(Metadata.class);
+    Mockito.when(session.getCluster()).thenReturn(cluster);
+    Mockito.when(cluster.getMetadata()).thenReturn(metadata);
+    Mockito.when(metadata.getTokenRanges())
+        .thenReturn(
+            new HashSet<>(
+                Arrays.asList(
+                    newRange("-9223372036854775808", "0"), newRange("0", "-9223372036854775808"))));
+
+    PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+    statement = Mockito.mock(BoundStatement.class);
+    Mockito.when(session.prepare(Mockito.anyString())).thenReturn(prepared);
+    Mockito.when(prepared.bind()).thenReturn(statement);
+    Mockito.when(statement.setToken(Mockito.anyInt(), Mockito.any(Token.class)))
+        .thenReturn(statement);
+  }
+
+  @Test
+  public void testScanReadsAllRanges() {
+    mockTable("sunbird", "user");
+    ResultSet first = mockResultSet("u1");
+    ResultSet second = mockResultSet("u2", "u3");
+    ResultSet empty = mockResultSet();
+    Mockito.when(session.execute(statement)).thenReturn(first, second, empty);
+    List<Object> ids = new CopyOnWriteArrayList<>();
+
+    long count =
+        new TokenRangeScanner(session)
+            .scan("sunbird", "user", null, 4, record -> ids.add(record.get(JsonKey.ID)));
+
+    assertEquals(3, count);
+    Collections.sort(ids, (a, b) -> ((String) a).compareTo((String) b));
+    assertEquals(Arrays.asList("u1", "u2", "u3"), ids);
+    Mockito.verify(session, Mockito.times(4)).execute(statement);
+  }
+
+  @Test
+  public void testScanFailureMapsToServerError() {
+    mockTable("sunbird", "user");
+    Mockito.when(session.execute(statement)).thenThrow(new IllegalStateException("timeout"));
+
+    try {
+      new TokenRangeScanner(session).scan("sunbird", "user", null, 2, record -> {});
+      fail("scan did not fail");
+    } catch (ProjectCommonException e) {
+      assertEquals(ResponseCode.SERVER_ERROR.getErrorCode(), e.getCode());
+    }
+  }
+
+  @Test
+  public void testScanOfUnknownKeyspaceMapsToServerError() {
+    try {
+      new TokenRangeScanner(session).scan("unknown", "user", null, 2, record -> {});
+      fail("scan did not fail");
+    } catch (ProjectCommonException e) {
+      assertEquals(ResponseCode.SERVER_ERROR.getErrorCode(), e.getCode());
+    }
+    Mockito.verify(session, Mockito.never()).execute(Mockito.any(BoundStatement.class));
+  }
+
+  @Test
+  public void testGetRangesSplitsToRequestedCount() {
+    List<TokenRange> ranges = new TokenRangeScanner(session).getRanges(4);
+
+    assertEquals(4, ranges.size());
+    for (int i = 1; i < ranges.size(); i++) {
+      assertTrue(ranges.get(i - 1).compareTo(ranges.get(i)) < 0);
+    }
+  }
+
+  private void mockTable(String keyspaceName, String tableName) {
+    KeyspaceMetadata keyspace = Mockito.mock(KeyspaceMetadata.class);
+    TableMetadata table = Mockito.mock(TableMetadata.class);
+    ColumnMetadata column = Mockito.mock(ColumnMetadata.class);
+    Mockito.when(metadata.getKeyspace(keyspaceName)).thenReturn(keyspace);
+    Mockito.when(keyspace.getTable(tableName)).thenReturn(table);
+    Mockito.when(table.getPartitionKey()).thenReturn(Collections.singletonList(column));
+    Mockito.when(column.getName()).thenReturn(JsonKey.ID);
+  }
+
+  private static ResultSet mockResultSet(String... ids) {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    Mockito.when(columnDefinitions.asList())
+        .thenReturn(
+            Arrays.asList(TestColumnDefinitions.mockDefinition(JsonKey.ID, DataType.text())));
+    Mockito.when(results.getColumnDefinitions()).thenReturn(columnDefinitions);
+    Row[] rows = new Row[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      rows[i] = Mockito.mock(Row.class);
+      Mockito.when(rows[i].get(Mockito.eq(0), Mockito.any(TypeCodec.class))).thenReturn(ids[i]);
+    }
+    Mockito.when(results.iterator()).thenAnswer(invocation -> Arrays.asList(rows).iterator());
+    return results;
+  }
+
+  /** Token range of the Murmur3 partitioner, which the driver only builds from cluster metadata. */
+  private static TokenRange newRange(String start, String end) throws Exception {
+    Method getFactory = Token.class.getDeclaredMethod("getFactory", String.class);
+    getFactory.setAccessible(true);
+    Object factory = getFactory.invoke(null, "Murmur3Partitioner");
+    Class<?> factoryClass = factory.getClass().getSuperclass();
+    Method fromString = factoryClass.getDeclaredMethod("fromString", String.class);
+    fromString.setAccessible(true);
+    Constructor<TokenRange> constructor =
+        TokenRange.class.getDeclaredConstructor(Token.class, Token.class, factoryClass);
+    constructor.setAccessible(true);
+    return constructor.newInstance(
+        fromString.invoke(factory, start), fromString.invoke(factory, end), factory);
+  }
+}
@@ -0,0 +1,192 @@
+package org.sunbird.cassandraimpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sunbird.common.Constants;
+import org.sunbird.common.exception.ProjectCommonException;
+import org.sunbird.common.models.response.Response;
+import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.helper.NearCache;
+
+public class WriteBehindBufferTest {
+
+  private Session session;
+  private List<String> queries;
+  private NearCache nearCache;
+  private WriteBehindBuffer buffer;
+
+  @Before
+  public void setUp() {
+    session = Mockito.mock(Session.class, Mockito.RETURNS_DEEP_STUBS);
+    queries = Collections.synchronizedList(new ArrayList<>());
+    Mockito.when(session.executeAsync(Mockito.any(Statement.class)))
+        .thenAnswer(
+            invocation -> {
+              // values of built statements are only inlined by toString
+              queries.add(invocation.getArguments()[0].toString());
+              return TestResultSetFuture.completed(null);
+            });
+    nearCache = new NearCache(Collections.singletonMap("user", new int[] {100, 60}));
+    buffer =
+        new WriteBehindBuffer(
+            new HashSet<>(Arrays.asList("user")),
+            keyspace -> session,
+            TimeUnit.HOURS.toMillis(1),
+            1000,
+            WriteBehindBuffer.Durability.ASYNC,
+            nearCache);
+  }
+
+  @Test
+  public void testFlushWritesMergedUpdateOfRecord() {
+    CompletableFuture<Void> first =
+        buffer
+            .update("sunbird", "user", key("u1"), Collections.singletonMap("lastLoginTime", 1L))
+            .toCompletableFuture();
+    buffer.update("sunbird", "user", key("u1"), Collections.singletonMap("lastLoginTime", 2L));
+    buffer.putMapEntry("sunbird", "user", key("u1"), "attempts", "login", 3);
+    buffer.putMapEntry("sunbird", "user", key("u1"), "attempts", "logout", 1);
+    buffer.removeMapEntry("sunbird", "user", key("u1"), "attempts", "logout");
+    assertFalse(first.isDone());
+
+    buffer.flush();
+
+    assertTrue(first.isDone());
+    assertEquals(
+        Collections.singletonList(
+            "UPDATE sunbird.user SET lastLoginTime=2,attempts=attempts+{'login':3},"
+                + "attempts=attempts-{'logout'} WHERE id='u1';"),
+        queries);
+  }
+
+  @Test
+  public void testSetOfMapColumnReplacesEntriesPutBefore() {
+    buffer.putMapEntry("sunbird", "user", key("u1"), "attempts", "login", 3);
+    buffer.update(
+        "sunbird", "user", key("u1"), Collections.singletonMap("attempts", new HashMap<>()));
+    buffer.putMapEntry("sunbird", "user", key("u1"), "attempts", "logout", 1);
+
+    buffer.flush();
+
+    assertEquals(
+        Collections.singletonList("UPDATE sunbird.user SET attempts={'logout':1} WHERE id='u1';"),
+        queries);
+  }
+
+  @Test
+  public void testFlushInvalidatesCachedRecords() {
+    AtomicInteger reads = new AtomicInteger();
+    nearCache.getRecordById("sunbird", "user", "u1", null, fields -> read(reads));
+    buffer.update("sunbird", "user", key("u1"), Collections.singletonMap("lastLoginTime", 1L));
+    nearCache.getRecordById("sunbird", "user", "u1", null, fields -> read(reads));
+    assertEquals(1, reads.get());
+
+    buffer.flush();
+    nearCache.getRecordById("sunbird", "user", "u1", null, fields -> read(reads));
+
+    assertEquals(2, reads.get());
+  }
+
+  @Test
+  public void testFlushOfRecordWritesOnlyItsPendingUpdate() {
+    buffer.update("sunbird", "user", key("u1"), Collections.singletonMap("lastLoginTime", 1L));
+    buffer.update("sunbird", "user", key("u2"), Collections.singletonMap("lastLoginTime", 2L));
+    Map<String, Object> record = new HashMap<>(key("u1"));
+    record.put("firstName", "Jane");
+
+    buffer.flush("sunbird", "user", record);
+
+    assertEquals(
+        Collections.singletonList("UPDATE sunbird.user SET lastLoginTime=1 WHERE id='u1';"),
+        queries);
+    buffer.flush();
+    assertEquals(2, queries.size());
+  }
+
+  @Test
+  public void testDiscardDropsPendingUpdateOfDeletedRecord() {
+    CompletableFuture<Void> written =
+        buffer
+            .update("sunbird", "user", key("u1"), Collections.singletonMap("lastLoginTime", 1L))
+            .toCompletableFuture();
+
+    buffer.discard("sunbird", "user", key("u1"));
+    buffer.flush();
+
+    assertTrue(written.isDone());
+    assertTrue(queries.isEmpty());
+  }
+
+  @Test
+  public void testUpdateOfUnknownColumnFailsBeforeBuffering() {
+    Mockito.when(
+            session
+                .getCluster()
+                .getMetadata()
+                .getKeyspace("sunbird")
+                .getTable("user")
+                .getColumn("dummy"))
+        .thenReturn(null);
+
+    try {
+      buffer.update("sunbird", "user", key("u1"), Collections.singletonMap("dummy", 1L));
+      fail("update of unknown column was buffered");
+    } catch (ProjectCommonException e) {
+      assertEquals(ResponseCode.invalidPropertyError.getErrorCode(), e.getCode());
+    }
+    buffer.flush();
+    assertTrue(queries.isEmpty());
+  }
+
+  @Test
+  public void testFailedWriteFailsUpdate() throws InterruptedException {
+    Mockito.doReturn(TestResultSetFuture.failed(new IllegalStateException("down")))
+        .when(session)
+        .executeAsync(Mockito.any(Statement.class));
+    CompletableFuture<Void> written =
+        buffer
+            .update("sunbird", "user", key("u1"), Collections.singletonMap("lastLoginTime", 1L))
+            .toCompletableFuture();
+
+    buffer.flush();
+
+    try {
+      written.get();
+      fail("failed write acknowledged");
+    } catch (ExecutionException e) {
+      assertEquals("down", e.getCause().getMessage());
+    }
+  }
+
+  private static Map<String, Object> key(String id) {
+    return Collections.singletonMap(Constants.IDENTIFIER, id);
+  }
+
+  private static Response read(AtomicInteger reads) {
+    reads.incrementAndGet();
+    Map<String, Object> record = new HashMap<>();
+    record.put(Constants.IDENTIFIER, "u1");
+    Response response = new Response();
+    response.put(Constants.RESPONSE, new ArrayList<>(Collections.singletonList(record)));
+    return response;
+  }
+}
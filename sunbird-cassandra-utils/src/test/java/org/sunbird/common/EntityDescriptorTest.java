@@ -0,0 +1,74 @@
+package org.sunbird.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.TypeCodec;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sunbird.cassandraannotation.ClusteringKey;
+import org.sunbird.cassandraannotation.PartitioningKey;
+import org.sunbird.common.models.util.JsonKey;
+
+public class EntityDescriptorTest {
+
+  @Test
+  public void testBatchUpdateQuerySplitsPrimaryKey() {
+    Map<String, Map<String, Object>> map =
+        CassandraUtil.batchUpdateQuery(new UserBadge("u1", "b1", "assigned"));
+
+    assertEquals(2, map.get(JsonKey.PRIMARY_KEY).size());
+    assertEquals("u1", map.get(JsonKey.PRIMARY_KEY).get("userId"));
+    assertEquals("b1", map.get(JsonKey.PRIMARY_KEY).get("badgeId"));
+    assertEquals("assigned", map.get(JsonKey.NON_PRIMARY_KEY).get("status"));
+    assertFalse(map.get(JsonKey.NON_PRIMARY_KEY).containsKey("serialVersionUID"));
+  }
+
+  @Test
+  public void testCreateEntitiesMapsColumnsToFields() {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    List<ColumnDefinitions.Definition> definitions =
+        Arrays.asList(
+            TestColumnDefinitions.mockDefinition("userid", DataType.text()),
+            TestColumnDefinitions.mockDefinition("status", DataType.text()));
+    Mockito.when(columnDefinitions.asList()).thenReturn(definitions);
+    Mockito.when(results.getColumnDefinitions()).thenReturn(columnDefinitions);
+    Row row = Mockito.mock(Row.class);
+    Mockito.when(row.get(Mockito.eq(0), Mockito.any(TypeCodec.class))).thenReturn("u1");
+    Mockito.when(row.get(Mockito.eq(1), Mockito.any(TypeCodec.class))).thenReturn("revoked");
+    Mockito.when(results.iterator()).thenReturn(Arrays.asList(row).iterator());
+
+    List<UserBadge> badges = CassandraUtil.createEntities(results, UserBadge.class);
+
+    assertEquals(1, badges.size());
+    assertEquals("u1", badges.get(0).userId);
+    assertEquals("revoked", badges.get(0).status);
+    assertNull(badges.get(0).badgeId);
+  }
+
+  private static class UserBadge {
+
+    private static final long serialVersionUID = 1L;
+
+    @PartitioningKey private String userId;
+    @ClusteringKey private String badgeId;
+    private String status;
+
+    UserBadge() {}
+
+    UserBadge(String userId, String badgeId, String status) {
+      this.userId = userId;
+      this.badgeId = badgeId;
+      this.status = status;
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package org.sunbird.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class QueryShapeTest {
+
+  @Test
+  public void testSameShapeForDifferentValues() {
+    Map<String, Object> filters = new HashMap<>();
+    filters.put("userId", "user1");
+    filters.put("orgId", Arrays.asList("org1", "org2"));
+    Map<String, Object> otherFilters = new HashMap<>();
+    otherFilters.put("orgId", Arrays.asList("org3", "org4", "org5"));
+    otherFilters.put("userId", "user2");
+
+    QueryShape shape = new QueryShape("sunbird", "user_org", null).where(filters);
+    QueryShape otherShape = new QueryShape("sunbird", "user_org", null).where(otherFilters);
+
+    assertEquals(shape.getKey(), otherShape.getKey());
+    assertArrayEquals(new Object[] {Arrays.asList("org1", "org2"), "user1"}, shape.getValues());
+  }
+
+  @Test
+  public void testDifferentShapeForDifferentOperators() {
+    Map<String, Object> filters = new HashMap<>();
+    filters.put("userId", "user1");
+    Map<String, Object> otherFilters = new HashMap<>();
+    otherFilters.put("userId", Arrays.asList("user1"));
+
+    assertNotEquals(
+        new QueryShape("sunbird", "user", null).where(filters).getKey(),
+        new QueryShape("sunbird", "user", null).where(otherFilters).getKey());
+    assertNotEquals(
+        new QueryShape("sunbird", "user", null).where(filters).getKey(),
+        new QueryShape("sunbird", "user", null).where(filters).allowFiltering().getKey());
+  }
+
+  @Test
+  public void testGetQueryStringWithBindMarkers() {
+    Map<String, Object> range = new HashMap<>();
+    range.put(Constants.GTE, 10);
+    Map<String, Object> filters = new HashMap<>();
+    filters.put("id", Arrays.asList("1", "2"));
+    filters.put("createdOn", range);
+
+    QueryShape shape =
+        new QueryShape("sunbird", "user", Arrays.asList("id", "name")).whereWithRange(filters);
+
+    assertEquals(
+        "SELECT id,name FROM sunbird.user WHERE createdOn>=? AND id IN ?;",
+        shape.getQueryString());
+    assertArrayEquals(new Object[] {10, Arrays.asList("1", "2")}, shape.getValues());
+  }
+}
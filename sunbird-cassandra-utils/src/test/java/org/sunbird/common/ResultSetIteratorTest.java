@@ -0,0 +1,64 @@
+package org.sunbird.common;
+
+import static org.junit.Assert.assertEquals;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.TypeCodec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ResultSetIteratorTest {
+
+  private static final int PAGE_SIZE = 4;
+
+  @Test
+  public void testIteratorPrefetchesNextPageOnce() {
+    AtomicInteger consumed = new AtomicInteger();
+    ResultSet results = mockResultSet(consumed);
+
+    List<Map<String, Object>> records = new ArrayList<>();
+    new ResultSetIterator(results).forEachRemaining(records::add);
+
+    assertEquals(PAGE_SIZE, records.size());
+    assertEquals("user3", records.get(3).get("id"));
+    Mockito.verify(results, Mockito.times(1)).fetchMoreResults();
+  }
+
+  @Test
+  public void testStreamIsLazy() {
+    AtomicInteger consumed = new AtomicInteger();
+    ResultSet results = mockResultSet(consumed);
+
+    assertEquals(1, CassandraUtil.createResultStream(results).limit(1).count());
+    assertEquals(1, consumed.get());
+  }
+
+  private static ResultSet mockResultSet(AtomicInteger consumed) {
+    ResultSet results = Mockito.mock(ResultSet.class);
+    ColumnDefinitions columnDefinitions = Mockito.mock(ColumnDefinitions.class);
+    ColumnDefinitions.Definition definition =
+        TestColumnDefinitions.mockDefinition("id", DataType.text());
+    Mockito.when(columnDefinitions.asList()).thenReturn(Arrays.asList(definition));
+    Mockito.when(results.getColumnDefinitions()).thenReturn(columnDefinitions);
+    Mockito.when(results.getAvailableWithoutFetching())
+        .thenAnswer(invocation -> PAGE_SIZE - consumed.get());
+    Mockito.when(results.isExhausted()).thenAnswer(invocation -> consumed.get() == PAGE_SIZE);
+    Mockito.when(results.one())
+        .thenAnswer(
+            invocation -> {
+              Row row = Mockito.mock(Row.class);
+              Mockito.when(row.get(Mockito.eq(0), Mockito.any(TypeCodec.class)))
+                  .thenReturn("user" + consumed.getAndIncrement());
+              return row;
+            });
+    return results;
+  }
+}
@@ -0,0 +1,39 @@
+package org.sunbird.common;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.DataType;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/** Column definitions of mocked result sets. */
+public final class TestColumnDefinitions {
+
+  private TestColumnDefinitions() {}
+
+  /**
+   * Mock the definition of a column. Its equals is final, so the definition is answered without
+   * stubbing, which would call equals of the definition stubbed before.
+   *
+   * @param name Column name
+   * @param type Column type
+   * @return Definition of the column
+   */
+  public static ColumnDefinitions.Definition mockDefinition(String name, DataType type) {
+    return Mockito.mock(
+        ColumnDefinitions.Definition.class,
+        new Answer<Object>() {
+          @Override
+          public Object answer(InvocationOnMock invocation) {
+            switch (invocation.getMethod().getName()) {
+              case "getName":
+                return name;
+              case "getType":
+                return type;
+              default:
+                return null;
+            }
+          }
+        });
+  }
+}
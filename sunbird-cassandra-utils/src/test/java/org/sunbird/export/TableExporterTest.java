@@ -0,0 +1,179 @@
+package org.sunbird.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.sunbird.bulkload.SSTableBulkLoader;
+import org.sunbird.cassandra.CassandraOperation;
+
+public class TableExporterTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testExportWritesOneShardPerRange() throws IOException {
+    CassandraOperation cassandraOperation = mockCassandraOperation();
+    Path output = folder.getRoot().toPath();
+
+    TableExporter.Result result =
+        new TableExporter(
+                cassandraOperation,
+                "sunbird",
+                "user",
+                Arrays.asList("id", "roles"),
+                TableExporter.Format.CSV,
+                output)
+            .export(2, 2);
+
+    assertEquals(2, result.getRanges());
+    assertEquals(2, result.getExportedRanges());
+    assertEquals(2, result.getRecords());
+    assertEquals(
+        Arrays.asList("id,roles", "u0,\"[\"\"PUBLIC\"\"]\""),
+        read(output.resolve("user-0.csv.gz")));
+    assertEquals(
+        Arrays.asList("id,roles", "u1,\"[\"\"PUBLIC\"\"]\""),
+        read(output.resolve("user-1.csv.gz")));
+  }
+
+  @Test
+  public void testExportResumesFromRangesNotDone() throws IOException {
+    CassandraOperation cassandraOperation = mockCassandraOperation();
+    Path output = folder.getRoot().toPath();
+    Files.write(output.resolve("user.ranges"), Arrays.asList("0", "1"));
+    Files.write(output.resolve("user.done"), Collections.singletonList("0"));
+
+    TableExporter.Result result =
+        new TableExporter(
+                cassandraOperation,
+                "sunbird",
+                "user",
+                null,
+                TableExporter.Format.JSON_LINES,
+                output)
+            .export(2, 2);
+
+    assertEquals(1, result.getExportedRanges());
+    assertFalse(Files.exists(output.resolve("user-0.jsonl.gz")));
+    assertEquals(
+        Collections.singletonList("{\"id\":\"u1\",\"roles\":[\"PUBLIC\"]}"),
+        read(output.resolve("user-1.jsonl.gz")));
+    assertEquals(Arrays.asList("0", "1"), Files.readAllLines(output.resolve("user.done")));
+    Mockito.verify(cassandraOperation, Mockito.never())
+        .getTokenRanges(Mockito.anyString(), Mockito.anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testExportedShardsLoadBackWithColumnNames() throws IOException {
+    CassandraOperation cassandraOperation = mockCassandraOperation();
+    // courseid is read as the property courseId
+    Mockito.when(
+            cassandraOperation.scanTokenRange(
+                Mockito.eq("sunbird"),
+                Mockito.eq("user_courses"),
+                Mockito.anyList(),
+                Mockito.anyString(),
+                Mockito.any(Consumer.class)))
+        .thenAnswer(
+            invocation -> {
+              Map<String, Object> record = new LinkedHashMap<>();
+              record.put("id", "u" + invocation.getArguments()[3]);
+              record.put("courseId", "c" + invocation.getArguments()[3]);
+              ((Consumer<Map<String, Object>>) invocation.getArguments()[4]).accept(record);
+              return 1L;
+            });
+    Path csv = folder.newFolder("csv").toPath();
+    Path json = folder.newFolder("json").toPath();
+
+    new TableExporter(
+            cassandraOperation, "sunbird", "user_courses", null, TableExporter.Format.CSV, csv)
+        .export(2, 2);
+    new TableExporter(
+            cassandraOperation,
+            "sunbird",
+            "user_courses",
+            Arrays.asList("courseId", "id"),
+            TableExporter.Format.JSON_LINES,
+            json)
+        .export(2, 2);
+
+    assertEquals(Arrays.asList("id,courseid", "u0,c0"), read(csv.resolve("user_courses-0.csv.gz")));
+    assertEquals(
+        Collections.singletonList("{\"id\":\"u1\",\"courseid\":\"c1\"}"),
+        read(json.resolve("user_courses-1.jsonl.gz")));
+    Mockito.verify(cassandraOperation, Mockito.times(2))
+        .scanTokenRange(
+            Mockito.eq("sunbird"),
+            Mockito.eq("user_courses"),
+            Mockito.eq(Arrays.asList("courseid", "id")),
+            Mockito.anyString(),
+            Mockito.any(Consumer.class));
+    SSTableBulkLoader.Result result =
+        new SSTableBulkLoader(
+                "CREATE TABLE sunbird.user_courses_export_test "
+                    + "(courseid text, id text, PRIMARY KEY (courseid, id))",
+                folder.newFolder("sstables"),
+                2,
+                1)
+            .load(
+                Arrays.asList(
+                    csv.resolve("user_courses-0.csv.gz").toFile(),
+                    csv.resolve("user_courses-1.csv.gz").toFile(),
+                    json.resolve("user_courses-0.jsonl.gz").toFile(),
+                    json.resolve("user_courses-1.jsonl.gz").toFile()));
+    // a row without its key columns would be rejected
+    assertEquals(4, result.getRows());
+    assertEquals(0, result.getRejected());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static CassandraOperation mockCassandraOperation() {
+    CassandraOperation cassandraOperation = Mockito.mock(CassandraOperation.class);
+    Mockito.when(cassandraOperation.getTokenRanges("sunbird", 2))
+        .thenReturn(Arrays.asList("0", "1"));
+    Mockito.when(
+            cassandraOperation.scanTokenRange(
+                Mockito.eq("sunbird"),
+                Mockito.eq("user"),
+                Mockito.anyList(),
+                Mockito.anyString(),
+                Mockito.any(Consumer.class)))
+        .thenAnswer(
+            invocation -> {
+              Map<String, Object> record = new LinkedHashMap<>();
+              record.put("id", "u" + invocation.getArguments()[3]);
+              record.put("roles", Collections.singletonList("PUBLIC"));
+              ((Consumer<Map<String, Object>>) invocation.getArguments()[4]).accept(record);
+              return 1L;
+            });
+    return cassandraOperation;
+  }
+
+  private static List<String> read(Path file) throws IOException {
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    }
+  }
+}
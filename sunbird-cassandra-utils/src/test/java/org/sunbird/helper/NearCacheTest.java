@@ -0,0 +1,105 @@
+package org.sunbird.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.response.Response;
+
+public class NearCacheTest {
+
+  private NearCache nearCache;
+  private AtomicInteger reads;
+
+  @Before
+  public void setUp() {
+    nearCache = new NearCache(Collections.singletonMap("organisation", new int[] {100, 60}));
+    reads = new AtomicInteger();
+  }
+
+  @Test
+  public void testRecordByIdReadOnce() {
+    nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+    Response response =
+        nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+
+    assertEquals(1, reads.get());
+    assertEquals("org1", getRecords(response).get(0).get("id"));
+    assertEquals(1, nearCache.getStats().get("sunbird.organisation").hitCount());
+  }
+
+  @Test
+  public void testRecordByIdProjectedOnFields() {
+    nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+    Response response =
+        nearCache.getRecordById(
+            "sunbird", "organisation", "org1", Arrays.asList("orgName"), this::read);
+
+    assertEquals(1, reads.get());
+    assertEquals(1, getRecords(response).get(0).size());
+    assertEquals("name of org1", getRecords(response).get(0).get("orgName"));
+  }
+
+  @Test
+  public void testCachedRecordNotModifiedThroughResponse() {
+    Response response =
+        nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+    getRecords(response).get(0).put("orgName", "changed");
+
+    response = nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+    assertEquals("name of org1", getRecords(response).get(0).get("orgName"));
+  }
+
+  @Test
+  public void testInvalidateRecord() {
+    nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+    nearCache.getRecordById("sunbird", "organisation", "org2", null, this::read);
+    nearCache.getRecordsByProperty(
+        "sunbird", "organisation", "channel", "ch", null, () -> read(null));
+
+    nearCache.invalidate("sunbird", "organisation", "org1");
+    nearCache.getRecordById("sunbird", "organisation", "org1", null, this::read);
+    nearCache.getRecordById("sunbird", "organisation", "org2", null, this::read);
+    nearCache.getRecordsByProperty(
+        "sunbird", "organisation", "channel", "ch", null, () -> read(null));
+
+    assertEquals(5, reads.get());
+  }
+
+  @Test
+  public void testTableNotCached() {
+    assertFalse(nearCache.isEnabled("user"));
+    assertTrue(nearCache.isEnabled("organisation"));
+    nearCache.getRecordById("sunbird", "user", "user1", null, this::read);
+    nearCache.getRecordById("sunbird", "user", "user1", null, this::read);
+
+    assertEquals(2, reads.get());
+  }
+
+  private Response read(List<String> fields) {
+    int count = reads.incrementAndGet();
+    Map<String, Object> record = new HashMap<>();
+    record.put("id", "org" + count);
+    record.put("orgName", "name of org" + count);
+    List<Map<String, Object>> records = new ArrayList<>();
+    records.add(record);
+    Response response = new Response();
+    response.put(Constants.RESPONSE, records);
+    return response;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Map<String, Object>> getRecords(Response response) {
+    return (List<Map<String, Object>>) response.get(Constants.RESPONSE);
+  }
+}
@@ -0,0 +1,104 @@
+package org.sunbird.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class PreparedStatementCacheTest {
+
+  @Test
+  public void testGetStatementPreparesOncePerKey() {
+    Session session = Mockito.mock(Session.class);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    Mockito.when(session.prepare(Mockito.anyString())).thenReturn(statement);
+    PreparedStatementCache cache = PreparedStatementCache.getInstance(session);
+    String key =
+        PreparedStatementCache.createKey("insert", "sunbird", "user", Arrays.asList("id", "name"));
+
+    assertSame(statement, cache.getStatement(key, () -> "INSERT INTO sunbird.user"));
+    assertSame(statement, cache.getStatement(key, () -> "INSERT INTO sunbird.user"));
+    Mockito.verify(session, Mockito.times(1)).prepare(Mockito.anyString());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testGetStatementDoesNotCacheFailure() {
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.prepare(Mockito.anyString()))
+        .thenThrow(new IllegalArgumentException("Undefined column name"));
+    PreparedStatementCache cache = PreparedStatementCache.getInstance(session);
+    String key = PreparedStatementCache.createKey("insert", "sunbird", "user", Arrays.asList("x"));
+
+    Exception exception = null;
+    try {
+      cache.getStatement(key, () -> "INSERT INTO sunbird.user");
+    } catch (IllegalArgumentException e) {
+      exception = e;
+    }
+    assertEquals("Undefined column name", exception.getMessage());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGetStatementAsyncSharesPreparationOfKey() throws Exception {
+    Session session = Mockito.mock(Session.class);
+    PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+    SettableFuture<PreparedStatement> prepared = SettableFuture.create();
+    Mockito.when(session.prepareAsync(Mockito.anyString())).thenReturn(prepared);
+    PreparedStatementCache cache = PreparedStatementCache.getInstance(session);
+    String key = PreparedStatementCache.createKey("select", "sunbird", "user", Arrays.asList("id"));
+
+    CompletableFuture<PreparedStatement> first =
+        cache.getStatementAsync(key, () -> "SELECT id FROM sunbird.user").toCompletableFuture();
+    CompletableFuture<PreparedStatement> second =
+        cache.getStatementAsync(key, () -> "SELECT id FROM sunbird.user").toCompletableFuture();
+    prepared.set(statement);
+
+    assertSame(statement, first.get());
+    assertSame(statement, second.get());
+    assertSame(statement, cache.getStatement(key, () -> "SELECT id FROM sunbird.user"));
+    Mockito.verify(session, Mockito.times(1)).prepareAsync(Mockito.anyString());
+    Mockito.verify(session, Mockito.never()).prepare(Mockito.anyString());
+  }
+
+  @Test
+  public void testGetStatementAsyncDoesNotCacheFailure() {
+    Session session = Mockito.mock(Session.class);
+    Mockito.when(session.prepareAsync(Mockito.anyString()))
+        .thenReturn(
+            Futures.<PreparedStatement>immediateFailedFuture(
+                new IllegalArgumentException("Undefined column name")));
+    PreparedStatementCache cache = PreparedStatementCache.getInstance(session);
+    String key = PreparedStatementCache.createKey("insert", "sunbird", "user", Arrays.asList("x"));
+
+    assertTrue(
+        cache
+            .getStatementAsync(key, () -> "INSERT INTO sunbird.user")
+            .toCompletableFuture()
+            .isCompletedExceptionally());
+    cache.getStatementAsync(key, () -> "INSERT INTO sunbird.user");
+    Mockito.verify(session, Mockito.times(2)).prepareAsync(Mockito.anyString());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testGetInstanceIsPerSession() {
+    Session session = Mockito.mock(Session.class);
+    Session otherSession = Mockito.mock(Session.class);
+    assertSame(
+        PreparedStatementCache.getInstance(session), PreparedStatementCache.getInstance(session));
+    assertEquals(
+        false,
+        PreparedStatementCache.getInstance(session)
+            == PreparedStatementCache.getInstance(otherSession));
+  }
+}
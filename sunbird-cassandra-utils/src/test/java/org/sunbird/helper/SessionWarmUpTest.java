@@ -0,0 +1,107 @@
+package org.sunbird.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class SessionWarmUpTest {
+
+  private Path statementsFile;
+
+  @Before
+  public void setUp() throws IOException {
+    statementsFile = File.createTempFile("warm-up", ".tsv").toPath();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(statementsFile);
+  }
+
+  @Test
+  public void testWarmUpPreparesStatementsRecordedAtShutdown() {
+    Session previous = mockSession();
+    Session other = mockSession();
+    String key =
+        PreparedStatementCache.createKey("select", "sunbird", "user", Arrays.asList("id"));
+    PreparedStatementCache.getInstance(previous)
+        .getStatement(key, () -> "SELECT id FROM sunbird.user WHERE id=?");
+    PreparedStatementCache.getInstance(other)
+        .getStatement("select:system", () -> "SELECT * FROM system.local");
+    Map<String, Session> sessions = new HashMap<>();
+    sessions.put("sunbird", previous);
+    sessions.put("system", other);
+    SessionWarmUp warmUp = new SessionWarmUp(0, 1000, Collections.emptyList(), statementsFile);
+    warmUp.record(sessions);
+
+    Session session = mockSession();
+    warmUp.warmUp(session, "sunbird");
+
+    Mockito.verify(session).prepare("SELECT id FROM sunbird.user WHERE id=?");
+    Mockito.verify(session, Mockito.times(1)).prepare(Mockito.anyString());
+    assertEquals(
+        Collections.singletonMap(key, "SELECT id FROM sunbird.user WHERE id=?"),
+        PreparedStatementCache.getInstance(session).getQueries());
+  }
+
+  @Test
+  public void testSessionIsReadyOnceWarmedUp() throws Exception {
+    Session session = mockSession();
+    CountDownLatch warmingUp = new CountDownLatch(1);
+    CountDownLatch canaryDone = new CountDownLatch(1);
+    Mockito.when(session.execute(Mockito.any(Statement.class)))
+        .thenAnswer(
+            invocation -> {
+              warmingUp.countDown();
+              canaryDone.await(10, TimeUnit.SECONDS);
+              return null;
+            });
+    SessionWarmUp warmUp = new SessionWarmUp(1, 1000, Collections.emptyList(), null);
+    CassandraConnectionManager connectionManager = new CassandraConnectionManagerImpl("standalone");
+    Thread connect =
+        new Thread(
+            () ->
+                CassandraConnectionManagerImpl.addSession(
+                    "warm_up_test", Mockito.mock(Cluster.class), session, warmUp));
+    connect.start();
+
+    assertTrue(warmingUp.await(10, TimeUnit.SECONDS));
+    assertFalse(connectionManager.isReady("warm_up_test"));
+    canaryDone.countDown();
+    connect.join(10000);
+    assertTrue(connectionManager.isReady("warm_up_test"));
+  }
+
+  private static Session mockSession() {
+    Session session = Mockito.mock(Session.class, Mockito.RETURNS_DEEP_STUBS);
+    Mockito.when(session.getState().getConnectedHosts()).thenReturn(Collections.emptyList());
+    Mockito.when(session.prepare(Mockito.anyString()))
+        .thenAnswer(
+            invocation -> {
+              PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+              Mockito.when(statement.getQueryString())
+                  .thenReturn((String) invocation.getArguments()[0]);
+              return statement;
+            });
+    return session;
+  }
+}
@@ -0,0 +1,66 @@
+package org.sunbird.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+import org.sunbird.common.Constants;
+import org.sunbird.common.models.response.Response;
+
+public class CassandraMetricsTest {
+
+  private MetricRegistry registry;
+
+  @Before
+  public void setUp() {
+    registry = new MetricRegistry();
+    CassandraMetrics.setRegistry(registry);
+  }
+
+  @Test
+  public void testMetricsRecordedPerOperationAndTable() {
+    Response response = new Response();
+    response.put(Constants.RESPONSE, Arrays.asList("a", "b", "c"));
+    CassandraMetrics.start("getRecordById", "sunbird", "user").stop(response);
+    CassandraMetrics.start("getRecordById", "sunbird", "user").stop(1);
+    CassandraMetrics.start("getRecordById", "sunbird", "organisation").error();
+
+    Timer latency = registry.getTimers().get("cassandra.getRecordById.sunbird.user.latency");
+    assertEquals(2, latency.getCount());
+    assertTrue(latency.getSnapshot().getMax() > 0);
+    assertEquals(4, registry.counter("cassandra.getRecordById.sunbird.user.rows").getCount());
+    assertEquals(0, registry.counter("cassandra.getRecordById.sunbird.user.errors").getCount());
+    assertEquals(
+        1, registry.counter("cassandra.getRecordById.sunbird.organisation.errors").getCount());
+  }
+
+  @Test
+  public void testHdrHistogramReservoirPercentiles() {
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir();
+    for (long value = 1; value <= 1000; value++) {
+      reservoir.update(value);
+    }
+    assertEquals(1000, reservoir.size());
+    assertEquals(1000, reservoir.getSnapshot().getMax(), 10);
+    assertEquals(990, reservoir.getSnapshot().get99thPercentile(), 10);
+    assertEquals(500, reservoir.getSnapshot().getMedian(), 5);
+  }
+
+  @Test
+  public void testHdrHistogramReservoirForgetsOldWindows() throws InterruptedException {
+    HdrHistogramReservoir reservoir = new HdrHistogramReservoir(50);
+    reservoir.update(5000);
+    assertEquals(5000, reservoir.getSnapshot().getMax(), 50);
+    Thread.sleep(60);
+    reservoir.update(10);
+    // the old value is in the previous window, which is still covered
+    assertEquals(5000, reservoir.getSnapshot().getMax(), 50);
+    Thread.sleep(60);
+    reservoir.update(20);
+    assertEquals(20, reservoir.getSnapshot().getMax(), 1);
+  }
+}
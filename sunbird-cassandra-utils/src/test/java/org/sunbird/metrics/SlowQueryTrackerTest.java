@@ -0,0 +1,25 @@
+package org.sunbird.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import java.util.UUID;
+import org.junit.Test;
+
+public class SlowQueryTrackerTest {
+
+  @Test
+  public void testShapeOfBuiltStatementHidesLiterals() {
+    String shape =
+        SlowQueryTracker.getShape(
+            QueryBuilder.select()
+                .all()
+                .from("sunbird", "user2")
+                .where(QueryBuilder.eq("email", "o'neil@example.com"))
+                .and(QueryBuilder.eq("id", UUID.fromString("3f0a5e4e-1c2b-4d3e-8f9a-0b1c2d3e4f5a")))
+                .and(QueryBuilder.eq("age", 42))
+                .limit(10));
+
+    assertEquals("SELECT * FROM sunbird.user2 WHERE email=? AND id=? AND age=? LIMIT ?;", shape);
+  }
+}
@@ -0,0 +1,229 @@
+package org.sunbird.common;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.helper.ConnectionManager;
+
+/**
+ * Long-lived bulk indexing pipeline of the REST client, shared by all the bulk inserts. Documents
+ * are buffered and sent in a bulk request once sunbird_es_bulk_actions documents or
+ * sunbird_es_bulk_size_mb megabytes are buffered, or every sunbird_es_bulk_flush_interval_ms, with
+ * at most sunbird_es_bulk_concurrent_requests bulk requests in flight. Documents rejected because
+ * the cluster is overloaded (429) are retried with an exponential backoff starting at
+ * sunbird_es_bulk_backoff_delay_ms, up to sunbird_es_bulk_backoff_retries times.
+ *
+ * <p>Each document added gets a stage completed once its bulk request is done, so failures are
+ * reported per document.
+ */
+public final class BulkIndexer {
+
+  private static final String BULK_ACTIONS = "sunbird_es_bulk_actions";
+  private static final String BULK_SIZE_MB = "sunbird_es_bulk_size_mb";
+  private static final String BULK_FLUSH_INTERVAL = "sunbird_es_bulk_flush_interval_ms";
+  private static final String BULK_CONCURRENT_REQUESTS = "sunbird_es_bulk_concurrent_requests";
+  private static final String BULK_BACKOFF_DELAY = "sunbird_es_bulk_backoff_delay_ms";
+  private static final String BULK_BACKOFF_RETRIES = "sunbird_es_bulk_backoff_retries";
+  private static final int CLOSE_TIMEOUT_SECONDS = 30;
+
+  private static volatile BulkIndexer instance;
+
+  private final BulkProcessor bulkProcessor;
+  // index requests are not comparable, so they are tracked by identity
+  private final Map<DocWriteRequest<?>, CompletableFuture<String>> pending =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
+  private BulkIndexer() {
+    this((request, listener) -> ConnectionManager.getRestClient().bulkAsync(request, listener));
+  }
+
+  /**
+   * Create bulk indexer sending the bulk requests with given consumer.
+   *
+   * @param consumer Consumer sending a bulk request and notifying its listener of the response
+   */
+  BulkIndexer(BiConsumer<BulkRequest, ActionListener<BulkResponse>> consumer) {
+    int bulkSizeInMB = ElasticSearchHelper.getIntProperty(BULK_SIZE_MB, 5);
+    int flushInterval = ElasticSearchHelper.getIntProperty(BULK_FLUSH_INTERVAL, 1000);
+    int backoffDelay = ElasticSearchHelper.getIntProperty(BULK_BACKOFF_DELAY, 100);
+    bulkProcessor =
+        BulkProcessor.builder(consumer, new Listener())
+            .setBulkActions(ElasticSearchHelper.getIntProperty(BULK_ACTIONS, 1000))
+            .setBulkSize(new ByteSizeValue(bulkSizeInMB, ByteSizeUnit.MB))
+            .setFlushInterval(TimeValue.timeValueMillis(flushInterval))
+            .setConcurrentRequests(ElasticSearchHelper.getIntProperty(BULK_CONCURRENT_REQUESTS, 2))
+            .setBackoffPolicy(
+                BackoffPolicy.exponentialBackoff(
+                    TimeValue.timeValueMillis(backoffDelay),
+                    ElasticSearchHelper.getIntProperty(BULK_BACKOFF_RETRIES, 8)))
+            .build();
+  }
+
+  /**
+   * This method will return the bulk indexer, creating it on first use.
+   *
+   * @return BulkIndexer
+   */
+  public static BulkIndexer getInstance() {
+    if (instance == null) {
+      synchronized (BulkIndexer.class) {
+        if (instance == null) {
+          instance = new BulkIndexer();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * This method will add a document to be indexed.
+   *
+   * @param index String ES index name
+   * @param identifier String document identifier
+   * @param data Map<String,Object>
+   * @return stage of the failure message of the document, null if it is indexed. The stage fails
+   *     if the whole bulk request failed.
+   */
+  public CompletionStage<String> add(String index, String identifier, Map<String, Object> data) {
+    IndexRequest request =
+        new IndexRequest(index, ElasticSearchService._DOC, identifier).source(data);
+    CompletableFuture<String> result = new CompletableFuture<>();
+    pending.put(request, result);
+    bulkProcessor.add(request);
+    return result;
+  }
+
+  /**
+   * This method will add documents to be indexed, each one with its id as identifier.
+   *
+   * @param index String ES index name
+   * @param dataList List<Map<String, Object>>
+   * @return stage of the failure messages of the documents not indexed, by identifier. The stage
+   *     fails if a whole bulk request failed.
+   */
+  public CompletionStage<Map<String, String>> addAll(
+      String index, List<Map<String, Object>> dataList) {
+    // kept per document rather than by identifier, so that documents with the same id are awaited
+    List<Map.Entry<String, CompletableFuture<String>>> results = new ArrayList<>(dataList.size());
+    CompletableFuture<?>[] futures = new CompletableFuture[dataList.size()];
+    for (Map<String, Object> data : dataList) {
+      String identifier = (String) data.get(JsonKey.ID);
+      CompletableFuture<String> result = add(index, identifier, data).toCompletableFuture();
+      futures[results.size()] = result;
+      results.add(new AbstractMap.SimpleImmutableEntry<>(identifier, result));
+    }
+    return CompletableFuture.allOf(futures)
+        .thenApply(
+            ignored -> {
+              Map<String, String> failures = new HashMap<>();
+              for (Map.Entry<String, CompletableFuture<String>> result : results) {
+                String failure = result.getValue().join();
+                if (failure != null) {
+                  failures.put(result.getKey(), failure);
+                }
+              }
+              return failures;
+            });
+  }
+
+  /** This method will send the buffered documents without waiting for the flush interval. */
+  public void flush() {
+    bulkProcessor.flush();
+  }
+
+  /**
+   * This method will flush and close the bulk indexer, if it has been created, waiting for the
+   * bulk requests in flight. It is called before closing the REST client.
+   */
+  public static void closeInstance() {
+    if (instance == null) {
+      return;
+    }
+    try {
+      instance.bulkProcessor.awaitClose(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      ProjectLogger.log("BulkIndexer:closeInstance: interrupted while closing", e);
+    }
+  }
+
+  private static String getKey(String index, String identifier) {
+    return index + "/" + identifier;
+  }
+
+  private static void invalidateSearchResults(BulkRequest request) {
+    Set<String> indices = new HashSet<>();
+    for (DocWriteRequest<?> docRequest : request.requests()) {
+      indices.add(docRequest.index());
+    }
+    for (String index : indices) {
+      SearchResultCache.invalidate(index);
+    }
+  }
+
+  private class Listener implements BulkProcessor.Listener {
+
+    @Override
+    public void beforeBulk(long executionId, BulkRequest request) {}
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+      invalidateSearchResults(request);
+      Map<String, String> failures = new HashMap<>();
+      for (BulkItemResponse item : response) {
+        if (item.isFailed()) {
+          ProjectLogger.log(
+              "BulkIndexer:afterBulk: api response==="
+                  + item.getId()
+                  + " "
+                  + item.getFailureMessage(),
+              LoggerEnum.INFO.name());
+          failures.put(getKey(item.getIndex(), item.getId()), item.getFailureMessage());
+        }
+      }
+      for (DocWriteRequest<?> docRequest : request.requests()) {
+        CompletableFuture<String> result = pending.remove(docRequest);
+        if (result != null) {
+          result.complete(failures.get(getKey(docRequest.index(), docRequest.id())));
+        }
+      }
+    }
+
+    @Override
+    public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+      invalidateSearchResults(request);
+      ProjectLogger.log("BulkIndexer:afterBulk: Bulk upload error block", failure);
+      for (DocWriteRequest<?> docRequest : request.requests()) {
+        CompletableFuture<String> result = pending.remove(docRequest);
+        if (result != null) {
+          result.completeExceptionally(failure);
+        }
+      }
+    }
+  }
+}
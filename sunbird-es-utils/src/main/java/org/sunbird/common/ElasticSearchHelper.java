@@ -2,8 +2,12 @@ package org.sunbird.common;
 
 import static org.sunbird.common.models.util.ProjectUtil.isNotNull;
 
+import akka.dispatch.ExecutionContexts;
+import akka.dispatch.Futures;
+import akka.dispatch.OnComplete;
 import akka.util.Timeout;
 import com.typesafe.config.Config;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -13,11 +17,20 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.lucene.search.join.ScoreMode;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
@@ -38,13 +51,18 @@ import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms.Bucket;
 import org.elasticsearch.search.sort.SortOrder;
+import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.common.models.util.PropertiesCache;
+import org.sunbird.common.responsecode.ResponseCode;
 import org.sunbird.common.util.ConfigUtil;
 import org.sunbird.dto.SearchDTO;
 import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
 import scala.concurrent.Future;
+import scala.concurrent.Promise;
 
 /**
  * This class will provide all required operation for elastic search.
@@ -70,6 +88,16 @@ public class ElasticSearchHelper {
   private static Config config = ConfigUtil.getConfig(ES_CONFIG_FILE);
   public static final int WAIT_TIME = 5;
   public static Timeout timeout = new Timeout(WAIT_TIME, TimeUnit.SECONDS);
+  private static final ScheduledExecutorService timeoutScheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "es-call-timeout");
+            thread.setDaemon(true);
+            return thread;
+          });
+  // the same thread execution context of akka is not public
+  private static final ExecutionContext sameThreadExecutionContext =
+      ExecutionContexts.fromExecutor(Runnable::run);
   public static final List<String> upsertResults =
       new ArrayList<>(Arrays.asList("CREATED", "UPDATED", "NOOP"));
   private static final String _DOC = "_doc";
@@ -94,6 +122,163 @@ public class ElasticSearchHelper {
     return null;
   }
 
+  /**
+   * This method will read an integer setting from the environment or the properties file.
+   *
+   * @param key String setting name
+   * @param defaultValue int value used if the setting is missing or not a number
+   * @return int
+   */
+  public static int getIntProperty(String key, int defaultValue) {
+    return NumberUtils.toInt(PropertiesCache.getInstance().readProperty(key), defaultValue);
+  }
+
+  /**
+   * This method will convert the future of an ES call to a completion stage, so that it can be
+   * composed with other calls without blocking a thread. Unlike getResponseFromFuture, failures
+   * are propagated to the stage.
+   *
+   * @param future Future of an ES call
+   * @return CompletionStage completed with the result of the future
+   */
+  public static <T> CompletionStage<T> toCompletionStage(Future<T> future) {
+    CompletableFuture<T> stage = new CompletableFuture<>();
+    future.onComplete(
+        new OnComplete<T>() {
+          @Override
+          public void onComplete(Throwable failure, T result) {
+            if (failure != null) {
+              stage.completeExceptionally(failure);
+            } else {
+              stage.complete(result);
+            }
+          }
+        },
+        sameThreadExecutionContext);
+    return stage;
+  }
+
+  /**
+   * This method will convert a completion stage to a future, for the callers of the Future based
+   * methods of ElasticSearchService.
+   *
+   * @param stage CompletionStage of an ES call
+   * @return Future completed with the result of the stage
+   */
+  public static <T> Future<T> toFuture(CompletionStage<T> stage) {
+    Promise<T> promise = Futures.promise();
+    stage.whenComplete(
+        (result, failure) -> {
+          if (failure != null) {
+            promise.failure(unwrap(failure));
+          } else {
+            promise.success(result);
+          }
+        });
+    return promise.future();
+  }
+
+  /**
+   * This method will return a stage failing with a TimeoutException if given stage does not
+   * complete within the timeout, to bound the time of one ES call in a chain.
+   *
+   * @param stage CompletionStage of an ES call
+   * @param timeout Timeout
+   * @param unit Unit of the timeout
+   * @return CompletionStage completed with the result of given stage or the timeout
+   */
+  public static <T> CompletionStage<T> withTimeout(
+      CompletionStage<T> stage, long timeout, TimeUnit unit) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    ScheduledFuture<?> timer =
+        timeoutScheduler.schedule(
+            () ->
+                result.completeExceptionally(
+                    new TimeoutException("ES call not completed within " + timeout + " " + unit)),
+            timeout,
+            unit);
+    stage.whenComplete(
+        (value, failure) -> {
+          timer.cancel(false);
+          if (failure != null) {
+            result.completeExceptionally(unwrap(failure));
+          } else {
+            result.complete(value);
+          }
+        });
+    return result;
+  }
+
+  /**
+   * This method will combine the stages of many ES calls into the stage of the list of their
+   * results, failing as soon as one of them fails.
+   *
+   * @param stages List of CompletionStage of ES calls
+   * @return CompletionStage of the results, in the order of the stages
+   */
+  public static <T> CompletionStage<List<T>> allOf(List<? extends CompletionStage<T>> stages) {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[stages.size()];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = stages.get(i).toCompletableFuture();
+    }
+    return CompletableFuture.allOf(futures)
+        .thenApply(
+            ignored -> {
+              List<T> results = new ArrayList<>(futures.length);
+              for (CompletionStage<T> stage : stages) {
+                results.add(stage.toCompletableFuture().join());
+              }
+              return results;
+            });
+  }
+
+  /**
+   * This method will wait for the result of an ES call. Unlike getResponseFromFuture, which
+   * returns null on any error, the failure of the call or the timeout is thrown.
+   *
+   * @param stage CompletionStage of an ES call
+   * @param timeout Timeout
+   * @param unit Unit of the timeout
+   * @return Result of the call
+   * @throws ProjectCommonException if the call fails or does not complete within the timeout
+   */
+  public static <T> T getResponse(CompletionStage<T> stage, long timeout, TimeUnit unit) {
+    try {
+      return stage.toCompletableFuture().get(timeout, unit);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw createEsException(e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw createEsException(e);
+    }
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    if ((failure instanceof CompletionException || failure instanceof ExecutionException)
+        && failure.getCause() != null) {
+      return failure.getCause();
+    }
+    return failure;
+  }
+
+  private static ProjectCommonException createEsException(Exception e) {
+    Throwable failure = unwrap(e);
+    if (failure instanceof ProjectCommonException) {
+      return (ProjectCommonException) failure;
+    }
+    ProjectLogger.log("ElasticSearchHelper:getResponse: error occured " + failure, failure);
+    if (failure instanceof TimeoutException || failure instanceof IOException) {
+      return new ProjectCommonException(
+          ResponseCode.unableToConnectToES.getErrorCode(),
+          ResponseCode.unableToConnectToES.getErrorMessage(),
+          ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+    return new ProjectCommonException(
+        ResponseCode.internalError.getErrorCode(),
+        ResponseCode.internalError.getErrorMessage(),
+        ResponseCode.SERVER_ERROR.getResponseCode());
+  }
+
   /**
    * This method adds aggregations to the incoming SearchRequestBuilder object
    *
@@ -3,9 +3,11 @@ package org.sunbird.common;
 import akka.dispatch.Futures;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -13,13 +15,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.admin.indices.get.GetIndexRequest;
-import org.elasticsearch.action.bulk.BulkItemResponse;
-import org.elasticsearch.action.bulk.BulkRequest;
-import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.SearchRequest;
@@ -30,11 +32,15 @@ import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.SimpleQueryStringBuilder;
 import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortMode;
+import org.elasticsearch.search.sort.SortOrder;
 import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.LoggerEnum;
@@ -54,6 +60,7 @@ import scala.concurrent.Promise;
  */
 public class ElasticSearchRestHighImpl implements ElasticSearchService {
   private static final String ERROR = "ERROR";
+  private static final String TIEBREAKER_FIELD = JsonKey.ID + ElasticSearchHelper.RAW_APPEND;
 
   /**
    * This method will put a new data entry inside Elastic search. identifier value becomes _id
@@ -92,6 +99,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
         new ActionListener<IndexResponse>() {
           @Override
           public void onResponse(IndexResponse indexResponse) {
+            SearchResultCache.invalidate(index);
             ProjectLogger.log(
                 "ElasticSearchRestHighImpl:save: Success for index : "
                     + index
@@ -112,6 +120,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
 
           @Override
           public void onFailure(Exception e) {
+            SearchResultCache.invalidate(index);
             promise.failure(e);
             ProjectLogger.log(
                 "ElasticSearchRestHighImpl:save: "
@@ -165,6 +174,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
           new ActionListener<UpdateResponse>() {
             @Override
             public void onResponse(UpdateResponse updateResponse) {
+              SearchResultCache.invalidate(index);
               promise.success(true);
               ProjectLogger.log(
                   "ElasticSearchRestHighImpl:update:  Success with "
@@ -185,6 +195,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
 
             @Override
             public void onFailure(Exception e) {
+              SearchResultCache.invalidate(index);
               ProjectLogger.log(
                   "ElasticSearchRestHighImpl:update: exception occured:" + e.getMessage(),
                   LoggerEnum.ERROR.name());
@@ -222,6 +233,10 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
               + index,
           LoggerEnum.PERF_LOG.name());
 
+      GetRequestBatcher batcher = GetRequestBatcher.getInstance();
+      if (batcher != null) {
+        return ElasticSearchHelper.toFuture(batcher.get(index, identifier));
+      }
       GetRequest getRequest = new GetRequest(index, _DOC, identifier);
 
       ActionListener<GetResponse> listener =
@@ -292,6 +307,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
           new ActionListener<DeleteResponse>() {
             @Override
             public void onResponse(DeleteResponse deleteResponse) {
+              SearchResultCache.invalidate(index);
               if (deleteResponse.getResult() == DocWriteResponse.Result.NOT_FOUND) {
                 ProjectLogger.log(
                     "ElasticSearchRestHighImpl:delete:OnResponse: Document  not found for index : "
@@ -307,6 +323,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
 
             @Override
             public void onFailure(Exception e) {
+              SearchResultCache.invalidate(index);
               ProjectLogger.log(
                   "ElasticSearchRestHighImpl:delete: Async Failed due to error :" + e,
                   LoggerEnum.INFO.name());
@@ -351,9 +368,190 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
     ProjectLogger.log(
         "ElasticSearchRestHighImpl:search: method started at ==" + startTime,
         LoggerEnum.PERF_LOG.name());
-    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    SearchResultCache cache = SearchResultCache.getInstance();
+    String cacheKey = cache == null ? null : cache.getKey(searchDTO, index);
+    if (cacheKey != null) {
+      Map<String, Object> cachedResult = cache.get(index, cacheKey);
+      if (cachedResult != null) {
+        return Futures.successful(cachedResult);
+      }
+    }
+    SearchSourceBuilder searchSourceBuilder = getSearchSourceBuilder(searchDTO);
+    SearchRequest searchRequest = new SearchRequest(index);
+    searchRequest.types(_DOC);
+    List finalFacetList = new ArrayList();
+
+    if (null != searchDTO.getFacets() && !searchDTO.getFacets().isEmpty()) {
+      searchSourceBuilder = addAggregations(searchSourceBuilder, searchDTO.getFacets());
+    }
+    ProjectLogger.log(
+        "ElasticSearchRestHighImpl:search: calling search builder======"
+            + searchSourceBuilder.toString(),
+        LoggerEnum.INFO.name());
+
+    searchRequest.source(searchSourceBuilder);
+    Promise<Map<String, Object>> promise = Futures.promise();
+
+    ActionListener<SearchResponse> listener =
+        new ActionListener<SearchResponse>() {
+          @Override
+          public void onResponse(SearchResponse response) {
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:search:onResponse  response1 = " + response,
+                LoggerEnum.DEBUG.name());
+            if (response.getHits() == null || response.getHits().getTotalHits() == 0) {
+
+              Map<String, Object> responseMap = new HashMap<>();
+              List<Map<String, Object>> esSource = new ArrayList<>();
+              responseMap.put(JsonKey.CONTENT, esSource);
+              responseMap.put(JsonKey.COUNT, 0);
+              if (cacheKey != null) {
+                cache.put(cacheKey, index, startTime, responseMap);
+              }
+              promise.success(responseMap);
+            } else {
+              Map<String, Object> responseMap =
+                  ElasticSearchHelper.getSearchResponseMap(response, searchDTO, finalFacetList);
+              ProjectLogger.log(
+                  "ElasticSearchRestHighImpl:search: method end "
+                      + " ,Total time elapsed = "
+                      + calculateEndTime(startTime),
+                  LoggerEnum.PERF_LOG.name());
+              if (cacheKey != null) {
+                cache.put(cacheKey, index, startTime, responseMap);
+              }
+              promise.success(responseMap);
+            }
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            promise.failure(e);
+
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:search: method end   for Index "
+                    + index
+                    + " ,Total time elapsed = "
+                    + calculateEndTime(startTime),
+                LoggerEnum.PERF_LOG.name());
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:search: method Failed with error :" + e,
+                LoggerEnum.ERROR.name());
+          }
+        };
+
+    ConnectionManager.getRestClient().searchAsync(searchRequest, listener);
+    return promise.future();
+  }
+
+  /**
+   * This method will stream the documents matching the search with search_after, sorting them on
+   * the sort of the search followed by the keyword field id.raw as tiebreaker, so each page costs
+   * the same whatever its depth. Sorting on id.raw uses its doc values, where _id would load the
+   * field data of all ids in memory.
+   *
+   * @param searchDTO SearchDTO
+   * @param index String
+   * @param pageSize Number of documents per page
+   * @param consumer Function consuming a page of documents
+   * @return CompletionStage of the number of documents streamed
+   */
+  @Override
+  public CompletionStage<Long> streamSearch(
+      SearchDTO searchDTO,
+      String index,
+      int pageSize,
+      Function<List<Map<String, Object>>, CompletionStage<?>> consumer) {
+    long startTime = System.currentTimeMillis();
+    SearchSourceBuilder searchSourceBuilder =
+        getSearchSourceBuilder(searchDTO)
+            .from(0)
+            .size(pageSize)
+            .sort(SortBuilders.fieldSort(TIEBREAKER_FIELD).order(SortOrder.ASC));
+    CompletableFuture<Long> result = new CompletableFuture<>();
+    streamPage(index, searchSourceBuilder, pageSize, consumer, 0, result);
+    return result.whenComplete(
+        (count, e) ->
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:streamSearch: method end for Index "
+                    + index
+                    + " with "
+                    + count
+                    + " documents ,Total time elapsed = "
+                    + calculateEndTime(startTime),
+                LoggerEnum.PERF_LOG.name()));
+  }
+
+  private static void streamPage(
+      String index,
+      SearchSourceBuilder searchSourceBuilder,
+      int pageSize,
+      Function<List<Map<String, Object>>, CompletionStage<?>> consumer,
+      long count,
+      CompletableFuture<Long> result) {
     SearchRequest searchRequest = new SearchRequest(index);
     searchRequest.types(_DOC);
+    searchRequest.source(searchSourceBuilder);
+    ActionListener<SearchResponse> listener =
+        new ActionListener<SearchResponse>() {
+          @Override
+          public void onResponse(SearchResponse response) {
+            SearchHit[] hits = response.getHits().getHits();
+            if (hits.length == 0) {
+              result.complete(count);
+              return;
+            }
+            List<Map<String, Object>> page = new ArrayList<>(hits.length);
+            for (SearchHit hit : hits) {
+              page.add(hit.getSourceAsMap());
+            }
+            Object[] sortValues = hits[hits.length - 1].getSortValues();
+            CompletionStage<?> consumed;
+            try {
+              consumed = consumer.apply(page);
+            } catch (Exception e) {
+              result.completeExceptionally(e);
+              return;
+            }
+            // the next page is requested only once the consumer is done with this one
+            consumed.whenComplete(
+                (ignored, e) -> {
+                  if (e != null) {
+                    result.completeExceptionally(e);
+                  } else if (hits.length < pageSize) {
+                    result.complete(count + hits.length);
+                  } else {
+                    streamPage(
+                        index,
+                        searchSourceBuilder.searchAfter(sortValues),
+                        pageSize,
+                        consumer,
+                        count + hits.length,
+                        result);
+                  }
+                });
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:streamSearch: method Failed with error :" + e,
+                LoggerEnum.ERROR.name());
+            result.completeExceptionally(e);
+          }
+        };
+    ConnectionManager.getRestClient().searchAsync(searchRequest, listener);
+  }
+
+  /**
+   * This method will create the search source with the query, sort, fields, offset and limit of
+   * given search.
+   *
+   * @param searchDTO SearchDTO
+   * @return SearchSourceBuilder
+   */
+  private static SearchSourceBuilder getSearchSourceBuilder(SearchDTO searchDTO) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
 
     // check mode and set constraints
     Map<String, Float> constraintsMap = ElasticSearchHelper.getConstraints(searchDTO);
@@ -433,63 +631,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
 
     // set final query to search request builder
     searchSourceBuilder.query(query);
-    List finalFacetList = new ArrayList();
-
-    if (null != searchDTO.getFacets() && !searchDTO.getFacets().isEmpty()) {
-      searchSourceBuilder = addAggregations(searchSourceBuilder, searchDTO.getFacets());
-    }
-    ProjectLogger.log(
-        "ElasticSearchRestHighImpl:search: calling search builder======"
-            + searchSourceBuilder.toString(),
-        LoggerEnum.INFO.name());
-
-    searchRequest.source(searchSourceBuilder);
-    Promise<Map<String, Object>> promise = Futures.promise();
-
-    ActionListener<SearchResponse> listener =
-        new ActionListener<SearchResponse>() {
-          @Override
-          public void onResponse(SearchResponse response) {
-            ProjectLogger.log(
-                "ElasticSearchRestHighImpl:search:onResponse  response1 = " + response,
-                LoggerEnum.DEBUG.name());
-            if (response.getHits() == null || response.getHits().getTotalHits() == 0) {
-
-              Map<String, Object> responseMap = new HashMap<>();
-              List<Map<String, Object>> esSource = new ArrayList<>();
-              responseMap.put(JsonKey.CONTENT, esSource);
-              responseMap.put(JsonKey.COUNT, 0);
-              promise.success(responseMap);
-            } else {
-              Map<String, Object> responseMap =
-                  ElasticSearchHelper.getSearchResponseMap(response, searchDTO, finalFacetList);
-              ProjectLogger.log(
-                  "ElasticSearchRestHighImpl:search: method end "
-                      + " ,Total time elapsed = "
-                      + calculateEndTime(startTime),
-                  LoggerEnum.PERF_LOG.name());
-              promise.success(responseMap);
-            }
-          }
-
-          @Override
-          public void onFailure(Exception e) {
-            promise.failure(e);
-
-            ProjectLogger.log(
-                "ElasticSearchRestHighImpl:search: method end   for Index "
-                    + index
-                    + " ,Total time elapsed = "
-                    + calculateEndTime(startTime),
-                LoggerEnum.PERF_LOG.name());
-            ProjectLogger.log(
-                "ElasticSearchRestHighImpl:search: method Failed with error :" + e,
-                LoggerEnum.ERROR.name());
-          }
-        };
-
-    ConnectionManager.getRestClient().searchAsync(searchRequest, listener);
-    return promise.future();
+    return searchSourceBuilder;
   }
 
   /**
@@ -528,12 +670,12 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
   }
 
   /**
-   * This method will do the bulk data insertion.
+   * This method will do the bulk data insertion. The documents are sent with the next bulk request
+   * of the {@link BulkIndexer}, at the latest after its flush interval.
    *
    * @param index String index name
-   * @param type String type name
    * @param dataList List<Map<String, Object>>
-   * @return boolean
+   * @return true if all the documents are indexed, false if any of them failed
    */
   @Override
   public Future<Boolean> bulkInsert(String index, List<Map<String, Object>> dataList) {
@@ -544,50 +686,32 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
             + " for Index "
             + index,
         LoggerEnum.PERF_LOG.name());
-    BulkRequest request = new BulkRequest();
-    Promise<Boolean> promise = Futures.promise();
-    for (Map<String, Object> data : dataList) {
-      request.add(new IndexRequest(index, _DOC, (String) data.get(JsonKey.ID)).source(data));
-    }
-    ActionListener<BulkResponse> listener =
-        new ActionListener<BulkResponse>() {
-          @Override
-          public void onResponse(BulkResponse bulkResponse) {
-            Iterator<BulkItemResponse> responseItr = bulkResponse.iterator();
-            if (responseItr != null) {
-              promise.success(true);
-              while (responseItr.hasNext()) {
-
-                BulkItemResponse bResponse = responseItr.next();
-
-                if (bResponse.isFailed()) {
-                  ProjectLogger.log(
-                      "ElasticSearchRestHighImpl:bulkinsert: api response==="
-                          + bResponse.getId()
-                          + " "
-                          + bResponse.getFailureMessage(),
-                      LoggerEnum.INFO.name());
-                }
+    CompletionStage<Map<String, String>> indexed =
+        BulkIndexer.getInstance().addAll(index, dataList);
+    CompletionStage<Boolean> result =
+        indexed.handle(
+            (failures, e) -> {
+              ProjectLogger.log(
+                  "ElasticSearchRestHighImpl:bulkInsert: method end =="
+                      + " for Index "
+                      + index
+                      + " ,Total time elapsed = "
+                      + calculateEndTime(startTime),
+                  LoggerEnum.PERF_LOG.name());
+              if (e != null) {
+                ProjectLogger.log(
+                    "ElasticSearchRestHighImpl:bulkinsert: Bulk upload error block", e);
+                return false;
               }
-            }
-          }
-
-          @Override
-          public void onFailure(Exception e) {
-            ProjectLogger.log("ElasticSearchRestHighImpl:bulkinsert: Bulk upload error block", e);
-            promise.success(false);
-          }
-        };
-    ConnectionManager.getRestClient().bulkAsync(request, listener);
-
-    ProjectLogger.log(
-        "ElasticSearchRestHighImpl:bulkInsert: method end =="
-            + " for Index "
-            + index
-            + " ,Total time elapsed = "
-            + calculateEndTime(startTime),
-        LoggerEnum.PERF_LOG.name());
-    return promise.future();
+              if (!failures.isEmpty()) {
+                ProjectLogger.log(
+                    "ElasticSearchRestHighImpl:bulkInsert: Documents not indexed " + failures,
+                    LoggerEnum.ERROR.name());
+                return false;
+              }
+              return true;
+            });
+    return ElasticSearchHelper.toFuture(result);
   }
 
   private static long calculateEndTime(long startTime) {
@@ -654,6 +778,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
           new ActionListener<UpdateResponse>() {
             @Override
             public void onResponse(UpdateResponse updateResponse) {
+              SearchResultCache.invalidate(index);
               promise.success(true);
               ProjectLogger.log(
                   "ElasticSearchUtilRest:upsert:  Response for index : "
@@ -674,6 +799,7 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
 
             @Override
             public void onFailure(Exception e) {
+              SearchResultCache.invalidate(index);
               ProjectLogger.log(
                   "ElasticSearchRestHighImpl:upsert: exception occured:" + e.getMessage(),
                   LoggerEnum.ERROR.name());
@@ -702,33 +828,87 @@ public class ElasticSearchRestHighImpl implements ElasticSearchService {
   @Override
   public Future<Map<String, Map<String, Object>>> getEsResultByListOfIds(
       List<String> ids, List<String> fields, String index) {
-    long startTime = System.currentTimeMillis();
+    return ElasticSearchHelper.toFuture(getEsResultByListOfIdsAsync(ids, fields, index));
+  }
 
-    Map<String, Object> filters = new HashMap<>();
-    filters.put(JsonKey.ID, ids);
-
-    SearchDTO searchDTO = new SearchDTO();
-    searchDTO.getAdditionalProperties().put(JsonKey.FILTERS, filters);
-    searchDTO.setFields(fields);
-
-    Future<Map<String, Object>> resultF = search(searchDTO, index);
-    Map<String, Object> result =
-        (Map<String, Object>) ElasticSearchHelper.getResponseFromFuture(resultF);
-    List<Map<String, Object>> esContent = (List<Map<String, Object>>) result.get(JsonKey.CONTENT);
-    Promise<Map<String, Map<String, Object>>> promise = Futures.promise();
-    promise.success(
-        esContent
-            .stream()
-            .collect(
-                Collectors.toMap(
-                    obj -> {
-                      return (String) obj.get("id");
-                    },
-                    val -> val)));
-    ProjectLogger.log(
-        "ElasticSearchUtil:getEsResultByListOfIds: method ended for index " + index,
-        LoggerEnum.INFO.name());
+  /**
+   * This method will return map of objects on the basis of ids provided, fetched with one multi get
+   * request with the requested fields only. Documents not found are left out of the map.
+   *
+   * @param ids List of String
+   * @param fields List of String, all the fields if empty
+   * @param index index of elasticserach for query
+   * @return stage of requested data in the form of map
+   */
+  @Override
+  public CompletionStage<Map<String, Map<String, Object>>> getEsResultByListOfIdsAsync(
+      List<String> ids, List<String> fields, String index) {
+    long startTime = System.currentTimeMillis();
+    if (CollectionUtils.isEmpty(ids)) {
+      return CompletableFuture.completedFuture(new HashMap<>());
+    }
+    // documents of other channels are left out, as they are by search
+    String channel = PropertiesCache.getInstance().getProperty(JsonKey.SUNBIRD_ES_CHANNEL);
+    boolean filterChannel =
+        !(StringUtils.isBlank(channel) || JsonKey.SUNBIRD_ES_CHANNEL.equals(channel));
+    boolean fetchChannel =
+        filterChannel && CollectionUtils.isNotEmpty(fields) && !fields.contains(JsonKey.CHANNEL);
+    List<String> includes = fields;
+    if (fetchChannel) {
+      includes = new ArrayList<>(fields);
+      includes.add(JsonKey.CHANNEL);
+    }
+    FetchSourceContext fetchSourceContext =
+        new FetchSourceContext(
+            true, CollectionUtils.isEmpty(includes) ? null : includes.toArray(new String[0]), null);
+    MultiGetRequest request = new MultiGetRequest();
+    for (String id : ids) {
+      request.add(new MultiGetRequest.Item(index, _DOC, id).fetchSourceContext(fetchSourceContext));
+    }
+    CompletableFuture<Map<String, Map<String, Object>>> result = new CompletableFuture<>();
+    ActionListener<MultiGetResponse> listener =
+        new ActionListener<MultiGetResponse>() {
+          @Override
+          public void onResponse(MultiGetResponse response) {
+            Map<String, Map<String, Object>> esResult = new HashMap<>();
+            for (MultiGetItemResponse item : response.getResponses()) {
+              if (item.isFailed()) {
+                ProjectLogger.log(
+                    "ElasticSearchRestHighImpl:getEsResultByListOfIds: failed for id "
+                        + item.getId()
+                        + " "
+                        + item.getFailure().getMessage(),
+                    LoggerEnum.INFO.name());
+              } else if (item.getResponse().isExists()) {
+                Map<String, Object> source = item.getResponse().getSourceAsMap();
+                if (filterChannel && !channel.equals(source.get(JsonKey.CHANNEL))) {
+                  continue;
+                }
+                if (fetchChannel) {
+                  source.remove(JsonKey.CHANNEL);
+                }
+                esResult.put(item.getId(), source);
+              }
+            }
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:getEsResultByListOfIds: method end for Index "
+                    + index
+                    + " ,Total time elapsed = "
+                    + calculateEndTime(startTime),
+                LoggerEnum.PERF_LOG.name());
+            result.complete(esResult);
+          }
 
-    return promise.future();
+          @Override
+          public void onFailure(Exception e) {
+            ProjectLogger.log(
+                "ElasticSearchRestHighImpl:getEsResultByListOfIds: method Failed with error == "
+                    + e,
+                LoggerEnum.INFO.name());
+            result.completeExceptionally(e);
+          }
+        };
+    ConnectionManager.getRestClient().multiGetAsync(request, listener);
+    return result;
   }
 }
@@ -7,11 +7,16 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
@@ -26,13 +31,16 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.Requests;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.SimpleQueryStringBuilder;
 import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.search.sort.SortMode;
+import org.elasticsearch.search.sort.SortOrder;
 import org.sunbird.common.exception.ProjectCommonException;
 import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.util.JsonKey;
@@ -54,6 +62,7 @@ import scala.concurrent.Promise;
 public class ElasticSearchTcpImpl implements ElasticSearchService {
   public static final int WAIT_TIME = 30;
   public static Timeout timeout = new Timeout(WAIT_TIME, TimeUnit.SECONDS);
+  private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(5);
 
   /**
    * This method will put a new data entry inside Elastic search. identifier value becomes _id
@@ -117,6 +126,8 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
               + ElasticSearchHelper.calculateEndTime(startTime),
           LoggerEnum.PERF_LOG.name());
       promise.success("");
+    } finally {
+      SearchResultCache.invalidate(index);
     }
     return promise.future();
   }
@@ -206,6 +217,8 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
             "ElasticSearchTcpImpl:update: exception occured:" + e.getMessage(),
             LoggerEnum.ERROR.name());
         promise.failure(e);
+      } finally {
+        SearchResultCache.invalidate(index);
       }
     } else {
       ProjectLogger.log(
@@ -252,6 +265,8 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
         ProjectLogger.log("ElasticSearchTcpImpl:upsert: error occured == " + e.getMessage(), e);
         promise.success(false);
         return promise.future();
+      } finally {
+        SearchResultCache.invalidate(index);
       }
       ProjectLogger.log(
           "ElasticSearchTcpImpl:upsert: updated response==" + response.getResult().name(),
@@ -315,6 +330,8 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
                 + " with error "
                 + e.getMessage(),
             e);
+      } finally {
+        SearchResultCache.invalidate(index);
       }
     } else {
       ProjectLogger.log(
@@ -343,11 +360,85 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
 
     long startTime = System.currentTimeMillis();
     Promise<Map<String, Object>> promise = Futures.promise();
-    String[] indices = {index};
 
     ProjectLogger.log(
         "ElasticSearchTcpImpl:search: method started at ==" + startTime,
         LoggerEnum.PERF_LOG.name());
+    SearchRequestBuilder searchRequestBuilder = getSearchRequestBuilder(searchDTO, index);
+
+    // setting the offset
+    if (searchDTO.getOffset() != null) {
+      searchRequestBuilder.setFrom(searchDTO.getOffset());
+    }
+
+    // setting the limit
+    if (searchDTO.getLimit() != null) {
+      searchRequestBuilder.setSize(searchDTO.getLimit());
+    }
+    List finalFacetList = new ArrayList();
+
+    if (null != searchDTO.getFacets() && !searchDTO.getFacets().isEmpty()) {
+      searchRequestBuilder =
+          ElasticSearchHelper.addAggregations(searchRequestBuilder, searchDTO.getFacets());
+    }
+    ProjectLogger.log(
+        "ElasticSearchTcpImpl:search: calling search builder ==" + searchRequestBuilder.toString(),
+        LoggerEnum.INFO.name());
+    SearchResponse response = null;
+    try {
+      response = searchRequestBuilder.execute().actionGet();
+    } catch (SearchPhaseExecutionException e) {
+      promise.failure(e);
+      ProjectCommonException.throwClientErrorException(
+          ResponseCode.invalidValue, e.getRootCause().getMessage());
+    }
+
+    Map<String, Object> responseMap =
+        ElasticSearchHelper.getSearchResponseMap(response, searchDTO, finalFacetList);
+    ProjectLogger.log(
+        "ElasticSearchTcpImpl:search: method end"
+            + " ,Total time elapsed = "
+            + ElasticSearchHelper.calculateEndTime(startTime),
+        LoggerEnum.PERF_LOG.name());
+    promise.success(responseMap);
+    return promise.future();
+  }
+
+  /**
+   * This method will stream the documents matching the search with a scroll, sorted by _doc
+   * unless the search has its own sort.
+   *
+   * @param searchDTO SearchDTO
+   * @param index String
+   * @param pageSize Number of documents per page
+   * @param consumer Function consuming a page of documents
+   * @return CompletionStage of the number of documents streamed
+   */
+  @Override
+  public CompletionStage<Long> streamSearch(
+      SearchDTO searchDTO,
+      String index,
+      int pageSize,
+      Function<List<Map<String, Object>>, CompletionStage<?>> consumer) {
+    SearchRequestBuilder searchRequestBuilder =
+        getSearchRequestBuilder(searchDTO, index).setScroll(SCROLL_KEEP_ALIVE).setSize(pageSize);
+    if (MapUtils.isEmpty(searchDTO.getSortBy())) {
+      searchRequestBuilder.addSort(FieldSortBuilder.DOC_FIELD_NAME, SortOrder.ASC);
+    }
+    CompletableFuture<Long> result = new CompletableFuture<>();
+    searchRequestBuilder.execute(new ScrollListener(consumer, result));
+    return result;
+  }
+
+  /**
+   * This method will create the search request with the query, sort and fields of given search.
+   *
+   * @param searchDTO SearchDTO
+   * @param index String
+   * @return SearchRequestBuilder
+   */
+  private static SearchRequestBuilder getSearchRequestBuilder(SearchDTO searchDTO, String index) {
+    String[] indices = {index};
     SearchRequestBuilder searchRequestBuilder =
         ElasticSearchHelper.getTransportSearchBuilder(ConnectionManager.getClient(), indices);
     // check mode and set constraints
@@ -409,15 +500,6 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
             ? searchDTO.getExcludedFields().stream().toArray(String[]::new)
             : null);
 
-    // setting the offset
-    if (searchDTO.getOffset() != null) {
-      searchRequestBuilder.setFrom(searchDTO.getOffset());
-    }
-
-    // setting the limit
-    if (searchDTO.getLimit() != null) {
-      searchRequestBuilder.setSize(searchDTO.getLimit());
-    }
     // apply additional properties
     if (searchDTO.getAdditionalProperties() != null
         && searchDTO.getAdditionalProperties().size() > 0) {
@@ -428,34 +510,9 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
 
     // set final query to search request builder
     searchRequestBuilder.setQuery(query);
-    List finalFacetList = new ArrayList();
-
-    if (null != searchDTO.getFacets() && !searchDTO.getFacets().isEmpty()) {
-      searchRequestBuilder =
-          ElasticSearchHelper.addAggregations(searchRequestBuilder, searchDTO.getFacets());
-    }
-    ProjectLogger.log(
-        "ElasticSearchTcpImpl:search: calling search builder ==" + searchRequestBuilder.toString(),
-        LoggerEnum.INFO.name());
-    SearchResponse response = null;
-    try {
-      response = searchRequestBuilder.execute().actionGet();
-    } catch (SearchPhaseExecutionException e) {
-      promise.failure(e);
-      ProjectCommonException.throwClientErrorException(
-          ResponseCode.invalidValue, e.getRootCause().getMessage());
-    }
-
-    Map<String, Object> responseMap =
-        ElasticSearchHelper.getSearchResponseMap(response, searchDTO, finalFacetList);
-    ProjectLogger.log(
-        "ElasticSearchTcpImpl:search: method end"
-            + " ,Total time elapsed = "
-            + ElasticSearchHelper.calculateEndTime(startTime),
-        LoggerEnum.PERF_LOG.name());
-    promise.success(responseMap);
-    return promise.future();
+    return searchRequestBuilder;
   }
+
   /**
    * @param List of document's ids
    * @param fields List of fields which needs to captured
@@ -520,6 +577,7 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
                     @Override
                     public void afterBulk(
                         long executionId, BulkRequest request, BulkResponse response) {
+                      SearchResultCache.invalidate(index);
                       Iterator<BulkItemResponse> bulkResponse = response.iterator();
                       if (bulkResponse != null) {
                         while (bulkResponse.hasNext()) {
@@ -538,6 +596,7 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
                     @Override
                     public void afterBulk(
                         long executionId, BulkRequest request, Throwable failure) {
+                      SearchResultCache.invalidate(index);
                       ProjectLogger.log(
                           "ElasticSearchTcpImpl:bulkInsert: Bulk upload error block with error "
                               + failure,
@@ -602,4 +661,74 @@ public class ElasticSearchTcpImpl implements ElasticSearchService {
     promise.success(indexResponse);
     return promise.future();
   }
+
+  /** Listener passing each page of a scroll to the consumer before requesting the next one. */
+  private static class ScrollListener implements ActionListener<SearchResponse> {
+
+    private final Function<List<Map<String, Object>>, CompletionStage<?>> consumer;
+    private final CompletableFuture<Long> result;
+    private long count;
+    // scroll of the last page received, cleared when the stream ends or fails
+    private volatile String scrollId;
+
+    ScrollListener(
+        Function<List<Map<String, Object>>, CompletionStage<?>> consumer,
+        CompletableFuture<Long> result) {
+      this.consumer = consumer;
+      this.result = result;
+    }
+
+    @Override
+    public void onResponse(SearchResponse response) {
+      String scrollId = response.getScrollId();
+      this.scrollId = scrollId;
+      SearchHit[] hits = response.getHits().getHits();
+      if (hits.length == 0) {
+        complete(scrollId, null);
+        return;
+      }
+      List<Map<String, Object>> page = new ArrayList<>(hits.length);
+      for (SearchHit hit : hits) {
+        page.add(hit.getSourceAsMap());
+      }
+      count += hits.length;
+      CompletionStage<?> consumed;
+      try {
+        consumed = consumer.apply(page);
+      } catch (Exception e) {
+        complete(scrollId, e);
+        return;
+      }
+      consumed.whenComplete(
+          (ignored, e) -> {
+            if (e != null) {
+              complete(scrollId, e);
+            } else {
+              ConnectionManager.getClient()
+                  .prepareSearchScroll(scrollId)
+                  .setScroll(SCROLL_KEEP_ALIVE)
+                  .execute(this);
+            }
+          });
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+      ProjectLogger.log(
+          "ElasticSearchTcpImpl:streamSearch: method Failed with error :" + e,
+          LoggerEnum.ERROR.name());
+      complete(scrollId, e);
+    }
+
+    private void complete(String scrollId, Throwable e) {
+      if (scrollId != null) {
+        ConnectionManager.getClient().prepareClearScroll().addScrollId(scrollId).execute();
+      }
+      if (e != null) {
+        result.completeExceptionally(e);
+      } else {
+        result.complete(count);
+      }
+    }
+  }
 }
@@ -0,0 +1,176 @@
+package org.sunbird.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.apache.commons.collections.MapUtils;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.sunbird.common.inf.ElasticSearchService;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.helper.ConnectionManager;
+
+/**
+ * Micro-batching of the lookups by identifier of the REST client, enabled by setting
+ * sunbird_es_get_batch_window_ms. The lookups made within the window, whatever their index, are
+ * sent together in one mget request, or as soon as sunbird_es_get_batch_size lookups are waiting,
+ * so that a fan-out of lookups costs one request instead of one per document.
+ */
+public final class GetRequestBatcher {
+
+  private static final String GET_BATCH_WINDOW = "sunbird_es_get_batch_window_ms";
+  private static final String GET_BATCH_SIZE = "sunbird_es_get_batch_size";
+  private static final GetRequestBatcher instance = create();
+
+  private final long windowMillis;
+  private final int maxBatchSize;
+  private final BiConsumer<MultiGetRequest, ActionListener<MultiGetResponse>> multiGet;
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "es-get-batcher");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private List<Lookup> batch;
+
+  /**
+   * Create batcher sending the batches with given consumer.
+   *
+   * @param windowMillis Time a lookup waits for other lookups
+   * @param maxBatchSize Number of lookups sent without waiting for the end of the window
+   * @param multiGet Consumer sending an mget request and notifying its listener of the response
+   */
+  GetRequestBatcher(
+      long windowMillis,
+      int maxBatchSize,
+      BiConsumer<MultiGetRequest, ActionListener<MultiGetResponse>> multiGet) {
+    this.windowMillis = windowMillis;
+    this.maxBatchSize = maxBatchSize;
+    this.multiGet = multiGet;
+  }
+
+  private static GetRequestBatcher create() {
+    int windowMillis = ElasticSearchHelper.getIntProperty(GET_BATCH_WINDOW, 0);
+    if (windowMillis <= 0) {
+      return null;
+    }
+    return new GetRequestBatcher(
+        windowMillis,
+        Math.max(1, ElasticSearchHelper.getIntProperty(GET_BATCH_SIZE, 100)),
+        (request, listener) -> ConnectionManager.getRestClient().multiGetAsync(request, listener));
+  }
+
+  /**
+   * This method will return the batcher.
+   *
+   * @return GetRequestBatcher, or null if batching is not enabled
+   */
+  public static GetRequestBatcher getInstance() {
+    return instance;
+  }
+
+  /**
+   * This method will add a lookup to the current batch.
+   *
+   * @param index String ES index name
+   * @param identifier String document identifier
+   * @return stage of the source of the document, empty if not found
+   */
+  public CompletionStage<Map<String, Object>> get(String index, String identifier) {
+    Lookup lookup = new Lookup(index, identifier);
+    List<Lookup> full = null;
+    synchronized (this) {
+      if (batch == null) {
+        List<Lookup> current = new ArrayList<>();
+        batch = current;
+        scheduler.schedule(() -> flush(current), windowMillis, TimeUnit.MILLISECONDS);
+      }
+      batch.add(lookup);
+      if (batch.size() >= maxBatchSize) {
+        full = batch;
+        batch = null;
+      }
+    }
+    if (full != null) {
+      send(full);
+    }
+    return lookup.result;
+  }
+
+  private void flush(List<Lookup> current) {
+    synchronized (this) {
+      if (batch != current) {
+        // already sent once full
+        return;
+      }
+      batch = null;
+    }
+    send(current);
+  }
+
+  private void send(List<Lookup> lookups) {
+    ActionListener<MultiGetResponse> listener =
+        new ActionListener<MultiGetResponse>() {
+          @Override
+          public void onResponse(MultiGetResponse response) {
+            // items are in the order of the request
+            MultiGetItemResponse[] items = response.getResponses();
+            for (int i = 0; i < items.length; i++) {
+              CompletableFuture<Map<String, Object>> result = lookups.get(i).result;
+              if (items[i].isFailed()) {
+                result.completeExceptionally(items[i].getFailure().getFailure());
+              } else {
+                GetResponse getResponse = items[i].getResponse();
+                Map<String, Object> source =
+                    getResponse.isExists() ? getResponse.getSourceAsMap() : null;
+                result.complete(MapUtils.isNotEmpty(source) ? source : new HashMap<>());
+              }
+            }
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            ProjectLogger.log(
+                "GetRequestBatcher:send: method Failed with error == " + e,
+                LoggerEnum.INFO.name());
+            for (Lookup lookup : lookups) {
+              lookup.result.completeExceptionally(e);
+            }
+          }
+        };
+    try {
+      MultiGetRequest request = new MultiGetRequest();
+      for (Lookup lookup : lookups) {
+        request.add(lookup.index, ElasticSearchService._DOC, lookup.identifier);
+      }
+      multiGet.accept(request, listener);
+    } catch (Exception e) {
+      // e.g. client not initialised, the lookups would never complete otherwise
+      listener.onFailure(e);
+    }
+  }
+
+  private static class Lookup {
+
+    private final String index;
+    private final String identifier;
+    private final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+
+    Lookup(String index, String identifier) {
+      this.index = index;
+      this.identifier = identifier;
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package org.sunbird.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sunbird.common.models.util.LoggerEnum;
+import org.sunbird.common.models.util.ProjectLogger;
+import org.sunbird.dto.SearchDTO;
+
+/**
+ * Cache of search results of the REST client, enabled by setting sunbird_es_search_cache_size,
+ * the maximum number of results kept per index, the least recently used ones being evicted first.
+ * Results are kept sunbird_es_search_cache_ttl_ms, or sunbird_es_search_cache_ttl_ms_&lt;index&gt;
+ * for an index, 0 disabling the cache for it. They are keyed by a hash of the SearchDTO serialised
+ * with sorted keys, so equal searches share their result whatever the order of their filters.
+ *
+ * <p>The results of an index are dropped when a document of the index is written through
+ * ElasticSearchRestHighImpl, ElasticSearchTcpImpl or the bulk indexer. As written documents are
+ * only visible to searches after a refresh, results of searches started before a write completed
+ * plus sunbird_es_search_cache_refresh_ms are not cached. Writes made through ElasticSearchUtil, or
+ * by other applications, do not drop results: they are seen once the results expire.
+ */
+public final class SearchResultCache {
+
+  private static final String CACHE_SIZE = "sunbird_es_search_cache_size";
+  private static final String CACHE_TTL = "sunbird_es_search_cache_ttl_ms";
+  private static final String CACHE_REFRESH = "sunbird_es_search_cache_refresh_ms";
+  private static final ObjectMapper mapper =
+      new ObjectMapper()
+          .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+          .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+  private static final SearchResultCache instance = create();
+
+  private final int maxSize;
+  private final int defaultTtlMillis;
+  private final long refreshMillis;
+  private final Map<String, Integer> ttlMillis = new ConcurrentHashMap<>();
+  // each index has its own results, so that they are dropped without scanning other indices
+  private final Map<String, IndexResults> indices = new ConcurrentHashMap<>();
+
+  /**
+   * Create search result cache.
+   *
+   * @param maxSize Maximum number of results kept per index
+   * @param defaultTtlMillis Time results are kept, unless set for their index
+   * @param refreshMillis Time written documents take to be visible to searches
+   */
+  SearchResultCache(int maxSize, int defaultTtlMillis, long refreshMillis) {
+    this.maxSize = maxSize;
+    this.defaultTtlMillis = defaultTtlMillis;
+    this.refreshMillis = refreshMillis;
+  }
+
+  private static SearchResultCache create() {
+    int maxSize = ElasticSearchHelper.getIntProperty(CACHE_SIZE, 0);
+    if (maxSize <= 0) {
+      return null;
+    }
+    return new SearchResultCache(
+        maxSize,
+        ElasticSearchHelper.getIntProperty(CACHE_TTL, 60000),
+        ElasticSearchHelper.getIntProperty(CACHE_REFRESH, 1000));
+  }
+
+  /**
+   * This method will return the cache.
+   *
+   * @return SearchResultCache, or null if the cache is not enabled
+   */
+  public static SearchResultCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * This method will drop the cached results of an index, if the cache is enabled. It is called
+   * once a write to the index has completed.
+   *
+   * @param index String ES index name
+   */
+  public static void invalidate(String index) {
+    if (instance != null && index != null) {
+      instance.invalidateIndex(index);
+    }
+  }
+
+  /**
+   * This method will drop the cached results of an index, replacing them with no results.
+   *
+   * @param index String ES index name
+   */
+  void invalidateIndex(String index) {
+    long now = System.currentTimeMillis();
+    indices.compute(
+        index,
+        (i, results) ->
+            new IndexResults(maxSize, results == null ? now : Math.max(now, results.lastWrite)));
+  }
+
+  /**
+   * This method will return the key of a search within its index.
+   *
+   * @param searchDTO SearchDTO
+   * @param index String ES index name
+   * @return String key, or null if the search of this index is not to be cached
+   */
+  public String getKey(SearchDTO searchDTO, String index) {
+    if (getTtlMillis(index) <= 0) {
+      return null;
+    }
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256")
+              .digest(mapper.writeValueAsString(searchDTO).getBytes(StandardCharsets.UTF_8));
+      return new BigInteger(1, digest).toString(16);
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      ProjectLogger.log("SearchResultCache:getKey: search not cached " + e, LoggerEnum.INFO.name());
+      return null;
+    }
+  }
+
+  /**
+   * This method will return a copy of the cached result of a search.
+   *
+   * @param index String ES index name
+   * @param key String key of the search
+   * @return Map<String, Object> result, or null if not cached or expired
+   */
+  public Map<String, Object> get(String index, String key) {
+    IndexResults results = indices.get(index);
+    if (results == null) {
+      return null;
+    }
+    Entry entry;
+    synchronized (results) {
+      entry = results.get(key);
+      if (entry != null && entry.expiry <= System.currentTimeMillis()) {
+        results.remove(key);
+        entry = null;
+      }
+    }
+    return entry == null ? null : copy(entry.result);
+  }
+
+  /**
+   * This method will cache the result of a search, unless the index has been written since the
+   * search started.
+   *
+   * @param key String key of the search
+   * @param index String ES index name
+   * @param startTime long time at which the search was sent
+   * @param result Map<String, Object> result of the search
+   */
+  public void put(String key, String index, long startTime, Map<String, Object> result) {
+    Entry entry = new Entry(copy(result), System.currentTimeMillis() + getTtlMillis(index));
+    IndexResults results = indices.computeIfAbsent(index, i -> new IndexResults(maxSize, 0));
+    synchronized (results) {
+      if (results.lastWrite == 0 || startTime > results.lastWrite + refreshMillis) {
+        results.put(key, entry);
+      }
+    }
+  }
+
+  private int getTtlMillis(String index) {
+    return ttlMillis.computeIfAbsent(
+        index, i -> ElasticSearchHelper.getIntProperty(CACHE_TTL + "_" + i, defaultTtlMillis));
+  }
+
+  /**
+   * Deep copy of the maps and collections of a result, as callers may modify what they get. The
+   * order of maps and the type of sets are kept.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T copy(T value) {
+    if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+        copy.put(entry.getKey(), copy(entry.getValue()));
+      }
+      return (T) copy;
+    }
+    if (value instanceof Collection) {
+      Collection<Object> copy = value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+      for (Object element : (Collection<Object>) value) {
+        copy.add(copy(element));
+      }
+      return (T) copy;
+    }
+    return value;
+  }
+
+  /** Results of an index, in access order so that the eldest one is the least recently used. */
+  private static class IndexResults extends LinkedHashMap<String, Entry> {
+
+    private final int maxSize;
+    // time of the last write to the index, 0 if not written
+    private final long lastWrite;
+
+    IndexResults(int maxSize, long lastWrite) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+      this.lastWrite = lastWrite;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  private static class Entry {
+
+    private final Map<String, Object> result;
+    private final long expiry;
+
+    Entry(Map<String, Object> result, long expiry) {
+      this.result = result;
+      this.expiry = expiry;
+    }
+  }
+}
@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import org.apache.commons.lang3.StringUtils;
 import org.sunbird.common.ElasticSearchHelper;
 import org.sunbird.common.exception.ProjectCommonException;
@@ -71,6 +73,25 @@ public interface ElasticSearchService {
    */
   public Future<Map<String, Object>> search(SearchDTO searchDTO, String index);
 
+  /**
+   * Method to stream all the documents matching the SearchDTO page by page, without the offset
+   * limit of search, e.g. for exports or reindexing. The next page is requested only once the stage
+   * returned by the consumer for the previous page has completed, so a slow consumer slows down the
+   * iteration instead of pages being buffered. The consumer is called on a client thread and should
+   * hand long work off to its own executor. Offset, limit and facets of the SearchDTO are ignored.
+   *
+   * @param searchDTO SearchDTO
+   * @param index String
+   * @param pageSize Number of documents per page
+   * @param consumer Function consuming a page of documents, returning a stage completed once done
+   * @return CompletionStage of the number of documents streamed
+   */
+  public CompletionStage<Long> streamSearch(
+      SearchDTO searchDTO,
+      String index,
+      int pageSize,
+      Function<List<Map<String, Object>>, CompletionStage<?>> consumer);
+
   /**
    * This method will do the health check of elastic search.
    *
@@ -83,7 +104,7 @@ public interface ElasticSearchService {
    *
    * @param index String index name
    * @param dataList List<Map<String, Object>>
-   * @return boolean
+   * @return true if all the documents are indexed
    */
   public Future<Boolean> bulkInsert(String index, List<Map<String, Object>> dataList);
 
@@ -108,6 +129,114 @@ public interface ElasticSearchService {
   public Future<Map<String, Map<String, Object>>> getEsResultByListOfIds(
       List<String> organisationIds, List<String> fields, String index);
 
+  /**
+   * CompletionStage variant of save, to be composed without blocking. The stage fails with the
+   * error of the call.
+   *
+   * @param index String ES index name
+   * @param identifier ES column identifier as an String
+   * @param data Map<String,Object>
+   * @return CompletionStage of the identifier for created data
+   */
+  default CompletionStage<String> saveAsync(
+      String index, String identifier, Map<String, Object> data) {
+    return ElasticSearchHelper.toCompletionStage(save(index, identifier, data));
+  }
+
+  /**
+   * CompletionStage variant of update.
+   *
+   * @param index String
+   * @param identifier String
+   * @param data Map<String,Object>
+   * @return CompletionStage of boolean
+   */
+  default CompletionStage<Boolean> updateAsync(
+      String index, String identifier, Map<String, Object> data) {
+    return ElasticSearchHelper.toCompletionStage(update(index, identifier, data));
+  }
+
+  /**
+   * CompletionStage variant of getDataByIdentifier.
+   *
+   * @param index String
+   * @param identifier String
+   * @return CompletionStage of Map<String,Object>, empty if not found
+   */
+  default CompletionStage<Map<String, Object>> getDataByIdentifierAsync(
+      String index, String identifier) {
+    return ElasticSearchHelper.toCompletionStage(getDataByIdentifier(index, identifier));
+  }
+
+  /**
+   * CompletionStage variant of delete.
+   *
+   * @param index String
+   * @param identifier String
+   * @return CompletionStage of boolean, false if not found
+   */
+  default CompletionStage<Boolean> deleteAsync(String index, String identifier) {
+    return ElasticSearchHelper.toCompletionStage(delete(index, identifier));
+  }
+
+  /**
+   * CompletionStage variant of search.
+   *
+   * @param searchDTO SearchDTO
+   * @param index String
+   * @return CompletionStage of the search result
+   */
+  default CompletionStage<Map<String, Object>> searchAsync(SearchDTO searchDTO, String index) {
+    return ElasticSearchHelper.toCompletionStage(search(searchDTO, index));
+  }
+
+  /**
+   * CompletionStage variant of healthCheck.
+   *
+   * @return CompletionStage of boolean
+   */
+  default CompletionStage<Boolean> healthCheckAsync() {
+    return ElasticSearchHelper.toCompletionStage(healthCheck());
+  }
+
+  /**
+   * CompletionStage variant of bulkInsert.
+   *
+   * @param index String index name
+   * @param dataList List<Map<String, Object>>
+   * @return CompletionStage of boolean
+   */
+  default CompletionStage<Boolean> bulkInsertAsync(
+      String index, List<Map<String, Object>> dataList) {
+    return ElasticSearchHelper.toCompletionStage(bulkInsert(index, dataList));
+  }
+
+  /**
+   * CompletionStage variant of upsert.
+   *
+   * @param index String
+   * @param identifier String
+   * @param data Map<String,Object>
+   * @return CompletionStage of boolean
+   */
+  default CompletionStage<Boolean> upsertAsync(
+      String index, String identifier, Map<String, Object> data) {
+    return ElasticSearchHelper.toCompletionStage(upsert(index, identifier, data));
+  }
+
+  /**
+   * CompletionStage variant of getEsResultByListOfIds.
+   *
+   * @param ids List of ids of document
+   * @param fields List of fields which needs to captured
+   * @param index elastic search index in which search should be done
+   * @return CompletionStage of the map with id as key and the data from ES as value
+   */
+  default CompletionStage<Map<String, Map<String, Object>>> getEsResultByListOfIdsAsync(
+      List<String> ids, List<String> fields, String index) {
+    return ElasticSearchHelper.toCompletionStage(getEsResultByListOfIds(ids, fields, index));
+  }
+
   /**
    * Method to execute ES raw query with the limitation of size set to 0 Currently, This is a not a
    * tcp call.
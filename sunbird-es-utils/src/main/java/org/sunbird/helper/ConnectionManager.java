@@ -8,13 +8,20 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.Settings.Builder;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.transport.client.PreBuiltTransportClient;
+import org.sunbird.common.BulkIndexer;
+import org.sunbird.common.ElasticSearchHelper;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.models.util.LoggerEnum;
 import org.sunbird.common.models.util.ProjectLogger;
@@ -29,12 +36,19 @@ public class ConnectionManager {
 
   private static TransportClient client = null;
   private static RestHighLevelClient restClient = null;
+  private static Sniffer sniffer = null;
   private static List<String> host = new ArrayList<>();
   private static List<Integer> ports = new ArrayList<>();
   private static PropertiesCache propertiesCache = PropertiesCache.getInstance();
   private static String cluster = propertiesCache.getProperty("es.cluster.name");
   private static String hostName = propertiesCache.getProperty("es.host.name");
   private static String port = propertiesCache.getProperty("es.host.port");
+  private static final String REST_CONNECT_TIMEOUT = "sunbird_es_rest_connect_timeout_ms";
+  private static final String REST_SOCKET_TIMEOUT = "sunbird_es_rest_socket_timeout_ms";
+  private static final String REST_MAX_CONN_PER_ROUTE = "sunbird_es_rest_max_conn_per_route";
+  private static final String REST_MAX_CONN_TOTAL = "sunbird_es_rest_max_conn_total";
+  private static final String SNIFF_INTERVAL = "sunbird_es_sniff_interval_ms";
+  private static final String SNIFF_AFTER_FAILURE_DELAY = "sunbird_es_sniff_after_failure_delay_ms";
 
   static {
     System.setProperty("es.set.netty.runtime.available.processors", "false");
@@ -45,7 +59,10 @@ public class ConnectionManager {
 
   private ConnectionManager() {}
 
-  private static boolean initialiseRestClientConnection() {
+  private static synchronized boolean initialiseRestClientConnection() {
+    if (restClient != null) {
+      return true;
+    }
     boolean response = false;
     try {
       String cluster = System.getenv(JsonKey.SUNBIRD_ES_CLUSTER);
@@ -54,15 +71,12 @@ public class ConnectionManager {
       if (StringUtils.isBlank(hostName) || StringUtils.isBlank(port)) {
         return false;
       }
-      String[] splitedHost = hostName.split(",");
-      for (String val : splitedHost) {
-        host.add(val);
+      // the hosts of the transport client are not shared, to not add them twice
+      List<String> restHosts = new ArrayList<>();
+      for (String val : hostName.split(",")) {
+        restHosts.add(val);
       }
-      String[] splitedPort = port.split(",");
-      for (String val : splitedPort) {
-        ports.add(Integer.parseInt(val));
-      }
-      response = createRestClient(cluster, host);
+      response = createRestClient(cluster, restHosts);
       ProjectLogger.log(
           "ELASTIC SEARCH CONNECTION ESTABLISHED for restClient from EVN with Following Details cluster "
               + cluster
@@ -155,12 +169,71 @@ public class ConnectionManager {
     for (int i = 0; i < host.size(); i++) {
       httpHost[i] = new HttpHost(host.get(i), 9200);
     }
-    restClient = new RestHighLevelClient(RestClient.builder(httpHost));
+    int sniffInterval = ElasticSearchHelper.getIntProperty(SNIFF_INTERVAL, 0);
+    NodeFailureListener failureListener = new NodeFailureListener(sniffInterval > 0);
+    int socketTimeout = ElasticSearchHelper.getIntProperty(REST_SOCKET_TIMEOUT, 30000);
+    // dead nodes are left out by the client, and retried after a backoff growing up to 30 minutes
+    RestClientBuilder builder =
+        RestClient.builder(httpHost)
+            .setRequestConfigCallback(ConnectionManager::configureRequest)
+            .setHttpClientConfigCallback(ConnectionManager::configureHttpClient)
+            .setMaxRetryTimeoutMillis(socketTimeout)
+            .setFailureListener(failureListener);
+    restClient = new RestHighLevelClient(builder);
+    sniffer = createSniffer(restClient.getLowLevelClient(), failureListener, sniffInterval);
     ProjectLogger.log(
         "ConnectionManager:createRestClient client initialisation done. ", LoggerEnum.INFO.name());
     return true;
   }
 
+  /**
+   * This method will set the timeouts of the requests of the rest client.
+   *
+   * @param requestConfig RequestConfig.Builder
+   * @return RequestConfig.Builder
+   */
+  static RequestConfig.Builder configureRequest(RequestConfig.Builder requestConfig) {
+    return requestConfig
+        .setConnectTimeout(ElasticSearchHelper.getIntProperty(REST_CONNECT_TIMEOUT, 1000))
+        .setSocketTimeout(ElasticSearchHelper.getIntProperty(REST_SOCKET_TIMEOUT, 30000));
+  }
+
+  /**
+   * This method will set the size of the connection pool of the rest client.
+   *
+   * @param httpClient HttpAsyncClientBuilder
+   * @return HttpAsyncClientBuilder
+   */
+  static HttpAsyncClientBuilder configureHttpClient(HttpAsyncClientBuilder httpClient) {
+    return httpClient
+        .setMaxConnPerRoute(ElasticSearchHelper.getIntProperty(REST_MAX_CONN_PER_ROUTE, 10))
+        .setMaxConnTotal(ElasticSearchHelper.getIntProperty(REST_MAX_CONN_TOTAL, 30));
+  }
+
+  /**
+   * This method will create the sniffer refreshing the nodes of the rest client, if sniffing is
+   * enabled.
+   *
+   * @param client RestClient
+   * @param failureListener NodeFailureListener of the client, sniffing on node failure
+   * @param sniffInterval Interval between two sniffs, sniffing is disabled if not positive
+   * @return Sniffer, or null if sniffing is disabled
+   */
+  static Sniffer createSniffer(
+      RestClient client, NodeFailureListener failureListener, int sniffInterval) {
+    if (sniffInterval <= 0) {
+      return null;
+    }
+    Sniffer sniffer =
+        Sniffer.builder(client)
+            .setSniffIntervalMillis(sniffInterval)
+            .setSniffAfterFailureDelayMillis(
+                ElasticSearchHelper.getIntProperty(SNIFF_AFTER_FAILURE_DELAY, 60000))
+            .build();
+    failureListener.setSniffer(sniffer);
+    return sniffer;
+  }
+
   /**
    * This method will read configuration data form properties file and update the list.
    *
@@ -273,7 +346,12 @@ public class ConnectionManager {
     @Override
     public void run() {
       client.close();
+      // documents buffered for bulk indexing are sent before the rest client is closed
+      BulkIndexer.closeInstance();
       try {
+        if (sniffer != null) {
+          sniffer.close();
+        }
         restClient.close();
       } catch (IOException e) {
         e.printStackTrace();
@@ -285,6 +363,29 @@ public class ConnectionManager {
     }
   }
 
+  /**
+   * Failure listener of the rest client, logging the nodes found dead and refreshing the nodes of
+   * the cluster when sniffing is enabled.
+   */
+  static class NodeFailureListener extends SniffOnFailureListener {
+
+    private final boolean sniff;
+
+    NodeFailureListener(boolean sniff) {
+      this.sniff = sniff;
+    }
+
+    @Override
+    public void onFailure(HttpHost host) {
+      ProjectLogger.log(
+          "ConnectionManager:NodeFailureListener: elastic search node failed " + host,
+          LoggerEnum.WARN.name());
+      if (sniff) {
+        super.onFailure(host);
+      }
+    }
+  }
+
   /** Register the hook for resource clean up. this will be called when jvm shut down. */
   public static void registerShutDownHook() {
     Runtime runtime = Runtime.getRuntime();
@@ -0,0 +1,152 @@
+package org.sunbird.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+
+public class BulkIndexerTest {
+
+  private final List<BulkRequest> requests = new ArrayList<>();
+
+  @Test
+  public void testAddAllAwaitsDocumentsWithSameId() throws Exception {
+    BulkIndexer bulkIndexer =
+        new BulkIndexer(
+            (request, listener) -> {
+              requests.add(request);
+              listener.onResponse(respond(request, "2"));
+            });
+
+    CompletableFuture<Map<String, String>> result =
+        bulkIndexer
+            .addAll("user", Arrays.asList(document("1"), document("1"), document("2")))
+            .toCompletableFuture();
+    bulkIndexer.flush();
+
+    assertTrue(result.isDone());
+    Map<String, String> failures = result.get();
+    assertEquals(Collections.singleton("2"), failures.keySet());
+    assertTrue(failures.get("2").contains("failed 2"));
+    assertEquals(1, requests.size());
+    assertEquals(3, requests.get(0).numberOfActions());
+  }
+
+  @Test
+  public void testAddAllWithoutFlushWaitsForBulk() {
+    BulkIndexer bulkIndexer =
+        new BulkIndexer(
+            (request, listener) -> {
+              requests.add(request);
+              listener.onResponse(respond(request));
+            });
+
+    CompletableFuture<Map<String, String>> result =
+        bulkIndexer.addAll("user", Collections.singletonList(document("1"))).toCompletableFuture();
+
+    assertFalse(result.isDone());
+    assertTrue(requests.isEmpty());
+    bulkIndexer.flush();
+    assertEquals(Collections.emptyMap(), result.join());
+  }
+
+  @Test
+  public void testAddAllIsSentAfterFlushIntervalWithFailures() throws Exception {
+    BulkIndexer bulkIndexer =
+        new BulkIndexer(
+            (request, listener) -> {
+              requests.add(request);
+              listener.onResponse(respond(request, "1"));
+            });
+
+    Map<String, String> failures =
+        bulkIndexer
+            .addAll("user", Arrays.asList(document("1"), document("2")))
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+
+    assertEquals(Collections.singleton("1"), failures.keySet());
+    assertTrue(failures.get("1").contains("failed 1"));
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void testAddAllFailsWhenBulkFails() throws Exception {
+    RuntimeException failure = new RuntimeException("unavailable");
+    BulkIndexer bulkIndexer = new BulkIndexer((request, listener) -> listener.onFailure(failure));
+
+    CompletableFuture<Map<String, String>> result =
+        bulkIndexer
+            .addAll("user", Arrays.asList(document("1"), document("1")))
+            .toCompletableFuture();
+    bulkIndexer.flush();
+
+    assertTrue(result.isCompletedExceptionally());
+    try {
+      result.get();
+    } catch (ExecutionException e) {
+      assertSame(failure, e.getCause());
+      return;
+    }
+    fail();
+  }
+
+  private static Map<String, Object> document(String id) {
+    Map<String, Object> document = new HashMap<>();
+    document.put(JsonKey.ID, id);
+    return document;
+  }
+
+  private static BulkResponse respond(BulkRequest request, String... failedIds) {
+    List<String> failed = Arrays.asList(failedIds);
+    BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+    int i = 0;
+    for (DocWriteRequest<?> docRequest : request.requests()) {
+      if (failed.contains(docRequest.id())) {
+        items[i] =
+            new BulkItemResponse(
+                i,
+                DocWriteRequest.OpType.INDEX,
+                new BulkItemResponse.Failure(
+                    docRequest.index(),
+                    docRequest.type(),
+                    docRequest.id(),
+                    new IllegalArgumentException("failed " + docRequest.id())));
+      } else {
+        items[i] =
+            new BulkItemResponse(
+                i,
+                DocWriteRequest.OpType.INDEX,
+                new IndexResponse(
+                    new ShardId(docRequest.index(), "uuid", 0),
+                    docRequest.type(),
+                    docRequest.id(),
+                    1,
+                    1,
+                    1,
+                    true));
+      }
+      i++;
+    }
+    return new BulkResponse(items, 1);
+  }
+}
@@ -7,10 +7,14 @@ import static org.powermock.api.mockito.PowerMockito.doNothing;
 import static org.powermock.api.mockito.PowerMockito.mock;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteResponse;
 import org.elasticsearch.action.bulk.BulkItemResponse;
@@ -19,7 +23,10 @@ import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -46,6 +53,7 @@ import org.sunbird.common.inf.ElasticSearchService;
 import org.sunbird.common.models.util.HttpUtil;
 import org.sunbird.common.models.util.JsonKey;
 import org.sunbird.common.responsecode.ResponseCode;
+import org.sunbird.dto.SearchDTO;
 import org.sunbird.helper.ConnectionManager;
 import scala.concurrent.Future;
 
@@ -112,6 +120,26 @@ public class ElasticSearchRestHighImplTest {
     assertEquals(null, res);
   }
 
+  @Test
+  public void testSaveAsyncSuccess() {
+    mockRulesForSave(false);
+    CompletionStage<String> result = esService.saveAsync("test", "001", new HashMap<>());
+    String res = ElasticSearchHelper.getResponse(result, 1, TimeUnit.SECONDS);
+    assertEquals("001", res);
+  }
+
+  @Test
+  public void testSaveAsyncFailure() {
+    mockRulesForSave(true);
+    CompletionStage<String> result = esService.saveAsync("test", "001", new HashMap<>());
+    try {
+      ElasticSearchHelper.getResponse(result, 1, TimeUnit.SECONDS);
+      Assert.fail();
+    } catch (ProjectCommonException e) {
+      assertEquals(e.getResponseCode(), ResponseCode.SERVER_ERROR.getResponseCode());
+    }
+  }
+
   @Test
   public void testUpdateSuccess() {
     mockRulesForUpdate(false);
@@ -172,6 +200,17 @@ public class ElasticSearchRestHighImplTest {
     assertEquals(null, res);
   }
 
+  @Test
+  public void testGetEsResultByListOfIdsSuccess() {
+    mockRulesForMultiGet();
+    Future<Map<String, Map<String, Object>>> result =
+        esService.getEsResultByListOfIds(Arrays.asList("001", "002"), null, "test");
+    Map<String, Map<String, Object>> res =
+        (Map<String, Map<String, Object>>) ElasticSearchHelper.getResponseFromFuture(result);
+    assertEquals(1, res.size());
+    assertEquals("001", res.get("001").get(JsonKey.ID));
+  }
+
   @Test
   public void testDeleteSuccess() {
     mockRulesForDelete(false, false);
@@ -248,6 +287,24 @@ public class ElasticSearchRestHighImplTest {
     }
   }
 
+  @Test
+  public void testStreamSearchSuccess() {
+    mockRulesForSearch(2, 1);
+    List<Map<String, Object>> streamed = new ArrayList<>();
+    CompletionStage<Long> result =
+        esService.streamSearch(
+            new SearchDTO(),
+            "test",
+            2,
+            page -> {
+              streamed.addAll(page);
+              return CompletableFuture.completedFuture(null);
+            });
+    long count = ElasticSearchHelper.getResponse(result, 1, TimeUnit.SECONDS);
+    assertEquals(3, count);
+    assertEquals(3, streamed.size());
+  }
+
   @Test
   public void testBuilInsertSuccess() {
     mockRulesForBulk(false);
@@ -319,6 +376,66 @@ public class ElasticSearchRestHighImplTest {
     }
   }
 
+  private static void mockRulesForSearch(int... pageSizes) {
+    List<SearchResponse> responses = new ArrayList<>();
+    for (int pageSize : pageSizes) {
+      SearchHit[] hits = new SearchHit[pageSize];
+      for (int i = 0; i < pageSize; i++) {
+        hits[i] = mock(SearchHit.class);
+        when(hits[i].getSourceAsMap()).thenReturn(new HashMap<>());
+        when(hits[i].getSortValues()).thenReturn(new Object[] {"00" + i});
+      }
+      SearchHits searchHits = mock(SearchHits.class);
+      when(searchHits.getHits()).thenReturn(hits);
+      SearchResponse response = mock(SearchResponse.class);
+      when(response.getHits()).thenReturn(searchHits);
+      responses.add(response);
+    }
+    Iterator<SearchResponse> itr = responses.iterator();
+    doAnswer(
+            new Answer() {
+              @Override
+              public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((ActionListener<SearchResponse>) invocation.getArguments()[1])
+                    .onResponse(itr.next());
+                return null;
+              }
+            })
+        .when(client)
+        .searchAsync(Mockito.any(), Mockito.any());
+  }
+
+  private static void mockRulesForMultiGet() {
+    Map<String, Object> source = new HashMap<>();
+    source.put(JsonKey.ID, "001");
+    GetResponse found = mock(GetResponse.class);
+    when(found.isExists()).thenReturn(true);
+    when(found.getSourceAsMap()).thenReturn(source);
+    MultiGetItemResponse foundItem = mock(MultiGetItemResponse.class);
+    when(foundItem.getId()).thenReturn("001");
+    when(foundItem.getResponse()).thenReturn(found);
+
+    GetResponse notFound = mock(GetResponse.class);
+    when(notFound.isExists()).thenReturn(false);
+    MultiGetItemResponse notFoundItem = mock(MultiGetItemResponse.class);
+    when(notFoundItem.getId()).thenReturn("002");
+    when(notFoundItem.getResponse()).thenReturn(notFound);
+
+    MultiGetResponse response = mock(MultiGetResponse.class);
+    when(response.getResponses()).thenReturn(new MultiGetItemResponse[] {foundItem, notFoundItem});
+    doAnswer(
+            new Answer() {
+              @Override
+              public Object answer(InvocationOnMock invocation) throws Throwable {
+                ((ActionListener<MultiGetResponse>) invocation.getArguments()[1])
+                    .onResponse(response);
+                return null;
+              }
+            })
+        .when(client)
+        .multiGetAsync(Mockito.any(), Mockito.any());
+  }
+
   private static void mockRulesForSave(boolean fail) {
     IndexResponse ir = mock(IndexResponse.class);
     when(ir.getId()).thenReturn("001");
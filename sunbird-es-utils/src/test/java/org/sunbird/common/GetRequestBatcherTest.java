@@ -0,0 +1,123 @@
+package org.sunbird.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.index.get.GetResult;
+import org.junit.Test;
+
+public class GetRequestBatcherTest {
+
+  private final List<MultiGetRequest> requests = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void testLookupsWithinWindowAreSentTogether() throws Exception {
+    GetRequestBatcher batcher =
+        new GetRequestBatcher(
+            50,
+            100,
+            (request, listener) -> {
+              requests.add(request);
+              listener.onResponse(respond(request));
+            });
+
+    CompletableFuture<Map<String, Object>> user = batcher.get("user", "u1").toCompletableFuture();
+    CompletableFuture<Map<String, Object>> org = batcher.get("org", "o1").toCompletableFuture();
+    CompletableFuture<Map<String, Object>> missing =
+        batcher.get("user", "missing").toCompletableFuture();
+
+    assertEquals(Collections.singletonMap("id", "u1"), user.get(10, TimeUnit.SECONDS));
+    assertEquals(Collections.singletonMap("id", "o1"), org.get(10, TimeUnit.SECONDS));
+    assertEquals(Collections.emptyMap(), missing.get(10, TimeUnit.SECONDS));
+    assertEquals(1, requests.size());
+    assertEquals(3, requests.get(0).getItems().size());
+    assertEquals("org", requests.get(0).getItems().get(1).index());
+  }
+
+  @Test
+  public void testFullBatchIsSentWithoutWaitingForWindow() {
+    GetRequestBatcher batcher =
+        new GetRequestBatcher(
+            60000,
+            2,
+            (request, listener) -> {
+              requests.add(request);
+              listener.onResponse(respond(request));
+            });
+
+    CompletableFuture<Map<String, Object>> first = batcher.get("user", "u1").toCompletableFuture();
+    assertFalse(first.isDone());
+    CompletableFuture<Map<String, Object>> second = batcher.get("user", "u2").toCompletableFuture();
+
+    assertTrue(first.isDone());
+    assertEquals(Collections.singletonMap("id", "u2"), second.join());
+    assertEquals(1, requests.size());
+  }
+
+  @Test
+  public void testLookupsFailWhenSendingFails() throws Exception {
+    IllegalStateException failure = new IllegalStateException("client not initialised");
+    GetRequestBatcher batcher =
+        new GetRequestBatcher(
+            60000,
+            2,
+            (request, listener) -> {
+              throw failure;
+            });
+
+    CompletableFuture<Map<String, Object>> first = batcher.get("user", "u1").toCompletableFuture();
+    CompletableFuture<Map<String, Object>> second = batcher.get("user", "u2").toCompletableFuture();
+
+    assertFailed(failure, first);
+    assertFailed(failure, second);
+  }
+
+  private static void assertFailed(Exception failure, CompletableFuture<?> result)
+      throws InterruptedException {
+    assertTrue(result.isCompletedExceptionally());
+    try {
+      result.get();
+    } catch (ExecutionException e) {
+      assertSame(failure, e.getCause());
+      return;
+    }
+    fail();
+  }
+
+  private static MultiGetResponse respond(MultiGetRequest request) {
+    List<MultiGetRequest.Item> items = request.getItems();
+    MultiGetItemResponse[] responses = new MultiGetItemResponse[items.size()];
+    for (int i = 0; i < responses.length; i++) {
+      MultiGetRequest.Item item = items.get(i);
+      boolean exists = !"missing".equals(item.id());
+      responses[i] =
+          new MultiGetItemResponse(
+              new GetResponse(
+                  new GetResult(
+                      item.index(),
+                      item.type(),
+                      item.id(),
+                      1,
+                      exists,
+                      exists ? new BytesArray("{\"id\":\"" + item.id() + "\"}") : null,
+                      null)),
+              null);
+    }
+    return new MultiGetResponse(responses);
+  }
+}
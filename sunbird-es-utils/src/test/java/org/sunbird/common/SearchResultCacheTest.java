@@ -0,0 +1,129 @@
+package org.sunbird.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.sunbird.common.models.util.JsonKey;
+import org.sunbird.dto.SearchDTO;
+
+public class SearchResultCacheTest {
+
+  @Test
+  public void testKeyDoesNotDependOnFilterOrder() {
+    SearchResultCache cache = new SearchResultCache(10, 60000, 1000);
+    Map<String, Object> filters = new LinkedHashMap<>();
+    filters.put("firstName", "amit");
+    filters.put("rootOrgId", "org1");
+    Map<String, Object> reversedFilters = new LinkedHashMap<>();
+    reversedFilters.put("rootOrgId", "org1");
+    reversedFilters.put("firstName", "amit");
+
+    String key = cache.getKey(search(filters), "user");
+
+    assertNotNull(key);
+    assertEquals(key, cache.getKey(search(reversedFilters), "user"));
+    filters.put("firstName", "sunil");
+    assertNotEquals(key, cache.getKey(search(filters), "user"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testGetReturnsCopyKeepingContainerTypes() {
+    SearchResultCache cache = new SearchResultCache(10, 60000, 1000);
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("z", 1);
+    result.put("a", new LinkedHashSet<>(Arrays.asList("c", "b")));
+    result.put(JsonKey.CONTENT, new ArrayList<>(Arrays.asList("u1")));
+    cache.put("key", "user", System.currentTimeMillis(), result);
+
+    Map<String, Object> cached = cache.get("user", "key");
+    ((List<Object>) cached.get(JsonKey.CONTENT)).add("u2");
+
+    assertEquals(Arrays.asList("z", "a", JsonKey.CONTENT), new ArrayList<>(cached.keySet()));
+    assertTrue(cached.get("a") instanceof Set);
+    assertEquals(Arrays.asList("c", "b"), new ArrayList<>((Set<?>) cached.get("a")));
+    assertEquals(Arrays.asList("u1"), cache.get("user", "key").get(JsonKey.CONTENT));
+    assertNull(cache.get("org", "key"));
+  }
+
+  @Test
+  public void testResultsExpireAfterTtl() throws InterruptedException {
+    SearchResultCache cache = new SearchResultCache(10, 50, 1000);
+    cache.put("key", "user", System.currentTimeMillis(), result("u1"));
+
+    assertNotNull(cache.get("user", "key"));
+    Thread.sleep(100);
+    assertNull(cache.get("user", "key"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedResultIsEvicted() {
+    SearchResultCache cache = new SearchResultCache(2, 60000, 1000);
+    long startTime = System.currentTimeMillis();
+    cache.put("first", "user", startTime, result("u1"));
+    cache.put("second", "user", startTime, result("u2"));
+    cache.get("user", "first");
+    cache.put("third", "user", startTime, result("u3"));
+    // the size is per index
+    cache.put("fourth", "org", startTime, result("o1"));
+
+    assertNotNull(cache.get("user", "first"));
+    assertNull(cache.get("user", "second"));
+    assertNotNull(cache.get("user", "third"));
+    assertNotNull(cache.get("org", "fourth"));
+  }
+
+  @Test
+  public void testInvalidateDropsResultsOfIndexOnly() {
+    SearchResultCache cache = new SearchResultCache(10, 60000, 1000);
+    long startTime = System.currentTimeMillis();
+    cache.put("key", "user", startTime, result("u1"));
+    cache.put("key", "org", startTime, result("o1"));
+
+    cache.invalidateIndex("user");
+
+    assertNull(cache.get("user", "key"));
+    assertNotNull(cache.get("org", "key"));
+  }
+
+  @Test
+  public void testSearchStartedWithinRefreshWindowIsNotCached() {
+    SearchResultCache cache = new SearchResultCache(10, 60000, 1000);
+    cache.invalidateIndex("user");
+    long writeTime = System.currentTimeMillis();
+
+    cache.put("before", "user", writeTime - 10, result("u1"));
+    cache.put("within", "user", writeTime + 500, result("u1"));
+    cache.put("after", "user", writeTime + 2000, result("u1"));
+
+    assertNull(cache.get("user", "before"));
+    assertNull(cache.get("user", "within"));
+    assertNotNull(cache.get("user", "after"));
+  }
+
+  private static SearchDTO search(Map<String, Object> filters) {
+    SearchDTO searchDTO = new SearchDTO();
+    Map<String, Object> additionalProperties = new HashMap<>();
+    additionalProperties.put(JsonKey.FILTERS, filters);
+    searchDTO.setAdditionalProperties(additionalProperties);
+    return searchDTO;
+  }
+
+  private static Map<String, Object> result(String id) {
+    Map<String, Object> result = new HashMap<>();
+    result.put(JsonKey.CONTENT, Arrays.asList(id));
+    return result;
+  }
+}
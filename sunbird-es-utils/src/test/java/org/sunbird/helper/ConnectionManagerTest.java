@@ -1,9 +1,15 @@
 package org.sunbird.helper;
 
+import java.io.IOException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.get.GetRequestBuilder;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.sniff.Sniffer;
 import org.elasticsearch.client.transport.TransportClient;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.search.SearchHit;
@@ -18,6 +24,7 @@ import org.junit.runners.MethodSorters;
 import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
 import org.sunbird.common.models.util.HttpUtil;
 
 /**
@@ -78,6 +85,44 @@ public class ConnectionManagerTest {
 	  ConnectionManager.closeClient();
 	  Assert.assertTrue(true);
 	}
-	
-	
+
+	@Test
+	public void testConfigureRequestSetsTimeouts() {
+		RequestConfig requestConfig = ConnectionManager.configureRequest(RequestConfig.custom()).build();
+		Assert.assertEquals(1000, requestConfig.getConnectTimeout());
+		Assert.assertEquals(30000, requestConfig.getSocketTimeout());
+	}
+
+	@Test
+	public void testConfigureHttpClientSetsPoolSize() {
+		// the setters of the builder are final
+		HttpAsyncClientBuilder httpClient = ConnectionManager.configureHttpClient(HttpAsyncClientBuilder.create());
+		Assert.assertEquals(10, (int) Whitebox.getInternalState(httpClient, "maxConnPerRoute"));
+		Assert.assertEquals(30, (int) Whitebox.getInternalState(httpClient, "maxConnTotal"));
+	}
+
+	@Test
+	public void testCreateSnifferDisabledByDefault() throws IOException {
+		ConnectionManager.NodeFailureListener failureListener = new ConnectionManager.NodeFailureListener(false);
+		try (RestClient client = RestClient.builder(new HttpHost("localhost", 9200)).build()) {
+			Assert.assertNull(ConnectionManager.createSniffer(client, failureListener, 0));
+			// without sniffer a node failure is only logged
+			failureListener.onFailure(new HttpHost("localhost", 9200));
+		}
+	}
+
+	@Test
+	public void testCreateSnifferSniffsOnFailure() throws IOException {
+		ConnectionManager.NodeFailureListener failureListener = new ConnectionManager.NodeFailureListener(true);
+		try (RestClient client = RestClient.builder(new HttpHost("localhost", 9200)).build()) {
+			Sniffer sniffer = ConnectionManager.createSniffer(client, failureListener, 60000);
+			Assert.assertNotNull(sniffer);
+			try {
+				// fails if the sniffer is not set to the listener
+				failureListener.onFailure(new HttpHost("localhost", 9200));
+			} finally {
+				sniffer.close();
+			}
+		}
+	}
 }
@@ -2,6 +2,8 @@ package org.sunbird.common.models.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -12,6 +14,7 @@ import java.util.Properties;
 public class CassandraPropertyReader {
 
   private final Properties properties = new Properties();
+  private final Map<String, String> columns = new HashMap<>();
   private static final String file = "cassandratablecolumn.properties";
   private static CassandraPropertyReader cassandraPropertyReader = null;
 
@@ -23,6 +26,9 @@ public class CassandraPropertyReader {
     } catch (IOException e) {
       ProjectLogger.log("Error in properties cache", e);
     }
+    for (String column : properties.stringPropertyNames()) {
+      columns.put(properties.getProperty(column).trim(), column);
+    }
   }
 
   public static CassandraPropertyReader getInstance() {
@@ -45,4 +51,15 @@ public class CassandraPropertyReader {
   public String readProperty(String key) {
     return properties.getProperty(key) != null ? properties.getProperty(key) : key;
   }
+
+  /**
+   * Method to get the column name which is read as given property, the reverse of {@link
+   * #readProperty(String)}.
+   *
+   * @param property property name
+   * @return column name corresponding to given property if found else will return property itself.
+   */
+  public String getColumn(String property) {
+    return columns.containsKey(property) ? columns.get(property) : property;
+  }
 }